@@ -26,9 +26,29 @@ import jakarta.servlet.ServletException;
  */
 public abstract class AbstractFilter implements Filter {
 
+    /**
+     * The name of the init parameter for the number of bytes above which a buffered response body spills to a
+     * temporary file; must not be negative. The default is {@link SegmentedBuffer#NO_SPILL}.
+     *
+     * @see #newSegmentedBuffer()
+     */
+    public static final String INIT_PARAM_SPILL_THRESHOLD = "spill.threshold";
+
     @Override
     public void init(final FilterConfig filterConfig) throws ServletException {
         this.filterConfig = filterConfig;
+        spillThreshold = getInitParameterAsLong(
+                INIT_PARAM_SPILL_THRESHOLD, SegmentedBuffer.NO_SPILL);
+        if (spillThreshold < 0L) {
+            throw new ServletException(
+                    "illegal init parameter; " + INIT_PARAM_SPILL_THRESHOLD
+                    + ": " + spillThreshold);
+        }
+        try {
+            memoryBudget = MemoryBudget.of(filterConfig.getServletContext());
+        } catch (final IllegalArgumentException iae) {
+            throw new ServletException(iae.getMessage(), iae);
+        }
     }
 
     @Override
@@ -45,5 +65,47 @@ public abstract class AbstractFilter implements Filter {
         return filterConfig;
     }
 
+    /**
+     * Returns the value of specified init parameter parsed as a {@code long}.
+     *
+     * @param name         the name of the init parameter.
+     * @param defaultValue a value to return when the parameter is absent.
+     * @return the value of the init parameter; {@code defaultValue} if absent.
+     * @throws ServletException if the value is not a number.
+     */
+    protected long getInitParameterAsLong(final String name,
+                                          final long defaultValue)
+            throws ServletException {
+        final String value = filterConfig.getInitParameter(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (final NumberFormatException nfe) {
+            throw new ServletException(
+                    "illegal init parameter; " + name + ": " + value, nfe);
+        }
+    }
+
+    /**
+     * Creates a new buffer for buffering a response body. The buffer acquires its segments from the {@link
+     * BufferPools#getDefault() default pool}, reserves them from the {@link
+     * MemoryBudget#of(jakarta.servlet.ServletContext) memory budget} of the web application, resolved at {@link
+     * #init(FilterConfig) init}, and spills above the {@value #INIT_PARAM_SPILL_THRESHOLD}.
+     *
+     * @return a new buffer.
+     */
+    protected SegmentedBuffer newSegmentedBuffer() {
+        return new SegmentedBuffer(
+                BufferPools.getDefault(),
+                memoryBudget,
+                SegmentedBuffer.DEFAULT_SEGMENT_SIZE, spillThreshold);
+    }
+
     private transient FilterConfig filterConfig;
+
+    private transient long spillThreshold = SegmentedBuffer.NO_SPILL;
+
+    private transient MemoryBudget memoryBudget;
 }
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2026 Jin Kwon &lt;jinahya_at_gmail.com&gt;.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jinahya.servlet;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An executor which bounds the number of tasks in flight, running or waiting, and rejects, rather than queues, tasks
+ * beyond the bound with a {@link RejectedExecutionException}.
+ * <p>
+ * Tasks run either on a fixed pool of platform threads or, on runtimes which support them, on virtual threads created
+ * for each task.
+ *
+ * @author Jin Kwon &lt;jinahya_at_gmail.com&gt;
+ */
+public class BoundedExecutor implements Executor, AutoCloseable {
+
+    /**
+     * Creates a new instance which runs tasks on a fixed pool of daemon platform threads.
+     *
+     * @param name          a prefix for names of threads.
+     * @param threads       the number of threads.
+     * @param queueCapacity the maximum number of tasks waiting for a thread.
+     * @return a new instance.
+     */
+    public static BoundedExecutor ofPlatformThreads(final String name,
+                                                    final int threads,
+                                                    final int queueCapacity) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("threads(" + threads + ") <= 0");
+        }
+        if (queueCapacity < 0) {
+            throw new IllegalArgumentException(
+                    "queueCapacity(" + queueCapacity + ") < 0");
+        }
+        final AtomicInteger count = new AtomicInteger();
+        final ThreadFactory factory = r -> {
+            final Thread thread = new Thread(r, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return new BoundedExecutor(
+                Executors.newFixedThreadPool(threads, factory),
+                threads + queueCapacity);
+    }
+
+    /**
+     * Creates a new instance which runs each task on a new virtual thread.
+     *
+     * @param maxConcurrency the maximum number of tasks running at once.
+     * @return a new instance.
+     * @throws UnsupportedOperationException if the runtime doesn't support virtual threads.
+     */
+    public static BoundedExecutor ofVirtualThreads(final int maxConcurrency) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException(
+                    "maxConcurrency(" + maxConcurrency + ") <= 0");
+        }
+        final ExecutorService delegate;
+        try {
+            delegate = (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (final NoSuchMethodException | IllegalAccessException
+                       | InvocationTargetException e) {
+            throw new UnsupportedOperationException(
+                    "virtual threads are not supported", e);
+        }
+        return new BoundedExecutor(delegate, maxConcurrency);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param delegate the executor service on which tasks run.
+     * @param bound    the maximum number of tasks in flight.
+     */
+    public BoundedExecutor(final ExecutorService delegate, final int bound) {
+        super();
+        if (delegate == null) {
+            throw new NullPointerException("null delegate");
+        }
+        if (bound <= 0) {
+            throw new IllegalArgumentException("bound(" + bound + ") <= 0");
+        }
+        this.delegate = delegate;
+        this.bound = bound;
+        permits = new Semaphore(bound);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @param command {@inheritDoc}
+     * @throws RejectedExecutionException if there are already as many tasks in flight as the bound, or this executor
+     *                                    is closed.
+     */
+    @Override
+    public void execute(final Runnable command) {
+        if (command == null) {
+            throw new NullPointerException("null command");
+        }
+        if (!permits.tryAcquire()) {
+            rejections.increment();
+            throw new RejectedExecutionException(
+                    "too many tasks in flight: " + bound);
+        }
+        try {
+            delegate.execute(() -> {
+                try {
+                    command.run();
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (final RejectedExecutionException ree) {
+            permits.release();
+            rejections.increment();
+            throw ree;
+        }
+    }
+
+    /**
+     * Returns the number of tasks in flight.
+     *
+     * @return the number of tasks running or waiting.
+     */
+    public int getInFlight() {
+        return bound - permits.availablePermits();
+    }
+
+    /**
+     * Returns the number of rejected tasks.
+     *
+     * @return the number of rejections.
+     */
+    public long getRejections() {
+        return rejections.sum();
+    }
+
+    /**
+     * Shuts down the underlying executor service. Tasks already accepted are still run.
+     */
+    @Override
+    public void close() {
+        delegate.shutdown();
+    }
+
+    private final ExecutorService delegate;
+
+    private final int bound;
+
+    private final Semaphore permits;
+
+    private final LongAdder rejections = new LongAdder();
+}
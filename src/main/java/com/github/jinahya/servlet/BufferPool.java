@@ -0,0 +1,67 @@
+/*
+ * Copyright 2026 Jin Kwon &lt;jinahya_at_gmail.com&gt;.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jinahya.servlet;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A service provider interface for pools of byte buffers used for buffering response bodies.
+ * <p>
+ * Implementations must be safe for concurrent use and should not rely on thread confinement, such as {@link
+ * ThreadLocal} caches, nor block while holding monitors, so that they work with virtual threads. An implementation can
+ * be plugged in with the {@link java.util.ServiceLoader} mechanism; see {@link BufferPools#getDefault()}.
+ *
+ * @author Jin Kwon &lt;jinahya_at_gmail.com&gt;
+ */
+public interface BufferPool {
+
+    /**
+     * Acquires a buffer whose capacity is equal to or greater than specified value. The returned buffer is cleared.
+     *
+     * @param capacity the minimum capacity of the buffer.
+     * @return a buffer.
+     */
+    ByteBuffer acquire(int capacity);
+
+    /**
+     * Returns specified buffer, previously {@link #acquire(int) acquired}, to this pool. The caller must not use the
+     * buffer, nor any of its views, after this method is invoked.
+     *
+     * @param buffer the buffer to return.
+     */
+    void release(ByteBuffer buffer);
+
+    /**
+     * Returns the number of acquisitions served by a pooled buffer.
+     *
+     * @return the number of hits.
+     */
+    long getHits();
+
+    /**
+     * Returns the number of acquisitions served by a newly allocated buffer.
+     *
+     * @return the number of misses.
+     */
+    long getMisses();
+
+    /**
+     * Returns the number of buffers acquired and not yet released.
+     *
+     * @return the number of outstanding buffers.
+     */
+    long getOutstanding();
+}
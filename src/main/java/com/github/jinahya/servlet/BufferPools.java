@@ -0,0 +1,58 @@
+/*
+ * Copyright 2026 Jin Kwon &lt;jinahya_at_gmail.com&gt;.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jinahya.servlet;
+
+import java.util.ServiceLoader;
+
+/**
+ * Utilities for {@link BufferPool}.
+ *
+ * @author Jin Kwon &lt;jinahya_at_gmail.com&gt;
+ */
+public final class BufferPools {
+
+    /**
+     * A lazy holder of the default pool.
+     */
+    private static final class DefaultHolder {
+
+        private static final BufferPool INSTANCE
+                = ServiceLoader.load(BufferPool.class)
+                .findFirst()
+                .orElseGet(StripedBufferPool::new);
+
+        private DefaultHolder() {
+            super();
+        }
+    }
+
+    /**
+     * Returns the default buffer pool. The default pool is the first provider of {@link BufferPool} found by {@link
+     * ServiceLoader}, or an instance of {@link StripedBufferPool} with default settings when none is found.
+     *
+     * @return the default buffer pool.
+     */
+    public static BufferPool getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    /**
+     * Creates a new instance.
+     */
+    private BufferPools() {
+        super();
+    }
+}
@@ -18,27 +18,61 @@ package com.github.jinahya.servlet;
 import jakarta.servlet.ServletOutputStream;
 import jakarta.servlet.WriteListener;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Buffered implementation of ServletOutputStream.
+ * <p>
+ * For asynchronous processing, an instance can be {@link #drainOnClose(ServletOutputStream, DrainListener) told} to
+ * drain its buffered bytes to an actual output stream, once closed, following the {@link WriteListener} and {@link
+ * ServletOutputStream#isReady()} handshake of the container.
  *
  * @author Jin Kwon &lt;jinahya_at_gmail.com&gt;
  */
 public class BufferedServletOutputStream extends ServletOutputStream {
 
+    /**
+     * The maximum number of bytes written to a target at once.
+     */
+    private static final int CHUNK_SIZE = SegmentedBuffer.DEFAULT_SEGMENT_SIZE;
+
     /**
      * Creates a new instance.
      */
     public BufferedServletOutputStream() {
+        this(new SegmentedBuffer());
+    }
+
+    /**
+     * Creates a new instance buffers bytes into specified buffer.
+     *
+     * @param buffer the buffer into which bytes are written.
+     */
+    public BufferedServletOutputStream(final SegmentedBuffer buffer) {
         super();
-        outputStream = new ByteArrayOutputStream();
+        if (buffer == null) {
+            throw new NullPointerException("null buffer");
+        }
+        this.buffer = buffer;
+        lock = new ReentrantLock();
     }
 
+    /**
+     * {@inheritDoc} The {@code isReady()} method of {@code BufferedServletOutputStream} returns {@code true} unless
+     * this stream is closed.
+     *
+     * @return {@inheritDoc}
+     */
     @Override
     public boolean isReady() {
-        return true;
+        return !closed;
     }
 
     @Override
@@ -50,35 +84,359 @@ public class BufferedServletOutputStream extends ServletOutputStream {
             throw new IllegalStateException("writeListener alread set");
         }
         this.writeListener = writeListener;
-        try {
-            this.writeListener.onWritePossible();
-        } catch (final IOException ioe) {
-            throw new RuntimeException(ioe);
+        if (drainer != null) {
+            drainWithCaution();
+            return;
         }
+        notifyWritePossible();
     }
 
     @Override
     public void write(final int b) throws IOException {
-        outputStream.write(b);
+        ensureOpen();
+        buffer.write(b);
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len)
+            throws IOException {
+        ensureOpen();
+        buffer.write(b, off, len);
+    }
+
+    /**
+     * Writes all remaining bytes of specified buffer.
+     *
+     * @param src the buffer whose remaining bytes are written.
+     * @throws IOException if an I/O error occurs.
+     */
+    public void write(final ByteBuffer src) throws IOException {
+        ensureOpen();
+        buffer.write(src);
+    }
+
+    /**
+     * Writes leading characters of specified range, while each of them is less than specified limit, as single bytes.
+     *
+     * @param cbuf  the array of characters.
+     * @param off   the starting index of {@code cbuf}.
+     * @param len   the number of characters in the range.
+     * @param limit the exclusive upper bound of characters written as single bytes.
+     * @return the number of characters written.
+     * @throws IOException if an I/O error occurs.
+     * @see SegmentedBuffer#write(char[], int, int, char)
+     */
+    public int write(final char[] cbuf, final int off, final int len,
+                     final char limit)
+            throws IOException {
+        ensureOpen();
+        return buffer.write(cbuf, off, len, limit);
+    }
+
+    /**
+     * Encodes remaining characters of specified buffer with specified encoder. A trailing high surrogate, whose pair
+     * is yet to come, is left in the {@code src}.
+     *
+     * @param src     the buffer of characters to encode.
+     * @param encoder the encoder.
+     * @throws IOException if an I/O error occurs.
+     * @see SegmentedBuffer#write(CharBuffer, CharsetEncoder)
+     */
+    public void write(final CharBuffer src, final CharsetEncoder encoder)
+            throws IOException {
+        ensureOpen();
+        buffer.write(src, encoder);
+    }
+
+    /**
+     * {@inheritDoc} The {@code close()} method of {@code BufferedServletOutputStream} starts draining if {@link
+     * #drainOnClose(ServletOutputStream, DrainListener)} has been invoked.
+     *
+     * @throws IOException {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        } finally {
+            lock.unlock();
+        }
+        if (drainer != null) {
+            drainWithCaution();
+        }
     }
 
     /**
-     * Resets the underlying {@code ByteArrayOutputStream}.
+     * Arranges buffered bytes to be written to specified target when this stream is {@link #close() closed}. The
+     * bytes are written only while {@code target.isReady()} returns {@code true}, and the rest are written whenever
+     * the container notifies that writing is possible again. A {@link WriteListener} set on this stream after this
+     * method is notified from the container's callback on the {@code target}.
+     * <p>
+     * The request associated with the {@code target} must be in asynchronous mode.
+     *
+     * @param target   the actual output stream to which buffered bytes are written.
+     * @param listener a listener notified when all bytes are written or an error occurs.
+     * @throws IOException if an I/O error occurs.
+     * @see ServletOutputStream#setWriteListener(WriteListener)
+     */
+    public void drainOnClose(final ServletOutputStream target,
+                             final DrainListener listener)
+            throws IOException {
+        if (target == null) {
+            throw new NullPointerException("null target");
+        }
+        if (listener == null) {
+            throw new NullPointerException("null listener");
+        }
+        if (drainer != null) {
+            throw new IllegalStateException("already draining");
+        }
+        drainer = new Drainer(target, listener);
+        target.setWriteListener(drainer);
+    }
+
+    /**
+     * Closes this stream and writes buffered bytes to specified target in non-blocking manner.
+     *
+     * @param target   the actual output stream to which buffered bytes are written.
+     * @param listener a listener notified when all bytes are written or an error occurs.
+     * @throws IOException if an I/O error occurs.
+     * @see #drainOnClose(ServletOutputStream, DrainListener)
+     */
+    public void drainTo(final ServletOutputStream target,
+                        final DrainListener listener)
+            throws IOException {
+        drainOnClose(target, listener);
+        close();
+    }
+
+    /**
+     * Resets the underlying buffer.
      */
     public final void reset() {
-        outputStream.reset();
+        buffer.reset();
     }
 
     /**
-     * Returns buffered bytes.
+     * Returns a copy of buffered bytes. Prefer {@link #inputStream()}, {@link #byteBuffers()}, or {@link
+     * #writeTo(OutputStream)} which don't copy.
      *
      * @return buffered bytes
+     * @throws IOException if an I/O error occurs.
+     */
+    public final byte[] bytes() throws IOException {
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Returns the number of buffered bytes.
+     *
+     * @return the number of buffered bytes.
+     */
+    public final long size() {
+        return buffer.size();
+    }
+
+    /**
+     * Returns an input stream reads buffered bytes without copying.
+     *
+     * @return an input stream of buffered bytes.
+     * @throws IOException if an I/O error occurs.
+     * @see SegmentedBuffer#toInputStream()
+     */
+    public final InputStream inputStream() throws IOException {
+        return buffer.toInputStream();
+    }
+
+    /**
+     * Returns read-only views of buffered bytes without copying.
+     *
+     * @return an array of read-only buffers.
+     * @throws IOException if an I/O error occurs.
+     * @see SegmentedBuffer#toByteBuffers()
+     */
+    public final ByteBuffer[] byteBuffers() throws IOException {
+        return buffer.toByteBuffers();
+    }
+
+    /**
+     * Writes buffered bytes to specified output stream.
+     *
+     * @param out the output stream to which buffered bytes are written.
+     * @return the number of bytes written.
+     * @throws IOException if an I/O error occurs.
+     */
+    public final long writeTo(final OutputStream out) throws IOException {
+        return buffer.writeTo(out);
+    }
+
+    /**
+     * Completes the digest of buffered bytes.
+     *
+     * @return the digest value.
+     * @throws IllegalStateException if the underlying buffer computes no digest.
+     * @see SegmentedBuffer#digest()
+     */
+    public final byte[] digest() {
+        return buffer.digest();
+    }
+
+    /**
+     * Releases resources held by the underlying buffer, including its temporary file, if any.
+     */
+    public final void release() {
+        buffer.close();
+    }
+
+    /**
+     * Invokes {@link Drainer#onWritePossible()} out of the container's callback and delivers an {@code IOException},
+     * if any, to {@link Drainer#onError(Throwable)}.
+     */
+    private void drainWithCaution() {
+        try {
+            drainer.onWritePossible();
+        } catch (final IOException ioe) {
+            drainer.onError(ioe);
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed && drainer != null) {
+            throw new IOException("closed");
+        }
+    }
+
+    /**
+     * Notifies current write listener that writing is possible. An {@code IOException} thrown by the listener is
+     * delivered to its {@link WriteListener#onError(Throwable)}.
      */
-    public final byte[] bytes() {
-        return outputStream.toByteArray();
+    private void notifyWritePossible() {
+        try {
+            writeListener.onWritePossible();
+        } catch (final IOException ioe) {
+            writeListener.onError(ioe);
+        }
     }
 
-    private final ByteArrayOutputStream outputStream;
+    /**
+     * A write listener, set on an actual output stream, which drains buffered bytes.
+     */
+    private final class Drainer implements WriteListener {
+
+        private Drainer(final ServletOutputStream target,
+                        final DrainListener listener) {
+            super();
+            this.target = target;
+            this.listener = listener;
+        }
+
+        @Override
+        public void onWritePossible() throws IOException {
+            lock.lock();
+            try {
+                if (done) {
+                    return;
+                }
+                if (!closed && writeListener != null && !notified) {
+                    notified = true;
+                    notifyWritePossible();
+                }
+                if (done) {
+                    return; // drained by close() from the listener
+                }
+                if (!closed) {
+                    return; // close() drains
+                }
+                if (buffers == null) {
+                    buffers = buffer.views();
+                }
+                while (target.isReady()) {
+                    while (index < buffers.length
+                           && !buffers[index].hasRemaining()) {
+                        index++;
+                    }
+                    if (index == buffers.length) {
+                        done = true;
+                        listener.onAllDataWritten();
+                        return;
+                    }
+                    write(buffers[index]);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void onError(final Throwable t) {
+            lock.lock();
+            try {
+                if (done) {
+                    return;
+                }
+                done = true;
+            } finally {
+                lock.unlock();
+            }
+            listener.onError(t);
+            if (writeListener != null) {
+                writeListener.onError(t);
+            }
+        }
+
+        /**
+         * Writes a chunk of specified buffer to the target. A heap buffer is written from its backing array; a direct
+         * or mapped buffer is copied through a scratch array, because a {@link ServletOutputStream} only accepts
+         * arrays.
+         *
+         * @param buffer the buffer whose bytes are written.
+         * @throws IOException if an I/O error occurs.
+         */
+        private void write(final ByteBuffer buffer) throws IOException {
+            final int length = Math.min(buffer.remaining(), CHUNK_SIZE);
+            if (buffer.hasArray()) {
+                target.write(buffer.array(),
+                             buffer.arrayOffset() + buffer.position(),
+                             length);
+                buffer.position(buffer.position() + length);
+                return;
+            }
+            if (scratch == null) {
+                scratch = new byte[CHUNK_SIZE];
+            }
+            buffer.get(scratch, 0, length);
+            target.write(scratch, 0, length);
+        }
+
+        private final ServletOutputStream target;
+
+        private final DrainListener listener;
+
+        private ByteBuffer[] buffers;
+
+        private int index;
+
+        private byte[] scratch;
+
+        private boolean notified;
+
+        private boolean done;
+    }
+
+    private final SegmentedBuffer buffer;
+
+    /**
+     * A lock guards the state of draining.
+     */
+    private final Lock lock;
 
     private WriteListener writeListener;
+
+    private volatile boolean closed;
+
+    private volatile Drainer drainer;
 }
@@ -19,8 +19,12 @@ import jakarta.servlet.ServletOutputStream;
 import jakarta.servlet.ServletResponse;
 import jakarta.servlet.ServletResponseWrapper;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.PrintWriter;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
 
 /**
  * @author Jin Kwon &lt;jinahya_at_gmail.com&gt;
@@ -33,8 +37,19 @@ public class BufferedServletResponseWrapper extends ServletResponseWrapper {
      * @param response response
      */
     public BufferedServletResponseWrapper(final ServletResponse response) {
+        this(response, new SegmentedBuffer());
+    }
+
+    /**
+     * Creates a new instance buffers into specified buffer.
+     *
+     * @param response response
+     * @param buffer   the buffer into which the response body is written.
+     */
+    public BufferedServletResponseWrapper(final ServletResponse response,
+                                          final SegmentedBuffer buffer) {
         super(response);
-        outputStream = new BufferedServletOutputStream();
+        outputStream = new BufferedServletOutputStream(buffer);
     }
 
     @Override
@@ -53,8 +68,16 @@ public class BufferedServletResponseWrapper extends ServletResponseWrapper {
     @Override
     public final PrintWriter getWriter() throws IOException {
         if (writer == null) {
-            writer = new PrintWriter(new OutputStreamWriter(
-                    getOutputStream(), getResponse().getCharacterEncoding()));
+            final String encoding = getResponse().getCharacterEncoding();
+            final Charset charset;
+            try {
+                charset = Charset.forName(encoding);
+            } catch (final IllegalArgumentException iae) {
+                throw (IOException) new UnsupportedEncodingException(encoding)
+                        .initCause(iae);
+            }
+            segmentedWriter = new SegmentedWriter(outputStream, charset);
+            writer = new UnsynchronizedPrintWriter(segmentedWriter);
         }
         return writer;
     }
@@ -70,14 +93,109 @@ public class BufferedServletResponseWrapper extends ServletResponseWrapper {
     }
 
     /**
-     * Returns buffered bytes.
+     * Returns a copy of buffered bytes.
      *
      * @return buffered bytes
+     * @throws IOException if an I/O error occurs.
+     * @see #inputStream()
+     * @see #byteBuffers()
+     * @see #writeTo(OutputStream)
      */
-    public final byte[] bytes() {
+    public final byte[] bytes() throws IOException {
+        flushWriter();
         return outputStream.bytes();
     }
 
+    /**
+     * Returns the number of buffered bytes.
+     *
+     * @return the number of buffered bytes.
+     */
+    public final long size() {
+        flushWriter();
+        return outputStream.size();
+    }
+
+    /**
+     * Returns an input stream reads buffered bytes without copying them.
+     *
+     * @return an input stream of buffered bytes.
+     * @throws IOException if an I/O error occurs.
+     */
+    public final InputStream inputStream() throws IOException {
+        flushWriter();
+        return outputStream.inputStream();
+    }
+
+    /**
+     * Returns read-only views of buffered bytes without copying them.
+     *
+     * @return an array of read-only buffers.
+     * @throws IOException if an I/O error occurs.
+     */
+    public final ByteBuffer[] byteBuffers() throws IOException {
+        flushWriter();
+        return outputStream.byteBuffers();
+    }
+
+    /**
+     * Writes buffered bytes to specified output stream.
+     *
+     * @param out the output stream to which buffered bytes are written.
+     * @return the number of bytes written.
+     * @throws IOException if an I/O error occurs.
+     */
+    public final long writeTo(final OutputStream out) throws IOException {
+        flushWriter();
+        return outputStream.writeTo(out);
+    }
+
+    /**
+     * Arranges buffered bytes to be written, in non-blocking manner, to the wrapped response when the output stream of
+     * this wrapper is closed. The request must be in asynchronous mode.
+     *
+     * @param listener a listener notified when all bytes are written or an error occurs.
+     * @throws IOException if an I/O error occurs.
+     * @see BufferedServletOutputStream#drainOnClose(ServletOutputStream, DrainListener)
+     */
+    public final void drainOnClose(final DrainListener listener)
+            throws IOException {
+        outputStream.drainOnClose(getResponse().getOutputStream(), listener);
+    }
+
+    /**
+     * Writes buffered bytes, in non-blocking manner, to the wrapped response. The request must be in asynchronous
+     * mode.
+     *
+     * @param listener a listener notified when all bytes are written or an error occurs.
+     * @throws IOException if an I/O error occurs.
+     * @see BufferedServletOutputStream#drainTo(ServletOutputStream, DrainListener)
+     */
+    public final void drain(final DrainListener listener) throws IOException {
+        flushWriter();
+        outputStream.drainTo(getResponse().getOutputStream(), listener);
+    }
+
+    /**
+     * Releases resources held for buffering, including a temporary file to which the body has spilled, if any. This
+     * method should be invoked when the buffered body is no longer needed.
+     */
+    public final void release() {
+        if (segmentedWriter != null) {
+            segmentedWriter.release();
+        }
+        outputStream.release();
+    }
+
+    /**
+     * Flushes the writer, if any, so that its pending characters are buffered.
+     */
+    private void flushWriter() {
+        if (writer != null) {
+            writer.flush();
+        }
+    }
+
     /**
      * output stream.
      */
@@ -87,4 +205,9 @@ public class BufferedServletResponseWrapper extends ServletResponseWrapper {
      * writer.
      */
     private PrintWriter writer;
+
+    /**
+     * The writer wrapped by {@link #writer}.
+     */
+    private SegmentedWriter segmentedWriter;
 }
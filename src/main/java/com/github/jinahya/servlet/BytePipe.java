@@ -0,0 +1,244 @@
+/*
+ * Copyright 2026 Jin Kwon &lt;jinahya_at_gmail.com&gt;.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jinahya.servlet;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A bounded pipe of bytes from a producing thread to a consuming thread.
+ * <p>
+ * Unlike {@link java.io.PipedInputStream}, a pipe doesn't depend on liveness of the threads at either end, hence it
+ * may be used with pooled threads. A writer blocks while the pipe is full and a reader blocks while it's empty; both
+ * wait on {@link Condition}s of a {@link ReentrantLock}, so that virtual threads are not pinned. Closing the input
+ * stream makes further writes fail, and {@link #abort(IOException) aborting} makes both ends fail.
+ *
+ * @author Jin Kwon &lt;jinahya_at_gmail.com&gt;
+ */
+public class BytePipe {
+
+    /**
+     * Creates a new instance.
+     *
+     * @param capacity the maximum number of bytes held in the pipe.
+     */
+    public BytePipe(final int capacity) {
+        super();
+        if (capacity <= 0) {
+            throw new IllegalArgumentException(
+                    "capacity(" + capacity + ") <= 0");
+        }
+        ring = new byte[capacity];
+    }
+
+    /**
+     * Returns the input stream of this pipe. Reading blocks while the pipe is empty and returns {@code -1} once the
+     * output stream is closed and all bytes are read.
+     *
+     * @return the input stream.
+     */
+    public InputStream getInputStream() {
+        return input;
+    }
+
+    /**
+     * Returns the output stream of this pipe. Writing blocks while the pipe is full.
+     *
+     * @return the output stream.
+     */
+    public OutputStream getOutputStream() {
+        return output;
+    }
+
+    /**
+     * Aborts this pipe. Blocked and further reads and writes fail with specified cause.
+     *
+     * @param cause the cause of the abortion.
+     */
+    public void abort(final IOException cause) {
+        lock.lock();
+        try {
+            if (failure == null) {
+                failure = cause;
+            }
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int read(final byte[] b, final int off, final int len)
+            throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        lock.lock();
+        try {
+            while (count == 0) {
+                if (failure != null) {
+                    throw new IOException(failure);
+                }
+                if (writeClosed) {
+                    return -1;
+                }
+                await(notEmpty);
+            }
+            if (failure != null) {
+                throw new IOException(failure);
+            }
+            final int n = Math.min(len, count);
+            final int first = Math.min(n, ring.length - head);
+            System.arraycopy(ring, head, b, off, first);
+            System.arraycopy(ring, 0, b, off + first, n - first);
+            head = (head + n) % ring.length;
+            count -= n;
+            notFull.signalAll();
+            return n;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void write(final byte[] b, int off, int len) throws IOException {
+        lock.lock();
+        try {
+            while (len > 0) {
+                while (count == ring.length && failure == null && !readClosed) {
+                    await(notFull);
+                }
+                if (failure != null) {
+                    throw new IOException(failure);
+                }
+                if (readClosed) {
+                    throw new IOException("pipe closed by reader");
+                }
+                if (writeClosed) {
+                    throw new IOException("closed");
+                }
+                final int tail = (head + count) % ring.length;
+                final int n = Math.min(len, Math.min(ring.length - count, ring.length - tail));
+                System.arraycopy(b, off, ring, tail, n);
+                count += n;
+                off += n;
+                len -= n;
+                notEmpty.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void await(final Condition condition)
+            throws InterruptedIOException {
+        try {
+            condition.await();
+        } catch (final InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while waiting");
+        }
+    }
+
+    private final byte[] ring;
+
+    private final Lock lock = new ReentrantLock();
+
+    private final Condition notEmpty = lock.newCondition();
+
+    private final Condition notFull = lock.newCondition();
+
+    private int head;
+
+    private int count;
+
+    private boolean writeClosed;
+
+    private boolean readClosed;
+
+    private IOException failure;
+
+    private final InputStream input = new InputStream() {
+
+        @Override
+        public int read() throws IOException {
+            final byte[] b = new byte[1];
+            return BytePipe.this.read(b, 0, 1) == -1 ? -1 : b[0] & 0xff;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len)
+                throws IOException {
+            if (off < 0 || len < 0 || len > b.length - off) {
+                throw new IndexOutOfBoundsException();
+            }
+            return BytePipe.this.read(b, off, len);
+        }
+
+        @Override
+        public int available() {
+            lock.lock();
+            try {
+                return count;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void close() {
+            lock.lock();
+            try {
+                readClosed = true;
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    };
+
+    private final OutputStream output = new OutputStream() {
+
+        @Override
+        public void write(final int b) throws IOException {
+            BytePipe.this.write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len)
+                throws IOException {
+            if (off < 0 || len < 0 || len > b.length - off) {
+                throw new IndexOutOfBoundsException();
+            }
+            BytePipe.this.write(b, off, len);
+        }
+
+        @Override
+        public void close() {
+            lock.lock();
+            try {
+                writeClosed = true;
+                notEmpty.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    };
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2026 Jin Kwon &lt;jinahya_at_gmail.com&gt;.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jinahya.servlet;
+
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A process-wide pool of {@link CharsetEncoder}s for each charset.
+ * <p>
+ * Encoders are shared through lock-free queues rather than thread-locals, so that short-lived virtual threads can
+ * reuse them, too. Encoders replace malformed input and unmappable characters, as {@link java.io.OutputStreamWriter}
+ * does.
+ *
+ * @author Jin Kwon &lt;jinahya_at_gmail.com&gt;
+ */
+final class CharsetEncoders {
+
+    /**
+     * The maximum number of idle encoders kept for each charset.
+     */
+    private static final int MAX_IDLE = 256;
+
+    private static final class Idle {
+
+        private final Queue<CharsetEncoder> encoders
+                = new ConcurrentLinkedQueue<>();
+
+        private final AtomicInteger count = new AtomicInteger();
+    }
+
+    private static final ConcurrentMap<Charset, Idle> IDLES
+            = new ConcurrentHashMap<>();
+
+    /**
+     * Acquires an encoder of specified charset.
+     *
+     * @param charset the charset.
+     * @return an encoder ready to use.
+     */
+    static CharsetEncoder acquire(final Charset charset) {
+        final Idle idle = IDLES.get(charset);
+        if (idle != null) {
+            final CharsetEncoder encoder = idle.encoders.poll();
+            if (encoder != null) {
+                idle.count.decrementAndGet();
+                return encoder;
+            }
+        }
+        return charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    /**
+     * Resets and releases specified encoder for reuse.
+     *
+     * @param encoder the encoder to release.
+     */
+    static void release(final CharsetEncoder encoder) {
+        final Idle idle = IDLES.computeIfAbsent(
+                encoder.charset(), k -> new Idle());
+        if (idle.count.incrementAndGet() > MAX_IDLE) {
+            idle.count.decrementAndGet();
+            return;
+        }
+        idle.encoders.offer(encoder.reset());
+    }
+
+    private CharsetEncoders() {
+        throw new AssertionError("instantiation is not allowed");
+    }
+}
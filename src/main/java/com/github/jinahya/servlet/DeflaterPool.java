@@ -0,0 +1,162 @@
+/*
+ * Copyright 2026 Jin Kwon &lt;jinahya_at_gmail.com&gt;.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jinahya.servlet;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.Deflater;
+
+/**
+ * A pool of {@link Deflater}s keyed by compression level and wrapping mode.
+ * <p>
+ * A {@code Deflater} holds a native zlib stream which is expensive to create and is freed only by {@link
+ * Deflater#end()}; pooling them avoids both the allocation and the dependency on the cleaner for each compressed
+ * response. Acquisition and release are lock-free.
+ *
+ * @author Jin Kwon &lt;jinahya_at_gmail.com&gt;
+ */
+public class DeflaterPool implements AutoCloseable {
+
+    /**
+     * The default number of idle deflaters kept for each level and wrapping mode.
+     */
+    public static final int DEFAULT_MAX_IDLE = 64;
+
+    private static final int LEVELS = 11; // DEFAULT_COMPRESSION(-1) .. BEST_COMPRESSION(9)
+
+    private static int index(final int level, final boolean nowrap) {
+        if (level < Deflater.DEFAULT_COMPRESSION
+            || level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("illegal level: " + level);
+        }
+        return ((level + 1) << 1) | (nowrap ? 1 : 0);
+    }
+
+    /**
+     * Creates a new instance with {@link #DEFAULT_MAX_IDLE}.
+     */
+    public DeflaterPool() {
+        this(DEFAULT_MAX_IDLE);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param maxIdle the maximum number of idle deflaters kept for each level and wrapping mode.
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public DeflaterPool(final int maxIdle) {
+        super();
+        if (maxIdle < 0) {
+            throw new IllegalArgumentException("maxIdle(" + maxIdle + ") < 0");
+        }
+        this.maxIdle = maxIdle;
+        idles = new Queue[LEVELS << 1];
+        for (int i = 0; i < idles.length; i++) {
+            idles[i] = new ConcurrentLinkedQueue<>();
+        }
+        counts = new AtomicIntegerArray(idles.length);
+    }
+
+    /**
+     * Acquires a deflater of specified level and wrapping mode.
+     *
+     * @param level  the compression level; between {@link Deflater#DEFAULT_COMPRESSION} and {@link
+     *               Deflater#BEST_COMPRESSION}.
+     * @param nowrap {@code true} for raw deflate data as used in GZIP; {@code false} for ZLIB format.
+     * @return a deflater ready to use.
+     */
+    public Deflater acquire(final int level, final boolean nowrap) {
+        final int index = index(level, nowrap);
+        final Deflater deflater = idles[index].poll();
+        if (deflater != null) {
+            counts.decrementAndGet(index);
+            hits.increment();
+            return deflater;
+        }
+        misses.increment();
+        return new Deflater(level, nowrap);
+    }
+
+    /**
+     * Releases specified deflater acquired with specified level and wrapping mode. The deflater is reset and kept for
+     * reuse, or is ended if there are already enough idle ones.
+     *
+     * @param deflater the deflater to release.
+     * @param level    the level with which the deflater has been acquired.
+     * @param nowrap   the wrapping mode with which the deflater has been acquired.
+     */
+    public void release(final Deflater deflater, final int level,
+                        final boolean nowrap) {
+        if (deflater == null) {
+            throw new NullPointerException("null deflater");
+        }
+        final int index = index(level, nowrap);
+        if (closed || counts.incrementAndGet(index) > maxIdle) {
+            counts.decrementAndGet(index);
+            deflater.end();
+            return;
+        }
+        deflater.reset();
+        idles[index].offer(deflater);
+    }
+
+    /**
+     * Returns the number of acquisitions served by idle deflaters.
+     *
+     * @return the number of hits.
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of acquisitions served by new deflaters.
+     *
+     * @return the number of misses.
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Ends all idle deflaters. Deflaters released afterwards are ended immediately.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (int i = 0; i < idles.length; i++) {
+            for (Deflater deflater; (deflater = idles[i].poll()) != null; ) {
+                counts.decrementAndGet(i);
+                deflater.end();
+            }
+        }
+    }
+
+    private final int maxIdle;
+
+    private final Queue<Deflater>[] idles;
+
+    private final AtomicIntegerArray counts;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private volatile boolean closed;
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright 2026 Jin Kwon &lt;jinahya_at_gmail.com&gt;.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jinahya.servlet;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+
+import java.io.IOException;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * A servlet output stream which compresses bytes, in GZIP or ZLIB format, into an actual output stream with a {@link
+ * Deflater} borrowed from a {@link DeflaterPool}. The deflater is returned to the pool when this stream is {@link
+ * #finish() finished} or {@link #release() released}.
+ *
+ * @author Jin Kwon &lt;jinahya_at_gmail.com&gt;
+ */
+public class DeflaterServletOutputStream extends ServletOutputStream {
+
+    private static final int GZIP_MAGIC = 0x8b1f;
+
+    private static final int OUTPUT_SIZE = SegmentedBuffer.DEFAULT_SEGMENT_SIZE;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param target the actual output stream to which compressed bytes are written.
+     * @param pool   the pool from which a deflater is borrowed.
+     * @param level  the compression level.
+     * @param gzip   {@code true} for GZIP format; {@code false} for ZLIB format.
+     */
+    public DeflaterServletOutputStream(final ServletOutputStream target,
+                                       final DeflaterPool pool,
+                                       final int level, final boolean gzip) {
+        super();
+        if (target == null) {
+            throw new NullPointerException("null target");
+        }
+        if (pool == null) {
+            throw new NullPointerException("null pool");
+        }
+        this.target = target;
+        this.pool = pool;
+        this.level = level;
+        this.gzip = gzip;
+        deflater = pool.acquire(level, gzip);
+        crc = gzip ? new CRC32() : null;
+    }
+
+    @Override
+    public boolean isReady() {
+        return target.isReady();
+    }
+
+    @Override
+    public void setWriteListener(final WriteListener writeListener) {
+        target.setWriteListener(writeListener);
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        single[0] = (byte) b;
+        write(single, 0, 1);
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len)
+            throws IOException {
+        if (off < 0 || len < 0 || off > b.length - len) {
+            throw new IndexOutOfBoundsException();
+        }
+        ensureOpen();
+        if (len == 0) {
+            return;
+        }
+        writeHeader();
+        if (crc != null) {
+            crc.update(b, off, len);
+        }
+        deflater.setInput(b, off, len);
+        while (!deflater.needsInput()) {
+            deflate(Deflater.NO_FLUSH);
+        }
+    }
+
+    /**
+     * {@inheritDoc} The {@code flush()} method of {@code DeflaterServletOutputStream} flushes all pending compressed
+     * bytes with {@link Deflater#SYNC_FLUSH} before flushing the actual output stream.
+     *
+     * @throws IOException {@inheritDoc}
+     */
+    @Override
+    public void flush() throws IOException {
+        if (deflater != null && headerWritten) {
+            int length;
+            do {
+                length = deflate(Deflater.SYNC_FLUSH);
+            } while (length == output.length);
+        }
+        target.flush();
+    }
+
+    /**
+     * {@inheritDoc} The {@code close()} method of {@code DeflaterServletOutputStream} {@link #finish() finishes} this
+     * stream and closes the actual output stream.
+     *
+     * @throws IOException {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        try {
+            finish();
+        } finally {
+            closed = true;
+        }
+        target.close();
+    }
+
+    /**
+     * Finishes the compressed data, writes the trailer, if any, and returns the deflater to the pool without closing
+     * the actual output stream.
+     *
+     * @throws IOException if an I/O error occurs.
+     */
+    public void finish() throws IOException {
+        if (deflater == null) {
+            return;
+        }
+        try {
+            writeHeader();
+            deflater.finish();
+            while (!deflater.finished()) {
+                deflate(Deflater.NO_FLUSH);
+            }
+            if (crc != null) {
+                writeIntLE((int) crc.getValue());
+                writeIntLE((int) deflater.getBytesRead()); // modulo 2^32
+            }
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Returns the deflater, if not yet, to the pool without finishing the compressed data. This method is for
+     * abandoning this stream, e.g. on an error.
+     */
+    public void release() {
+        if (deflater == null) {
+            return;
+        }
+        final Deflater released = deflater;
+        deflater = null;
+        pool.release(released, level, gzip);
+    }
+
+    private void ensureOpen() throws IOException {
+        if (deflater == null) {
+            throw new IOException("finished");
+        }
+    }
+
+    private void writeHeader() throws IOException {
+        if (headerWritten) {
+            return;
+        }
+        headerWritten = true;
+        if (!gzip) {
+            return; // the deflater writes the ZLIB header
+        }
+        target.write(new byte[] {
+            (byte) GZIP_MAGIC, (byte) (GZIP_MAGIC >> 8), Deflater.DEFLATED,
+            0, 0, 0, 0, 0, 0, (byte) 0xff // flags, mtime, xfl, os(unknown)
+        });
+    }
+
+    private int deflate(final int flush) throws IOException {
+        final int length = deflater.deflate(output, 0, output.length, flush);
+        if (length > 0) {
+            target.write(output, 0, length);
+        }
+        return length;
+    }
+
+    private void writeIntLE(final int value) throws IOException {
+        target.write(new byte[] {
+            (byte) value, (byte) (value >> 8), (byte) (value >> 16),
+            (byte) (value >> 24)
+        });
+    }
+
+    private final ServletOutputStream target;
+
+    private final DeflaterPool pool;
+
+    private final int level;
+
+    private final boolean gzip;
+
+    private final CRC32 crc;
+
+    private final byte[] output = new byte[OUTPUT_SIZE];
+
+    private final byte[] single = new byte[1];
+
+    private Deflater deflater;
+
+    private boolean headerWritten;
+
+    private boolean closed;
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2026 Jin Kwon &lt;jinahya_at_gmail.com&gt;.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jinahya.servlet;
+
+import java.io.IOException;
+import java.util.EventListener;
+
+/**
+ * A listener notified while a {@link BufferedServletOutputStream} drains its buffered bytes to an actual {@code
+ * ServletOutputStream} in non-blocking manner.
+ *
+ * @author Jin Kwon &lt;jinahya_at_gmail.com&gt;
+ * @see BufferedServletOutputStream#drainOnClose(jakarta.servlet.ServletOutputStream, DrainListener)
+ */
+public interface DrainListener extends EventListener {
+
+    /**
+     * Invoked when all buffered bytes have been written to the target stream. A typical implementation completes the
+     * {@link jakarta.servlet.AsyncContext}.
+     *
+     * @throws IOException if an I/O error occurs.
+     */
+    void onAllDataWritten() throws IOException;
+
+    /**
+     * Invoked when an error occurred while draining.
+     *
+     * @param t the error occurred.
+     */
+    void onError(Throwable t);
+}
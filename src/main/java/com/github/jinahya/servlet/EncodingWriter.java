@@ -0,0 +1,290 @@
+/*
+ * Copyright 2026 Jin Kwon &lt;jinahya_at_gmail.com&gt;.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jinahya.servlet;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * An unsynchronized writer which encodes characters into an arbitrary output stream, for response wrappers whose
+ * bodies don't go to a {@link BufferedServletOutputStream}; see {@link SegmentedWriter} for those.
+ * <p>
+ * Encoded bytes are gathered in a heap buffer and written to the output stream when the buffer is full or this writer
+ * is flushed. Runs of characters which the charset encodes as the same single bytes are written without an encoder;
+ * other characters are encoded with a {@link CharsetEncoder} borrowed from a process-wide pool and returned when this
+ * writer is {@link #close() closed} or {@link #release() released}.
+ * <p>
+ * Instances of this class are not safe for concurrent use.
+ *
+ * @author Jin Kwon &lt;jinahya_at_gmail.com&gt;
+ */
+public class EncodingWriter extends Writer {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final int CHUNK_SIZE = 1024;
+
+    /**
+     * Returns the exclusive upper bound of characters which specified charset encodes as the same single bytes.
+     *
+     * @param charset the charset.
+     * @return the upper bound; {@code 0} if no character is known to be.
+     */
+    private static char directLimit(final Charset charset) {
+        if (StandardCharsets.UTF_8.equals(charset)
+            || StandardCharsets.US_ASCII.equals(charset)) {
+            return 0x80;
+        }
+        if (StandardCharsets.ISO_8859_1.equals(charset)) {
+            return 0x100;
+        }
+        return 0;
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param out     the output stream into which encoded bytes are written.
+     * @param charset the charset with which characters are encoded.
+     */
+    public EncodingWriter(final OutputStream out, final Charset charset) {
+        super();
+        if (out == null) {
+            throw new NullPointerException("null out");
+        }
+        if (charset == null) {
+            throw new NullPointerException("null charset");
+        }
+        this.out = out;
+        this.charset = charset;
+        directLimit = directLimit(charset);
+    }
+
+    @Override
+    public void write(final int c) throws IOException {
+        chunk()[0] = (char) c;
+        write(chunk, 0, 1);
+    }
+
+    @Override
+    public void write(final char[] cbuf, int off, int len)
+            throws IOException {
+        if (off < 0 || len < 0 || len > cbuf.length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+        ensureOpen();
+        final ByteBuffer bytes = bytes();
+        while (len > 0) {
+            if (pending == 0) {
+                for (char c; len > 0 && (c = cbuf[off]) < directLimit; off++, len--) {
+                    if (!bytes.hasRemaining()) {
+                        drain();
+                    }
+                    bytes.put((byte) c);
+                }
+                if (len == 0) {
+                    return;
+                }
+            }
+            int end = off + 1;
+            while (end < off + len && cbuf[end] >= directLimit) {
+                end++;
+            }
+            encode(cbuf, off, end - off);
+            len -= end - off;
+            off = end;
+        }
+    }
+
+    @Override
+    public void write(final String str, int off, int len)
+            throws IOException {
+        if (off < 0 || len < 0 || len > str.length() - off) {
+            throw new IndexOutOfBoundsException();
+        }
+        final char[] chunk = chunk();
+        while (len > 0) {
+            final int n = Math.min(len, chunk.length);
+            str.getChars(off, off + n, chunk, 0);
+            write(chunk, 0, n);
+            off += n;
+            len -= n;
+        }
+    }
+
+    @Override
+    public Writer append(final CharSequence csq) throws IOException {
+        final String str = String.valueOf(csq);
+        write(str, 0, str.length());
+        return this;
+    }
+
+    /**
+     * {@inheritDoc} The {@code flush()} method of {@code EncodingWriter} writes gathered bytes and flushes the
+     * underlying output stream. A high surrogate whose pair is yet to come is kept.
+     *
+     * @throws IOException {@inheritDoc}
+     */
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        drain();
+        out.flush();
+    }
+
+    /**
+     * {@inheritDoc} The {@code close()} method of {@code EncodingWriter} flushes the encoder, if any, writes gathered
+     * bytes, closes the underlying output stream, and {@link #release() releases} the encoder.
+     *
+     * @throws IOException {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        try {
+            if (encoder != null) {
+                final CharBuffer src = pending == 0
+                                       ? CharBuffer.allocate(0) : CharBuffer.wrap(new char[] {pending});
+                pending = 0;
+                encode(src, true);
+                while (encoder.flush(bytes).isOverflow()) {
+                    drain();
+                }
+            }
+            drain();
+            out.close();
+        } finally {
+            closed = true;
+            release();
+        }
+    }
+
+    /**
+     * Returns the encoder, if borrowed, to the pool. Bytes not yet written are discarded; this writer should not be
+     * used afterwards.
+     */
+    public void release() {
+        if (encoder != null) {
+            final CharsetEncoder released = encoder;
+            encoder = null;
+            CharsetEncoders.release(released);
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("closed");
+        }
+    }
+
+    private char[] chunk() {
+        if (chunk == null) {
+            chunk = new char[CHUNK_SIZE];
+        }
+        return chunk;
+    }
+
+    private ByteBuffer bytes() {
+        if (bytes == null) {
+            bytes = ByteBuffer.allocate(BUFFER_SIZE);
+        }
+        return bytes;
+    }
+
+    /**
+     * Writes gathered bytes, if any, to the underlying output stream.
+     */
+    private void drain() throws IOException {
+        if (bytes != null && bytes.position() > 0) {
+            out.write(bytes.array(), 0, bytes.position());
+            bytes.clear();
+        }
+    }
+
+    /**
+     * Encodes specified range of characters, with a pending high surrogate, if any, in front of them.
+     */
+    private void encode(final char[] cbuf, int off, int len)
+            throws IOException {
+        if (pending != 0) {
+            final CharBuffer pair = CharBuffer.wrap(new char[] {pending, cbuf[off]});
+            pending = 0;
+            encode(pair, false);
+            if (pair.hasRemaining()) {
+                pending = pair.get();
+            }
+            off++;
+            len--;
+            if (len == 0) {
+                return;
+            }
+        }
+        final CharBuffer src = CharBuffer.wrap(cbuf, off, len);
+        encode(src, false);
+        if (src.hasRemaining()) {
+            pending = src.get();
+        }
+    }
+
+    private void encode(final CharBuffer src, final boolean endOfInput)
+            throws IOException {
+        if (encoder == null) {
+            encoder = CharsetEncoders.acquire(charset);
+        }
+        final ByteBuffer bytes = bytes();
+        while (true) {
+            final CoderResult result = encoder.encode(src, bytes, endOfInput);
+            if (result.isError()) {
+                result.throwException();
+            }
+            if (result.isUnderflow()) {
+                return;
+            }
+            drain();
+        }
+    }
+
+    private final OutputStream out;
+
+    private final Charset charset;
+
+    private final char directLimit;
+
+    private CharsetEncoder encoder;
+
+    /**
+     * A high surrogate waiting for its pair; {@code 0} if none.
+     */
+    private char pending;
+
+    private char[] chunk;
+
+    /**
+     * Encoded bytes not yet written; allocated lazily.
+     */
+    private ByteBuffer bytes;
+
+    private boolean closed;
+}
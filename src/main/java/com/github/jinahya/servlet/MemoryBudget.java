@@ -0,0 +1,390 @@
+/*
+ * Copyright 2026 Jin Kwon &lt;jinahya_at_gmail.com&gt;.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jinahya.servlet;
+
+import jakarta.servlet.ServletContext;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A shared budget of bytes from which buffers reserve memory for buffering response bodies. A budget bounds the total
+ * number of bytes held by all buffers sharing it, and exposes its live usage for monitoring.
+ * <p>
+ * A budget of a web application is stored as a {@link ServletContext} attribute and is configured with context init
+ * parameters; see {@link #of(ServletContext)}.
+ *
+ * @author Jin Kwon &lt;jinahya_at_gmail.com&gt;
+ */
+public class MemoryBudget {
+
+    /**
+     * Policies applied when a budget is exhausted.
+     */
+    public enum Policy {
+
+        /**
+         * Blocks until enough bytes are released or the timeout elapses, then fails.
+         */
+        BLOCK,
+
+        /**
+         * Makes the reserving buffer spill to a temporary file.
+         */
+        SPILL,
+
+        /**
+         * Fails immediately.
+         */
+        FAIL
+    }
+
+    /**
+     * The name of the servlet context attribute under which the budget of a web application is stored.
+     */
+    public static final String ATTRIBUTE_NAME = MemoryBudget.class.getName();
+
+    /**
+     * The name of the context init parameter for the capacity, in bytes, of the budget. The default is {@link
+     * Long#MAX_VALUE}, which only accounts the usage.
+     */
+    public static final String INIT_PARAM_CAPACITY
+            = MemoryBudget.class.getName() + ".capacity";
+
+    /**
+     * The name of the context init parameter for the {@link Policy policy}. The default is {@link Policy#BLOCK}.
+     */
+    public static final String INIT_PARAM_POLICY
+            = MemoryBudget.class.getName() + ".policy";
+
+    /**
+     * The name of the context init parameter for the timeout, in milliseconds, of the {@link Policy#BLOCK} policy.
+     * The default is {@value #DEFAULT_TIMEOUT_MILLIS}.
+     */
+    public static final String INIT_PARAM_TIMEOUT
+            = MemoryBudget.class.getName() + ".timeout";
+
+    /**
+     * The default timeout, in milliseconds, of the {@link Policy#BLOCK} policy.
+     */
+    public static final long DEFAULT_TIMEOUT_MILLIS = 1000L;
+
+    private static final Lock CONTEXT_LOCK = new ReentrantLock();
+
+    /**
+     * Returns the budget of specified servlet context, creating and storing one, with the context init parameters, if
+     * absent.
+     *
+     * @param context the servlet context.
+     * @return the budget of the {@code context}.
+     * @throws IllegalArgumentException if a context init parameter is malformed; the message names the parameter and
+     *                                  its value.
+     * @see #ATTRIBUTE_NAME
+     * @see #INIT_PARAM_CAPACITY
+     * @see #INIT_PARAM_POLICY
+     * @see #INIT_PARAM_TIMEOUT
+     */
+    public static MemoryBudget of(final ServletContext context) {
+        if (context == null) {
+            throw new NullPointerException("null context");
+        }
+        final Object existing = context.getAttribute(ATTRIBUTE_NAME);
+        if (existing instanceof MemoryBudget) {
+            return (MemoryBudget) existing;
+        }
+        CONTEXT_LOCK.lock();
+        try {
+            final Object current = context.getAttribute(ATTRIBUTE_NAME);
+            if (current instanceof MemoryBudget) {
+                return (MemoryBudget) current;
+            }
+            final long capacity = getInitParameterAsLong(
+                    context, INIT_PARAM_CAPACITY, Long.MAX_VALUE, 1L);
+            final String policy = context.getInitParameter(INIT_PARAM_POLICY);
+            final long timeout = getInitParameterAsLong(
+                    context, INIT_PARAM_TIMEOUT, DEFAULT_TIMEOUT_MILLIS, 0L);
+            final MemoryBudget budget = new MemoryBudget(
+                    capacity,
+                    policy == null ? Policy.BLOCK : parsePolicy(policy),
+                    timeout);
+            context.setAttribute(ATTRIBUTE_NAME, budget);
+            return budget;
+        } finally {
+            CONTEXT_LOCK.unlock();
+        }
+    }
+
+    /**
+     * Returns the value of specified context init parameter parsed as a {@code long}.
+     *
+     * @param context      the servlet context.
+     * @param name         the name of the init parameter.
+     * @param defaultValue a value to return when the parameter is absent.
+     * @param minimum      the minimum allowed value.
+     * @return the value of the init parameter; {@code defaultValue} if absent.
+     * @throws IllegalArgumentException if the value is not a number or less than {@code minimum}.
+     */
+    private static long getInitParameterAsLong(final ServletContext context,
+                                               final String name,
+                                               final long defaultValue,
+                                               final long minimum) {
+        final String value = context.getInitParameter(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        final long parsed;
+        try {
+            parsed = Long.parseLong(value.trim());
+        } catch (final NumberFormatException nfe) {
+            throw new IllegalArgumentException(
+                    "illegal context parameter; " + name + ": " + value, nfe);
+        }
+        if (parsed < minimum) {
+            throw new IllegalArgumentException(
+                    "illegal context parameter; " + name + ": " + value);
+        }
+        return parsed;
+    }
+
+    /**
+     * Returns the policy named by specified value of {@link #INIT_PARAM_POLICY}.
+     *
+     * @param value the value of the init parameter.
+     * @return the policy.
+     * @throws IllegalArgumentException if no policy is named by {@code value}.
+     */
+    private static Policy parsePolicy(final String value) {
+        try {
+            return Policy.valueOf(value.trim().toUpperCase(Locale.ENGLISH));
+        } catch (final IllegalArgumentException iae) {
+            throw new IllegalArgumentException(
+                    "illegal context parameter; " + INIT_PARAM_POLICY + ": "
+                    + value, iae);
+        }
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param capacity      the capacity in bytes.
+     * @param policy        the policy applied when exhausted.
+     * @param timeoutMillis the timeout, in milliseconds, of the {@link Policy#BLOCK} policy.
+     */
+    public MemoryBudget(final long capacity, final Policy policy,
+                        final long timeoutMillis) {
+        super();
+        if (capacity <= 0L) {
+            throw new IllegalArgumentException(
+                    "capacity(" + capacity + ") <= 0");
+        }
+        if (policy == null) {
+            throw new NullPointerException("null policy");
+        }
+        if (timeoutMillis < 0L) {
+            throw new IllegalArgumentException(
+                    "timeoutMillis(" + timeoutMillis + ") < 0");
+        }
+        this.capacity = capacity;
+        this.policy = policy;
+        this.timeoutMillis = timeoutMillis;
+        used = new AtomicLong();
+        peak = new AtomicLong();
+        rejections = new AtomicLong();
+        lock = new ReentrantLock();
+        released = lock.newCondition();
+    }
+
+    /**
+     * Reserves specified number of bytes following the policy of this budget.
+     *
+     * @param bytes the number of bytes to reserve.
+     * @return {@code true} if reserved; {@code false} if this budget is exhausted and the policy is {@link
+     * Policy#SPILL}.
+     * @throws MemoryBudgetExceededException if this budget is exhausted and the policy is {@link Policy#FAIL}, or the
+     *                                       timeout elapsed with the {@link Policy#BLOCK} policy.
+     */
+    public boolean reserve(final long bytes)
+            throws MemoryBudgetExceededException {
+        if (tryReserve(bytes)) {
+            return true;
+        }
+        if (policy == Policy.SPILL) {
+            rejections.incrementAndGet();
+            return false;
+        }
+        if (policy == Policy.BLOCK && timeoutMillis > 0L) {
+            long nanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+            lock.lock();
+            try {
+                while (true) {
+                    if (tryReserve(bytes)) {
+                        return true;
+                    }
+                    if (nanos <= 0L) {
+                        break;
+                    }
+                    nanos = released.awaitNanos(nanos);
+                }
+            } catch (final InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            } finally {
+                lock.unlock();
+            }
+        }
+        rejections.incrementAndGet();
+        throw new MemoryBudgetExceededException(
+                "failed to reserve " + bytes + " byte(s); used: " + getUsed()
+                + ", capacity: " + capacity);
+    }
+
+    /**
+     * Reserves specified number of bytes if available.
+     *
+     * @param bytes the number of bytes to reserve.
+     * @return {@code true} if reserved; {@code false} otherwise.
+     */
+    public boolean tryReserve(final long bytes) {
+        if (bytes < 0L) {
+            throw new IllegalArgumentException("bytes(" + bytes + ") < 0");
+        }
+        while (true) {
+            final long current = used.get();
+            if (current + bytes > capacity || current + bytes < 0L) {
+                return false;
+            }
+            if (used.compareAndSet(current, current + bytes)) {
+                updatePeak(current + bytes);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Reserves specified number of bytes regardless of the capacity. This method is for a minimal reservation which
+     * can't be avoided, such as the single staging segment of a spilled buffer.
+     *
+     * @param bytes the number of bytes to reserve.
+     */
+    public void forceReserve(final long bytes) {
+        if (bytes < 0L) {
+            throw new IllegalArgumentException("bytes(" + bytes + ") < 0");
+        }
+        updatePeak(used.addAndGet(bytes));
+    }
+
+    /**
+     * Releases specified number of bytes previously reserved.
+     *
+     * @param bytes the number of bytes to release.
+     */
+    public void release(final long bytes) {
+        if (bytes < 0L) {
+            throw new IllegalArgumentException("bytes(" + bytes + ") < 0");
+        }
+        used.addAndGet(-bytes);
+        if (policy == Policy.BLOCK) {
+            lock.lock();
+            try {
+                released.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Returns the capacity of this budget.
+     *
+     * @return the capacity in bytes.
+     */
+    public long getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the policy of this budget.
+     *
+     * @return the policy.
+     */
+    public Policy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Returns the number of bytes currently reserved.
+     *
+     * @return the number of bytes reserved.
+     */
+    public long getUsed() {
+        return used.get();
+    }
+
+    /**
+     * Returns the number of bytes currently available.
+     *
+     * @return the number of bytes available.
+     */
+    public long getAvailable() {
+        return Math.max(0L, capacity - used.get());
+    }
+
+    /**
+     * Returns the highest number of bytes ever reserved at once.
+     *
+     * @return the peak number of bytes reserved.
+     */
+    public long getPeak() {
+        return peak.get();
+    }
+
+    /**
+     * Returns the number of reservations rejected, either by spilling or by failing.
+     *
+     * @return the number of rejections.
+     */
+    public long getRejections() {
+        return rejections.get();
+    }
+
+    private void updatePeak(final long value) {
+        long current;
+        while ((current = peak.get()) < value) {
+            if (peak.compareAndSet(current, value)) {
+                break;
+            }
+        }
+    }
+
+    private final long capacity;
+
+    private final Policy policy;
+
+    private final long timeoutMillis;
+
+    private final AtomicLong used;
+
+    private final AtomicLong peak;
+
+    private final AtomicLong rejections;
+
+    private final Lock lock;
+
+    private final Condition released;
+}
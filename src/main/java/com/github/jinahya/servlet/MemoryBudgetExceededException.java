@@ -0,0 +1,67 @@
+/*
+ * Copyright 2026 Jin Kwon &lt;jinahya_at_gmail.com&gt;.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jinahya.servlet;
+
+import com.github.jinahya.ws.core.StatusTypes;
+import jakarta.ws.rs.core.Response.Status;
+import jakarta.ws.rs.core.Response.StatusType;
+
+import java.io.IOException;
+
+/**
+ * An exception thrown when a {@link MemoryBudget} is exhausted.
+ *
+ * @author Jin Kwon &lt;jinahya_at_gmail.com&gt;
+ */
+public class MemoryBudgetExceededException extends IOException {
+
+    private static final long serialVersionUID = 2602337432215470785L;
+
+    /**
+     * Finds an instance of this class in the causal chain of specified throwable.
+     *
+     * @param t the throwable to inspect; may be {@code null}.
+     * @return an instance found; {@code null} if not found.
+     */
+    public static MemoryBudgetExceededException find(Throwable t) {
+        for (int i = 0; t != null && i < 16; t = t.getCause(), i++) {
+            if (t instanceof MemoryBudgetExceededException) {
+                return (MemoryBudgetExceededException) t;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Creates a new instance with specified message.
+     *
+     * @param message the detail message.
+     */
+    public MemoryBudgetExceededException(final String message) {
+        super(message);
+    }
+
+    /**
+     * Returns a status type of {@code 503 Service Unavailable} with which a response can fail fast.
+     *
+     * @return a status type for this exception.
+     * @see StatusTypes#newInstance(Status, String)
+     */
+    public StatusType getStatusType() {
+        return StatusTypes.newInstance(Status.SERVICE_UNAVAILABLE,
+                                       "Memory Budget Exceeded");
+    }
+}
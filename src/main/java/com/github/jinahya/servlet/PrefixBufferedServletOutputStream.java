@@ -0,0 +1,317 @@
+/*
+ * Copyright 2026 Jin Kwon &lt;jinahya_at_gmail.com&gt;.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jinahya.servlet;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+
+/**
+ * A buffered output stream which buffers only up to a prefix length and then passes all bytes through to an actual
+ * response. When the whole body fits in the prefix, the body is written, on {@link #complete() completion}, with an
+ * exact {@code Content-Length}.
+ *
+ * @author Jin Kwon &lt;jinahya_at_gmail.com&gt;
+ */
+public class PrefixBufferedServletOutputStream
+        extends BufferedServletOutputStream {
+
+    /**
+     * Creates a new instance.
+     *
+     * @param response     the actual response to which bytes are passed through.
+     * @param buffer       the buffer into which the prefix is written.
+     * @param prefixLength the maximum number of bytes to buffer.
+     */
+    public PrefixBufferedServletOutputStream(final ServletResponse response,
+                                             final SegmentedBuffer buffer,
+                                             final long prefixLength) {
+        super(buffer);
+        if (response == null) {
+            throw new NullPointerException("null response");
+        }
+        if (prefixLength < 0L) {
+            throw new IllegalArgumentException(
+                    "prefixLength(" + prefixLength + ") < 0");
+        }
+        this.response = response;
+        this.prefixLength = prefixLength;
+    }
+
+    @Override
+    public boolean isReady() {
+        if (target != null) {
+            return target.isReady();
+        }
+        return super.isReady();
+    }
+
+    @Override
+    public void setWriteListener(final WriteListener writeListener) {
+        if (target != null) {
+            target.setWriteListener(writeListener);
+            return;
+        }
+        super.setWriteListener(writeListener);
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        if (target == null && size() + 1 > prefixLength) {
+            commit();
+        }
+        if (target != null) {
+            target.write(b);
+            return;
+        }
+        super.write(b);
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len)
+            throws IOException {
+        if (target == null && size() + len > prefixLength) {
+            commit();
+        }
+        if (target != null) {
+            target.write(b, off, len);
+            return;
+        }
+        super.write(b, off, len);
+    }
+
+    @Override
+    public void write(final ByteBuffer src) throws IOException {
+        if (target == null && size() + src.remaining() > prefixLength) {
+            commit();
+        }
+        if (target == null) {
+            super.write(src);
+            return;
+        }
+        if (src.hasArray()) {
+            target.write(src.array(), src.arrayOffset() + src.position(),
+                         src.remaining());
+            src.position(src.limit());
+            return;
+        }
+        final byte[] chunk = new byte[Math.min(src.remaining(),
+                                               SegmentedBuffer.DEFAULT_SEGMENT_SIZE)];
+        while (src.hasRemaining()) {
+            final int length = Math.min(chunk.length, src.remaining());
+            src.get(chunk, 0, length);
+            target.write(chunk, 0, length);
+        }
+    }
+
+    /**
+     * {@inheritDoc} The {@code write(char[], int, int, char)} method of {@code PrefixBufferedServletOutputStream}
+     * writes through {@link #write(byte[], int, int)} once the prefix may overflow.
+     *
+     * @param cbuf  {@inheritDoc}
+     * @param off   {@inheritDoc}
+     * @param len   {@inheritDoc}
+     * @param limit {@inheritDoc}
+     * @return {@inheritDoc}
+     * @throws IOException {@inheritDoc}
+     */
+    @Override
+    public int write(final char[] cbuf, final int off, final int len,
+                     final char limit)
+            throws IOException {
+        if (target == null && size() + len <= prefixLength) {
+            return super.write(cbuf, off, len, limit);
+        }
+        final byte[] bytes = scratch().array();
+        int written = 0;
+        while (written < len) {
+            final int n = Math.min(len - written, bytes.length);
+            int j = 0;
+            for (char c; j < n && (c = cbuf[off + written + j]) < limit; j++) {
+                bytes[j] = (byte) c;
+            }
+            write(bytes, 0, j);
+            written += j;
+            if (j < n) {
+                break;
+            }
+        }
+        return written;
+    }
+
+    /**
+     * {@inheritDoc} The {@code write(CharBuffer, CharsetEncoder)} method of {@code PrefixBufferedServletOutputStream}
+     * encodes into a scratch buffer and writes through {@link #write(byte[], int, int)} once the prefix may overflow.
+     *
+     * @param src     {@inheritDoc}
+     * @param encoder {@inheritDoc}
+     * @throws IOException {@inheritDoc}
+     */
+    @Override
+    public void write(final CharBuffer src, final CharsetEncoder encoder)
+            throws IOException {
+        if (target == null
+            && size() + src.remaining() * (long) Math.ceil(encoder.maxBytesPerChar()) <= prefixLength) {
+            super.write(src, encoder);
+            return;
+        }
+        final ByteBuffer scratch = scratch();
+        while (true) {
+            scratch.clear();
+            final CoderResult result = encoder.encode(src, scratch, false);
+            if (result.isError()) {
+                result.throwException();
+            }
+            write(scratch.array(), 0, scratch.position());
+            if (result.isUnderflow()) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc} The {@code flush()} method of {@code PrefixBufferedServletOutputStream} flushes the actual output
+     * stream if committed; the buffered prefix is kept otherwise.
+     *
+     * @throws IOException {@inheritDoc}
+     * @see #commit()
+     */
+    @Override
+    public void flush() throws IOException {
+        if (target != null) {
+            target.flush();
+        }
+    }
+
+    /**
+     * {@inheritDoc} The {@code close()} method of {@code PrefixBufferedServletOutputStream} {@link #complete()
+     * completes} this stream and closes the actual output stream.
+     *
+     * @throws IOException {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException {
+        complete();
+        target.close();
+        super.close();
+    }
+
+    /**
+     * Completes this stream. If not committed yet, the {@code Content-Length} of the actual response is set with the
+     * number of buffered bytes and the buffered bytes are written to the actual response.
+     * <p>
+     * The {@code Content-Length} is not set for a response whose status has no body, i.e. {@code 1xx}, {@code 204},
+     * or {@code 304}, nor when nothing is buffered; the latter is left to the container, which knows whether the
+     * request was a {@code HEAD}.
+     *
+     * @throws IOException if an I/O error occurs.
+     */
+    public void complete() throws IOException {
+        if (target != null) {
+            return;
+        }
+        if (size() > 0L && !isBodiless(response)) {
+            response.setContentLengthLong(size());
+        }
+        commit();
+    }
+
+    /**
+     * Tells whether the status of specified response forbids a body.
+     */
+    private static boolean isBodiless(final ServletResponse response) {
+        if (!(response instanceof HttpServletResponse)) {
+            return false;
+        }
+        final int status = ((HttpServletResponse) response).getStatus();
+        return status < 200 || status == HttpServletResponse.SC_NO_CONTENT
+               || status == HttpServletResponse.SC_NOT_MODIFIED;
+    }
+
+    /**
+     * Writes the buffered prefix, if not yet, to the actual response and switches to pass-through. Further bytes are
+     * written directly to the actual response.
+     *
+     * @throws IOException if an I/O error occurs.
+     */
+    public void commit() throws IOException {
+        if (target != null || committing) {
+            return;
+        }
+        committing = true;
+        try {
+            beforeCommit();
+        } finally {
+            committing = false;
+        }
+        final ServletOutputStream target = response.getOutputStream();
+        writeTo(target);
+        release();
+        this.target = target;
+    }
+
+    /**
+     * Tells whether the buffered prefix has been written to the actual response.
+     *
+     * @return {@code true} if committed; {@code false} otherwise.
+     */
+    public boolean isCommitted() {
+        return target != null;
+    }
+
+    private ByteBuffer scratch() {
+        if (scratch == null) {
+            scratch = ByteBuffer.allocate(SegmentedBuffer.DEFAULT_SEGMENT_SIZE);
+        }
+        return scratch;
+    }
+
+    /**
+     * Invoked right before the buffered prefix is written to the actual response. Subclasses may inspect buffered
+     * bytes and modify status or headers of the actual response. The default implementation does nothing.
+     *
+     * @throws IOException if an I/O error occurs.
+     */
+    protected void beforeCommit() throws IOException {
+        // does nothing.
+    }
+
+    private final ServletResponse response;
+
+    private final long prefixLength;
+
+    /**
+     * The actual output stream; {@code null} until committed.
+     */
+    private ServletOutputStream target;
+
+    /**
+     * A flag for preventing {@link #beforeCommit()} from being re-entered by writes it causes.
+     */
+    private boolean committing;
+
+    /**
+     * A heap buffer for encoding characters once passed through; allocated lazily.
+     */
+    private ByteBuffer scratch;
+}
@@ -0,0 +1,732 @@
+/*
+ * Copyright 2026 Jin Kwon &lt;jinahya_at_gmail.com&gt;.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jinahya.servlet;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A growable byte buffer which holds its content in a list of fixed-size segments. Segments are acquired from a
+ * {@link BufferPool}, are never copied while the buffer grows, and are returned to the pool when the buffer is {@link
+ * #reset() reset}.
+ * <p>
+ * A buffer may be configured with a spill threshold. Once the number of written bytes exceeds the threshold, all
+ * segments are flushed to a temporary file and further bytes are appended to that file; the content is then read back
+ * through a memory-mapped {@link FileChannel}. The temporary file is deleted when the buffer is {@link #reset() reset}
+ * or {@link #close() closed}.
+ * <p>
+ * A buffer may also be configured with a {@link MemoryBudget} from which each segment is reserved. When the budget is
+ * exhausted, the buffer blocks, fails with a {@link MemoryBudgetExceededException}, or spills, depending on the {@link
+ * MemoryBudget.Policy policy} of the budget.
+ * <p>
+ * A buffer may also compute a {@link #setDigest(MessageDigest) digest} of its content while it is written; the digest
+ * is updated each time a segment is filled, so no second pass over the content is needed.
+ * <p>
+ * Instances of this class are not safe for concurrent use.
+ *
+ * @author Jin Kwon &lt;jinahya_at_gmail.com&gt;
+ */
+public class SegmentedBuffer implements AutoCloseable {
+
+    /**
+     * The default size of each segment.
+     */
+    public static final int DEFAULT_SEGMENT_SIZE = 8192;
+
+    /**
+     * A value for spill threshold which disables spilling.
+     */
+    public static final long NO_SPILL = Long.MAX_VALUE;
+
+    /**
+     * Creates a new instance with {@link #DEFAULT_SEGMENT_SIZE}.
+     */
+    public SegmentedBuffer() {
+        this(DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Creates a new instance with specified segment size.
+     *
+     * @param segmentSize the size of each segment; must be positive.
+     */
+    public SegmentedBuffer(final int segmentSize) {
+        this(segmentSize, NO_SPILL);
+    }
+
+    /**
+     * Creates a new instance with specified segment size and spill threshold.
+     *
+     * @param segmentSize    the size of each segment; must be positive.
+     * @param spillThreshold the number of bytes above which the content spills to a temporary file; {@link
+     *                       #NO_SPILL} for never.
+     */
+    public SegmentedBuffer(final int segmentSize, final long spillThreshold) {
+        this(BufferPools.getDefault(), segmentSize, spillThreshold);
+    }
+
+    /**
+     * Creates a new instance with specified pool, segment size, and spill threshold.
+     *
+     * @param pool           the pool from which segments are acquired.
+     * @param segmentSize    the size of each segment; must be positive.
+     * @param spillThreshold the number of bytes above which the content spills to a temporary file; {@link
+     *                       #NO_SPILL} for never.
+     */
+    public SegmentedBuffer(final BufferPool pool, final int segmentSize,
+                           final long spillThreshold) {
+        this(pool, null, segmentSize, spillThreshold);
+    }
+
+    /**
+     * Creates a new instance with specified pool, budget, segment size, and spill threshold.
+     *
+     * @param pool           the pool from which segments are acquired.
+     * @param budget         the budget from which segments are reserved; {@code null} for no budget.
+     * @param segmentSize    the size of each segment; must be positive.
+     * @param spillThreshold the number of bytes above which the content spills to a temporary file; {@link
+     *                       #NO_SPILL} for never.
+     */
+    public SegmentedBuffer(final BufferPool pool, final MemoryBudget budget,
+                           final int segmentSize, final long spillThreshold) {
+        super();
+        if (pool == null) {
+            throw new NullPointerException("null pool");
+        }
+        if (segmentSize <= 0) {
+            throw new IllegalArgumentException("segmentSize(" + segmentSize + ") <= 0");
+        }
+        if (spillThreshold < 0L) {
+            throw new IllegalArgumentException("spillThreshold(" + spillThreshold + ") < 0");
+        }
+        this.pool = pool;
+        this.budget = budget;
+        this.segmentSize = segmentSize;
+        this.spillThreshold = spillThreshold;
+        segments = new ArrayList<>();
+    }
+
+    /**
+     * Writes specified byte.
+     *
+     * @param b the byte to write.
+     * @throws IOException if an I/O error occurs while spilling, or the budget is exhausted.
+     */
+    public void write(final int b) throws IOException {
+        spillIfExceeds(1);
+        writable().put((byte) b);
+        size++;
+    }
+
+    /**
+     * Writes specified range of bytes.
+     *
+     * @param b   the array of bytes to write.
+     * @param off the starting index of {@code b}.
+     * @param len the number of bytes to write.
+     * @throws IOException if an I/O error occurs while spilling, or the budget is exhausted.
+     */
+    public void write(final byte[] b, int off, int len) throws IOException {
+        if (b == null) {
+            throw new NullPointerException("null b");
+        }
+        if (off < 0 || len < 0 || len > b.length - off) {
+            throw new IndexOutOfBoundsException(
+                    "off(" + off + "), len(" + len + "), b.length(" + b.length + ")");
+        }
+        spillIfExceeds(len);
+        while (len > 0) {
+            final ByteBuffer segment = writable();
+            final int n = Math.min(len, segment.remaining());
+            segment.put(b, off, n);
+            off += n;
+            len -= n;
+            size += n;
+        }
+    }
+
+    /**
+     * Writes all remaining bytes of specified buffer. The position of the {@code src} will be advanced to its limit.
+     *
+     * @param src the buffer whose remaining bytes are written.
+     * @throws IOException if an I/O error occurs while spilling, or the budget is exhausted.
+     */
+    public void write(final ByteBuffer src) throws IOException {
+        if (src == null) {
+            throw new NullPointerException("null src");
+        }
+        spillIfExceeds(src.remaining());
+        final int limit = src.limit();
+        try {
+            while (src.hasRemaining()) {
+                final ByteBuffer segment = writable();
+                final int n = Math.min(src.remaining(), segment.remaining());
+                src.limit(src.position() + n);
+                segment.put(src);
+                src.limit(limit);
+                size += n;
+            }
+        } finally {
+            src.limit(limit);
+        }
+    }
+
+    /**
+     * Writes leading characters of specified range, while each of them is less than specified limit, as single bytes.
+     * This is a fast path for ASCII runs of ASCII-compatible charsets, with {@code 0x80}, and for ISO-8859-1, with
+     * {@code 0x100}.
+     *
+     * @param cbuf  the array of characters.
+     * @param off   the starting index of {@code cbuf}.
+     * @param len   the number of characters in the range.
+     * @param limit the exclusive upper bound of characters written as single bytes.
+     * @return the number of characters written.
+     * @throws IOException if an I/O error occurs while spilling, or the budget is exhausted.
+     */
+    public int write(final char[] cbuf, final int off, final int len,
+                     final char limit)
+            throws IOException {
+        if (off < 0 || len < 0 || len > cbuf.length - off) {
+            throw new IndexOutOfBoundsException(
+                    "off(" + off + "), len(" + len + "), cbuf.length(" + cbuf.length + ")");
+        }
+        final int end = off + len;
+        int i = off;
+        while (i < end && cbuf[i] < limit) {
+            spillIfExceeds(Math.min(end - i, segmentSize));
+            final ByteBuffer segment = writable();
+            final int n = Math.min(end - i, segment.remaining());
+            int j = 0;
+            for (char c; j < n && (c = cbuf[i + j]) < limit; j++) {
+                segment.put((byte) c);
+            }
+            i += j;
+            size += j;
+        }
+        return i - off;
+    }
+
+    /**
+     * Encodes remaining characters of specified buffer, with specified encoder, directly into segments. A trailing
+     * high surrogate, whose pair is yet to come, is left in the {@code src}.
+     *
+     * @param src     the buffer of characters to encode.
+     * @param encoder the encoder.
+     * @throws IOException if an I/O error occurs while spilling, or the budget is exhausted.
+     */
+    public void write(final CharBuffer src, final CharsetEncoder encoder)
+            throws IOException {
+        while (src.hasRemaining()) {
+            spillIfExceeds((int) Math.min(
+                    segmentSize, (long) src.remaining() * (long) Math.ceil(encoder.maxBytesPerChar())));
+            final ByteBuffer segment = writable();
+            final int position = segment.position();
+            final CoderResult result = encoder.encode(src, segment, false);
+            size += segment.position() - position;
+            if (result.isUnderflow()) {
+                return;
+            }
+            if (result.isError()) {
+                result.throwException();
+            }
+            if (segment.hasRemaining()) {
+                // the next character doesn't fit; segments other than the last must be full
+                final int limit = src.limit();
+                src.limit(src.position()
+                          + (Character.isHighSurrogate(src.get(src.position())) && src.remaining() > 1 ? 2 : 1));
+                final ByteBuffer scratch = ByteBuffer.allocate(16);
+                try {
+                    final CoderResult r = encoder.encode(src, scratch, false);
+                    if (r.isError()) {
+                        r.throwException();
+                    }
+                } finally {
+                    src.limit(limit);
+                }
+                scratch.flip();
+                write(scratch);
+            }
+        }
+    }
+
+    /**
+     * Sets a message digest to be updated with bytes written to this buffer. This method must be invoked before any
+     * byte is written.
+     *
+     * @param digest the message digest; {@code null} for not computing any digest.
+     * @see #digest()
+     */
+    public void setDigest(final MessageDigest digest) {
+        if (size > 0L) {
+            throw new IllegalStateException("already written");
+        }
+        this.digest = digest;
+    }
+
+    /**
+     * Completes the digest of all bytes written so far. The digest is reset after this call.
+     *
+     * @return the digest value.
+     * @throws IllegalStateException if no digest has been {@link #setDigest(MessageDigest) set}.
+     */
+    public byte[] digest() {
+        if (digest == null) {
+            throw new IllegalStateException("no digest set");
+        }
+        if (!segments.isEmpty()) {
+            final int last = segments.size() - 1;
+            feed(segments.get(last),
+                 channel != null ? flushed : (long) last * segmentSize);
+        }
+        digested = 0L;
+        return digest.digest();
+    }
+
+    /**
+     * Returns the number of bytes written so far.
+     *
+     * @return the number of bytes written.
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Tells whether this buffer has spilled its content to a temporary file.
+     *
+     * @return {@code true} if spilled; {@code false} otherwise.
+     */
+    public boolean isSpilled() {
+        return channel != null;
+    }
+
+    /**
+     * Discards all bytes written so far, returns all segments to the pool, and deletes the temporary file, if any. Any
+     * view previously acquired from this buffer becomes invalid.
+     */
+    public void reset() {
+        for (final ByteBuffer segment : segments) {
+            releaseSegment(segment);
+        }
+        segments.clear();
+        size = 0L;
+        flushed = 0L;
+        digested = 0L;
+        if (digest != null) {
+            digest.reset();
+        }
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (final IOException ioe) {
+                // ignored; the file is deleted anyway.
+            }
+            channel = null;
+            mapping = null;
+            mappedSize = 0L;
+            try {
+                Files.deleteIfExists(file);
+            } catch (final IOException ioe) {
+                file.toFile().deleteOnExit();
+            }
+            file = null;
+        }
+    }
+
+    /**
+     * Closes this buffer by {@link #reset() resetting} it.
+     */
+    @Override
+    public void close() {
+        reset();
+    }
+
+    /**
+     * Returns read-only views of written segments. No bytes are copied; a spilled content is mapped into memory.
+     *
+     * @return an array of read-only buffers, each positioned at zero and limited to its written length.
+     * @throws IOException if an I/O error occurs while mapping a spilled content.
+     */
+    public ByteBuffer[] toByteBuffers() throws IOException {
+        final ByteBuffer[] buffers = views();
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = buffers[i].asReadOnlyBuffer();
+        }
+        return buffers;
+    }
+
+    /**
+     * Returns views of written segments. Unlike {@link #toByteBuffers()}, views of heap segments keep their backing
+     * arrays so that they can be handed to {@link OutputStream#write(byte[], int, int)} without copying; callers must
+     * not modify the views.
+     *
+     * @return an array of buffers, each positioned at zero and limited to its written length.
+     * @throws IOException if an I/O error occurs while mapping a spilled content.
+     */
+    ByteBuffer[] views() throws IOException {
+        if (channel != null) {
+            return mapped();
+        }
+        final ByteBuffer[] buffers = new ByteBuffer[segments.size()];
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = segments.get(i).duplicate().flip();
+        }
+        return buffers;
+    }
+
+    /**
+     * Returns an input stream reads written bytes. No bytes are copied.
+     *
+     * @return an input stream of written bytes.
+     * @throws IOException if an I/O error occurs while mapping a spilled content.
+     */
+    public InputStream toInputStream() throws IOException {
+        return new SegmentedInputStream(toByteBuffers());
+    }
+
+    /**
+     * Writes all written bytes to specified output stream. Heap segments are written as they are. If {@code out} is a
+     * {@link WritableByteChannel}, direct segments and a spilled content are written through it as they are;
+     * otherwise they are copied through a scratch array, because an {@link OutputStream} only accepts arrays.
+     *
+     * @param out the output stream to which bytes are written.
+     * @return the number of bytes written to the {@code out}.
+     * @throws IOException if an I/O error occurs.
+     */
+    public long writeTo(final OutputStream out) throws IOException {
+        if (out == null) {
+            throw new NullPointerException("null out");
+        }
+        byte[] scratch = null;
+        for (final ByteBuffer view : views()) {
+            if (out instanceof WritableByteChannel) {
+                while (view.hasRemaining()) {
+                    ((WritableByteChannel) out).write(view);
+                }
+                continue;
+            }
+            if (view.hasArray()) {
+                out.write(view.array(), view.arrayOffset() + view.position(), view.remaining());
+                continue;
+            }
+            if (scratch == null) {
+                scratch = new byte[Math.min(segmentSize, DEFAULT_SEGMENT_SIZE)];
+            }
+            while (view.hasRemaining()) {
+                final int n = Math.min(scratch.length, view.remaining());
+                view.get(scratch, 0, n);
+                out.write(scratch, 0, n);
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Returns a newly allocated array of written bytes.
+     *
+     * @return an array of written bytes.
+     * @throws IOException if an I/O error occurs while mapping a spilled content.
+     */
+    public byte[] toByteArray() throws IOException {
+        if (size > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("too large to be an array: " + size);
+        }
+        final byte[] array = new byte[(int) size];
+        int offset = 0;
+        for (final ByteBuffer buffer : views()) {
+            final int n = buffer.remaining();
+            buffer.get(array, offset, n);
+            offset += n;
+        }
+        return array;
+    }
+
+    /**
+     * Spills current content to a temporary file if writing specified number of bytes exceeds the threshold.
+     *
+     * @param length the number of bytes about to be written.
+     * @throws IOException if an I/O error occurs.
+     */
+    private void spillIfExceeds(final int length) throws IOException {
+        if (channel != null || size + length <= spillThreshold) {
+            return;
+        }
+        spill();
+    }
+
+    /**
+     * Flushes all segments to a temporary file and keeps only one segment for staging further bytes.
+     *
+     * @throws IOException if an I/O error occurs.
+     */
+    private void spill() throws IOException {
+        file = Files.createTempFile(SegmentedBuffer.class.getSimpleName(), ".tmp");
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        } catch (final IOException ioe) {
+            Files.deleteIfExists(file);
+            file = null;
+            throw ioe;
+        }
+        for (final ByteBuffer segment : segments) {
+            drain(segment);
+        }
+        while (segments.size() > 1) {
+            releaseSegment(segments.remove(segments.size() - 1));
+        }
+    }
+
+    /**
+     * Writes written bytes of specified segment to the temporary file and clears the segment.
+     *
+     * @param segment the segment to drain.
+     * @throws IOException if an I/O error occurs.
+     */
+    private void drain(final ByteBuffer segment) throws IOException {
+        feed(segment, flushed);
+        segment.flip();
+        while (segment.hasRemaining()) {
+            flushed += channel.write(segment);
+        }
+        segment.clear();
+    }
+
+    /**
+     * Updates the digest, if any, with bytes of specified segment not yet digested.
+     *
+     * @param segment the segment.
+     * @param start   the offset of the segment's first byte in the whole content.
+     */
+    private void feed(final ByteBuffer segment, final long start) {
+        if (digest == null) {
+            return;
+        }
+        final int position = segment.position();
+        final long from = digested - start;
+        if (from >= position) {
+            return;
+        }
+        final ByteBuffer view = segment.duplicate();
+        view.position((int) Math.max(0L, from)).limit(position);
+        digest.update(view);
+        digested = start + position;
+    }
+
+    /**
+     * Drains pending bytes to the temporary file and returns views of the mapped content of the file. The file is
+     * mapped once and mapped again only when more bytes have been written since.
+     *
+     * @return an array of read-only mapped buffers.
+     * @throws IOException if an I/O error occurs.
+     */
+    private ByteBuffer[] mapped() throws IOException {
+        for (final ByteBuffer segment : segments) {
+            drain(segment);
+        }
+        if (mapping == null || mappedSize != size) {
+            final int count = (int) ((size + Integer.MAX_VALUE - 1) / Integer.MAX_VALUE);
+            final ByteBuffer[] buffers = new ByteBuffer[count];
+            long position = 0L;
+            for (int i = 0; i < count; i++) {
+                final long length = Math.min(size - position, Integer.MAX_VALUE);
+                buffers[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                position += length;
+            }
+            mapping = buffers;
+            mappedSize = size;
+        }
+        final ByteBuffer[] views = new ByteBuffer[mapping.length];
+        for (int i = 0; i < views.length; i++) {
+            views[i] = mapping[i].duplicate();
+        }
+        return views;
+    }
+
+    /**
+     * Returns the segment to which next bytes are written.
+     *
+     * @return a segment with at least one byte remaining.
+     * @throws IOException if an I/O error occurs while draining a spilled segment.
+     */
+    private ByteBuffer writable() throws IOException {
+        if (!segments.isEmpty()) {
+            final ByteBuffer last = segments.get(segments.size() - 1);
+            if (last.hasRemaining()) {
+                return last;
+            }
+            if (channel != null) {
+                drain(last);
+                return last;
+            }
+            feed(last, (segments.size() - 1L) * segmentSize);
+        }
+        if (budget != null && !budget.reserve(segmentSize)) {
+            // exhausted with the SPILL policy
+            if (!segments.isEmpty()) {
+                spill();
+                return segments.get(0);
+            }
+            budget.forceReserve(segmentSize);
+            spill();
+        }
+        final ByteBuffer segment = pool.acquire(segmentSize);
+        segment.limit(segmentSize);
+        segments.add(segment);
+        return segment;
+    }
+
+    /**
+     * Returns specified segment to the pool and releases its reservation from the budget.
+     *
+     * @param segment the segment to release.
+     */
+    private void releaseSegment(final ByteBuffer segment) {
+        pool.release(segment);
+        if (budget != null) {
+            budget.release(segmentSize);
+        }
+    }
+
+    /**
+     * An input stream reads bytes from a series of buffers.
+     */
+    private static final class SegmentedInputStream extends InputStream {
+
+        private SegmentedInputStream(final ByteBuffer[] buffers) {
+            super();
+            this.buffers = buffers;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final ByteBuffer buffer = current();
+            if (buffer == null) {
+                return -1;
+            }
+            return buffer.get() & 0xFF;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            if (off < 0 || len < 0 || len > b.length - off) {
+                throw new IndexOutOfBoundsException();
+            }
+            if (len == 0) {
+                return 0;
+            }
+            final ByteBuffer buffer = current();
+            if (buffer == null) {
+                return -1;
+            }
+            final int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public long skip(final long n) throws IOException {
+            long skipped = 0L;
+            while (skipped < n) {
+                final ByteBuffer buffer = current();
+                if (buffer == null) {
+                    break;
+                }
+                final int s = (int) Math.min(n - skipped, buffer.remaining());
+                buffer.position(buffer.position() + s);
+                skipped += s;
+            }
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            final ByteBuffer buffer = current();
+            return buffer == null ? 0 : buffer.remaining();
+        }
+
+        private ByteBuffer current() {
+            while (index < buffers.length) {
+                final ByteBuffer buffer = buffers[index];
+                if (buffer.hasRemaining()) {
+                    return buffer;
+                }
+                index++;
+            }
+            return null;
+        }
+
+        private final ByteBuffer[] buffers;
+
+        private int index;
+    }
+
+    private final BufferPool pool;
+
+    private final MemoryBudget budget;
+
+    private final int segmentSize;
+
+    private final long spillThreshold;
+
+    private final List<ByteBuffer> segments;
+
+    private long size;
+
+    /**
+     * The number of bytes written to {@link #channel}.
+     */
+    private long flushed;
+
+    private MessageDigest digest;
+
+    /**
+     * The number of bytes with which the {@link #digest} has been updated.
+     */
+    private long digested;
+
+    /**
+     * The temporary file to which the content has spilled.
+     */
+    private Path file;
+
+    /**
+     * The channel of {@link #file}.
+     */
+    private FileChannel channel;
+
+    /**
+     * The mapped content of {@link #file}; {@code null} until mapped.
+     */
+    private ByteBuffer[] mapping;
+
+    /**
+     * The number of bytes mapped in {@link #mapping}.
+     */
+    private long mappedSize;
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright 2026 Jin Kwon &lt;jinahya_at_gmail.com&gt;.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jinahya.servlet;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * An unsynchronized writer which encodes characters directly into segments of a {@link BufferedServletOutputStream}.
+ * <p>
+ * For UTF-8 and US-ASCII, runs of ASCII characters, and for ISO-8859-1, all of its characters, are written as single
+ * bytes without an encoder. Other characters are encoded with a {@link CharsetEncoder} borrowed, only when needed,
+ * from a process-wide pool and returned when this writer is {@link #close() closed} or {@link #release() released}.
+ * <p>
+ * Instances of this class are not safe for concurrent use.
+ *
+ * @author Jin Kwon &lt;jinahya_at_gmail.com&gt;
+ */
+public class SegmentedWriter extends Writer {
+
+    private static final int CHUNK_SIZE = 1024;
+
+    /**
+     * Returns the exclusive upper bound of characters which specified charset encodes as the same single bytes.
+     *
+     * @param charset the charset.
+     * @return the upper bound; {@code 0} if no character is known to be.
+     */
+    private static char directLimit(final Charset charset) {
+        if (StandardCharsets.UTF_8.equals(charset)
+            || StandardCharsets.US_ASCII.equals(charset)) {
+            return 0x80;
+        }
+        if (StandardCharsets.ISO_8859_1.equals(charset)) {
+            return 0x100;
+        }
+        return 0;
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param out     the output stream into which encoded bytes are written.
+     * @param charset the charset with which characters are encoded.
+     */
+    public SegmentedWriter(final BufferedServletOutputStream out,
+                           final Charset charset) {
+        super();
+        if (out == null) {
+            throw new NullPointerException("null out");
+        }
+        if (charset == null) {
+            throw new NullPointerException("null charset");
+        }
+        this.out = out;
+        this.charset = charset;
+        directLimit = directLimit(charset);
+    }
+
+    @Override
+    public void write(final int c) throws IOException {
+        chunk()[0] = (char) c;
+        write(chunk, 0, 1);
+    }
+
+    @Override
+    public void write(final char[] cbuf, int off, int len)
+            throws IOException {
+        if (off < 0 || len < 0 || len > cbuf.length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+        ensureOpen();
+        while (len > 0) {
+            if (pending == 0 && directLimit != 0) {
+                final int n = out.write(cbuf, off, len, directLimit);
+                off += n;
+                len -= n;
+                if (len == 0) {
+                    return;
+                }
+            }
+            int end = off + 1;
+            while (end < off + len && cbuf[end] >= directLimit) {
+                end++;
+            }
+            encode(cbuf, off, end - off);
+            len -= end - off;
+            off = end;
+        }
+    }
+
+    @Override
+    public void write(final String str, int off, int len)
+            throws IOException {
+        if (off < 0 || len < 0 || len > str.length() - off) {
+            throw new IndexOutOfBoundsException();
+        }
+        final char[] chunk = chunk();
+        while (len > 0) {
+            final int n = Math.min(len, chunk.length);
+            str.getChars(off, off + n, chunk, 0);
+            write(chunk, 0, n);
+            off += n;
+            len -= n;
+        }
+    }
+
+    @Override
+    public Writer append(final CharSequence csq) throws IOException {
+        final String str = String.valueOf(csq);
+        write(str, 0, str.length());
+        return this;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        out.flush();
+    }
+
+    /**
+     * {@inheritDoc} The {@code close()} method of {@code SegmentedWriter} flushes the encoder, if any, closes the
+     * underlying output stream, and {@link #release() releases} the encoder.
+     *
+     * @throws IOException {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (encoder != null) {
+                final ByteBuffer tail = ByteBuffer.allocate(64);
+                final CharBuffer src = pending == 0
+                                       ? CharBuffer.allocate(0) : CharBuffer.wrap(new char[] {pending});
+                pending = 0;
+                encoder.encode(src, tail, true);
+                encoder.flush(tail);
+                out.write(tail.array(), 0, tail.position());
+            }
+            out.close();
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Returns the encoder, if borrowed, to the pool. This writer should not be used afterwards.
+     */
+    public void release() {
+        if (encoder != null) {
+            final CharsetEncoder released = encoder;
+            encoder = null;
+            CharsetEncoders.release(released);
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("closed");
+        }
+    }
+
+    private char[] chunk() {
+        if (chunk == null) {
+            chunk = new char[CHUNK_SIZE];
+        }
+        return chunk;
+    }
+
+    /**
+     * Encodes specified range of characters, with a pending high surrogate, if any, in front of them.
+     */
+    private void encode(final char[] cbuf, int off, int len)
+            throws IOException {
+        if (encoder == null) {
+            encoder = CharsetEncoders.acquire(charset);
+        }
+        if (pending != 0) {
+            final CharBuffer pair = CharBuffer.wrap(new char[] {pending, cbuf[off]});
+            pending = 0;
+            out.write(pair, encoder);
+            if (pair.hasRemaining()) {
+                pending = pair.get();
+            }
+            off++;
+            len--;
+            if (len == 0) {
+                return;
+            }
+        }
+        final CharBuffer src = CharBuffer.wrap(cbuf, off, len);
+        out.write(src, encoder);
+        if (src.hasRemaining()) {
+            pending = src.get();
+        }
+    }
+
+    private final BufferedServletOutputStream out;
+
+    private final Charset charset;
+
+    private final char directLimit;
+
+    private CharsetEncoder encoder;
+
+    /**
+     * A high surrogate waiting for its pair; {@code 0} if none.
+     */
+    private char pending;
+
+    private char[] chunk;
+
+    private boolean closed;
+}
@@ -0,0 +1,247 @@
+/*
+ * Copyright 2026 Jin Kwon &lt;jinahya_at_gmail.com&gt;.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jinahya.servlet;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The default implementation of {@link BufferPool} which keeps idle buffers in size classes of powers of two, each
+ * split into stripes chosen by the current thread's identifier.
+ * <p>
+ * Acquisition and release are lock-free; no monitor is held and no per-thread cache is used, hence an instance is
+ * suitable for virtual threads. Requests larger than the {@link #getMaxCapacity() maximum capacity} are served by
+ * unpooled allocations which are dropped when released.
+ *
+ * @author Jin Kwon &lt;jinahya_at_gmail.com&gt;
+ */
+public class StripedBufferPool implements BufferPool {
+
+    /**
+     * The default capacity of the smallest size class.
+     */
+    public static final int DEFAULT_MIN_CAPACITY = 1 << 12;
+
+    /**
+     * The default capacity of the largest size class.
+     */
+    public static final int DEFAULT_MAX_CAPACITY = 1 << 20;
+
+    /**
+     * The default number of bytes of idle buffers kept in each size class.
+     */
+    public static final long DEFAULT_MAX_IDLE_BYTES_PER_CLASS = 1L << 23;
+
+    private static int ceilingPowerOfTwo(final int value) {
+        if (value <= 1) {
+            return 1;
+        }
+        return Integer.highestOneBit(value - 1) << 1;
+    }
+
+    /**
+     * Creates a new instance of direct buffers with default settings.
+     */
+    public StripedBufferPool() {
+        this(true, DEFAULT_MIN_CAPACITY, DEFAULT_MAX_CAPACITY,
+             Runtime.getRuntime().availableProcessors() * 2,
+             DEFAULT_MAX_IDLE_BYTES_PER_CLASS);
+    }
+
+    /**
+     * Creates a new instance with specified settings.
+     *
+     * @param direct               a flag for allocating direct buffers.
+     * @param minCapacity          the capacity of the smallest size class; rounded up to a power of two.
+     * @param maxCapacity          the capacity of the largest size class; rounded up to a power of two.
+     * @param stripes              the number of stripes of each size class; rounded up to a power of two.
+     * @param maxIdleBytesPerClass the maximum number of bytes of idle buffers kept in each size class.
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public StripedBufferPool(final boolean direct, final int minCapacity,
+                             final int maxCapacity, final int stripes,
+                             final long maxIdleBytesPerClass) {
+        super();
+        if (minCapacity <= 0) {
+            throw new IllegalArgumentException(
+                    "minCapacity(" + minCapacity + ") <= 0");
+        }
+        if (maxCapacity < minCapacity) {
+            throw new IllegalArgumentException(
+                    "maxCapacity(" + maxCapacity + ") < minCapacity("
+                    + minCapacity + ")");
+        }
+        if (maxCapacity > 1 << 30) {
+            throw new IllegalArgumentException(
+                    "maxCapacity(" + maxCapacity + ") > " + (1 << 30));
+        }
+        if (stripes <= 0) {
+            throw new IllegalArgumentException("stripes(" + stripes + ") <= 0");
+        }
+        if (maxIdleBytesPerClass < 0L) {
+            throw new IllegalArgumentException(
+                    "maxIdleBytesPerClass(" + maxIdleBytesPerClass + ") < 0");
+        }
+        this.direct = direct;
+        minShift = Integer.numberOfTrailingZeros(ceilingPowerOfTwo(minCapacity));
+        final int maxShift
+                = Integer.numberOfTrailingZeros(ceilingPowerOfTwo(maxCapacity));
+        stripeMask = ceilingPowerOfTwo(Math.min(stripes, 1 << 10)) - 1;
+        classes = new AtomicReferenceArray[maxShift - minShift + 1];
+        slotsPerStripe = new int[classes.length];
+        for (int i = 0; i < classes.length; i++) {
+            final long capacity = 1L << (minShift + i);
+            slotsPerStripe[i] = (int) Math.max(
+                    1L, Math.min(maxIdleBytesPerClass / capacity / (stripeMask + 1),
+                                 1 << 10));
+            classes[i] = new AtomicReferenceArray<>(
+                    slotsPerStripe[i] * (stripeMask + 1));
+        }
+        hits = new LongAdder();
+        misses = new LongAdder();
+        outstanding = new LongAdder();
+    }
+
+    @Override
+    public ByteBuffer acquire(final int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity(" + capacity + ") < 0");
+        }
+        outstanding.increment();
+        final int index = classIndex(capacity);
+        if (index == -1) {
+            misses.increment();
+            return allocate(capacity);
+        }
+        final AtomicReferenceArray<ByteBuffer> slots = classes[index];
+        final int count = slotsPerStripe[index];
+        final int stripe = stripe();
+        for (int probe = 0; probe < 2; probe++) {
+            final int base = ((stripe + probe) & stripeMask) * count;
+            for (int i = base; i < base + count; i++) {
+                if (slots.get(i) == null) {
+                    continue;
+                }
+                final ByteBuffer buffer = slots.getAndSet(i, null);
+                if (buffer != null) {
+                    hits.increment();
+                    return buffer.clear();
+                }
+            }
+        }
+        misses.increment();
+        return allocate(1 << (minShift + index));
+    }
+
+    @Override
+    public void release(final ByteBuffer buffer) {
+        if (buffer == null) {
+            throw new NullPointerException("null buffer");
+        }
+        outstanding.decrement();
+        if (buffer.isDirect() != direct || buffer.isReadOnly()) {
+            return;
+        }
+        final int capacity = buffer.capacity();
+        if (Integer.bitCount(capacity) != 1) {
+            return;
+        }
+        final int index = Integer.numberOfTrailingZeros(capacity) - minShift;
+        if (index < 0 || index >= classes.length) {
+            return;
+        }
+        final AtomicReferenceArray<ByteBuffer> slots = classes[index];
+        final int count = slotsPerStripe[index];
+        final int base = stripe() * count;
+        for (int i = base; i < base + count; i++) {
+            if (slots.get(i) == null && slots.compareAndSet(i, null, buffer)) {
+                return;
+            }
+        }
+        // dropped; the stripe is full.
+    }
+
+    @Override
+    public long getHits() {
+        return hits.sum();
+    }
+
+    @Override
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    @Override
+    public long getOutstanding() {
+        return outstanding.sum();
+    }
+
+    /**
+     * Returns the capacity of the largest size class.
+     *
+     * @return the capacity of the largest size class.
+     */
+    public int getMaxCapacity() {
+        return 1 << (minShift + classes.length - 1);
+    }
+
+    /**
+     * Tells whether this pool allocates direct buffers.
+     *
+     * @return {@code true} if direct; {@code false} otherwise.
+     */
+    public boolean isDirect() {
+        return direct;
+    }
+
+    private int classIndex(final int capacity) {
+        final int shift = Math.max(
+                Integer.numberOfTrailingZeros(ceilingPowerOfTwo(capacity)),
+                minShift);
+        final int index = shift - minShift;
+        return index < classes.length ? index : -1;
+    }
+
+    private int stripe() {
+        long id = Thread.currentThread().getId();
+        id ^= id >>> 33;
+        id *= 0xff51afd7ed558ccdL;
+        id ^= id >>> 33;
+        return (int) id & stripeMask;
+    }
+
+    private ByteBuffer allocate(final int capacity) {
+        return direct ? ByteBuffer.allocateDirect(capacity)
+               : ByteBuffer.allocate(capacity);
+    }
+
+    private final boolean direct;
+
+    private final int minShift;
+
+    private final int stripeMask;
+
+    private final AtomicReferenceArray<ByteBuffer>[] classes;
+
+    private final int[] slotsPerStripe;
+
+    private final LongAdder hits;
+
+    private final LongAdder misses;
+
+    private final LongAdder outstanding;
+}
@@ -0,0 +1,653 @@
+/*
+ * Copyright 2026 Jin Kwon &lt;jinahya_at_gmail.com&gt;.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jinahya.servlet;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToLongFunction;
+
+/**
+ * A size-weighted, in-process cache with the W-TinyLFU admission and eviction policy.
+ * <p>
+ * New entries are admitted to a small LRU window. An entry evicted from the window competes with the eviction victim
+ * of the main space, a segmented LRU of probation and protected queues, and only the one estimated more frequent, by a
+ * count-min sketch of 4-bit counters which are periodically halved, survives. Hence a burst of one-hit entries can't
+ * flush frequently used ones. Each entry expires after a time-to-live, unless put with {@link #NO_TIME_TO_LIVE}. The
+ * sketch is sized once, from the maximum weight, so that its frequency history survives as the cache fills.
+ * <p>
+ * Lookups don't lock. Each lookup is recorded in a bounded, lossy buffer, and the records are replayed into the sketch
+ * and the access queues when the buffer fills up, or by the next write. Writes are guarded by a
+ * {@link ReentrantLock}, rather than a monitor, so that callers on virtual threads are not pinned.
+ *
+ * @param <K> key type parameter
+ * @param <V> value type parameter
+ * @author Jin Kwon &lt;jinahya_at_gmail.com&gt;
+ */
+public class TinyLfuCache<K, V> {
+
+    /**
+     * A time-to-live with which an entry never expires.
+     */
+    public static final long NO_TIME_TO_LIVE = -1L;
+
+    private static final int WINDOW = 0;
+
+    private static final int PROBATION = 1;
+
+    private static final int PROTECTED = 2;
+
+    /**
+     * The number of lookups recorded before they are replayed; a power of two.
+     */
+    private static final int READ_BUFFER_SIZE = 128;
+
+    /**
+     * The maximum number of {@code long}s of the frequency sketch; {@value} longs take 512 KiB.
+     */
+    private static final int MAXIMUM_SKETCH_LENGTH = 1 << 16;
+
+    /**
+     * A count-min sketch of 4-bit counters, four per key, sixteen per {@code long}.
+     */
+    private static final class FrequencySketch {
+
+        private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L,
+            0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+        };
+
+        private static final long RESET_MASK = 0x7777777777777777L;
+
+        private static int spread(final int hash) {
+            int x = hash;
+            x = ((x >>> 16) ^ x) * 0x45d9f3b;
+            x = ((x >>> 16) ^ x) * 0x45d9f3b;
+            return (x >>> 16) ^ x;
+        }
+
+        private FrequencySketch(final long maximumWeight) {
+            super();
+            final int length = Integer.highestOneBit(
+                    (int) Math.max(Math.min(maximumWeight, MAXIMUM_SKETCH_LENGTH) - 1L, 8L)) << 1;
+            table = new long[length];
+            sampleSize = length * 10;
+        }
+
+        private int frequency(final Object key) {
+            final int hash = spread(key.hashCode());
+            int frequency = Integer.MAX_VALUE;
+            for (int i = 0; i < SEEDS.length; i++) {
+                final long seeded = seeded(hash, i);
+                final int index = (int) seeded & (table.length - 1);
+                final int shift = (int) ((seeded >>> 40) & 15L) << 2;
+                frequency = Math.min(frequency,
+                                     (int) ((table[index] >>> shift) & 15L));
+            }
+            return frequency;
+        }
+
+        private void increment(final Object key) {
+            final int hash = spread(key.hashCode());
+            boolean added = false;
+            for (int i = 0; i < SEEDS.length; i++) {
+                final long seeded = seeded(hash, i);
+                final int index = (int) seeded & (table.length - 1);
+                final int shift = (int) ((seeded >>> 40) & 15L) << 2;
+                if (((table[index] >>> shift) & 15L) != 15L) {
+                    table[index] += 1L << shift;
+                    added = true;
+                }
+            }
+            if (added && ++additions >= sampleSize) {
+                for (int i = 0; i < table.length; i++) {
+                    table[i] = (table[i] >>> 1) & RESET_MASK;
+                }
+                additions >>>= 1;
+            }
+        }
+
+        private long seeded(final int hash, final int i) {
+            long seeded = (hash + SEEDS[i]) * SEEDS[i];
+            seeded += seeded >>> 32;
+            return seeded;
+        }
+
+        private final long[] table;
+
+        private final int sampleSize;
+
+        private int additions;
+    }
+
+    private static final class Node<K, V> {
+
+        private Node(final K key) {
+            super();
+            this.key = key;
+        }
+
+        private final K key;
+
+        /**
+         * The value; written after {@link #expires} and {@link #expiresAt} so that a lookup which reads it first sees
+         * them as well.
+         */
+        private volatile V value;
+
+        private long weight;
+
+        /**
+         * The {@link System#nanoTime()} at which this entry expires; meaningless unless {@link #expires}.
+         */
+        private long expiresAt;
+
+        private boolean expires;
+
+        /**
+         * Whether this node is still mapped; {@code false} once removed, evicted, or cleared.
+         */
+        private boolean linked;
+
+        private int queue;
+
+        private Node<K, V> prev;
+
+        private Node<K, V> next;
+    }
+
+    /**
+     * An intrusive doubly-linked queue of nodes in access order; the head is the least recently used.
+     */
+    private static final class AccessQueue<K, V> {
+
+        private void addLast(final Node<K, V> node) {
+            node.prev = tail;
+            node.next = null;
+            if (tail == null) {
+                head = node;
+            } else {
+                tail.next = node;
+            }
+            tail = node;
+        }
+
+        private void remove(final Node<K, V> node) {
+            if (node.prev == null) {
+                head = node.next;
+            } else {
+                node.prev.next = node.next;
+            }
+            if (node.next == null) {
+                tail = node.prev;
+            } else {
+                node.next.prev = node.prev;
+            }
+            node.prev = null;
+            node.next = null;
+        }
+
+        private void moveToLast(final Node<K, V> node) {
+            if (node != tail) {
+                remove(node);
+                addLast(node);
+            }
+        }
+
+        private Node<K, V> head;
+
+        private Node<K, V> tail;
+    }
+
+    private static long requireTimeToLive(final long timeToLiveNanos) {
+        if (timeToLiveNanos <= 0L && timeToLiveNanos != NO_TIME_TO_LIVE) {
+            throw new IllegalArgumentException(
+                    "timeToLiveNanos(" + timeToLiveNanos + ") <= 0");
+        }
+        return timeToLiveNanos;
+    }
+
+    /**
+     * Creates a new instance whose entries, unless put with a time-to-live, never expire.
+     *
+     * @param maximumWeight the maximum total weight of entries.
+     * @param weigher       a function computes the weight of each value; must be non-negative.
+     */
+    public TinyLfuCache(final long maximumWeight,
+                        final ToLongFunction<? super V> weigher) {
+        this(maximumWeight, weigher, NO_TIME_TO_LIVE);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param maximumWeight   the maximum total weight of entries.
+     * @param weigher         a function computes the weight of each value; must be non-negative.
+     * @param timeToLiveNanos the number of nanoseconds an entry lives after it's put; or {@link #NO_TIME_TO_LIVE}.
+     */
+    public TinyLfuCache(final long maximumWeight,
+                        final ToLongFunction<? super V> weigher,
+                        final long timeToLiveNanos) {
+        super();
+        if (maximumWeight <= 0L) {
+            throw new IllegalArgumentException(
+                    "maximumWeight(" + maximumWeight + ") <= 0");
+        }
+        if (weigher == null) {
+            throw new NullPointerException("null weigher");
+        }
+        requireTimeToLive(timeToLiveNanos);
+        this.maximumWeight = maximumWeight;
+        this.weigher = weigher;
+        this.timeToLiveNanos = timeToLiveNanos;
+        windowMaximum = Math.max(1L, maximumWeight / 100L);
+        mainMaximum = maximumWeight - windowMaximum;
+        protectedMaximum = mainMaximum / 5L * 4L;
+        sketch = new FrequencySketch(maximumWeight);
+    }
+
+    /**
+     * Returns the value mapped to specified key.
+     *
+     * @param key the key.
+     * @return the value mapped to {@code key}; {@code null} if absent or expired.
+     */
+    public V get(final K key) {
+        if (key == null) {
+            throw new NullPointerException("null key");
+        }
+        record(key);
+        final Node<K, V> node = nodes.get(key);
+        if (node == null) {
+            misses.increment();
+            return null;
+        }
+        final V value = node.value;
+        if (node.expires && node.expiresAt - System.nanoTime() <= 0L) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return value;
+    }
+
+    /**
+     * Maps specified value to specified key with the default time-to-live.
+     *
+     * @param key   the key.
+     * @param value the value.
+     */
+    public void put(final K key, final V value) {
+        put(key, value, timeToLiveNanos);
+    }
+
+    /**
+     * Maps specified value to specified key. A value heavier than the {@link #getMaximumWeight() maximum weight} is
+     * not cached and removes the current mapping, if any.
+     *
+     * @param key             the key.
+     * @param value           the value.
+     * @param timeToLiveNanos the number of nanoseconds the entry lives; or {@link #NO_TIME_TO_LIVE}.
+     */
+    public void put(final K key, final V value, final long timeToLiveNanos) {
+        if (key == null) {
+            throw new NullPointerException("null key");
+        }
+        if (value == null) {
+            throw new NullPointerException("null value");
+        }
+        requireTimeToLive(timeToLiveNanos);
+        final long weight = weigher.applyAsLong(value);
+        if (weight < 0L) {
+            throw new IllegalArgumentException("weight(" + weight + ") < 0");
+        }
+        lock.lock();
+        try {
+            drainReads();
+            Node<K, V> node = nodes.get(key);
+            if (weight > maximumWeight) {
+                if (node != null) {
+                    unlink(node);
+                    nodes.remove(key);
+                }
+                return;
+            }
+            final boolean added = node == null;
+            if (added) {
+                node = new Node<>(key);
+                node.queue = WINDOW;
+                node.linked = true;
+                window.addLast(node);
+            } else {
+                onAccess(node);
+                adjust(node.queue, -node.weight);
+            }
+            node.weight = weight;
+            node.expires = timeToLiveNanos != NO_TIME_TO_LIVE;
+            node.expiresAt = System.nanoTime() + timeToLiveNanos;
+            node.value = value;
+            if (added) {
+                nodes.put(key, node);
+            }
+            adjust(node.queue, weight);
+            sketch.increment(key);
+            evict();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the mapping of specified key.
+     *
+     * @param key the key.
+     * @return the value previously mapped; {@code null} if absent.
+     */
+    public V remove(final K key) {
+        lock.lock();
+        try {
+            drainReads();
+            final Node<K, V> node = nodes.remove(key);
+            if (node == null) {
+                return null;
+            }
+            unlink(node);
+            return node.value;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes all mappings.
+     */
+    public void clear() {
+        lock.lock();
+        try {
+            drainReads();
+            for (final Node<K, V> node : nodes.values()) {
+                node.linked = false;
+            }
+            nodes.clear();
+            window.head = window.tail = null;
+            probation.head = probation.tail = null;
+            protectedQueue.head = protectedQueue.tail = null;
+            windowWeight = probationWeight = protectedWeight = 0L;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of mappings including expired ones not yet removed.
+     *
+     * @return the number of mappings.
+     */
+    public int size() {
+        lock.lock();
+        try {
+            drainReads();
+            return nodes.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the maximum total weight of entries.
+     *
+     * @return the maximum weight.
+     */
+    public long getMaximumWeight() {
+        return maximumWeight;
+    }
+
+    /**
+     * Returns current total weight of entries.
+     *
+     * @return current weight.
+     */
+    public long getWeight() {
+        lock.lock();
+        try {
+            drainReads();
+            return windowWeight + probationWeight + protectedWeight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of lookups found a live entry.
+     *
+     * @return the number of hits.
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of lookups found no live entry.
+     *
+     * @return the number of misses.
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the number of entries evicted by the size bound.
+     *
+     * @return the number of evictions.
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Records a lookup of specified key, unless the read buffer is full, and replays the buffer if it is, and the lock
+     * is free.
+     */
+    private void record(final K key) {
+        final long written = writes.get();
+        if (written - reads >= READ_BUFFER_SIZE) {
+            if (lock.tryLock()) {
+                try {
+                    drainReads();
+                } finally {
+                    lock.unlock();
+                }
+            }
+            return;
+        }
+        if (writes.compareAndSet(written, written + 1L)) {
+            readBuffer.lazySet((int) written & (READ_BUFFER_SIZE - 1), key);
+        }
+    }
+
+    /**
+     * Replays recorded lookups into the sketch and the access queues; must be called with the lock held.
+     */
+    private void drainReads() {
+        final long written = writes.get();
+        long read = reads;
+        for (; read < written; read++) {
+            final K key = readBuffer.getAndSet((int) read & (READ_BUFFER_SIZE - 1), null);
+            if (key == null) {
+                break; // the slot is claimed but not yet set; replayed by the next drain
+            }
+            sketch.increment(key);
+            final Node<K, V> node = nodes.get(key);
+            if (node == null || !node.linked) {
+                continue;
+            }
+            if (node.expires && node.expiresAt - System.nanoTime() <= 0L) {
+                unlink(node);
+                nodes.remove(key);
+                continue;
+            }
+            onAccess(node);
+        }
+        reads = read;
+    }
+
+    private AccessQueue<K, V> queue(final int queue) {
+        switch (queue) {
+            case WINDOW:
+                return window;
+            case PROBATION:
+                return probation;
+            default:
+                return protectedQueue;
+        }
+    }
+
+    private void adjust(final int queue, final long delta) {
+        switch (queue) {
+            case WINDOW:
+                windowWeight += delta;
+                break;
+            case PROBATION:
+                probationWeight += delta;
+                break;
+            default:
+                protectedWeight += delta;
+                break;
+        }
+    }
+
+    private void unlink(final Node<K, V> node) {
+        node.linked = false;
+        queue(node.queue).remove(node);
+        adjust(node.queue, -node.weight);
+    }
+
+    private void onAccess(final Node<K, V> node) {
+        if (node.queue != PROBATION) {
+            queue(node.queue).moveToLast(node);
+            return;
+        }
+        unlink(node);
+        node.linked = true;
+        node.queue = PROTECTED;
+        protectedQueue.addLast(node);
+        adjust(PROTECTED, node.weight);
+        while (protectedWeight > protectedMaximum
+               && protectedQueue.head != node) {
+            final Node<K, V> demoted = protectedQueue.head;
+            unlink(demoted);
+            demoted.linked = true;
+            demoted.queue = PROBATION;
+            probation.addLast(demoted);
+            adjust(PROBATION, demoted.weight);
+        }
+    }
+
+    private void evict() {
+        while (windowWeight > windowMaximum) {
+            final Node<K, V> candidate = window.head;
+            unlink(candidate);
+            candidate.linked = true;
+            candidate.queue = PROBATION;
+            probation.addLast(candidate);
+            adjust(PROBATION, candidate.weight);
+            while (probationWeight + protectedWeight > mainMaximum) {
+                Node<K, V> victim = probation.head;
+                if (victim == candidate) {
+                    victim = candidate.next;
+                }
+                if (victim == null) {
+                    victim = protectedQueue.head;
+                }
+                if (victim == null) {
+                    evict(candidate);
+                    break;
+                }
+                if (sketch.frequency(candidate.key)
+                    > sketch.frequency(victim.key)) {
+                    evict(victim);
+                } else {
+                    evict(candidate);
+                    break;
+                }
+            }
+        }
+        while (probationWeight + protectedWeight > mainMaximum) {
+            evict(probation.head != null ? probation.head : protectedQueue.head);
+        }
+    }
+
+    private void evict(final Node<K, V> node) {
+        unlink(node);
+        nodes.remove(node.key);
+        evictions.increment();
+    }
+
+    private final long maximumWeight;
+
+    private final ToLongFunction<? super V> weigher;
+
+    private final long timeToLiveNanos;
+
+    private final long windowMaximum;
+
+    private final long mainMaximum;
+
+    private final long protectedMaximum;
+
+    private final Lock lock = new ReentrantLock();
+
+    /**
+     * Nodes by their keys; read without, and written with, the lock held.
+     */
+    private final Map<K, Node<K, V>> nodes = new ConcurrentHashMap<>();
+
+    private final FrequencySketch sketch;
+
+    private final AtomicReferenceArray<K> readBuffer = new AtomicReferenceArray<>(READ_BUFFER_SIZE);
+
+    /**
+     * The number of lookups recorded into the read buffer.
+     */
+    private final AtomicLong writes = new AtomicLong();
+
+    /**
+     * The number of lookups replayed from the read buffer; written with the lock held.
+     */
+    private volatile long reads;
+
+    private final AccessQueue<K, V> window = new AccessQueue<>();
+
+    private final AccessQueue<K, V> probation = new AccessQueue<>();
+
+    private final AccessQueue<K, V> protectedQueue = new AccessQueue<>();
+
+    private long windowWeight;
+
+    private long probationWeight;
+
+    private long protectedWeight;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+}
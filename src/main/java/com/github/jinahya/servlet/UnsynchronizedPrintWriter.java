@@ -0,0 +1,121 @@
+/*
+ * Copyright 2026 Jin Kwon &lt;jinahya_at_gmail.com&gt;.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jinahya.servlet;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+
+/**
+ * A print writer which writes to the underlying writer without holding its lock. This class is for writers, such as
+ * {@link SegmentedWriter}, confined to a single request.
+ *
+ * @author Jin Kwon &lt;jinahya_at_gmail.com&gt;
+ */
+public class UnsynchronizedPrintWriter extends PrintWriter {
+
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    /**
+     * Creates a new instance.
+     *
+     * @param out the underlying writer.
+     */
+    public UnsynchronizedPrintWriter(final Writer out) {
+        super(out, false);
+    }
+
+    @Override
+    public void write(final int c) {
+        if (out == null) {
+            setError();
+            return;
+        }
+        try {
+            out.write(c);
+        } catch (final IOException ioe) {
+            handle(ioe);
+        }
+    }
+
+    @Override
+    public void write(final char[] buf, final int off, final int len) {
+        if (out == null) {
+            setError();
+            return;
+        }
+        try {
+            out.write(buf, off, len);
+        } catch (final IOException ioe) {
+            handle(ioe);
+        }
+    }
+
+    @Override
+    public void write(final char[] buf) {
+        write(buf, 0, buf.length);
+    }
+
+    @Override
+    public void write(final String s, final int off, final int len) {
+        if (out == null) {
+            setError();
+            return;
+        }
+        try {
+            out.write(s, off, len);
+        } catch (final IOException ioe) {
+            handle(ioe);
+        }
+    }
+
+    @Override
+    public void write(final String s) {
+        write(s, 0, s.length());
+    }
+
+    @Override
+    public void println() {
+        write(LINE_SEPARATOR);
+    }
+
+    @Override
+    public void println(final String x) {
+        print(x);
+        println();
+    }
+
+    @Override
+    public void flush() {
+        if (out == null) {
+            setError();
+            return;
+        }
+        try {
+            out.flush();
+        } catch (final IOException ioe) {
+            handle(ioe);
+        }
+    }
+
+    private void handle(final IOException ioe) {
+        if (ioe instanceof InterruptedIOException) {
+            Thread.currentThread().interrupt();
+        }
+        setError();
+    }
+}
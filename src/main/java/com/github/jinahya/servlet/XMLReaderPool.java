@@ -0,0 +1,212 @@
+/*
+ * Copyright 2026 Jin Kwon &lt;jinahya_at_gmail.com&gt;.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jinahya.servlet;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+import org.xml.sax.EntityResolver;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXNotRecognizedException;
+import org.xml.sax.SAXNotSupportedException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+import java.io.StringReader;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A pool of namespace-aware {@link XMLReader}s hardened for untrusted input.
+ * <p>
+ * Readers are created, where supported, with secure processing on, with external general and parameter entities
+ * off, and without loading external DTDs; external entities are resolved to empty documents in any case. Unless
+ * allowed, a document with a {@code DOCTYPE} declaration is rejected, so that no entity is expanded at all. Pooling
+ * the readers keeps the factory lookup and the parser construction out of each request. Acquisition and release are
+ * lock-free; creation of a new reader is serialized because parser factories are not thread-safe.
+ *
+ * @author Jin Kwon &lt;jinahya_at_gmail.com&gt;
+ */
+public class XMLReaderPool implements AutoCloseable {
+
+    /**
+     * The default number of idle readers kept.
+     */
+    public static final int DEFAULT_MAX_IDLE = 64;
+
+    private static final String LEXICAL_HANDLER
+            = "http://xml.org/sax/properties/lexical-handler";
+
+    /**
+     * An entity resolver which resolves every external entity to an empty document.
+     */
+    private static final EntityResolver EMPTY_ENTITY_RESOLVER
+            = (publicId, systemId) -> new InputSource(new StringReader(""));
+
+    private static final DefaultHandler DEFAULT_HANDLER = new DefaultHandler();
+
+    private static void setFeature(final SAXParserFactory factory,
+                                   final String name, final boolean value) {
+        try {
+            factory.setFeature(name, value);
+        } catch (final ParserConfigurationException | SAXNotRecognizedException
+                       | SAXNotSupportedException e) {
+            // not supported by the implementation
+        }
+    }
+
+    /**
+     * Creates a new instance with {@link #DEFAULT_MAX_IDLE} which rejects documents with {@code DOCTYPE}
+     * declarations.
+     */
+    public XMLReaderPool() {
+        this(DEFAULT_MAX_IDLE, false);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param maxIdle      the maximum number of idle readers kept.
+     * @param allowDoctype {@code true} for accepting documents with {@code DOCTYPE} declarations, whose external
+     *                     subsets and entities are still not fetched; {@code false} for rejecting them.
+     */
+    public XMLReaderPool(final int maxIdle, final boolean allowDoctype) {
+        super();
+        if (maxIdle < 0) {
+            throw new IllegalArgumentException("maxIdle(" + maxIdle + ") < 0");
+        }
+        this.maxIdle = maxIdle;
+        factory = SAXParserFactory.newInstance();
+        factory.setNamespaceAware(true);
+        factory.setValidating(false);
+        factory.setXIncludeAware(false);
+        setFeature(factory, XMLConstants.FEATURE_SECURE_PROCESSING, true);
+        setFeature(factory, "http://apache.org/xml/features/disallow-doctype-decl",
+                   !allowDoctype);
+        setFeature(factory, "http://xml.org/sax/features/external-general-entities",
+                   false);
+        setFeature(factory, "http://xml.org/sax/features/external-parameter-entities",
+                   false);
+        setFeature(factory, "http://apache.org/xml/features/nonvalidating/load-external-dtd",
+                   false);
+    }
+
+    /**
+     * Acquires a reader.
+     *
+     * @return a reader ready to parse.
+     * @throws SAXException if failed to create a new reader.
+     */
+    public XMLReader acquire() throws SAXException {
+        final XMLReader reader = idles.poll();
+        if (reader != null) {
+            count.decrementAndGet();
+            hits.increment();
+            return reader;
+        }
+        misses.increment();
+        final XMLReader created;
+        lock.lock();
+        try {
+            created = factory.newSAXParser().getXMLReader();
+        } catch (final ParserConfigurationException pce) {
+            throw new SAXException(pce);
+        } finally {
+            lock.unlock();
+        }
+        created.setEntityResolver(EMPTY_ENTITY_RESOLVER);
+        return created;
+    }
+
+    /**
+     * Releases specified reader acquired from this pool. The handlers of the reader are reset and the reader is kept
+     * for reuse, or is discarded if there are already enough idle ones. A reader must not be released while it is
+     * parsing.
+     *
+     * @param reader the reader to release.
+     */
+    public void release(final XMLReader reader) {
+        if (reader == null) {
+            throw new NullPointerException("null reader");
+        }
+        if (closed || count.incrementAndGet() > maxIdle) {
+            count.decrementAndGet();
+            return;
+        }
+        reader.setContentHandler(DEFAULT_HANDLER);
+        reader.setDTDHandler(DEFAULT_HANDLER);
+        reader.setErrorHandler(DEFAULT_HANDLER);
+        reader.setEntityResolver(EMPTY_ENTITY_RESOLVER);
+        try {
+            reader.setProperty(LEXICAL_HANDLER, null);
+        } catch (final SAXNotRecognizedException | SAXNotSupportedException e) {
+            // never has been set
+        }
+        idles.offer(reader);
+    }
+
+    /**
+     * Returns the number of acquisitions served by idle readers.
+     *
+     * @return the number of hits.
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of acquisitions served by new readers.
+     *
+     * @return the number of misses.
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Discards all idle readers. Readers released afterwards are discarded immediately.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        while (idles.poll() != null) {
+            count.decrementAndGet();
+        }
+    }
+
+    private final int maxIdle;
+
+    private final SAXParserFactory factory;
+
+    /**
+     * A lock guards {@link #factory}.
+     */
+    private final Lock lock = new ReentrantLock();
+
+    private final Queue<XMLReader> idles = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger count = new AtomicInteger();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private volatile boolean closed;
+}
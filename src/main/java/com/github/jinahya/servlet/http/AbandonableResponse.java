@@ -0,0 +1,425 @@
+/*
+ * Copyright 2026 Jin Kwon &lt;jinahya_at_gmail.com&gt;.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jinahya.servlet.http;
+
+import com.github.jinahya.servlet.UnsynchronizedPrintWriter;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A response wrapper through which a transformation with a deadline touches the actual response. Once {@link
+ * #abandon() abandoned}, nothing passes to the actual response, so that a transformation which outlives its
+ * deadline leaves alone the response another thread has completed with an error. After abandoned, the status, the
+ * headers, and resets are ignored, and writing, sending, or flushing fails with a {@link DeadlineExceededException}.
+ *
+ * @author Jin Kwon &lt;jinahya_at_gmail.com&gt;
+ */
+final class AbandonableResponse
+        extends HttpServletResponseWrapper {
+
+    AbandonableResponse(final HttpServletResponse response) {
+        super(response);
+    }
+
+    /**
+     * Abandons this wrapper, after a call in progress, if any, returns.
+     */
+    void abandon() {
+        lock.lock();
+        try {
+            abandoned = true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Tells whether this wrapper has been abandoned.
+     *
+     * @return {@code true} if abandoned; {@code false} otherwise.
+     */
+    boolean isAbandoned() {
+        return abandoned;
+    }
+
+    /**
+     * Acquires the lock unless abandoned.
+     *
+     * @return {@code true} if acquired; {@code false} if abandoned.
+     */
+    private boolean enter() {
+        lock.lock();
+        if (abandoned) {
+            lock.unlock();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Acquires the lock unless abandoned.
+     *
+     * @throws DeadlineExceededException if abandoned.
+     */
+    private void acquire() throws DeadlineExceededException {
+        if (!enter()) {
+            throw new DeadlineExceededException();
+        }
+    }
+
+    @Override
+    public void setStatus(final int sc) {
+        if (enter()) {
+            try {
+                super.setStatus(sc);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public void setContentType(final String type) {
+        if (enter()) {
+            try {
+                super.setContentType(type);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public void setCharacterEncoding(final String charset) {
+        if (enter()) {
+            try {
+                super.setCharacterEncoding(charset);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public void setContentLength(final int len) {
+        setContentLengthLong(len);
+    }
+
+    @Override
+    public void setContentLengthLong(final long len) {
+        if (enter()) {
+            try {
+                super.setContentLengthLong(len);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public void setHeader(final String name, final String value) {
+        if (enter()) {
+            try {
+                super.setHeader(name, value);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public void addHeader(final String name, final String value) {
+        if (enter()) {
+            try {
+                super.addHeader(name, value);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public void setIntHeader(final String name, final int value) {
+        if (enter()) {
+            try {
+                super.setIntHeader(name, value);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public void addIntHeader(final String name, final int value) {
+        if (enter()) {
+            try {
+                super.addIntHeader(name, value);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public void setDateHeader(final String name, final long date) {
+        if (enter()) {
+            try {
+                super.setDateHeader(name, date);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public void addDateHeader(final String name, final long date) {
+        if (enter()) {
+            try {
+                super.addDateHeader(name, date);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public void reset() {
+        if (enter()) {
+            try {
+                super.reset();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public void resetBuffer() {
+        if (enter()) {
+            try {
+                super.resetBuffer();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public boolean isCommitted() {
+        if (!enter()) {
+            return true;
+        }
+        try {
+            return super.isCommitted();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void sendError(final int sc) throws IOException {
+        acquire();
+        try {
+            super.sendError(sc);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void sendError(final int sc, final String msg)
+            throws IOException {
+        acquire();
+        try {
+            super.sendError(sc, msg);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void sendRedirect(final String location) throws IOException {
+        acquire();
+        try {
+            super.sendRedirect(location);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        acquire();
+        try {
+            super.flushBuffer();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        acquire();
+        try {
+            if (outputStream == null) {
+                outputStream = new GuardedOutputStream(
+                        super.getOutputStream());
+            }
+            return outputStream;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        acquire();
+        try {
+            if (writer == null) {
+                writer = new UnsynchronizedPrintWriter(
+                        new GuardedWriter(super.getWriter()));
+            }
+            return writer;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * An output stream which writes to the actual response unless abandoned.
+     */
+    private final class GuardedOutputStream extends ServletOutputStream {
+
+        private GuardedOutputStream(final ServletOutputStream out) {
+            super();
+            this.out = out;
+        }
+
+        @Override
+        public boolean isReady() {
+            return out.isReady();
+        }
+
+        @Override
+        public void setWriteListener(final WriteListener writeListener) {
+            out.setWriteListener(writeListener);
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            acquire();
+            try {
+                out.write(b);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len)
+                throws IOException {
+            acquire();
+            try {
+                out.write(b, off, len);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            acquire();
+            try {
+                out.flush();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private final ServletOutputStream out;
+    }
+
+    /**
+     * A writer which writes to the actual response unless abandoned.
+     */
+    private final class GuardedWriter extends Writer {
+
+        private GuardedWriter(final Writer out) {
+            super();
+            this.out = out;
+        }
+
+        @Override
+        public void write(final char[] cbuf, final int off, final int len)
+                throws IOException {
+            acquire();
+            try {
+                out.write(cbuf, off, len);
+            } finally {
+                AbandonableResponse.this.lock.unlock();
+            }
+        }
+
+        @Override
+        public void write(final String str, final int off, final int len)
+                throws IOException {
+            acquire();
+            try {
+                out.write(str, off, len);
+            } finally {
+                AbandonableResponse.this.lock.unlock();
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            acquire();
+            try {
+                out.flush();
+            } finally {
+                AbandonableResponse.this.lock.unlock();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            acquire();
+            try {
+                out.close();
+            } finally {
+                AbandonableResponse.this.lock.unlock();
+            }
+        }
+
+        private final Writer out;
+    }
+
+    private final Lock lock = new ReentrantLock();
+
+    private volatile boolean abandoned;
+
+    private ServletOutputStream outputStream;
+
+    private PrintWriter writer;
+}
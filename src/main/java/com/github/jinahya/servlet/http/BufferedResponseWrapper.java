@@ -16,15 +16,31 @@
 package com.github.jinahya.servlet.http;
 
 import com.github.jinahya.servlet.BufferedServletOutputStream;
+import com.github.jinahya.servlet.DrainListener;
+import com.github.jinahya.servlet.PrefixBufferedServletOutputStream;
+import com.github.jinahya.servlet.SegmentedBuffer;
+import com.github.jinahya.servlet.SegmentedWriter;
+import com.github.jinahya.servlet.UnsynchronizedPrintWriter;
 
 import jakarta.servlet.ServletOutputStream;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpServletResponseWrapper;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.PrintWriter;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
 
 /**
+ * A response wrapper which buffers the response body.
+ * <p>
+ * A wrapper created with a prefix length works in pass-through mode; it buffers only up to the prefix length, commits
+ * the prefix to the wrapped response, and then writes all later bytes directly to the wrapped response. A body which
+ * fits in the prefix is written with an exact {@code Content-Length} when the wrapper is {@link #complete()
+ * completed}.
+ *
  * @author Jin Kwon &lt;jinahya_at_gmail.com&gt;
  */
 public class BufferedResponseWrapper extends HttpServletResponseWrapper {
@@ -35,8 +51,39 @@ public class BufferedResponseWrapper extends HttpServletResponseWrapper {
      * @param response response
      */
     public BufferedResponseWrapper(final HttpServletResponse response) {
+        this(response, new SegmentedBuffer());
+    }
+
+    /**
+     * Creates a new instance buffers into specified buffer.
+     *
+     * @param response response
+     * @param buffer   the buffer into which the response body is written.
+     */
+    public BufferedResponseWrapper(final HttpServletResponse response,
+                                   final SegmentedBuffer buffer) {
+        super(response);
+        outputStream = new BufferedServletOutputStream(buffer);
+    }
+
+    /**
+     * Creates a new instance in pass-through mode which buffers only up to specified prefix length.
+     *
+     * @param response     response
+     * @param buffer       the buffer into which the prefix is written.
+     * @param prefixLength the maximum number of bytes to buffer before committing.
+     */
+    public BufferedResponseWrapper(final HttpServletResponse response,
+                                   final SegmentedBuffer buffer,
+                                   final long prefixLength) {
         super(response);
-        outputStream = new BufferedServletOutputStream();
+        outputStream = new PrefixBufferedServletOutputStream(
+                response, buffer, prefixLength) {
+            @Override
+            protected void beforeCommit() throws IOException {
+                BufferedResponseWrapper.this.beforeCommit();
+            }
+        };
     }
 
     @Override
@@ -44,6 +91,9 @@ public class BufferedResponseWrapper extends HttpServletResponseWrapper {
         if (writer != null) {
             writer.flush();
         }
+        if (isPassThrough()) {
+            ((PrefixBufferedServletOutputStream) outputStream).commit();
+        }
         getOutputStream().flush();
     }
 
@@ -55,31 +105,225 @@ public class BufferedResponseWrapper extends HttpServletResponseWrapper {
     @Override
     public final PrintWriter getWriter() throws IOException {
         if (writer == null) {
-            writer = new PrintWriter(new OutputStreamWriter(
-                    getOutputStream(), getResponse().getCharacterEncoding()));
+            final String encoding = getResponse().getCharacterEncoding();
+            final Charset charset;
+            try {
+                charset = Charset.forName(encoding);
+            } catch (final IllegalArgumentException iae) {
+                throw (IOException) new UnsupportedEncodingException(encoding)
+                        .initCause(iae);
+            }
+            segmentedWriter = new SegmentedWriter(outputStream, charset);
+            writer = new UnsynchronizedPrintWriter(segmentedWriter);
         }
         return writer;
     }
 
     @Override
     public final void reset() {
+        ensureNotPassedThrough();
         outputStream.reset();
     }
 
     @Override
     public final void resetBuffer() {
+        ensureNotPassedThrough();
         outputStream.reset();
     }
 
     /**
-     * Returns buffered bytes.
+     * Tells whether the {@link #getWriter() writer} has been obtained, that is, whether the body has been encoded with
+     * the {@link #getCharacterEncoding() character encoding}.
+     *
+     * @return {@code true} if the writer has been obtained; {@code false} otherwise.
+     */
+    public final boolean isWriterObtained() {
+        return writer != null;
+    }
+
+    /**
+     * Tells whether this wrapper works in pass-through mode.
+     *
+     * @return {@code true} if in pass-through mode; {@code false} otherwise.
+     */
+    public final boolean isPassThrough() {
+        return outputStream instanceof PrefixBufferedServletOutputStream;
+    }
+
+    /**
+     * Tells whether this wrapper, in pass-through mode, has committed its prefix and passes later bytes through to the
+     * wrapped response.
+     *
+     * @return {@code true} if passed through; {@code false} otherwise.
+     */
+    public final boolean isPassedThrough() {
+        return isPassThrough()
+               && ((PrefixBufferedServletOutputStream) outputStream)
+                       .isCommitted();
+    }
+
+    /**
+     * Writes the buffered body to the wrapped response. In pass-through mode, this wrapper is {@link #complete()
+     * completed}; otherwise, buffered bytes are written to the output stream of the wrapped response.
+     *
+     * @throws IOException if an I/O error occurs.
+     */
+    public final void writeThrough() throws IOException {
+        if (isPassThrough()) {
+            complete();
+            return;
+        }
+        writeTo(getResponse().getOutputStream());
+    }
+
+    /**
+     * Completes this wrapper. In pass-through mode, if the prefix has not been committed yet, the {@code
+     * Content-Length} of the wrapped response is set with the exact length of the body and the body is written to the
+     * wrapped response. Otherwise, this method does nothing.
+     *
+     * @throws IOException if an I/O error occurs.
+     */
+    public final void complete() throws IOException {
+        if (!isPassThrough()) {
+            return;
+        }
+        flushWriter();
+        ((PrefixBufferedServletOutputStream) outputStream).complete();
+    }
+
+    /**
+     * Invoked, in pass-through mode, right before the buffered prefix is committed to the wrapped response. Subclasses
+     * may inspect the prefix via {@link #getInputStream()} and modify status or headers of the wrapped response. The
+     * default implementation does nothing.
+     *
+     * @throws IOException if an I/O error occurs.
+     */
+    protected void beforeCommit() throws IOException {
+        // does nothing.
+    }
+
+    /**
+     * Returns a copy of buffered bytes.
      *
      * @return buffered bytes
+     * @throws IOException if an I/O error occurs.
+     * @see #getInputStream()
+     * @see #getByteBuffers()
+     * @see #writeTo(OutputStream)
      */
-    public final byte[] getBytes() {
+    public final byte[] getBytes() throws IOException {
+        flushWriter();
         return outputStream.bytes();
     }
 
+    /**
+     * Returns the number of buffered bytes.
+     *
+     * @return the number of buffered bytes.
+     */
+    public final long getSize() {
+        flushWriter();
+        return outputStream.size();
+    }
+
+    /**
+     * Returns an input stream reads buffered bytes without copying them.
+     *
+     * @return an input stream of buffered bytes.
+     * @throws IOException if an I/O error occurs.
+     */
+    public final InputStream getInputStream() throws IOException {
+        flushWriter();
+        return outputStream.inputStream();
+    }
+
+    /**
+     * Returns read-only views of buffered bytes without copying them.
+     *
+     * @return an array of read-only buffers.
+     * @throws IOException if an I/O error occurs.
+     */
+    public final ByteBuffer[] getByteBuffers() throws IOException {
+        flushWriter();
+        return outputStream.byteBuffers();
+    }
+
+    /**
+     * Completes the digest of buffered bytes computed by the buffer given at construction.
+     *
+     * @return the digest value.
+     * @throws IllegalStateException if the buffer computes no digest.
+     * @see SegmentedBuffer#setDigest(java.security.MessageDigest)
+     */
+    public final byte[] getDigest() {
+        flushWriter();
+        return outputStream.digest();
+    }
+
+    /**
+     * Writes buffered bytes to specified output stream.
+     *
+     * @param out the output stream to which buffered bytes are written.
+     * @return the number of bytes written.
+     * @throws IOException if an I/O error occurs.
+     */
+    public final long writeTo(final OutputStream out) throws IOException {
+        flushWriter();
+        return outputStream.writeTo(out);
+    }
+
+    /**
+     * Arranges buffered bytes to be written, in non-blocking manner, to the wrapped response when the output stream of
+     * this wrapper is closed. The request must be in asynchronous mode.
+     *
+     * @param listener a listener notified when all bytes are written or an error occurs.
+     * @throws IOException if an I/O error occurs.
+     * @see BufferedServletOutputStream#drainOnClose(ServletOutputStream, DrainListener)
+     */
+    public final void drainOnClose(final DrainListener listener)
+            throws IOException {
+        outputStream.drainOnClose(getResponse().getOutputStream(), listener);
+    }
+
+    /**
+     * Writes buffered bytes, in non-blocking manner, to the wrapped response. The request must be in asynchronous
+     * mode.
+     *
+     * @param listener a listener notified when all bytes are written or an error occurs.
+     * @throws IOException if an I/O error occurs.
+     * @see BufferedServletOutputStream#drainTo(ServletOutputStream, DrainListener)
+     */
+    public final void drain(final DrainListener listener) throws IOException {
+        flushWriter();
+        outputStream.drainTo(getResponse().getOutputStream(), listener);
+    }
+
+    /**
+     * Releases resources held for buffering, including a temporary file to which the body has spilled, if any. This
+     * method should be invoked when the buffered body is no longer needed.
+     */
+    public final void release() {
+        if (segmentedWriter != null) {
+            segmentedWriter.release();
+        }
+        outputStream.release();
+    }
+
+    private void ensureNotPassedThrough() {
+        if (isPassedThrough()) {
+            throw new IllegalStateException("already committed");
+        }
+    }
+
+    /**
+     * Flushes the writer, if any, so that its pending characters are buffered.
+     */
+    private void flushWriter() {
+        if (writer != null) {
+            writer.flush();
+        }
+    }
+
     /**
      * output stream.
      */
@@ -89,4 +333,9 @@ public class BufferedResponseWrapper extends HttpServletResponseWrapper {
      * writer.
      */
     private PrintWriter writer;
+
+    /**
+     * The writer wrapped by {@link #writer}.
+     */
+    private SegmentedWriter segmentedWriter;
 }
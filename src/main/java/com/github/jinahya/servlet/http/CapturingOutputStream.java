@@ -0,0 +1,69 @@
+/*
+ * Copyright 2026 Jin Kwon &lt;jinahya_at_gmail.com&gt;.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jinahya.servlet.http;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * An output stream which keeps a copy of bytes written, until too many.
+ *
+ * @author Jin Kwon &lt;jinahya_at_gmail.com&gt;
+ */
+final class CapturingOutputStream
+        extends FilterOutputStream {
+
+    CapturingOutputStream(final OutputStream out, final int limit) {
+        super(out);
+        this.limit = limit;
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        out.write(b);
+        if (capture != null && capture.size() < limit) {
+            capture.write(b);
+        } else {
+            capture = null;
+        }
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len)
+            throws IOException {
+        out.write(b, off, len);
+        if (capture != null && capture.size() <= limit - len) {
+            capture.write(b, off, len);
+        } else {
+            capture = null;
+        }
+    }
+
+    /**
+     * Returns the bytes written.
+     *
+     * @return the bytes written; {@code null} if too many.
+     */
+    byte[] captured() {
+        return capture == null ? null : capture.toByteArray();
+    }
+
+    private final int limit;
+
+    private ByteArrayOutputStream capture = new ByteArrayOutputStream();
+}
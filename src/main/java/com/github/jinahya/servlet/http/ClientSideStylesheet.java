@@ -0,0 +1,182 @@
+/*
+ * Copyright 2026 Jin Kwon &lt;jinahya_at_gmail.com&gt;.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jinahya.servlet.http;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.regex.Pattern;
+
+/**
+ * A stylesheet of {@link XSLTFilter} as applied by clients themselves. A client which prefers {@code application/xml}
+ * or {@code text/xml} to the output content type, or whose {@code User-Agent} matches a pattern, gets the downstream
+ * body as it is with an {@code xml-stylesheet} processing instruction referencing the stylesheet.
+ *
+ * @author Jin Kwon &lt;jinahya_at_gmail.com&gt;
+ */
+final class ClientSideStylesheet {
+
+    private static final byte[] XML_DECLARATION
+            = "<?xml".getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte[] UTF_8_BOM
+            = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+
+    private static boolean startsWith(final byte[] bytes, final int offset,
+                                      final byte[] prefix) {
+        if (bytes.length - offset < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (bytes[offset + i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param href              the URI of the stylesheet as referenced by clients.
+     * @param outputContentType the output content type of the filter.
+     * @param userAgent         the pattern of {@code User-Agent}s which apply stylesheets; may be {@code null}.
+     * @throws IllegalArgumentException if {@code outputContentType} is not a legal media type.
+     */
+    ClientSideStylesheet(final String href, final String outputContentType,
+                         final Pattern userAgent) {
+        super();
+        negotiator = new ContentNegotiator(
+                Arrays.asList(outputContentType, "application/xml", "text/xml"),
+                Collections.<String>emptyList());
+        this.href = href;
+        this.outputContentType = outputContentType;
+        this.userAgent = userAgent;
+    }
+
+    /**
+     * Returns the value of the {@code Vary} header of responses which may be passed through.
+     *
+     * @return the value of the {@code Vary} header.
+     */
+    String getVary() {
+        return userAgent == null ? "Accept" : "Accept, User-Agent";
+    }
+
+    /**
+     * Tells whether specified request is from a client which applies the stylesheet by itself.
+     *
+     * @param request the request.
+     * @return {@code true} if the client applies the stylesheet; {@code false} otherwise.
+     */
+    boolean isClientSide(final HttpServletRequest request) {
+        final String preferred
+                = negotiator.negotiate(request.getHeaders("Accept"));
+        if (preferred != null && !preferred.equals(outputContentType)) {
+            return true;
+        }
+        if (userAgent == null) {
+            return false;
+        }
+        final String value = request.getHeader("User-Agent");
+        return value != null && userAgent.matcher(value).find();
+    }
+
+    /**
+     * Writes the body buffered in specified wrapper as it is, with an {@code xml-stylesheet} processing instruction
+     * inserted after the XML declaration, if any. A body whose encoding is not compatible with ASCII is not passed
+     * through.
+     *
+     * @param response        the actual response
+     * @param responseWrapper the wrapper holds the downstream response
+     * @return {@code true} if passed through; {@code false} if the body should be transformed.
+     * @throws IOException if an I/O error occurs.
+     */
+    boolean passThrough(final HttpServletResponse response,
+                        final BufferedResponseWrapper responseWrapper)
+            throws IOException {
+        final String encoding = responseWrapper.isWriterObtained()
+                                ? responseWrapper.getCharacterEncoding()
+                                : XSLTFilter.getDeclaredEncoding(responseWrapper);
+        final Charset charset;
+        try {
+            charset = encoding == null
+                      ? StandardCharsets.UTF_8 : Charset.forName(encoding);
+        } catch (final IllegalArgumentException iae) {
+            return false;
+        }
+        if (!Arrays.equals(XML_DECLARATION, "<?xml".getBytes(charset))) {
+            return false;
+        }
+        try (InputStream input = responseWrapper.getInputStream()) {
+            final byte[] head = input.readNBytes(256);
+            if (head.length > 1 && (head[0] == 0 || head[1] == 0
+                                    || (head[0] & 0xFE) == 0xFE)) {
+                return false; // UTF-16 or UTF-32 without a declared encoding
+            }
+            int offset = startsWith(head, 0, UTF_8_BOM) ? UTF_8_BOM.length : 0;
+            if (startsWith(head, offset, XML_DECLARATION)) {
+                int end = -1;
+                for (int i = offset + XML_DECLARATION.length; i < head.length - 1; i++) {
+                    if (head[i] == '?' && head[i + 1] == '>') {
+                        end = i + 2;
+                        break;
+                    }
+                }
+                if (end == -1) {
+                    return false;
+                }
+                offset = end;
+            }
+            final byte[] instruction = (
+                    "<?xml-stylesheet type=\"text/xsl\" href=\""
+                    + href.replace("&", "&amp;").replace("\"", "&quot;")
+                            .replace("<", "&lt;")
+                    + "\"?>").getBytes(charset);
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setContentType(responseWrapper.getContentType());
+            response.setCharacterEncoding(
+                    responseWrapper.getCharacterEncoding());
+            response.setContentLengthLong(
+                    responseWrapper.getSize() + instruction.length);
+            final OutputStream output = response.getOutputStream();
+            output.write(head, 0, offset);
+            output.write(instruction);
+            output.write(head, offset, head.length - offset);
+            input.transferTo(output);
+        }
+        response.flushBuffer();
+        return true;
+    }
+
+    private final String href;
+
+    private final String outputContentType;
+
+    private final Pattern userAgent;
+
+    /**
+     * The negotiator which weighs the output content type, in preference, against XML types.
+     */
+    private final ContentNegotiator negotiator;
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2026 Jin Kwon &lt;jinahya_at_gmail.com&gt;.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jinahya.servlet.http;
+
+import javax.xml.transform.Templates;
+
+/**
+ * A stylesheet compiled into a {@code Templates} with what it has been compiled from.
+ *
+ * @author Jin Kwon &lt;jinahya_at_gmail.com&gt;
+ */
+final class CompiledStylesheet {
+
+    CompiledStylesheet(final Templates templates, final long lastModified,
+                       final byte[] hash, final long checkedAt) {
+        super();
+        this.templates = templates;
+        this.lastModified = lastModified;
+        this.hash = hash;
+        this.checkedAt = checkedAt;
+    }
+
+    final Templates templates;
+
+    /**
+     * The last-modified time of the resource; {@code 0} if unknown. Accessed only while holding the lock.
+     */
+    long lastModified;
+
+    /**
+     * The hash of the content of the resource, which versions results of the templates; {@code null} if the
+     * templates hasn't been compiled by {@link XSLTFilter#getTemplates(java.net.URL)}.
+     */
+    final byte[] hash;
+
+    /**
+     * The {@link System#nanoTime()} when the resource has been checked.
+     */
+    volatile long checkedAt;
+}
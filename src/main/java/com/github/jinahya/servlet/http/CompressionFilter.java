@@ -0,0 +1,589 @@
+/*
+ * Copyright 2026 Jin Kwon &lt;jinahya_at_gmail.com&gt;.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jinahya.servlet.http;
+
+import com.github.jinahya.servlet.DeflaterPool;
+import com.github.jinahya.servlet.DeflaterServletOutputStream;
+import com.github.jinahya.servlet.EncodingWriter;
+import com.github.jinahya.servlet.UnsynchronizedPrintWriter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.FilterConfig;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.Deflater;
+
+/**
+ * A filter which compresses response bodies with {@code gzip} or {@code deflate} negotiated by {@code
+ * Accept-Encoding} of requests.
+ * <p>
+ * A body is compressed only when it grows beyond {@value #INIT_PARAM_THRESHOLD} bytes; smaller bodies are written as
+ * they are with an exact {@code Content-Length}, even when the downstream flushes early. Bodies of media types listed
+ * by {@value #INIT_PARAM_INCOMPRESSIBLE} are never compressed. The same {@code file.suffix.<suffix>=media/type/<type>}
+ * init parameters as {@link SuffixToTypeDispatcher} map request suffixes to media types, and requests for suffixes of
+ * incompressible types are not even wrapped. The compression level can be set for each media type with {@code
+ * compression.level.<type>} init parameters.
+ *
+ * @author Jin Kwon &lt;jinahya_at_gmail.com&gt;
+ */
+public class CompressionFilter extends HttpFilter {
+
+    /**
+     * The name of the init parameter for the minimum number of bytes to compress. The default is {@value
+     * #DEFAULT_THRESHOLD}.
+     */
+    public static final String INIT_PARAM_THRESHOLD = "compression.threshold";
+
+    /**
+     * The default value of {@link #INIT_PARAM_THRESHOLD}.
+     */
+    public static final long DEFAULT_THRESHOLD = 1024L;
+
+    /**
+     * The name of the init parameter for the default compression level. The default is {@link
+     * Deflater#DEFAULT_COMPRESSION}.
+     */
+    public static final String INIT_PARAM_LEVEL = "compression.level";
+
+    /**
+     * The prefix of names of init parameters for compression levels of media types. A level of {@link
+     * Deflater#NO_COMPRESSION} disables compression of the type.
+     */
+    public static final String INIT_PARAM_LEVEL_PREFIX = INIT_PARAM_LEVEL + ".";
+
+    /**
+     * The name of the init parameter for comma-separated media types which are never compressed, because they are
+     * compressed already. A type may end with {@code /*} to match all its subtypes. The default is {@value
+     * #DEFAULT_INCOMPRESSIBLE}.
+     */
+    public static final String INIT_PARAM_INCOMPRESSIBLE = "compression.incompressible";
+
+    /**
+     * The default value of {@link #INIT_PARAM_INCOMPRESSIBLE}.
+     */
+    public static final String DEFAULT_INCOMPRESSIBLE
+            = "application/gzip,application/zip,application/x-7z-compressed,"
+              + "application/x-bzip2,application/x-xz,application/zstd,"
+              + "image/png,image/jpeg,image/gif,image/webp,image/avif,"
+              + "font/woff,font/woff2,audio/mpeg,audio/ogg,video/mp4,video/webm";
+
+    /**
+     * The name of the {@code gzip} coding.
+     */
+    public static final String GZIP = "gzip";
+
+    /**
+     * The name of the {@code deflate} coding.
+     */
+    public static final String DEFLATE = "deflate";
+
+    /**
+     * Suffixes of incompressible types, used in addition to those configured with {@code file.suffix.*}.
+     */
+    private static final Map<String, String> DEFAULT_SUFFIX_TO_TYPE;
+
+    static {
+        final Map<String, String> map = new HashMap<>();
+        map.put("gz", "application/gzip");
+        map.put("zip", "application/zip");
+        map.put("png", "image/png");
+        map.put("jpg", "image/jpeg");
+        map.put("jpeg", "image/jpeg");
+        map.put("gif", "image/gif");
+        map.put("webp", "image/webp");
+        map.put("woff2", "font/woff2");
+        map.put("mp4", "video/mp4");
+        DEFAULT_SUFFIX_TO_TYPE = map;
+    }
+
+    /**
+     * The name of the {@code x-gzip} coding, an alias of {@link #GZIP}.
+     */
+    private static final String X_GZIP = "x-gzip";
+
+    private static final int NOT_COMPRESSIBLE = Integer.MIN_VALUE;
+
+    /**
+     * Chooses a coding from specified {@code Accept-Encoding} header values, as parsed by {@link
+     * ContentNegotiator#negotiateToken(Enumeration, String...)}. {@code gzip} is preferred over {@code deflate} when
+     * both are equally acceptable.
+     *
+     * @param values the values of {@code Accept-Encoding} headers; may be {@code null}.
+     * @return {@link #GZIP}, {@link #DEFLATE}, or {@code null} if neither is acceptable.
+     */
+    static String negotiate(final Enumeration<String> values) {
+        final String coding = ContentNegotiator.negotiateToken(
+                values, GZIP, X_GZIP, DEFLATE);
+        return X_GZIP.equals(coding) ? GZIP : coding;
+    }
+
+    private static String suffix(final String uri) {
+        if (uri == null) {
+            return null;
+        }
+        final int dot = uri.lastIndexOf('.');
+        if (dot == -1 || dot < uri.lastIndexOf('/')) {
+            return null;
+        }
+        return uri.substring(dot + 1);
+    }
+
+    private static int level(final String name, final String value)
+            throws ServletException {
+        try {
+            final int level = Integer.parseInt(value.trim());
+            if (level >= Deflater.DEFAULT_COMPRESSION
+                && level <= Deflater.BEST_COMPRESSION) {
+                return level;
+            }
+        } catch (final NumberFormatException nfe) {
+            // falls through
+        }
+        throw new ServletException(
+                "illegal init parameter; " + name + ": " + value);
+    }
+
+    @Override
+    public void init(final FilterConfig filterConfig) throws ServletException {
+        super.init(filterConfig);
+        final long threshold
+                = getInitParameterAsLong(INIT_PARAM_THRESHOLD, DEFAULT_THRESHOLD);
+        if (threshold < 0L || threshold > Integer.MAX_VALUE - 8) {
+            throw new ServletException(
+                    "illegal init parameter; " + INIT_PARAM_THRESHOLD + ": "
+                    + threshold);
+        }
+        this.threshold = (int) threshold;
+        levels = new HashMap<>();
+        for (final Enumeration<String> e = filterConfig.getInitParameterNames();
+             e.hasMoreElements(); ) {
+            final String name = e.nextElement();
+            final String value = filterConfig.getInitParameter(name);
+            if (INIT_PARAM_LEVEL.equals(name)) {
+                defaultLevel = level(name, value);
+            } else if (name.startsWith(INIT_PARAM_LEVEL_PREFIX)) {
+                levels.put(name.substring(INIT_PARAM_LEVEL_PREFIX.length())
+                                   .toLowerCase(Locale.ENGLISH),
+                           level(name, value));
+            }
+        }
+        String incompressible
+                = filterConfig.getInitParameter(INIT_PARAM_INCOMPRESSIBLE);
+        if (incompressible == null) {
+            incompressible = DEFAULT_INCOMPRESSIBLE;
+        }
+        incompressibleTypes = new HashSet<>();
+        for (final String type : incompressible.split(",")) {
+            if (!type.trim().isEmpty()) {
+                incompressibleTypes.add(type.trim().toLowerCase(Locale.ENGLISH));
+            }
+        }
+        final Map<String, String> suffixToType
+                = new HashMap<>(DEFAULT_SUFFIX_TO_TYPE);
+        suffixToType.putAll(
+                SuffixToTypeDispatcher.getSuffixToTypeMap(filterConfig));
+        incompressibleSuffixes = new HashSet<>();
+        for (final Map.Entry<String, String> entry : suffixToType.entrySet()) {
+            if (isIncompressible(entry.getValue().toLowerCase(Locale.ENGLISH))) {
+                incompressibleSuffixes.add(entry.getKey());
+            }
+        }
+        pool = new DeflaterPool();
+    }
+
+    @Override
+    public void destroy() {
+        if (pool != null) {
+            pool.close();
+            pool = null;
+        }
+        super.destroy();
+    }
+
+    @Override
+    protected void doFilter(final HttpServletRequest request,
+                            final HttpServletResponse response,
+                            final FilterChain chain)
+            throws IOException, ServletException {
+
+        if ("HEAD".equals(request.getMethod())
+            || incompressibleSuffixes.contains(suffix(request.getRequestURI()))) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        final CompressingResponseWrapper wrapper = new CompressingResponseWrapper(
+                response, negotiate(request.getHeaders("Accept-Encoding")));
+        try {
+            chain.doFilter(request, wrapper); // ------------------ doFilter(...)
+            wrapper.finish();
+        } finally {
+            wrapper.release();
+        }
+    }
+
+    /**
+     * Returns the compression level for current state of specified response.
+     *
+     * @param response the response.
+     * @return the compression level; {@link #NOT_COMPRESSIBLE} if the response should not be compressed.
+     */
+    private int level(final HttpServletResponse response) {
+        final int status = response.getStatus();
+        if (status < HttpServletResponse.SC_OK
+            || status == HttpServletResponse.SC_NO_CONTENT
+            || status == HttpServletResponse.SC_PARTIAL_CONTENT
+            || status == HttpServletResponse.SC_NOT_MODIFIED
+            || response.containsHeader("Content-Encoding")
+            || response.containsHeader("Content-Range")) {
+            return NOT_COMPRESSIBLE;
+        }
+        final String contentType = response.getContentType();
+        if (contentType == null) {
+            return NOT_COMPRESSIBLE;
+        }
+        final int semicolon = contentType.indexOf(';');
+        final String type = (semicolon == -1
+                             ? contentType : contentType.substring(0, semicolon))
+                .trim().toLowerCase(Locale.ENGLISH);
+        if (isIncompressible(type)) {
+            return NOT_COMPRESSIBLE;
+        }
+        final Integer level = levels.get(type);
+        return level == null ? defaultLevel : level;
+    }
+
+    /**
+     * Tells whether specified media type, without parameters and in lower case, is listed by {@value
+     * #INIT_PARAM_INCOMPRESSIBLE}.
+     *
+     * @param type the media type.
+     * @return {@code true} if incompressible; {@code false} otherwise.
+     */
+    private boolean isIncompressible(final String type) {
+        if (incompressibleTypes.contains(type)) {
+            return true;
+        }
+        final int slash = type.indexOf('/');
+        return slash != -1
+               && incompressibleTypes.contains(type.substring(0, slash) + "/*");
+    }
+
+    /**
+     * A response wrapper which holds up to {@link #threshold} bytes and then decides whether to compress.
+     */
+    private final class CompressingResponseWrapper
+            extends HttpServletResponseWrapper {
+
+        private CompressingResponseWrapper(final HttpServletResponse response,
+                                           final String coding) {
+            super(response);
+            this.coding = coding;
+        }
+
+        @Override
+        public void setContentLength(final int len) {
+            setContentLengthLong(len);
+        }
+
+        @Override
+        public void setContentLengthLong(final long len) {
+            if (target == null) {
+                contentLength = len;
+            } else if (deflating == null) {
+                super.setContentLengthLong(len);
+            }
+        }
+
+        @Override
+        public void setHeader(final String name, final String value) {
+            if (!contentLength(name, value)) {
+                super.setHeader(name, value);
+            }
+        }
+
+        @Override
+        public void addHeader(final String name, final String value) {
+            if (!contentLength(name, value)) {
+                super.addHeader(name, value);
+            }
+        }
+
+        @Override
+        public void setIntHeader(final String name, final int value) {
+            if (!contentLength(name, Integer.toString(value))) {
+                super.setIntHeader(name, value);
+            }
+        }
+
+        @Override
+        public void addIntHeader(final String name, final int value) {
+            if (!contentLength(name, Integer.toString(value))) {
+                super.addIntHeader(name, value);
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                final String encoding = getCharacterEncoding();
+                final Charset charset;
+                try {
+                    charset = Charset.forName(encoding);
+                } catch (final IllegalArgumentException iae) {
+                    throw (IOException) new UnsupportedEncodingException(encoding)
+                            .initCause(iae);
+                }
+                encodingWriter = new EncodingWriter(outputStream, charset);
+                writer = new UnsynchronizedPrintWriter(encodingWriter);
+            }
+            return writer;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            outputStream.flush();
+        }
+
+        @Override
+        public void reset() {
+            if (target != null) {
+                throw new IllegalStateException("already committed");
+            }
+            count = 0;
+            contentLength = -1L;
+            super.reset();
+        }
+
+        @Override
+        public void resetBuffer() {
+            if (target != null) {
+                throw new IllegalStateException("already committed");
+            }
+            count = 0;
+        }
+
+        /**
+         * Decides, if not yet, with the whole body held and finishes the compressed data, if any.
+         *
+         * @throws IOException if an I/O error occurs.
+         */
+        private void finish() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (target == null) {
+                decide(true);
+            }
+            if (deflating != null) {
+                deflating.finish();
+            }
+        }
+
+        /**
+         * Returns the deflater, if still borrowed, to the pool.
+         */
+        private void release() {
+            if (encodingWriter != null) {
+                encodingWriter.release();
+            }
+            if (deflating != null) {
+                deflating.release();
+            }
+        }
+
+        /**
+         * Intercepts a {@code Content-Length} header which is meaningless until decided.
+         *
+         * @param name  the header name.
+         * @param value the header value.
+         * @return {@code true} if intercepted; {@code false} otherwise.
+         */
+        private boolean contentLength(final String name, final String value) {
+            if (!"Content-Length".equalsIgnoreCase(name) || value == null) {
+                return false;
+            }
+            try {
+                setContentLengthLong(Long.parseLong(value.trim()));
+                return true;
+            } catch (final NumberFormatException nfe) {
+                return false;
+            }
+        }
+
+        /**
+         * Decides whether to compress and writes held bytes to the chosen target.
+         *
+         * @param complete a flag for whether the whole body is held.
+         * @throws IOException if an I/O error occurs.
+         */
+        private void decide(final boolean complete) throws IOException {
+            final HttpServletResponse response
+                    = (HttpServletResponse) getResponse();
+            final int level = level(response);
+            if (level != NOT_COMPRESSIBLE) {
+                response.addHeader("Vary", "Accept-Encoding");
+            }
+            if (complete || coding == null || level == NOT_COMPRESSIBLE
+                || level == Deflater.NO_COMPRESSION) {
+                if (contentLength != -1L) {
+                    response.setContentLengthLong(contentLength);
+                } else if (complete && count > 0) {
+                    response.setContentLengthLong(count);
+                }
+                target = response.getOutputStream();
+            } else {
+                response.setHeader("Content-Encoding", coding);
+                deflating = new DeflaterServletOutputStream(
+                        response.getOutputStream(), pool, level,
+                        GZIP.equals(coding));
+                target = deflating;
+            }
+            if (count > 0) {
+                target.write(held, 0, count);
+            }
+            held = null;
+        }
+
+        private final String coding;
+
+        private final ServletOutputStream outputStream
+                = new ServletOutputStream() {
+
+            @Override
+            public boolean isReady() {
+                return target == null || target.isReady();
+            }
+
+            @Override
+            public void setWriteListener(final WriteListener writeListener) {
+                try {
+                    getResponse().getOutputStream()
+                            .setWriteListener(writeListener);
+                } catch (final IOException ioe) {
+                    throw new IllegalStateException(ioe);
+                }
+            }
+
+            @Override
+            public void write(final int b) throws IOException {
+                single[0] = (byte) b;
+                write(single, 0, 1);
+            }
+
+            @Override
+            public void write(final byte[] b, final int off, final int len)
+                    throws IOException {
+                if (target == null) {
+                    if (coding != null && len <= threshold - count) {
+                        if (held == null) {
+                            held = new byte[Math.min(threshold, 8192)];
+                        }
+                        if (count + len > held.length) {
+                            held = Arrays.copyOf(
+                                    held, Math.min(threshold, Math.max(
+                                            held.length << 1, count + len)));
+                        }
+                        System.arraycopy(b, off, held, count, len);
+                        count += len;
+                        return;
+                    }
+                    decide(false);
+                }
+                target.write(b, off, len);
+            }
+
+            /**
+             * Flushes the chosen target. Until decided, held bytes are kept so that a flush of a small body does not
+             * force the decision without its exact length.
+             *
+             * @throws IOException if an I/O error occurs.
+             */
+            @Override
+            public void flush() throws IOException {
+                if (target != null) {
+                    target.flush();
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+                finish();
+                target.close();
+            }
+
+            private final byte[] single = new byte[1];
+        };
+
+        private PrintWriter writer;
+
+        /**
+         * The writer wrapped by {@link #writer}.
+         */
+        private EncodingWriter encodingWriter;
+
+        /**
+         * Bytes held until decided.
+         */
+        private byte[] held;
+
+        private int count;
+
+        private long contentLength = -1L;
+
+        /**
+         * The output stream chosen by {@link #decide(boolean)}; {@code null} until decided.
+         */
+        private ServletOutputStream target;
+
+        private DeflaterServletOutputStream deflating;
+    }
+
+    private transient int threshold;
+
+    private transient int defaultLevel = Deflater.DEFAULT_COMPRESSION;
+
+    private transient Map<String, Integer> levels;
+
+    private transient Set<String> incompressibleSuffixes;
+
+    private transient Set<String> incompressibleTypes;
+
+    private transient DeflaterPool pool;
+}
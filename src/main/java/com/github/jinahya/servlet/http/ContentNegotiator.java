@@ -0,0 +1,344 @@
+/*
+ * Copyright 2026 Jin Kwon &lt;jinahya_at_gmail.com&gt;.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jinahya.servlet.http;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A content negotiator which matches {@code Accept} header values against a fixed set of produced media types, and
+ * {@code Content-Type} header values against a fixed set of consumed media types.
+ * <p>
+ * {@code Accept} values are highly repetitive across clients; each distinct value is parsed once into an immutable
+ * array of media ranges, ordered by specificity and then by quality, which is cached and shared by all instances.
+ * Matching a cached value allocates nothing.
+ *
+ * @author Jin Kwon &lt;jinahya_at_gmail.com&gt;
+ */
+public class ContentNegotiator {
+
+    /**
+     * The maximum number of parsed {@code Accept} values cached.
+     */
+    static final int ACCEPT_CACHE_SIZE = 1024;
+
+    /**
+     * The maximum length of an {@code Accept} value to be cached.
+     */
+    static final int ACCEPT_CACHE_VALUE_LENGTH = 512;
+
+    /**
+     * A media range, or a media type without parameters.
+     */
+    private static final class MediaRange {
+
+        /**
+         * Parses specified media range or media type. Parameters other than {@code q} are ignored.
+         *
+         * @param value the value to parse.
+         * @return a parsed media range; {@code null} if malformed.
+         */
+        private static MediaRange parse(final String value) {
+            final int semicolon = value.indexOf(';');
+            final String range = (semicolon == -1
+                                  ? value : value.substring(0, semicolon))
+                    .trim().toLowerCase(Locale.ENGLISH);
+            final int slash = range.indexOf('/');
+            if (slash <= 0 || slash == range.length() - 1) {
+                return null;
+            }
+            final String type = range.substring(0, slash).trim();
+            final String subtype = range.substring(slash + 1).trim();
+            if ("*".equals(type) && !"*".equals(subtype)) {
+                return null;
+            }
+            final float quality = semicolon == -1
+                                  ? 1.0f : quality(value.substring(semicolon + 1));
+            return new MediaRange(type, subtype, quality);
+        }
+
+        private MediaRange(final String type, final String subtype,
+                           final float quality) {
+            super();
+            this.type = type;
+            this.subtype = subtype;
+            this.quality = quality;
+            specificity = "*".equals(type) ? 0 : "*".equals(subtype) ? 1 : 2;
+        }
+
+        /**
+         * Tells whether this range includes specified media type.
+         *
+         * @param mediaType the media type.
+         * @return {@code true} if includes; {@code false} otherwise.
+         */
+        private boolean includes(final MediaRange mediaType) {
+            return specificity == 0
+                   || (type.equals(mediaType.type)
+                       && (specificity == 1
+                           || subtype.equals(mediaType.subtype)));
+        }
+
+        private final String type;
+
+        private final String subtype;
+
+        private final float quality;
+
+        /**
+         * {@code 2} for {@code type/subtype}, {@code 1} for {@code type/*}, {@code 0} for <code>*&#47;*</code>.
+         */
+        private final int specificity;
+    }
+
+    /**
+     * Parses the {@code q} parameter among specified parameters of a header element.
+     *
+     * @param parameters the parameters following the first {@code ;} of an element.
+     * @return the quality; {@code 1.0} if absent, {@code 0.0} if malformed.
+     */
+    static float quality(final String parameters) {
+        for (final String parameter : parameters.split(";")) {
+            final String trimmed = parameter.trim();
+            if (trimmed.length() > 2
+                && (trimmed.charAt(0) == 'q' || trimmed.charAt(0) == 'Q')
+                && trimmed.charAt(1) == '=') {
+                try {
+                    return Float.parseFloat(trimmed.substring(2));
+                } catch (final NumberFormatException nfe) {
+                    return 0.0f;
+                }
+            }
+        }
+        return 1.0f;
+    }
+
+    /**
+     * Chooses one of specified tokens most acceptable by specified header values of tokens with qualities, such as
+     * those of {@code Accept-Encoding}. Each token is weighed by the quality of its own element, or else by that of
+     * {@code *}; ties are broken by the order of tokens.
+     *
+     * @param values the header values; may be {@code null}.
+     * @param tokens the tokens, in order of preference.
+     * @return the chosen token; {@code null} if {@code values} is {@code null} or none is acceptable.
+     */
+    static String negotiateToken(final Enumeration<String> values,
+                                 final String... tokens) {
+        if (values == null) {
+            return null;
+        }
+        final float[] qualities = new float[tokens.length];
+        Arrays.fill(qualities, -1.0f);
+        float any = -1.0f;
+        while (values.hasMoreElements()) {
+            for (final String element : values.nextElement().split(",")) {
+                final int semicolon = element.indexOf(';');
+                final String token = (semicolon == -1
+                                      ? element : element.substring(0, semicolon))
+                        .trim();
+                final float q = semicolon == -1
+                                ? 1.0f : quality(element.substring(semicolon + 1));
+                if ("*".equals(token)) {
+                    any = Math.max(any, q);
+                    continue;
+                }
+                for (int i = 0; i < tokens.length; i++) {
+                    if (tokens[i].equalsIgnoreCase(token)) {
+                        qualities[i] = Math.max(qualities[i], q);
+                    }
+                }
+            }
+        }
+        int chosen = -1;
+        float best = 0.0f;
+        for (int i = 0; i < tokens.length; i++) {
+            final float q = qualities[i] < 0.0f ? any : qualities[i];
+            if (q > best) {
+                best = q;
+                chosen = i;
+            }
+        }
+        return chosen == -1 ? null : tokens[chosen];
+    }
+
+    private static final Comparator<MediaRange> ORDER
+            = Comparator.<MediaRange>comparingInt(r -> r.specificity)
+            .thenComparingDouble(r -> r.quality).reversed();
+
+    private static final MediaRange[] ANY = {new MediaRange("*", "*", 1.0f)};
+
+    private static final Map<String, MediaRange[]> ACCEPTS
+            = new ConcurrentHashMap<>();
+
+    /**
+     * Parses specified {@code Accept} value into media ranges ordered by specificity and then by quality.
+     *
+     * @param accept the {@code Accept} value.
+     * @return an array of media ranges; never modified.
+     */
+    private static MediaRange[] parseAccept(final String accept) {
+        MediaRange[] ranges = ACCEPTS.get(accept);
+        if (ranges != null) {
+            return ranges;
+        }
+        final List<MediaRange> list = new ArrayList<>();
+        for (final String element : accept.split(",")) {
+            final MediaRange range = MediaRange.parse(element);
+            if (range != null) {
+                list.add(range);
+            }
+        }
+        list.sort(ORDER);
+        ranges = list.toArray(new MediaRange[0]);
+        if (accept.length() <= ACCEPT_CACHE_VALUE_LENGTH) {
+            if (ACCEPTS.size() >= ACCEPT_CACHE_SIZE) {
+                final Iterator<String> keys = ACCEPTS.keySet().iterator();
+                if (keys.hasNext()) {
+                    ACCEPTS.remove(keys.next());
+                }
+            }
+            ACCEPTS.put(accept, ranges);
+        }
+        return ranges;
+    }
+
+    private static MediaRange[] parseTypes(final Collection<String> types) {
+        final MediaRange[] parsed = new MediaRange[types.size()];
+        int i = 0;
+        for (final String type : types) {
+            final MediaRange range = MediaRange.parse(type);
+            if (range == null) {
+                throw new IllegalArgumentException("illegal media type: " + type);
+            }
+            parsed[i++] = range;
+        }
+        return parsed;
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param produces the media types produced, in order of preference; empty for producing anything.
+     * @param consumes the media types, or ranges, consumed; empty for consuming anything.
+     * @throws IllegalArgumentException if a media type is malformed.
+     */
+    public ContentNegotiator(final Collection<String> produces,
+                             final Collection<String> consumes) {
+        super();
+        this.produces = parseTypes(produces);
+        producedTypes = produces.toArray(new String[0]);
+        this.consumes = parseTypes(consumes);
+        for (final MediaRange produced : this.produces) {
+            if (produced.specificity != 2) {
+                throw new IllegalArgumentException(
+                        "not a media type: " + produced.type + '/'
+                        + produced.subtype);
+            }
+        }
+    }
+
+    /**
+     * Chooses the produced media type most acceptable by specified {@code Accept} header values. Each produced type
+     * is weighed by the quality of the most specific range which includes it; ties are broken by the order of
+     * preference.
+     *
+     * @param accepts the values of {@code Accept} headers; {@code null} or empty for accepting anything.
+     * @return the chosen media type, as given at construction; {@code null} if none is acceptable, or, if nothing is
+     * produced, a non-{@code null} empty string.
+     */
+    public String negotiate(final Enumeration<String> accepts) {
+        if (accepts == null || !accepts.hasMoreElements()) {
+            return negotiate(ANY);
+        }
+        final String first = accepts.nextElement();
+        if (!accepts.hasMoreElements()) {
+            return negotiate(parseAccept(first));
+        }
+        final StringBuilder builder = new StringBuilder(first);
+        while (accepts.hasMoreElements()) {
+            builder.append(',').append(accepts.nextElement());
+        }
+        return negotiate(parseAccept(builder.toString()));
+    }
+
+    private String negotiate(final MediaRange[] ranges) {
+        if (produces.length == 0) {
+            return "";
+        }
+        int chosen = -1;
+        float best = 0.0f;
+        for (int i = 0; i < produces.length; i++) {
+            for (final MediaRange range : ranges) {
+                if (range.includes(produces[i])) {
+                    if (range.quality > best) {
+                        best = range.quality;
+                        chosen = i;
+                    }
+                    break; // the most specific one
+                }
+            }
+        }
+        return chosen == -1 ? null : producedTypes[chosen];
+    }
+
+    /**
+     * Tells whether specified {@code Content-Type} header value is consumed.
+     *
+     * @param contentType the {@code Content-Type} value; may be {@code null}.
+     * @return {@code true} if consumed; {@code false} otherwise.
+     */
+    public boolean isConsumed(final String contentType) {
+        if (consumes.length == 0) {
+            return true;
+        }
+        if (contentType == null) {
+            return false;
+        }
+        final MediaRange type = MediaRange.parse(contentType);
+        if (type == null) {
+            return false;
+        }
+        for (final MediaRange consumed : consumes) {
+            if (consumed.includes(type)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the media types produced.
+     *
+     * @return a list of media types produced.
+     */
+    public List<String> getProduces() {
+        return Arrays.asList(producedTypes.clone());
+    }
+
+    private final MediaRange[] produces;
+
+    private final String[] producedTypes;
+
+    private final MediaRange[] consumes;
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2026 Jin Kwon &lt;jinahya_at_gmail.com&gt;.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jinahya.servlet.http;
+
+/**
+ * A deadline of a transformation. A deadline is checked cooperatively, by the input and the output of the
+ * transformation, and, once expired, stays expired.
+ *
+ * @author Jin Kwon &lt;jinahya_at_gmail.com&gt;
+ */
+final class Deadline {
+
+    Deadline(final long timeoutNanos) {
+        super();
+        at = System.nanoTime() + timeoutNanos;
+    }
+
+    /**
+     * Checks whether this deadline has expired.
+     *
+     * @throws DeadlineExceededException if expired.
+     */
+    void check() throws DeadlineExceededException {
+        if (expired()) {
+            throw new DeadlineExceededException();
+        }
+    }
+
+    /**
+     * Tells whether this deadline has expired.
+     *
+     * @return {@code true} if expired; {@code false} otherwise.
+     */
+    boolean expired() {
+        if (!expired && remaining() <= 0L) {
+            expired = true;
+        }
+        return expired;
+    }
+
+    /**
+     * Returns the time left until this deadline.
+     *
+     * @return the time left, in nanoseconds; not positive if expired.
+     */
+    long remaining() {
+        return at - System.nanoTime();
+    }
+
+    private final long at;
+
+    private volatile boolean expired;
+}
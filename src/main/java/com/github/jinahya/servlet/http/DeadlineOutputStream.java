@@ -0,0 +1,50 @@
+/*
+ * Copyright 2026 Jin Kwon &lt;jinahya_at_gmail.com&gt;.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jinahya.servlet.http;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * An output stream which checks a deadline on every write.
+ *
+ * @author Jin Kwon &lt;jinahya_at_gmail.com&gt;
+ */
+final class DeadlineOutputStream
+        extends FilterOutputStream {
+
+    DeadlineOutputStream(final OutputStream out,
+                                 final Deadline deadline) {
+        super(out);
+        this.deadline = deadline;
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        deadline.check();
+        out.write(b);
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len)
+            throws IOException {
+        deadline.check();
+        out.write(b, off, len);
+    }
+
+    private final Deadline deadline;
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2026 Jin Kwon &lt;jinahya_at_gmail.com&gt;.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jinahya.servlet.http;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.XMLFilterImpl;
+
+/**
+ * An XML filter which checks a deadline at every {@value #CHECK_INTERVAL} events of the document.
+ *
+ * @author Jin Kwon &lt;jinahya_at_gmail.com&gt;
+ */
+final class DeadlineXMLFilter extends XMLFilterImpl {
+
+    private static final int CHECK_INTERVAL = 64;
+
+    DeadlineXMLFilter(final XMLReader parent,
+                      final Deadline deadline) {
+        super(parent);
+        this.deadline = deadline;
+        setEntityResolver(parent.getEntityResolver());
+    }
+
+    private void check() throws SAXException {
+        if (++events % CHECK_INTERVAL == 0) {
+            try {
+                deadline.check();
+            } catch (final DeadlineExceededException dee) {
+                throw new SAXException(dee);
+            }
+        }
+    }
+
+    @Override
+    public void startElement(final String uri, final String localName,
+                             final String qName, final Attributes atts)
+            throws SAXException {
+        check();
+        super.startElement(uri, localName, qName, atts);
+    }
+
+    @Override
+    public void endElement(final String uri, final String localName,
+                           final String qName)
+            throws SAXException {
+        check();
+        super.endElement(uri, localName, qName);
+    }
+
+    @Override
+    public void characters(final char[] ch, final int start,
+                           final int length)
+            throws SAXException {
+        check();
+        super.characters(ch, start, length);
+    }
+
+    @Override
+    public void ignorableWhitespace(final char[] ch, final int start,
+                                    final int length)
+            throws SAXException {
+        check();
+        super.ignorableWhitespace(ch, start, length);
+    }
+
+    @Override
+    public void processingInstruction(final String target,
+                                      final String data)
+            throws SAXException {
+        check();
+        super.processingInstruction(target, data);
+    }
+
+    private final Deadline deadline;
+
+    private int events;
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2026 Jin Kwon &lt;jinahya_at_gmail.com&gt;.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jinahya.servlet.http;
+
+import com.github.jinahya.servlet.MemoryBudgetExceededException;
+import com.github.jinahya.servlet.SegmentedBuffer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.FilterConfig;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.ws.rs.core.Response.StatusType;
+
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Enumeration;
+
+/**
+ * A filter which computes a strong {@code ETag} of each {@code GET} response body and answers a matching {@code
+ * If-None-Match} with {@code 304 Not Modified} without sending the body.
+ * <p>
+ * The digest is computed while the downstream writes the body into the buffer, one segment at a time, so the body is
+ * not scanned twice. Responses whose status is not {@code 200}, which already have an {@code ETag}, or which are
+ * committed by the downstream are passed as they are. With a positive {@value #INIT_PARAM_PREFIX_SIZE}, a body longer
+ * than the prefix is streamed without an {@code ETag}.
+ *
+ * @author Jin Kwon &lt;jinahya_at_gmail.com&gt;
+ */
+public class ETagFilter extends HttpFilter {
+
+    /**
+     * The name of the init parameter for the message digest algorithm. The default is {@value
+     * #DEFAULT_ALGORITHM}.
+     */
+    public static final String INIT_PARAM_ALGORITHM = "etag.algorithm";
+
+    /**
+     * The default message digest algorithm.
+     */
+    public static final String DEFAULT_ALGORITHM = "SHA-256";
+
+    private static final String HEADER_ETAG = "ETag";
+
+    private static final String HEADER_IF_NONE_MATCH = "If-None-Match";
+
+    /**
+     * Tells whether any of specified {@code If-None-Match} header values matches specified entity tag with the weak
+     * comparison.
+     *
+     * @param values the values of {@code If-None-Match} headers.
+     * @param etag   the entity tag.
+     * @return {@code true} if matches; {@code false} otherwise.
+     */
+    static boolean matches(final Enumeration<String> values,
+                           final String etag) {
+        if (values == null) {
+            return false;
+        }
+        final String opaque = opaque(etag);
+        while (values.hasMoreElements()) {
+            final String value = values.nextElement();
+            int start = 0;
+            while (start < value.length()) {
+                int end = value.indexOf(',', start);
+                if (end == -1) {
+                    end = value.length();
+                }
+                final String tag = value.substring(start, end).trim();
+                if ("*".equals(tag) || opaque.equals(opaque(tag))) {
+                    return true;
+                }
+                start = end + 1;
+            }
+        }
+        return false;
+    }
+
+    private static String opaque(final String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+
+    @Override
+    public void init(final FilterConfig filterConfig) throws ServletException {
+        super.init(filterConfig);
+        final String value = filterConfig.getInitParameter(INIT_PARAM_ALGORITHM);
+        algorithm = value == null ? DEFAULT_ALGORITHM : value.trim();
+        try {
+            MessageDigest.getInstance(algorithm);
+        } catch (final NoSuchAlgorithmException nsae) {
+            throw new ServletException(
+                    "illegal " + INIT_PARAM_ALGORITHM + ": " + algorithm, nsae);
+        }
+    }
+
+    @Override
+    protected void doFilter(final HttpServletRequest request,
+                            final HttpServletResponse response,
+                            final FilterChain chain)
+            throws IOException, ServletException {
+
+        if (!"GET".equals(request.getMethod())) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        final SegmentedBuffer buffer = newSegmentedBuffer();
+        try {
+            buffer.setDigest(MessageDigest.getInstance(algorithm));
+        } catch (final NoSuchAlgorithmException nsae) {
+            throw new ServletException(nsae); // checked in init(...)
+        }
+        final BufferedResponseWrapper wrapper
+                = newBufferedResponseWrapper(response, buffer);
+        try {
+            chain.doFilter(request, wrapper); // ------------------ doFilter(...)
+            if (wrapper.isPassedThrough()) {
+                return; // longer than the prefix; streamed without an ETag
+            }
+            final long length = wrapper.getSize();
+            if (wrapper.getStatus() != HttpServletResponse.SC_OK
+                || response.isCommitted()
+                || response.containsHeader(HEADER_ETAG)) {
+                wrapper.writeThrough();
+                return;
+            }
+            final String etag = '"' + Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(buffer.digest()) + '"';
+            response.setHeader(HEADER_ETAG, etag);
+            if (matches(request.getHeaders(HEADER_IF_NONE_MATCH), etag)) {
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return;
+            }
+            response.setContentLengthLong(length);
+            wrapper.writeThrough();
+        } catch (final IOException | ServletException e) {
+            final MemoryBudgetExceededException mbee
+                    = MemoryBudgetExceededException.find(e);
+            if (mbee == null || response.isCommitted()) {
+                throw e;
+            }
+            final StatusType statusType = mbee.getStatusType();
+            response.sendError(statusType.getStatusCode(),
+                               statusType.getReasonPhrase());
+        } finally {
+            wrapper.release();
+        }
+    }
+
+    private transient String algorithm;
+}
@@ -0,0 +1,303 @@
+/*
+ * Copyright 2026 Jin Kwon &lt;jinahya_at_gmail.com&gt;.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jinahya.servlet.http;
+
+import java.util.function.BiConsumer;
+
+/**
+ * A map of header names to values whose names are compared case-insensitively. Well-known header names, such as
+ * {@code Accept}, live in constant slots and are found by index; other names live in an open-addressing table. Neither
+ * a lookup nor an update of an existing name allocates.
+ *
+ * @param <V> value type parameter
+ * @author Jin Kwon &lt;jinahya_at_gmail.com&gt;
+ */
+final class HeaderStore<V> {
+
+    static final int ACCEPT = 0;
+
+    static final int ACCEPT_CHARSET = 1;
+
+    static final int ACCEPT_ENCODING = 2;
+
+    static final int ACCEPT_LANGUAGE = 3;
+
+    static final int AUTHORIZATION = 4;
+
+    static final int CACHE_CONTROL = 5;
+
+    static final int CONNECTION = 6;
+
+    static final int CONTENT_ENCODING = 7;
+
+    static final int CONTENT_LENGTH = 8;
+
+    static final int CONTENT_TYPE = 9;
+
+    static final int COOKIE = 10;
+
+    static final int HOST = 11;
+
+    static final int IF_MATCH = 12;
+
+    static final int IF_MODIFIED_SINCE = 13;
+
+    static final int IF_NONE_MATCH = 14;
+
+    static final int IF_UNMODIFIED_SINCE = 15;
+
+    static final int ORIGIN = 16;
+
+    static final int PRAGMA = 17;
+
+    static final int RANGE = 18;
+
+    static final int REFERER = 19;
+
+    static final int USER_AGENT = 20;
+
+    static final int X_FORWARDED_FOR = 21;
+
+    /**
+     * Canonical names of well-known headers, indexed by their slots. No more than 64, so that a set of slots fits in a
+     * {@code long}.
+     */
+    private static final String[] KNOWN_NAMES = {
+            "Accept", "Accept-Charset", "Accept-Encoding", "Accept-Language", "Authorization", "Cache-Control",
+            "Connection", "Content-Encoding", "Content-Length", "Content-Type", "Cookie", "Host", "If-Match",
+            "If-Modified-Since", "If-None-Match", "If-Unmodified-Since", "Origin", "Pragma", "Range", "Referer",
+            "User-Agent", "X-Forwarded-For"
+    };
+
+    /**
+     * An open-addressing table of {@code slot + 1}s of well-known headers; {@code 0} for an empty bucket.
+     */
+    private static final int[] KNOWN_TABLE = new int[64];
+
+    static {
+        for (int slot = 0; slot < KNOWN_NAMES.length; slot++) {
+            int bucket = hash(KNOWN_NAMES[slot]) & (KNOWN_TABLE.length - 1);
+            while (KNOWN_TABLE[bucket] != 0) {
+                bucket = (bucket + 1) & (KNOWN_TABLE.length - 1);
+            }
+            KNOWN_TABLE[bucket] = slot + 1;
+        }
+    }
+
+    private static final int MINIMUM_CAPACITY = 8;
+
+    /**
+     * Folds specified character so that two characters equal ignoring case, as by
+     * {@link String#equalsIgnoreCase(String)}, fold to the same value.
+     */
+    private static char fold(final char c) {
+        if (c < 0x80) {
+            return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+        }
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    /**
+     * Returns a case-insensitive hash of specified name.
+     */
+    private static int hash(final String name) {
+        int h = 0;
+        for (int i = 0; i < name.length(); i++) {
+            h = 31 * h + fold(name.charAt(i));
+        }
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Returns the slot of specified well-known header name.
+     *
+     * @param name the header name, in any case.
+     * @return the slot of {@code name}; {@code -1} if {@code name} is not well-known.
+     */
+    static int slot(final String name) {
+        return slot(name, hash(name));
+    }
+
+    private static int slot(final String name, final int hash) {
+        for (int bucket = hash & (KNOWN_TABLE.length - 1); KNOWN_TABLE[bucket] != 0;
+             bucket = (bucket + 1) & (KNOWN_TABLE.length - 1)) {
+            final int slot = KNOWN_TABLE[bucket] - 1;
+            if (KNOWN_NAMES[slot].equalsIgnoreCase(name)) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the canonical name of specified slot.
+     *
+     * @param slot the slot
+     * @return the canonical name of {@code slot}.
+     */
+    static String name(final int slot) {
+        return KNOWN_NAMES[slot];
+    }
+
+    /**
+     * Returns the value of specified well-known header slot.
+     *
+     * @param slot the slot of the header.
+     * @return the value of {@code slot}; {@code null} if absent.
+     */
+    @SuppressWarnings("unchecked")
+    V get(final int slot) {
+        return (V) known[slot];
+    }
+
+    /**
+     * Returns the value of specified header name.
+     *
+     * @param name the header name, in any case.
+     * @return the value of {@code name}; {@code null} if absent.
+     */
+    @SuppressWarnings("unchecked")
+    V get(final String name) {
+        final int hash = hash(name);
+        final int slot = slot(name, hash);
+        if (slot != -1) {
+            return (V) known[slot];
+        }
+        if (keys == null) {
+            return null;
+        }
+        final int bucket = bucket(name, hash);
+        return (V) values[bucket];
+    }
+
+    /**
+     * Associates specified value with specified header name. A custom name keeps the case in which it is first put.
+     *
+     * @param name  the header name, in any case.
+     * @param value the value.
+     * @return the previous value of {@code name}; {@code null} if absent.
+     * @throws NullPointerException if {@code value} is {@code null}.
+     */
+    @SuppressWarnings("unchecked")
+    V put(final String name, final V value) {
+        if (value == null) {
+            throw new NullPointerException("value");
+        }
+        final int hash = hash(name);
+        final int slot = slot(name, hash);
+        if (slot != -1) {
+            final V previous = (V) known[slot];
+            known[slot] = value;
+            if (previous == null) {
+                size++;
+            }
+            return previous;
+        }
+        if (keys == null) {
+            keys = new String[MINIMUM_CAPACITY];
+            values = new Object[MINIMUM_CAPACITY];
+        } else if ((custom + 1) << 1 > keys.length) {
+            resize(keys.length << 1);
+        }
+        final int bucket = bucket(name, hash);
+        final V previous = (V) values[bucket];
+        if (previous == null) {
+            keys[bucket] = name;
+            custom++;
+            size++;
+        }
+        values[bucket] = value;
+        return previous;
+    }
+
+    /**
+     * Returns the number of headers in this store.
+     *
+     * @return the number of headers.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Performs specified action for each header in this store; well-known headers first, in their slot order, and then
+     * custom headers in no particular order.
+     *
+     * @param action the action to be performed with each header name and value.
+     */
+    @SuppressWarnings("unchecked")
+    void forEach(final BiConsumer<? super String, ? super V> action) {
+        for (int slot = 0; slot < known.length; slot++) {
+            if (known[slot] != null) {
+                action.accept(KNOWN_NAMES[slot], (V) known[slot]);
+            }
+        }
+        if (keys == null) {
+            return;
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                action.accept(keys[i], (V) values[i]);
+            }
+        }
+    }
+
+    /**
+     * Returns the bucket of specified custom name; either the bucket holding it or the empty bucket at which the
+     * probing stopped.
+     */
+    private int bucket(final String name, final int hash) {
+        final int mask = keys.length - 1;
+        int bucket = hash & mask;
+        while (keys[bucket] != null && !keys[bucket].equalsIgnoreCase(name)) {
+            bucket = (bucket + 1) & mask;
+        }
+        return bucket;
+    }
+
+    private void resize(final int capacity) {
+        final String[] oldKeys = keys;
+        final Object[] oldValues = values;
+        keys = new String[capacity];
+        values = new Object[capacity];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                final int bucket = bucket(oldKeys[i], hash(oldKeys[i]));
+                keys[bucket] = oldKeys[i];
+                values[bucket] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * Values of well-known headers, indexed by their slots.
+     */
+    private final Object[] known = new Object[KNOWN_NAMES.length];
+
+    /**
+     * Names of custom headers; {@code null} until a custom header is put.
+     */
+    private String[] keys;
+
+    /**
+     * Values of custom headers, indexed as {@link #keys}.
+     */
+    private Object[] values;
+
+    private int custom;
+
+    private int size;
+}
@@ -98,17 +98,32 @@ public class HeadersRequestWrapper extends HttpServletRequestWrapper {
      * @param headers the succeeding headers.
      * @return a new instance
      */
-    public static HttpServletRequest newSuccedingInstance(
+    public static HttpServletRequest newSucceedingInstance(
             final HttpServletRequest request,
             final Map<String, List<String>> headers) {
         if (headers == null) {
             throw new NullPointerException("headers");
         }
         final HttpServletRequest instance
-                = new HeadersRequestWrapper(request, headers, null);
+                = new HeadersRequestWrapper(request, null, headers);
         return instance;
     }
 
+    /**
+     * Creates a new instance with succeeding headers.
+     *
+     * @param request the actual request
+     * @param headers the succeeding headers.
+     * @return a new instance
+     * @deprecated misspelled; use {@link #newSucceedingInstance(HttpServletRequest, Map)}.
+     */
+    @Deprecated
+    public static HttpServletRequest newSuccedingInstance(
+            final HttpServletRequest request,
+            final Map<String, List<String>> headers) {
+        return newSucceedingInstance(request, headers);
+    }
+
     /**
      * Creates a new instance with a succeeding header.
      *
@@ -128,7 +143,7 @@ public class HeadersRequestWrapper extends HttpServletRequestWrapper {
         }
         final Map<String, List<String>> headers = new HashMap<>(1);
         headers.put(name, values);
-        return newPrecedingInstance(request, headers);
+        return newSucceedingInstance(request, headers);
     }
 
     /**
@@ -148,11 +163,12 @@ public class HeadersRequestWrapper extends HttpServletRequestWrapper {
         if (value == null) {
             throw new NullPointerException("value");
         }
-        return newPrecedingInstance(request, name, Arrays.asList(value));
+        return newSucceedingInstance(request, name, Arrays.asList(value));
     }
 
     /**
-     * Creates a new instance with {@code request} and additional headers.
+     * Creates a new instance with {@code request} and additional headers. Only the additional headers are copied;
+     * every other header is read from {@code request} when asked.
      *
      * @param request           the request
      * @param precedingHeaders  additional headers precede requested headers; {@code null} allowed.
@@ -163,39 +179,42 @@ public class HeadersRequestWrapper extends HttpServletRequestWrapper {
             final Map<String, List<String>> precedingHeaders,
             final Map<String, List<String>> succeedingHeaders) {
         super(request);
-        headers = new HashMap<>();
         if (precedingHeaders != null) {
-            for (final String name : precedingHeaders.keySet()) {
-                List<String> values = headers.get(name);
-                if (values == null) {
-                    values = new ArrayList<>();
-                    headers.put(name, values);
-                }
-                values.addAll(precedingHeaders.get(name));
+            for (final Map.Entry<String, List<String>> entry
+                    : precedingHeaders.entrySet()) {
+                final Header header = header(entry.getKey());
+                header.preceding = concat(header.preceding, entry.getValue());
             }
         }
-
-        for (final Enumeration<String> names = request.getHeaderNames();
-             names.hasMoreElements(); ) {
-            final String name = names.nextElement();
-            List<String> value = headers.get(name);
-            if (value == null) {
-                value = new ArrayList<>();
-                headers.put(name, value);
+        if (succeedingHeaders != null) {
+            for (final Map.Entry<String, List<String>> entry
+                    : succeedingHeaders.entrySet()) {
+                final Header header = header(entry.getKey());
+                header.succeeding = concat(header.succeeding, entry.getValue());
             }
-            value.addAll(Collections.list(request.getHeaders(name)));
         }
+    }
 
-        if (succeedingHeaders != null) {
-            for (final String name : succeedingHeaders.keySet()) {
-                List<String> values = headers.get(name);
-                if (values == null) {
-                    values = new ArrayList<>();
-                    headers.put(name, values);
-                }
-                values.addAll(succeedingHeaders.get(name));
-            }
+    private static List<String> concat(final List<String> list,
+                                       final List<String> values) {
+        if (list == null) {
+            return values;
+        }
+        final List<String> concatenated = new ArrayList<>(list);
+        concatenated.addAll(values);
+        return concatenated;
+    }
+
+    /**
+     * Returns the additional header of specified name, adding it if absent.
+     */
+    private Header header(final String name) {
+        Header header = headers.get(name);
+        if (header == null) {
+            header = new Header();
+            headers.put(name, header);
         }
+        return header;
     }
 
     /**
@@ -206,15 +225,81 @@ public class HeadersRequestWrapper extends HttpServletRequestWrapper {
      */
     @Override
     public String getHeader(final String name) {
-
-        final List<String> values = headers.get(name);
-        if (values != null && !values.isEmpty()) {
-            return values.get(0);
+        final Header header = headers.get(name);
+        if (header == null) {
+            return super.getHeader(name);
         }
+        return first(header, name);
+    }
 
+    /**
+     * Returns the first value of specified additional header, looking up the requested ones between preceding and
+     * succeeding values.
+     */
+    private String first(final Header header, final String name) {
+        if (header.preceding != null && !header.preceding.isEmpty()) {
+            return header.preceding.get(0);
+        }
+        final String value = super.getHeader(name);
+        if (value != null) {
+            return value;
+        }
+        if (header.succeeding != null && !header.succeeding.isEmpty()) {
+            return header.succeeding.get(0);
+        }
         return null;
     }
 
+    /**
+     * {@inheritDoc} The {@code getContentType()} method of {@code HeadersRequestWrapper} honors an additional
+     * {@code Content-Type} header.
+     *
+     * @return {@inheritDoc}
+     */
+    @Override
+    public String getContentType() {
+        final Header header = headers.get(HeaderStore.CONTENT_TYPE);
+        if (header == null) {
+            return super.getContentType();
+        }
+        return first(header, HeaderStore.name(HeaderStore.CONTENT_TYPE));
+    }
+
+    /**
+     * {@inheritDoc} The {@code getContentLengthLong()} method of {@code HeadersRequestWrapper} honors an additional
+     * {@code Content-Length} header.
+     *
+     * @return {@inheritDoc}
+     */
+    @Override
+    public long getContentLengthLong() {
+        final Header header = headers.get(HeaderStore.CONTENT_LENGTH);
+        if (header == null) {
+            return super.getContentLengthLong();
+        }
+        final String value = first(header, HeaderStore.name(HeaderStore.CONTENT_LENGTH));
+        if (value == null) {
+            return -1L;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (final NumberFormatException nfe) {
+            return -1L;
+        }
+    }
+
+    /**
+     * {@inheritDoc} The {@code getContentLength()} method of {@code HeadersRequestWrapper} honors an additional
+     * {@code Content-Length} header.
+     *
+     * @return {@inheritDoc}
+     */
+    @Override
+    public int getContentLength() {
+        final long length = getContentLengthLong();
+        return length > Integer.MAX_VALUE ? -1 : (int) length;
+    }
+
     /**
      * {@inheritDoc}
      *
@@ -223,9 +308,20 @@ public class HeadersRequestWrapper extends HttpServletRequestWrapper {
      */
     @Override
     public Enumeration<String> getHeaders(final String name) {
-        List<String> values = headers.get(name);
-        if (values == null) {
-            return Collections.emptyEnumeration();
+        final Header header = headers.get(name);
+        if (header == null) {
+            return super.getHeaders(name);
+        }
+        final List<String> values = new ArrayList<>();
+        if (header.preceding != null) {
+            values.addAll(header.preceding);
+        }
+        for (final Enumeration<String> e = super.getHeaders(name);
+             e != null && e.hasMoreElements(); ) {
+            values.add(e.nextElement());
+        }
+        if (header.succeeding != null) {
+            values.addAll(header.succeeding);
         }
         return Collections.enumeration(values);
     }
@@ -237,11 +333,49 @@ public class HeadersRequestWrapper extends HttpServletRequestWrapper {
      */
     @Override
     public Enumeration<String> getHeaderNames() {
-        return Collections.enumeration(headers.keySet());
+        final List<String> list = new ArrayList<>();
+        long known = 0L; // a bit for each slot of requested well-known names
+        for (final Enumeration<String> e = super.getHeaderNames();
+             e != null && e.hasMoreElements(); ) {
+            final String name = e.nextElement();
+            final int slot = HeaderStore.slot(name);
+            if (slot != -1) {
+                known |= 1L << slot;
+            }
+            list.add(name);
+        }
+        final int requested = list.size();
+        final long requestedKnown = known;
+        headers.forEach((name, header) -> {
+            final int slot = HeaderStore.slot(name);
+            if (slot != -1) {
+                if ((requestedKnown & (1L << slot)) == 0L) {
+                    list.add(name);
+                }
+                return;
+            }
+            for (int i = 0; i < requested; i++) {
+                if (list.get(i).equalsIgnoreCase(name)) {
+                    return;
+                }
+            }
+            list.add(name);
+        });
+        return Collections.enumeration(list);
+    }
+
+    /**
+     * Values of an additional header.
+     */
+    private static final class Header {
+
+        private List<String> preceding;
+
+        private List<String> succeeding;
     }
 
     /**
-     * aggregated headers.
+     * Additional headers.
      */
-    private final Map<String, List<String>> headers;
+    private final HeaderStore<Header> headers = new HeaderStore<>();
 }
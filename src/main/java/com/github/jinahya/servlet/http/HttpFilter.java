@@ -16,8 +16,10 @@
 package com.github.jinahya.servlet.http;
 
 import com.github.jinahya.servlet.AbstractFilter;
+import com.github.jinahya.servlet.SegmentedBuffer;
 
 import jakarta.servlet.FilterChain;
+import jakarta.servlet.FilterConfig;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.ServletRequest;
 import jakarta.servlet.ServletResponse;
@@ -32,6 +34,31 @@ import java.io.IOException;
  */
 public abstract class HttpFilter extends AbstractFilter {
 
+    /**
+     * The name of the init parameter for the number of leading bytes of a response body buffered before the rest is
+     * passed through to the actual response. Whole bodies are buffered if {@code 0}, which is the default.
+     *
+     * @see #newBufferedResponseWrapper(HttpServletResponse, SegmentedBuffer)
+     */
+    public static final String INIT_PARAM_PREFIX_SIZE = "prefix.size";
+
+    /**
+     * The default value of {@link #INIT_PARAM_PREFIX_SIZE}.
+     */
+    public static final long DEFAULT_PREFIX_SIZE = 0L;
+
+    @Override
+    public void init(final FilterConfig filterConfig) throws ServletException {
+        super.init(filterConfig);
+        prefixSize = getInitParameterAsLong(
+                INIT_PARAM_PREFIX_SIZE, DEFAULT_PREFIX_SIZE);
+        if (prefixSize < 0L) {
+            throw new ServletException(
+                    "illegal init parameter; " + INIT_PARAM_PREFIX_SIZE + ": "
+                    + prefixSize);
+        }
+    }
+
     /**
      * {@inheritDoc} The {@code doFilter(ServletRequest, ServletResponse, FilterChain)} method of {@code HttpFilter}, if
      * {@code request} is an instance of {@link HttpServletRequest} and {@code response} is an instance of {@link
@@ -74,4 +101,23 @@ public abstract class HttpFilter extends AbstractFilter {
                                      HttpServletResponse response,
                                      FilterChain chain)
             throws IOException, ServletException;
+
+    /**
+     * Creates a new wrapper which buffers the body of specified response into specified buffer. The wrapper works in
+     * pass-through mode if {@value #INIT_PARAM_PREFIX_SIZE} is positive.
+     *
+     * @param response the response to wrap.
+     * @param buffer   the buffer into which the body, or its prefix, is written.
+     * @return a new wrapper.
+     * @see BufferedResponseWrapper#isPassThrough()
+     */
+    protected BufferedResponseWrapper newBufferedResponseWrapper(
+            final HttpServletResponse response, final SegmentedBuffer buffer) {
+        if (prefixSize > 0L) {
+            return new BufferedResponseWrapper(response, buffer, prefixSize);
+        }
+        return new BufferedResponseWrapper(response, buffer);
+    }
+
+    private transient long prefixSize = DEFAULT_PREFIX_SIZE;
 }
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2026 Jin Kwon &lt;jinahya_at_gmail.com&gt;.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jinahya.servlet.http;
+
+import com.github.jinahya.ws.core.NotAcceptable406;
+import com.github.jinahya.ws.core.UnsupportedMediaType415;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.FilterConfig;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.ws.rs.core.Response.StatusType;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A filter which negotiates content before any resource runs. A request whose body is not of a consumed media type is
+ * rejected with {@code 415 Unsupported Media Type}, and a request which accepts none of the produced media types is
+ * rejected with {@code 406 Not Acceptable}. The negotiated media type is set as the {@value #ATTRIBUTE_MEDIA_TYPE}
+ * request attribute, so that resources need not parse {@code Accept} headers again.
+ *
+ * @author Jin Kwon &lt;jinahya_at_gmail.com&gt;
+ * @see ContentNegotiator
+ */
+public class NegotiationFilter extends HttpFilter {
+
+    /**
+     * The name of the init parameter for comma-separated media types produced, in order of preference. Unset by
+     * default, in which case {@code Accept} headers are not checked.
+     */
+    public static final String INIT_PARAM_PRODUCES = "negotiation.produces";
+
+    /**
+     * The name of the init parameter for comma-separated media types, or ranges, consumed. Unset by default, in which
+     * case {@code Content-Type} headers are not checked.
+     */
+    public static final String INIT_PARAM_CONSUMES = "negotiation.consumes";
+
+    /**
+     * The name of the request attribute for the negotiated media type.
+     */
+    public static final String ATTRIBUTE_MEDIA_TYPE
+            = "com.github.jinahya.servlet.http.NegotiationFilter.mediaType";
+
+    /**
+     * The status type of rejected request bodies; the reason phrase doesn't echo the client's {@code Content-Type}.
+     */
+    private static final StatusType UNSUPPORTED_MEDIA_TYPE
+            = new UnsupportedMediaType415("unsupported media type");
+
+    private static List<String> split(final String value) {
+        if (value == null) {
+            return Collections.emptyList();
+        }
+        final List<String> list = new ArrayList<>();
+        for (final String element : value.split(",")) {
+            if (!element.trim().isEmpty()) {
+                list.add(element.trim());
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public void init(final FilterConfig filterConfig) throws ServletException {
+        super.init(filterConfig);
+        try {
+            negotiator = new ContentNegotiator(
+                    split(filterConfig.getInitParameter(INIT_PARAM_PRODUCES)),
+                    split(filterConfig.getInitParameter(INIT_PARAM_CONSUMES)));
+        } catch (final IllegalArgumentException iae) {
+            throw new ServletException(iae);
+        }
+    }
+
+    @Override
+    protected void doFilter(final HttpServletRequest request,
+                            final HttpServletResponse response,
+                            final FilterChain chain)
+            throws IOException, ServletException {
+
+        if ((request.getContentLengthLong() > 0L
+             || request.getHeader("Transfer-Encoding") != null)
+            && !negotiator.isConsumed(request.getContentType())) {
+            response.sendError(UNSUPPORTED_MEDIA_TYPE.getStatusCode(),
+                               UNSUPPORTED_MEDIA_TYPE.getReasonPhrase());
+            return;
+        }
+
+        final String mediaType = negotiator.negotiate(
+                request.getHeaders("Accept"));
+        if (mediaType == null) {
+            final StatusType statusType = new NotAcceptable406(
+                    "none of " + negotiator.getProduces() + " is acceptable");
+            response.sendError(statusType.getStatusCode(),
+                               statusType.getReasonPhrase());
+            return;
+        }
+        if (!mediaType.isEmpty()) {
+            request.setAttribute(ATTRIBUTE_MEDIA_TYPE, mediaType);
+        }
+
+        chain.doFilter(request, response);
+    }
+
+    /**
+     * Returns the negotiator of this filter.
+     *
+     * @return the negotiator.
+     */
+    protected final ContentNegotiator getNegotiator() {
+        return negotiator;
+    }
+
+    private transient ContentNegotiator negotiator;
+}
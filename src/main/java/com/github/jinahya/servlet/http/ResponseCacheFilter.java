@@ -0,0 +1,424 @@
+/*
+ * Copyright 2026 Jin Kwon &lt;jinahya_at_gmail.com&gt;.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jinahya.servlet.http;
+
+import com.github.jinahya.servlet.MemoryBudgetExceededException;
+import com.github.jinahya.servlet.TinyLfuCache;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.FilterConfig;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.ws.rs.core.Response.StatusType;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A filter which caches finished {@code GET} responses in memory and serves later requests of the same key without
+ * invoking the chain.
+ * <p>
+ * A cache key consists of the request URI, the query string, and values of request headers named by {@value
+ * #INIT_PARAM_KEY_HEADERS}. Only {@code 200} responses without {@code Set-Cookie} and without {@code no-store}, {@code
+ * no-cache}, or {@code private} directives of {@code Cache-Control} are cached. A response whose {@code Vary} is
+ * {@code *}, or names a header which is not a key header, such as {@code Accept-Encoding} of a compressed response, is
+ * not cached. An entry lives for {@value
+ * #INIT_PARAM_TTL} milliseconds, or for the {@code s-maxage}, or else the {@code max-age}, of the response if shorter.
+ * Entries are bounded by the total number of bytes of {@value #INIT_PARAM_CAPACITY} and are evicted by the W-TinyLFU
+ * policy of {@link TinyLfuCache}. With a positive {@value #INIT_PARAM_PREFIX_SIZE}, a body longer than the prefix is
+ * streamed and not cached.
+ * <p>
+ * As a shared cache (RFC 9111, section 3.5), this filter neither stores nor serves a response for a request with an
+ * {@code Authorization} header unless the response has a {@code public}, {@code s-maxage}, or {@code must-revalidate}
+ * directive. Requests with a {@code Cookie} header bypass the cache unless {@code Cookie} is one of the key headers.
+ *
+ * @author Jin Kwon &lt;jinahya_at_gmail.com&gt;
+ */
+public class ResponseCacheFilter extends HttpFilter {
+
+    /**
+     * The name of the init parameter for the maximum number of bytes cached. The default is {@value
+     * #DEFAULT_CAPACITY}.
+     */
+    public static final String INIT_PARAM_CAPACITY = "cache.capacity";
+
+    /**
+     * The default value of {@link #INIT_PARAM_CAPACITY}.
+     */
+    public static final long DEFAULT_CAPACITY = 1L << 26;
+
+    /**
+     * The name of the init parameter for the time-to-live of entries in milliseconds. The default is {@value
+     * #DEFAULT_TTL}.
+     */
+    public static final String INIT_PARAM_TTL = "cache.ttl";
+
+    /**
+     * The default value of {@link #INIT_PARAM_TTL}.
+     */
+    public static final long DEFAULT_TTL = 60000L;
+
+    /**
+     * The name of the init parameter for comma-separated names of request headers which are parts of cache keys. The
+     * default is {@value #DEFAULT_KEY_HEADERS}.
+     */
+    public static final String INIT_PARAM_KEY_HEADERS = "cache.key.headers";
+
+    /**
+     * The default value of {@link #INIT_PARAM_KEY_HEADERS}.
+     */
+    public static final String DEFAULT_KEY_HEADERS = "Accept";
+
+    private static final String HEADER_AUTHORIZATION = "Authorization";
+
+    private static final String HEADER_COOKIE = "Cookie";
+
+    /**
+     * The approximate number of bytes of an entry apart from its body and headers.
+     */
+    private static final long ENTRY_OVERHEAD = 128L;
+
+    /**
+     * A finished response.
+     */
+    private static final class CachedResponse {
+
+        private CachedResponse(final String contentType,
+                               final List<String> headers,
+                               final byte[] body,
+                               final boolean authorizable) {
+            super();
+            this.contentType = contentType;
+            this.headers = headers;
+            this.body = body;
+            this.authorizable = authorizable;
+            long weight = ENTRY_OVERHEAD + body.length;
+            for (final String header : headers) {
+                weight += header.length() << 1;
+            }
+            this.weight = weight;
+        }
+
+        private void writeTo(final HttpServletResponse response)
+                throws IOException {
+            response.setStatus(HttpServletResponse.SC_OK);
+            if (contentType != null) {
+                response.setContentType(contentType);
+            }
+            for (int i = 0; i < headers.size(); i += 2) {
+                final String name = headers.get(i);
+                if (i == 0 || !name.equals(headers.get(i - 2))) {
+                    response.setHeader(name, headers.get(i + 1));
+                } else {
+                    response.addHeader(name, headers.get(i + 1));
+                }
+            }
+            response.setContentLength(body.length);
+            response.getOutputStream().write(body);
+        }
+
+        private final String contentType;
+
+        /**
+         * Names and values of headers, in turn.
+         */
+        private final List<String> headers;
+
+        private final byte[] body;
+
+        /**
+         * A flag for whether this response may be served for a request with an {@code Authorization} header.
+         */
+        private final boolean authorizable;
+
+        private final long weight;
+    }
+
+    /**
+     * Directives of {@code Cache-Control} headers of a response.
+     */
+    private static final class CacheControl {
+
+        /**
+         * Parses specified values of {@code Cache-Control} headers.
+         *
+         * @param values the values of {@code Cache-Control} headers.
+         */
+        private CacheControl(final Collection<String> values) {
+            super();
+            long maxAge = Long.MAX_VALUE;
+            long sMaxAge = -1L;
+            boolean storable = true;
+            boolean authorizable = false;
+            for (final String value : values) {
+                for (final String directive : value.split(",")) {
+                    final String trimmed
+                            = directive.trim().toLowerCase(Locale.ENGLISH);
+                    final int equals = trimmed.indexOf('=');
+                    final String name = (equals == -1
+                                         ? trimmed : trimmed.substring(0, equals)).trim();
+                    final String argument = equals == -1
+                                            ? null : trimmed.substring(equals + 1).trim();
+                    switch (name) {
+                        case "no-store":
+                        case "no-cache":
+                        case "private":
+                            storable = false;
+                            break;
+                        case "public":
+                        case "must-revalidate":
+                            authorizable = true;
+                            break;
+                        case "max-age": {
+                            final long seconds = seconds(argument);
+                            storable &= seconds >= 0L;
+                            maxAge = Math.min(maxAge, seconds);
+                            break;
+                        }
+                        case "s-maxage": {
+                            final long seconds = seconds(argument);
+                            storable &= seconds >= 0L;
+                            authorizable = true;
+                            sMaxAge = sMaxAge == -1L
+                                      ? seconds : Math.min(sMaxAge, seconds);
+                            break;
+                        }
+                        default:
+                            break;
+                    }
+                }
+            }
+            this.maxAge = !storable ? -1L : sMaxAge != -1L ? sMaxAge : maxAge;
+            this.authorizable = authorizable;
+        }
+
+        /**
+         * Parses specified delta-seconds.
+         *
+         * @return the number of seconds; {@code -1} if malformed.
+         */
+        private static long seconds(final String argument) {
+            if (argument == null) {
+                return -1L;
+            }
+            try {
+                return Long.parseLong(argument);
+            } catch (final NumberFormatException nfe) {
+                return -1L;
+            }
+        }
+
+        /**
+         * The number of seconds the response may be cached; {@link Long#MAX_VALUE} if unspecified; negative if the
+         * response must not be cached.
+         */
+        private final long maxAge;
+
+        /**
+         * A flag for whether the response may be stored and served for requests with {@code Authorization} headers.
+         */
+        private final boolean authorizable;
+    }
+
+    @Override
+    public void init(final FilterConfig filterConfig) throws ServletException {
+        super.init(filterConfig);
+        final long capacity
+                = getInitParameterAsLong(INIT_PARAM_CAPACITY, DEFAULT_CAPACITY);
+        final long ttl = getInitParameterAsLong(INIT_PARAM_TTL, DEFAULT_TTL);
+        if (capacity <= 0L || ttl <= 0L) {
+            throw new ServletException(
+                    "illegal init parameter; " + INIT_PARAM_CAPACITY + ": "
+                    + capacity + ", " + INIT_PARAM_TTL + ": " + ttl);
+        }
+        timeToLiveNanos = TimeUnit.MILLISECONDS.toNanos(ttl);
+        cache = new TinyLfuCache<>(capacity, v -> v.weight, timeToLiveNanos);
+        String headers = filterConfig.getInitParameter(INIT_PARAM_KEY_HEADERS);
+        if (headers == null) {
+            headers = DEFAULT_KEY_HEADERS;
+        }
+        final List<String> names = new ArrayList<>();
+        for (final String name : headers.split(",")) {
+            if (!name.trim().isEmpty()) {
+                names.add(name.trim());
+            }
+        }
+        keyHeaders = names.toArray(new String[0]);
+        cookieKeyed = false;
+        for (final String name : keyHeaders) {
+            cookieKeyed |= HEADER_COOKIE.equalsIgnoreCase(name);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        cache = null;
+        super.destroy();
+    }
+
+    @Override
+    protected void doFilter(final HttpServletRequest request,
+                            final HttpServletResponse response,
+                            final FilterChain chain)
+            throws IOException, ServletException {
+
+        final TinyLfuCache<String, CachedResponse> cache = this.cache;
+        if (cache == null // destroyed
+            || !"GET".equals(request.getMethod())
+            || (!cookieKeyed && request.getHeader(HEADER_COOKIE) != null)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        final boolean authorized
+                = request.getHeader(HEADER_AUTHORIZATION) != null;
+
+        final String key = getCacheKey(request);
+        final CachedResponse cached = cache.get(key);
+        if (cached != null && (!authorized || cached.authorizable)) {
+            cached.writeTo(response);
+            return;
+        }
+
+        final BufferedResponseWrapper wrapper
+                = newBufferedResponseWrapper(response, newSegmentedBuffer());
+        try {
+            chain.doFilter(request, wrapper); // ------------------ doFilter(...)
+            if (wrapper.isPassedThrough()) {
+                return; // longer than the prefix; streamed without caching
+            }
+            final long length = wrapper.getSize();
+            final CacheControl cacheControl
+                    = new CacheControl(response.getHeaders("Cache-Control"));
+            final long maxAge = cacheControl.maxAge;
+            if (wrapper.getStatus() != HttpServletResponse.SC_OK
+                || response.isCommitted()
+                || response.containsHeader("Set-Cookie")
+                || maxAge <= 0L
+                || (authorized && !cacheControl.authorizable)
+                || !isKeyed(response.getHeaders("Vary"))
+                || length + ENTRY_OVERHEAD > cache.getMaximumWeight()) {
+                wrapper.writeThrough();
+                return;
+            }
+            final List<String> headers = new ArrayList<>();
+            for (final String name : response.getHeaderNames()) {
+                if ("Content-Length".equalsIgnoreCase(name)
+                    || "Content-Type".equalsIgnoreCase(name)
+                    || "Date".equalsIgnoreCase(name)) {
+                    continue;
+                }
+                for (final String value : response.getHeaders(name)) {
+                    headers.add(name);
+                    headers.add(value);
+                }
+            }
+            final CachedResponse entry = new CachedResponse(
+                    response.getContentType(), headers, wrapper.getBytes(),
+                    cacheControl.authorizable);
+            cache.put(key, entry, Math.min(
+                    timeToLiveNanos, TimeUnit.SECONDS.toNanos(maxAge)));
+            response.setContentLengthLong(length);
+            wrapper.writeThrough();
+        } catch (final IOException | ServletException e) {
+            final MemoryBudgetExceededException mbee
+                    = MemoryBudgetExceededException.find(e);
+            if (mbee == null || response.isCommitted()) {
+                throw e;
+            }
+            final StatusType statusType = mbee.getStatusType();
+            response.sendError(statusType.getStatusCode(),
+                               statusType.getReasonPhrase());
+        } finally {
+            wrapper.release();
+        }
+    }
+
+    /**
+     * Tells whether every request header named by specified {@code Vary} header values is a key header.
+     *
+     * @param values the values of {@code Vary} headers.
+     * @return {@code true} if keyed; {@code false} if any isn't, or for {@code *}.
+     */
+    private boolean isKeyed(final Collection<String> values) {
+        for (final String value : values) {
+            for (final String element : value.split(",")) {
+                final String name = element.trim();
+                if (name.isEmpty()) {
+                    continue;
+                }
+                if ("*".equals(name)) {
+                    return false;
+                }
+                boolean keyed = false;
+                for (final String keyHeader : keyHeaders) {
+                    keyed |= keyHeader.equalsIgnoreCase(name);
+                }
+                if (!keyed) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the cache key of specified request. The default implementation concatenates the request URI, the query
+     * string, and values of request headers named by {@value #INIT_PARAM_KEY_HEADERS}.
+     *
+     * @param request the request.
+     * @return the cache key.
+     */
+    protected String getCacheKey(final HttpServletRequest request) {
+        final StringBuilder builder = new StringBuilder(request.getRequestURI());
+        final String query = request.getQueryString();
+        if (query != null) {
+            builder.append('?').append(query);
+        }
+        for (final String name : keyHeaders) {
+            builder.append('\n');
+            for (final Enumeration<String> values = request.getHeaders(name);
+                 values != null && values.hasMoreElements(); ) {
+                builder.append(values.nextElement()).append(',');
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Returns the cache of this filter, for monitoring.
+     *
+     * @return the cache.
+     */
+    protected final TinyLfuCache<String, ?> getCache() {
+        return cache;
+    }
+
+    private transient long timeToLiveNanos;
+
+    private transient String[] keyHeaders;
+
+    /**
+     * A flag for whether {@code Cookie} is one of {@link #keyHeaders}.
+     */
+    private transient boolean cookieKeyed;
+
+    private transient volatile TinyLfuCache<String, CachedResponse> cache;
+}
@@ -0,0 +1,470 @@
+/*
+ * Copyright 2026 Jin Kwon &lt;jinahya_at_gmail.com&gt;.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jinahya.servlet.http;
+
+import com.github.jinahya.servlet.BytePipe;
+import com.github.jinahya.servlet.EncodingWriter;
+import com.github.jinahya.servlet.SegmentedBuffer;
+import com.github.jinahya.servlet.UnsynchronizedPrintWriter;
+import com.github.jinahya.servlet.XMLReaderPool;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.sax.TransformerHandler;
+import javax.xml.transform.stream.StreamResult;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.Charset;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A response wrapper, of {@link XSLTFilter} in streaming mode, which feeds the downstream body, as it is written,
+ * through a pipe to an XML reader whose events are handled by a {@link TransformerHandler} writing to the actual
+ * response on a worker thread.
+ *
+ * @author Jin Kwon &lt;jinahya_at_gmail.com&gt;
+ */
+final class StreamingResponseWrapper extends HttpServletResponseWrapper {
+
+    /**
+     * The number of bytes the downstream can write ahead of the parser.
+     */
+    private static final int PIPE_CAPACITY = SegmentedBuffer.DEFAULT_SEGMENT_SIZE * 4;
+
+    private static final String LEXICAL_HANDLER
+            = "http://xml.org/sax/properties/lexical-handler";
+
+    /**
+     * Creates a new instance.
+     *
+     * @param response the actual response
+     * @param filter   the filter whose stylesheet transforms the body.
+     * @param offload  the offload on whose executor the body is transformed.
+     */
+    StreamingResponseWrapper(final HttpServletResponse response,
+                             final XSLTFilter filter,
+                             final XSLTOffload offload) {
+        super(response);
+        this.filter = filter;
+        this.offload = offload;
+    }
+
+    @Override
+    public void setContentLength(final int len) {
+        setContentLengthLong(len);
+    }
+
+    @Override
+    public void setContentLengthLong(final long len) {
+        if (target == null) {
+            contentLength = len;
+        } else if (pipe == null) {
+            super.setContentLengthLong(len);
+        }
+    }
+
+    @Override
+    public void setHeader(final String name, final String value) {
+        if (!contentLength(name, value)) {
+            super.setHeader(name, value);
+        }
+    }
+
+    @Override
+    public void addHeader(final String name, final String value) {
+        if (!contentLength(name, value)) {
+            super.addHeader(name, value);
+        }
+    }
+
+    @Override
+    public void setIntHeader(final String name, final int value) {
+        if (!contentLength(name, Integer.toString(value))) {
+            super.setIntHeader(name, value);
+        }
+    }
+
+    @Override
+    public void addIntHeader(final String name, final int value) {
+        if (!contentLength(name, Integer.toString(value))) {
+            super.addIntHeader(name, value);
+        }
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        return outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (writer == null) {
+            final String encoding = getCharacterEncoding();
+            final Charset charset;
+            try {
+                charset = Charset.forName(encoding);
+            } catch (final IllegalArgumentException iae) {
+                throw (IOException) new UnsupportedEncodingException(encoding)
+                        .initCause(iae);
+            }
+            encodingWriter = new EncodingWriter(outputStream, charset);
+            writer = new UnsynchronizedPrintWriter(encodingWriter);
+        }
+        return writer;
+    }
+
+    /**
+     * {@inheritDoc} The {@code flushBuffer()} method of {@code StreamingResponseWrapper} never flushes the actual
+     * response which may be being written by the worker.
+     *
+     * @throws IOException {@inheritDoc}
+     */
+    @Override
+    public void flushBuffer() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        outputStream.flush();
+    }
+
+    @Override
+    public void reset() {
+        if (target != null) {
+            throw new IllegalStateException("already started");
+        }
+        contentLength = -1L;
+        super.reset();
+    }
+
+    @Override
+    public void resetBuffer() {
+        if (target != null) {
+            throw new IllegalStateException("already started");
+        }
+    }
+
+    /**
+     * Intercepts a {@code Content-Length} header which is meaningless until started, and is dropped once
+     * transforming.
+     *
+     * @param name  the header name.
+     * @param value the header value.
+     * @return {@code true} if intercepted; {@code false} otherwise.
+     */
+    private boolean contentLength(final String name, final String value) {
+        if (!"Content-Length".equalsIgnoreCase(name) || value == null) {
+            return false;
+        }
+        try {
+            setContentLengthLong(Long.parseLong(value.trim()));
+            return true;
+        } catch (final NumberFormatException nfe) {
+            return false;
+        }
+    }
+
+    /**
+     * Chooses where the downstream body goes. A non-{@code 200} body goes to the actual response as it is;
+     * otherwise, a transformation is started on the worker.
+     *
+     * @throws IOException if an I/O error occurs.
+     */
+    void start() throws IOException {
+        final HttpServletResponse response
+                = (HttpServletResponse) getResponse();
+        if (response.getStatus() != HttpServletResponse.SC_OK) {
+            if (contentLength != -1L) {
+                response.setContentLengthLong(contentLength);
+            }
+            target = response.getOutputStream();
+            return;
+        }
+        final String encoding = writer != null
+                                ? response.getCharacterEncoding()
+                                : XSLTFilter.getDeclaredEncoding(response);
+        final CompiledStylesheet stylesheet = filter.resolveTemplates(response);
+        if (stylesheet == null) {
+            target = OutputStream.nullOutputStream(); // an error has been sent
+            return;
+        }
+        final XMLReaderPool readerPool = filter.getReaderPool();
+        final TransformerHandler handler;
+        final XMLReader reader;
+        try {
+            handler = filter.newTransformerHandler(stylesheet.templates);
+            reader = readerPool.acquire();
+        } catch (final TransformerConfigurationException | SAXException e) {
+            response.sendError(
+                    HttpServletResponse.SC_INTERNAL_SERVER_ERROR,
+                    "failed to create transformer: " + e.getMessage());
+            target = OutputStream.nullOutputStream();
+            return;
+        }
+        filter.configure(handler.getTransformer());
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(filter.getOutputContentType());
+        response.setCharacterEncoding(filter.getOutputCharacterEncoding());
+        final Deadline deadline = filter.newDeadline();
+        final AbandonableResponse guarded = deadline == null
+                                            ? null : new AbandonableResponse(response);
+        final XMLReader source = deadline == null
+                                 ? reader : new DeadlineXMLFilter(reader, deadline);
+        handler.setResult(new StreamResult(
+                deadline == null
+                ? response.getOutputStream()
+                : new DeadlineOutputStream(guarded.getOutputStream(), deadline)));
+        source.setContentHandler(handler);
+        source.setDTDHandler(handler);
+        source.setErrorHandler(XSLTFilter.ERROR_HANDLER);
+        try {
+            reader.setProperty(LEXICAL_HANDLER, handler);
+        } catch (final SAXException saxe) {
+            // comments and CDATA sections are reported as characters
+        }
+        final BytePipe pipe = new BytePipe(PIPE_CAPACITY);
+        final InputSource input = new InputSource(pipe.getInputStream());
+        if (encoding != null) {
+            input.setEncoding(encoding);
+        }
+        final FutureTask<Void> worker = new FutureTask<>(() -> {
+            try {
+                source.parse(input);
+                return null;
+            } finally {
+                pipe.getInputStream().close();
+                readerPool.release(reader);
+            }
+        });
+        try {
+            offload.execute(worker);
+        } catch (final RejectedExecutionException ree) {
+            readerPool.release(reader);
+            XSLTOffload.rejectBusy(response);
+            target = OutputStream.nullOutputStream();
+            return;
+        }
+        this.deadline = deadline;
+        this.guarded = guarded;
+        this.pipe = pipe;
+        this.worker = worker;
+        target = pipe.getOutputStream();
+    }
+
+    /**
+     * Finishes the downstream body and waits for the transformation, if any, to complete. If the transformation
+     * failed before the actual response is committed, an error is sent instead.
+     *
+     * @throws IOException      if an I/O error occurs.
+     * @throws ServletException if the transformation failed after the actual response is committed.
+     */
+    void finish() throws IOException, ServletException {
+        if (writer != null) {
+            writer.flush();
+        }
+        if (target == null) {
+            start();
+        }
+        if (pipe == null) {
+            return;
+        }
+        pipe.getOutputStream().close();
+        final HttpServletResponse response
+                = (HttpServletResponse) getResponse();
+        final Throwable failure = join();
+        if (failure == null) {
+            response.flushBuffer();
+            return;
+        }
+        final boolean committed = response.isCommitted();
+        filter.sendTransformError(response, deadline, failure);
+        if (!committed) {
+            return;
+        }
+        if (failure instanceof IOException) {
+            throw (IOException) failure;
+        }
+        throw new ServletException("failed to transform", failure);
+    }
+
+    /**
+     * Aborts the transformation, if any, because the downstream failed with specified exception, and waits for
+     * the worker to quit. If the transformation failed first, and so did the downstream while writing to the
+     * closed pipe, an error is sent instead unless the actual response is committed.
+     *
+     * @param cause the exception with which the downstream failed.
+     * @return {@code true} if the error of the transformation has been sent; {@code false} if the {@code cause}
+     * should be rethrown.
+     * @throws IOException if an I/O error occurs while sending an error.
+     */
+    boolean abort(final Exception cause) throws IOException {
+        if (pipe == null) {
+            return false;
+        }
+        pipe.abort(new IOException("downstream failed", cause));
+        final Throwable failure;
+        try {
+            failure = join();
+        } catch (final InterruptedIOException iioe) {
+            cause.addSuppressed(iioe);
+            return false;
+        }
+        if (failure == null) {
+            return false;
+        }
+        for (Throwable t = failure; t != null; t = t.getCause()) {
+            if (t == cause) {
+                return false; // the downstream failed first
+            }
+        }
+        final HttpServletResponse response
+                = (HttpServletResponse) getResponse();
+        final boolean committed = response.isCommitted();
+        filter.sendTransformError(response, deadline, failure);
+        if (committed) {
+            cause.addSuppressed(failure);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Waits for the worker to complete, up to the deadline, if any. A worker which outlives the deadline is
+     * interrupted and abandoned.
+     *
+     * @return the failure of the transformation; {@code null} if succeeded.
+     * @throws InterruptedIOException if interrupted while waiting.
+     */
+    private Throwable join() throws InterruptedIOException {
+        try {
+            if (deadline == null) {
+                worker.get();
+            } else {
+                worker.get(deadline.remaining(), TimeUnit.NANOSECONDS);
+            }
+            return null;
+        } catch (final ExecutionException ee) {
+            return ee.getCause();
+        } catch (final TimeoutException te) {
+            guarded.abandon();
+            worker.cancel(true);
+            pipe.abort(new DeadlineExceededException());
+            return new DeadlineExceededException();
+        } catch (final InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            pipe.abort(new InterruptedIOException());
+            throw new InterruptedIOException(
+                    "interrupted while transforming");
+        }
+    }
+
+    /**
+     * Returns the encoder of the writer, if any, to the pool.
+     */
+    void release() {
+        if (encodingWriter != null) {
+            encodingWriter.release();
+        }
+    }
+
+    private final ServletOutputStream outputStream
+            = new ServletOutputStream() {
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setWriteListener(final WriteListener writeListener) {
+            throw new IllegalStateException(
+                    "non-blocking I/O is not supported in streaming mode");
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            if (target == null) {
+                start();
+            }
+            target.write(b);
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len)
+                throws IOException {
+            if (target == null) {
+                start();
+            }
+            target.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (target != null && pipe == null) {
+                target.flush();
+            }
+        }
+    };
+
+    private final XSLTFilter filter;
+
+    private final XSLTOffload offload;
+
+    private PrintWriter writer;
+
+    /**
+     * The writer wrapped by {@link #writer}.
+     */
+    private EncodingWriter encodingWriter;
+
+    private long contentLength = -1L;
+
+    /**
+     * The output stream to which the downstream body goes; {@code null} until started.
+     */
+    private OutputStream target;
+
+    /**
+     * The pipe to the worker; {@code null} unless transforming.
+     */
+    private BytePipe pipe;
+
+    private Future<?> worker;
+
+    /**
+     * The deadline of the transformation; {@code null} unless transforming with a deadline.
+     */
+    private Deadline deadline;
+
+    /**
+     * The actual response as the worker writes to it; {@code null} unless transforming with a deadline.
+     */
+    private AbandonableResponse guarded;
+}
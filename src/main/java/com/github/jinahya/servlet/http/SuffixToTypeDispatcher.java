@@ -15,6 +15,7 @@
  */
 package com.github.jinahya.servlet.http;
 
+import com.github.jinahya.servlet.TinyLfuCache;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.FilterConfig;
 import jakarta.servlet.RequestDispatcher;
@@ -23,14 +24,23 @@ import jakarta.servlet.ServletRequest;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
  * A {@link javax.servlet.Filter} implementation which dispatches suffixed path to a typed path.
+ * <p>
+ * A request for {@code /report.json} is forwarded to {@code /report} with a preceding {@code Accept} header of the
+ * type mapped to {@code json}. A type suffix may be followed by an encoding suffix; {@code /report.json.gz} is
+ * forwarded to {@code /report} with a preceding {@code Accept-Encoding} header as well. Base names may contain dots.
+ * Suffixes are matched with a trie which allocates nothing. Resolved routes, of forward paths and preceding headers,
+ * are cached by request URI and looked up, without locking, before the trie; so a hot URI is dispatched with a single
+ * map lookup.
  *
  * @author Jin Kwon &lt;jinahya_at_gmail.com&gt;
  */
@@ -59,17 +69,96 @@ public class SuffixToTypeDispatcher extends HttpFilter {
     protected static final Pattern TYPE_PATTERN
             = Pattern.compile(TYPE_EXPRESSION);
 
-    private static final Pattern NAME_PATTERN
-            = Pattern.compile("([^\\.]+)\\.([^\\.]+)");
+    /**
+     * A regular expression for encoding suffix.
+     */
+    public static final String ENCODING_SUFFIX_EXPRESSION
+            = "file\\.encoding\\.([^\\.]+)";
 
-    @Override
-    public void init(final FilterConfig config) throws ServletException {
+    /**
+     * A precompiled pattern of {@link #ENCODING_SUFFIX_EXPRESSION}.
+     */
+    protected static final Pattern ENCODING_SUFFIX_PATTERN
+            = Pattern.compile(ENCODING_SUFFIX_EXPRESSION);
 
-        super.init(config);
+    /**
+     * A regular expression for content coding.
+     */
+    public static final String CODING_EXPRESSION = "content/coding/(.+)";
 
-        contextPath = filterConfig().getServletContext().getContextPath();
-        contextPathLength = contextPath.length();
+    /**
+     * A precompiled pattern of {@link #CODING_EXPRESSION}.
+     */
+    protected static final Pattern CODING_PATTERN
+            = Pattern.compile(CODING_EXPRESSION);
+
+    /**
+     * The name of the init parameter for the maximum number of resolved routes cached by request URI. A non-positive
+     * value disables the cache. The default is {@value #DEFAULT_ROUTE_CACHE_SIZE}.
+     */
+    public static final String INIT_PARAM_ROUTE_CACHE_SIZE = "route.cache.size";
+
+    /**
+     * The default value of {@link #INIT_PARAM_ROUTE_CACHE_SIZE}.
+     */
+    public static final long DEFAULT_ROUTE_CACHE_SIZE = 1024L;
+
+    /**
+     * Encoding suffixes used unless any is configured.
+     */
+    private static final Map<String, String> DEFAULT_ENCODING_SUFFIXES;
+
+    static {
+        final Map<String, String> map = new HashMap<>();
+        map.put("gz", "gzip");
+        map.put("br", "br");
+        DEFAULT_ENCODING_SUFFIXES = Collections.unmodifiableMap(map);
+    }
 
+    /**
+     * What a matched suffix resolves to; the headers which precede requested ones.
+     */
+    private static final class Resolution {
+
+        private Resolution(final String mediaType, final String coding) {
+            super();
+            final Map<String, List<String>> map = new HashMap<>(2);
+            map.put("Accept", Collections.singletonList(mediaType));
+            if (coding != null) {
+                map.put("Accept-Encoding", Collections.singletonList(coding));
+            }
+            headers = Collections.unmodifiableMap(map);
+        }
+
+        private final Map<String, List<String>> headers;
+    }
+
+    /**
+     * A resolved route; the path to forward to and what the matched suffix resolves to.
+     */
+    private static final class Route {
+
+        private Route(final String path, final Resolution resolution) {
+            super();
+            this.path = path;
+            this.resolution = resolution;
+        }
+
+        private final String path;
+
+        private final Resolution resolution;
+    }
+
+    /**
+     * Reads suffix-to-type mappings from init parameters of specified config. Each init parameter whose name matches
+     * {@link #SUFFIX_EXPRESSION} and whose value matches {@link #TYPE_EXPRESSION} maps a file suffix to a media type.
+     *
+     * @param config the filter config whose init parameters are read.
+     * @return a map of file suffixes to media types; may be empty.
+     */
+    public static Map<String, String> getSuffixToTypeMap(
+            final FilterConfig config) {
+        final Map<String, String> map = new HashMap<>();
         for (final Enumeration<String> e = config.getInitParameterNames();
              e.hasMoreElements(); ) {
             final String name = e.nextElement();
@@ -82,12 +171,71 @@ public class SuffixToTypeDispatcher extends HttpFilter {
             if (!typeMatcher.matches()) {
                 continue;
             }
-            final String suffix = suffixMatcher.group(1);
-            final String type = typeMatcher.group(1);
-            if (map == null) {
-                map = new HashMap<>();
+            map.put(suffixMatcher.group(1), typeMatcher.group(1));
+        }
+        return map;
+    }
+
+    /**
+     * Reads suffix-to-coding mappings from init parameters of specified config. Each init parameter whose name
+     * matches {@link #ENCODING_SUFFIX_EXPRESSION} and whose value matches {@link #CODING_EXPRESSION} maps an encoding
+     * suffix to a content coding; e.g. {@code file.encoding.gz} to {@code content/coding/gzip}.
+     *
+     * @param config the filter config whose init parameters are read.
+     * @return a map of encoding suffixes to content codings; may be empty.
+     */
+    public static Map<String, String> getSuffixToCodingMap(
+            final FilterConfig config) {
+        final Map<String, String> map = new HashMap<>();
+        for (final Enumeration<String> e = config.getInitParameterNames();
+             e.hasMoreElements(); ) {
+            final String name = e.nextElement();
+            final Matcher suffixMatcher = ENCODING_SUFFIX_PATTERN.matcher(name);
+            if (!suffixMatcher.matches()) {
+                continue;
+            }
+            final String value = config.getInitParameter(name);
+            final Matcher codingMatcher = CODING_PATTERN.matcher(value);
+            if (!codingMatcher.matches()) {
+                continue;
+            }
+            map.put(suffixMatcher.group(1), codingMatcher.group(1));
+        }
+        return map;
+    }
+
+    @Override
+    public void init(final FilterConfig config) throws ServletException {
+
+        super.init(config);
+
+        contextPath = filterConfig().getServletContext().getContextPath();
+        contextPathLength = contextPath.length();
+
+        final Map<String, String> parsed = getSuffixToTypeMap(config);
+        if (!parsed.isEmpty()) {
+            Map<String, String> codings = getSuffixToCodingMap(config);
+            if (codings.isEmpty()) {
+                codings = DEFAULT_ENCODING_SUFFIXES;
+            }
+            final Map<String, Resolution> resolutions = new HashMap<>();
+            for (final Map.Entry<String, String> type : parsed.entrySet()) {
+                resolutions.put(type.getKey(),
+                                new Resolution(type.getValue(), null));
+                for (final Map.Entry<String, String> coding
+                        : codings.entrySet()) {
+                    resolutions.put(type.getKey() + '.' + coding.getKey(),
+                                    new Resolution(type.getValue(),
+                                                   coding.getValue()));
+                }
             }
-            map.put(suffix, type);
+            trie = new SuffixTrie<>(resolutions);
+        }
+
+        final long size = getInitParameterAsLong(
+                INIT_PARAM_ROUTE_CACHE_SIZE, DEFAULT_ROUTE_CACHE_SIZE);
+        if (size > 0L) {
+            routes = new TinyLfuCache<>(size, v -> 1L);
         }
     }
 
@@ -97,7 +245,7 @@ public class SuffixToTypeDispatcher extends HttpFilter {
                             final FilterChain chain)
             throws IOException, ServletException {
 
-        if (map == null) {
+        if (trie == null) {
             chain.doFilter(request, response);
             return;
         }
@@ -108,43 +256,63 @@ public class SuffixToTypeDispatcher extends HttpFilter {
             return;
         }
 
-        final String resourcePath = requestUri.substring(contextPathLength);
-
-        final int lastSlashIndex = resourcePath.lastIndexOf('/');
-        if (lastSlashIndex == -1) {
-            chain.doFilter(request, response);
-            return;
-        }
-
-        final String fileName = resourcePath.substring(lastSlashIndex + 1);
-        final Matcher fileNameMatcher = NAME_PATTERN.matcher(fileName);
-        if (!fileNameMatcher.matches()) {
-            chain.doFilter(request, response);
-            return;
-        }
-
-        final String fileSuffix = fileNameMatcher.group(2);
-        final String mediaType = map.get(fileSuffix);
-        if (mediaType == null) {
-            chain.doFilter(request, response);
-            return;
+        Route route = routes == null ? null : routes.get(requestUri);
+        if (route == null) {
+            final int node = match(requestUri);
+            if (node == -1) {
+                chain.doFilter(request, response);
+                return;
+            }
+            final int dotIndex = requestUri.length() - trie.length(node) - 1;
+            route = new Route(requestUri.substring(contextPathLength, dotIndex),
+                              trie.value(node));
+            if (routes != null) {
+                routes.put(requestUri, route);
+            }
         }
 
-        final String path = resourcePath.substring(
-                0, resourcePath.length() - fileSuffix.length() - 1);
-
         final ServletRequest wrapper
                 = HeadersRequestWrapper.newPrecedingInstance(
-                request, "Accept", mediaType);
-        final RequestDispatcher dispatcher = request.getRequestDispatcher(path);
+                request, route.resolution.headers);
+        final RequestDispatcher dispatcher
+                = request.getRequestDispatcher(route.path);
         dispatcher.forward(wrapper, response);
 
         return;
     }
 
+    /**
+     * Matches the file name of specified request URI backwards against mapped suffixes. Nothing is allocated.
+     *
+     * @param requestUri the request URI.
+     * @return the matched trie node; {@code -1} if the URI has no mapped suffix.
+     */
+    private int match(final String requestUri) {
+        if (requestUri.length() < contextPathLength) {
+            return -1;
+        }
+        final int node = trie.match(
+                requestUri, contextPathLength, requestUri.length());
+        if (node == -1) {
+            return -1;
+        }
+        final int dotIndex = requestUri.length() - trie.length(node) - 1;
+        if (dotIndex - 1 < contextPathLength
+            || requestUri.charAt(dotIndex - 1) == '/'
+            || requestUri.lastIndexOf('/', dotIndex - 1) < contextPathLength) {
+            return -1; // no name or no directory
+        }
+        return node;
+    }
+
     private transient String contextPath;
 
     private transient int contextPathLength;
 
-    private Map<String, String> map = null;
+    private SuffixTrie<Resolution> trie = null;
+
+    /**
+     * Resolved routes mapped to request URIs; {@code null} if disabled.
+     */
+    private transient TinyLfuCache<String, Route> routes;
 }
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2026 Jin Kwon &lt;jinahya_at_gmail.com&gt;.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jinahya.servlet.http;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * An immutable trie of file suffixes, keyed by their characters in reverse order, which finds the suffix of a path by
+ * scanning it once from the end. A lookup neither allocates nor creates intermediate strings.
+ * <p>
+ * A suffix matches where the character before it is a dot; e.g. {@code json} matches {@code /a/b.json}. A suffix may
+ * itself contain dots, in which case the longest match wins; e.g. with both {@code gz} and {@code json.gz}, the latter
+ * matches {@code /a/b.json.gz}. No suffix spans a slash.
+ *
+ * @param <V> value type parameter
+ * @author Jin Kwon &lt;jinahya_at_gmail.com&gt;
+ */
+final class SuffixTrie<V> {
+
+    /**
+     * A node of the trie while being built.
+     */
+    private static final class Builder {
+
+        private final Map<Character, Builder> children = new TreeMap<>();
+
+        private Object value;
+
+        private int length;
+
+        private int index;
+    }
+
+    private static final char[] NO_LABELS = new char[0];
+
+    private static final int[] NO_CHILDREN = new int[0];
+
+    /**
+     * Creates a new instance of specified suffixes.
+     *
+     * @param map a map of suffixes, without leading dots, to values.
+     * @throws IllegalArgumentException if a suffix is empty, starts or ends with a dot, or contains a slash.
+     * @throws NullPointerException     if a value is {@code null}.
+     */
+    SuffixTrie(final Map<String, ? extends V> map) {
+        super();
+        final Builder root = new Builder();
+        int count = 1;
+        for (final Map.Entry<String, ? extends V> entry : map.entrySet()) {
+            final String suffix = entry.getKey();
+            if (suffix.isEmpty() || suffix.charAt(0) == '.'
+                || suffix.charAt(suffix.length() - 1) == '.'
+                || suffix.indexOf('/') != -1) {
+                throw new IllegalArgumentException("illegal suffix: " + suffix);
+            }
+            if (entry.getValue() == null) {
+                throw new NullPointerException("null value for " + suffix);
+            }
+            Builder node = root;
+            for (int i = suffix.length() - 1; i >= 0; i--) {
+                Builder child = node.children.get(suffix.charAt(i));
+                if (child == null) {
+                    child = new Builder();
+                    node.children.put(suffix.charAt(i), child);
+                    count++;
+                }
+                node = child;
+            }
+            node.value = entry.getValue();
+            node.length = suffix.length();
+        }
+        labels = new char[count][];
+        children = new int[count][];
+        values = new Object[count];
+        lengths = new int[count];
+        final Builder[] queue = new Builder[count];
+        queue[0] = root;
+        for (int head = 0, tail = 1; head < tail; head++) {
+            final Builder node = queue[head];
+            values[head] = node.value;
+            lengths[head] = node.length;
+            final int size = node.children.size();
+            labels[head] = size == 0 ? NO_LABELS : new char[size];
+            children[head] = size == 0 ? NO_CHILDREN : new int[size];
+            int i = 0;
+            for (final Map.Entry<Character, Builder> entry
+                    : node.children.entrySet()) {
+                entry.getValue().index = tail;
+                queue[tail++] = entry.getValue();
+                labels[head][i] = entry.getKey();
+                children[head][i] = entry.getValue().index;
+                i++;
+            }
+        }
+    }
+
+    /**
+     * Finds the longest suffix of specified range of specified string.
+     *
+     * @param s     the string.
+     * @param begin the index, inclusive, below which the scan stops.
+     * @param end   the index, exclusive, at which the range ends.
+     * @return the node of the longest matching suffix; {@code -1} if none matches.
+     * @see #value(int)
+     * @see #length(int)
+     */
+    int match(final String s, final int begin, final int end) {
+        int node = 0;
+        int matched = -1;
+        for (int i = end - 1; i >= begin; i--) {
+            final char c = s.charAt(i);
+            if (c == '/') {
+                break;
+            }
+            if (c == '.' && values[node] != null) {
+                matched = node;
+            }
+            final int j = Arrays.binarySearch(labels[node], c);
+            if (j < 0) {
+                break;
+            }
+            node = children[node][j];
+        }
+        return matched;
+    }
+
+    /**
+     * Returns the value of specified matched node.
+     *
+     * @param node the node {@link #match(String, int, int) matched}.
+     * @return the value of the suffix.
+     */
+    @SuppressWarnings("unchecked")
+    V value(final int node) {
+        return (V) values[node];
+    }
+
+    /**
+     * Returns the length, without the leading dot, of the suffix of specified matched node.
+     *
+     * @param node the node {@link #match(String, int, int) matched}.
+     * @return the length of the suffix.
+     */
+    int length(final int node) {
+        return lengths[node];
+    }
+
+    private final char[][] labels;
+
+    private final int[][] children;
+
+    private final Object[] values;
+
+    private final int[] lengths;
+}
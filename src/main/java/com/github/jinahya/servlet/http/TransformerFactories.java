@@ -0,0 +1,87 @@
+/*
+ * Copyright 2026 Jin Kwon &lt;jinahya_at_gmail.com&gt;.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jinahya.servlet.http;
+
+import jakarta.servlet.FilterConfig;
+import jakarta.servlet.ServletException;
+
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.TransformerFactoryConfigurationError;
+import java.util.Enumeration;
+
+/**
+ * Creates {@link TransformerFactory} instances of {@link XSLTFilter}s, configured from init parameters.
+ *
+ * @author Jin Kwon &lt;jinahya_at_gmail.com&gt;
+ */
+final class TransformerFactories {
+
+    /**
+     * Creates a new transformer factory configured with {@value XSLTFilter#INIT_PARAM_FACTORY}, and init parameters
+     * prefixed with {@value XSLTFilter#INIT_PARAM_FACTORY_ATTRIBUTE_PREFIX} or {@value
+     * XSLTFilter#INIT_PARAM_FACTORY_FEATURE_PREFIX}.
+     *
+     * @param filterConfig the filter config.
+     * @return a new transformer factory.
+     * @throws ServletException if failed to create or configure.
+     */
+    static TransformerFactory newTransformerFactory(
+            final FilterConfig filterConfig)
+            throws ServletException {
+        final String className
+                = filterConfig.getInitParameter(XSLTFilter.INIT_PARAM_FACTORY);
+        final TransformerFactory factory;
+        try {
+            factory = className == null
+                      ? TransformerFactory.newInstance()
+                      : TransformerFactory.newInstance(
+                    className.trim(), XSLTFilter.class.getClassLoader());
+        } catch (final TransformerFactoryConfigurationError tfce) {
+            throw new ServletException(
+                    "illegal init parameter; " + XSLTFilter.INIT_PARAM_FACTORY
+                    + ": " + className, tfce);
+        }
+        for (final Enumeration<String> names
+             = filterConfig.getInitParameterNames(); names.hasMoreElements(); ) {
+            final String name = names.nextElement();
+            final String value = filterConfig.getInitParameter(name);
+            try {
+                if (name.startsWith(XSLTFilter.INIT_PARAM_FACTORY_ATTRIBUTE_PREFIX)) {
+                    final String trimmed = value.trim();
+                    factory.setAttribute(
+                            name.substring(XSLTFilter.INIT_PARAM_FACTORY_ATTRIBUTE_PREFIX.length()),
+                            "true".equalsIgnoreCase(trimmed)
+                            || "false".equalsIgnoreCase(trimmed)
+                            ? (Object) Boolean.valueOf(trimmed) : value);
+                } else if (name.startsWith(XSLTFilter.INIT_PARAM_FACTORY_FEATURE_PREFIX)) {
+                    factory.setFeature(
+                            name.substring(XSLTFilter.INIT_PARAM_FACTORY_FEATURE_PREFIX.length()),
+                            Boolean.parseBoolean(value.trim()));
+                }
+            } catch (final IllegalArgumentException
+                           | TransformerConfigurationException e) {
+                throw new ServletException(
+                        "illegal init parameter; " + name + ": " + value, e);
+            }
+        }
+        return factory;
+    }
+
+    private TransformerFactories() {
+        throw new AssertionError("instantiation is not allowed");
+    }
+}
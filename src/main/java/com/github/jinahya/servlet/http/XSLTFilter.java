@@ -16,29 +16,59 @@
 package com.github.jinahya.servlet.http;
 
 import com.github.jinahya.servlet.AbstractFilter;
+import com.github.jinahya.servlet.BoundedExecutor;
+import com.github.jinahya.servlet.MemoryBudgetExceededException;
+import com.github.jinahya.servlet.SegmentedBuffer;
+import com.github.jinahya.servlet.TinyLfuCache;
+import com.github.jinahya.servlet.XMLReaderPool;
 import jakarta.servlet.FilterChain;
+import jakarta.servlet.FilterConfig;
+import jakarta.servlet.ServletContext;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.ServletRequest;
 import jakarta.servlet.ServletResponse;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import jakarta.ws.rs.core.Response.StatusType;
 
 import javax.xml.transform.OutputKeys;
 import javax.xml.transform.Source;
+import javax.xml.transform.Templates;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerException;
 import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.sax.SAXSource;
+import javax.xml.transform.sax.SAXTransformerFactory;
+import javax.xml.transform.sax.TransformerHandler;
 import javax.xml.transform.stream.StreamResult;
 import javax.xml.transform.stream.StreamSource;
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+import org.xml.sax.XMLReader;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URL;
+import java.net.URLConnection;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 /**
  * XSLT Filter.
@@ -52,18 +82,389 @@ public abstract class XSLTFilter extends AbstractFilter {
      */
     protected static final String PREFERRED_CHARACTER_ENCODING = "UTF-8";
 
+    /**
+     * The name of the init parameter for the minimum interval, in milliseconds, between checks of whether the
+     * stylesheet resource has changed. A negative value disables checks. The default is {@value
+     * #DEFAULT_STYLESHEET_CHECK_INTERVAL}.
+     */
+    public static final String INIT_PARAM_STYLESHEET_CHECK_INTERVAL
+            = "stylesheet.check.interval";
+
+    /**
+     * The default value of {@link #INIT_PARAM_STYLESHEET_CHECK_INTERVAL}.
+     */
+    public static final long DEFAULT_STYLESHEET_CHECK_INTERVAL = 1000L;
+
+    /**
+     * The name of the init parameter for enabling the streaming mode. In streaming mode, the downstream body is
+     * parsed and transformed, on a worker thread, while it is being written, instead of being buffered first. The
+     * default is {@code false}.
+     */
+    public static final String INIT_PARAM_STREAMING = "xslt.streaming";
+
+    /**
+     * The name of the init parameter for enabling the asynchronous mode. In asynchronous mode, a buffered {@code 200}
+     * body is transformed on the {@link #INIT_PARAM_EXECUTOR executor} after the request is put into asynchronous
+     * mode, so that the container thread is returned right after the chain. The default is {@code false}.
+     */
+    public static final String INIT_PARAM_ASYNC = "xslt.async";
+
+    /**
+     * The name of the init parameter for the kind of threads on which transformations run in asynchronous or
+     * streaming mode, or with a {@value #INIT_PARAM_DEADLINE}; {@value #EXECUTOR_PLATFORM} (default) or {@value
+     * #EXECUTOR_VIRTUAL}.
+     */
+    public static final String INIT_PARAM_EXECUTOR = "xslt.executor";
+
+    /**
+     * A value of {@link #INIT_PARAM_EXECUTOR} for a fixed pool of platform threads.
+     */
+    public static final String EXECUTOR_PLATFORM = "platform";
+
+    /**
+     * A value of {@link #INIT_PARAM_EXECUTOR} for virtual threads; requires a runtime which supports them.
+     */
+    public static final String EXECUTOR_VIRTUAL = "virtual";
+
+    /**
+     * The name of the init parameter for the number of platform threads, or the maximum number of concurrent virtual
+     * threads, of the executor. The default is the number of available processors.
+     */
+    public static final String INIT_PARAM_EXECUTOR_THREADS = "xslt.executor.threads";
+
+    /**
+     * The name of the init parameter for the maximum number of transformations waiting for a platform thread. A
+     * transformation beyond the bound is rejected with {@code 503 Service Unavailable}. The default is {@value
+     * #DEFAULT_EXECUTOR_QUEUE}.
+     */
+    public static final String INIT_PARAM_EXECUTOR_QUEUE = "xslt.executor.queue";
+
+    /**
+     * The default value of {@link #INIT_PARAM_EXECUTOR_QUEUE}.
+     */
+    public static final long DEFAULT_EXECUTOR_QUEUE = 64L;
+
+    /**
+     * The name of the init parameter for the deadline, in milliseconds, of each transformation. A transformation
+     * still running after its deadline is interrupted and abandoned, and {@code 503 Service Unavailable} is sent unless
+     * the actual response has been committed. With a deadline, a buffered body is transformed on the {@link
+     * #INIT_PARAM_EXECUTOR executor} while the request thread waits up to the deadline; in asynchronous mode, the
+     * deadline is the timeout of the asynchronous context. A non-positive value disables deadlines, which is the
+     * default.
+     * <p>
+     * An abandoned transformation no longer touches the response, and fails at its next parsed event or output write,
+     * but its thread can't be taken back; a stylesheet which neither writes nor checks for interruption, such as a
+     * runaway recursion, keeps its thread busy until it ends, and only the bounds of the executor limit how many such
+     * threads there are.
+     */
+    public static final String INIT_PARAM_DEADLINE = "xslt.deadline";
+
+    /**
+     * The name of the init parameter for accepting downstream bodies with {@code DOCTYPE} declarations. Bodies are
+     * parsed with pooled readers which never fetch external DTDs or entities; unless this parameter is {@code true},
+     * a body with a {@code DOCTYPE} declaration is rejected, so that no entity is expanded at all. The default is
+     * {@code false}.
+     *
+     * @see XMLReaderPool
+     */
+    public static final String INIT_PARAM_DOCTYPE_ALLOWED = "xslt.doctype.allowed";
+
+    /**
+     * The name of the init parameter for the capacity, in bytes, of the cache of transformation results. A buffered
+     * {@code 200} body is transformed only if no result is cached for the digest of the body, the version of the
+     * stylesheet, the output properties, and the parameters; a result larger than a sixteenth of the capacity is not
+     * cached, nor is a result of parameters other than strings, numbers, and booleans. A non-positive value disables
+     * the cache, which is the default.
+     */
+    public static final String INIT_PARAM_RESULT_CACHE_CAPACITY = "xslt.cache.capacity";
+
+    /**
+     * The name of the init parameter for the URI of the stylesheet as referenced by clients. If set, a client which
+     * prefers {@code application/xml} or {@code text/xml} to the {@link #getOutputContentType() output content type},
+     * or whose {@code User-Agent} matches {@value #INIT_PARAM_CLIENT_USER_AGENT}, gets the downstream body as it is
+     * with an {@code xml-stylesheet} processing instruction referencing this URI, and applies the stylesheet by
+     * itself. Unset by default.
+     */
+    public static final String INIT_PARAM_CLIENT_HREF = "xslt.client.href";
+
+    /**
+     * The name of the init parameter for the regular expression of {@code User-Agent}s which apply stylesheets by
+     * themselves. Effective only with {@value #INIT_PARAM_CLIENT_HREF}. Unset by default.
+     */
+    public static final String INIT_PARAM_CLIENT_USER_AGENT = "xslt.client.user-agent";
+
+    /**
+     * The name of the init parameter for compiling the {@link #getStylesheetResource() stylesheet} while the filter
+     * is being initialized, so that the first requests don't. A stylesheet which fails to compile fails the
+     * initialization. The default is {@code false}.
+     */
+    public static final String INIT_PARAM_PRECOMPILE = "xslt.precompile";
+
+    /**
+     * The name of the init parameter for the path, relative to the servlet context, of a sample document transformed
+     * {@value #INIT_PARAM_WARMUP_ITERATIONS} times, after the stylesheet is precompiled, while the filter is being
+     * initialized. Setting this parameter implies {@value #INIT_PARAM_PRECOMPILE}. Unset by default.
+     */
+    public static final String INIT_PARAM_WARMUP_DOCUMENT = "xslt.warmup.document";
+
+    /**
+     * The name of the init parameter for the number of transformations of the {@value #INIT_PARAM_WARMUP_DOCUMENT}.
+     * The default is {@value #DEFAULT_WARMUP_ITERATIONS}.
+     */
+    public static final String INIT_PARAM_WARMUP_ITERATIONS = "xslt.warmup.iterations";
+
+    /**
+     * The default value of {@link #INIT_PARAM_WARMUP_ITERATIONS}.
+     */
+    public static final long DEFAULT_WARMUP_ITERATIONS = 100L;
+
+    /**
+     * The name of the init parameter for the class name of the {@link TransformerFactory} implementation. Unset by
+     * default, in which case the factory is looked up with {@link TransformerFactory#newInstance()}.
+     */
+    public static final String INIT_PARAM_FACTORY = "xslt.factory";
+
+    /**
+     * The prefix of names of init parameters for {@link TransformerFactory#setAttribute(String, Object) attributes} of
+     * the factory. For example, {@code xslt.factory.attribute.generate-translet}. A value of {@code true} or {@code
+     * false} is set as a {@link Boolean}; any other value as a {@link String}.
+     */
+    public static final String INIT_PARAM_FACTORY_ATTRIBUTE_PREFIX = "xslt.factory.attribute.";
+
+    /**
+     * The prefix of names of init parameters for {@link TransformerFactory#setFeature(String, boolean) features} of
+     * the factory. For example, {@code xslt.factory.feature.http://javax.xml.XMLConstants/feature/secure-processing}.
+     */
+    public static final String INIT_PARAM_FACTORY_FEATURE_PREFIX = "xslt.factory.feature.";
+
+    /**
+     * An error handler which fails on errors, instead of printing them, and ignores warnings.
+     */
+    static final ErrorHandler ERROR_HANDLER = new ErrorHandler() {
+
+        @Override
+        public void warning(final SAXParseException exception) {
+            // ignored
+        }
+
+        @Override
+        public void error(final SAXParseException exception)
+                throws SAXException {
+            throw exception;
+        }
+
+        @Override
+        public void fatalError(final SAXParseException exception)
+                throws SAXException {
+            throw exception;
+        }
+    };
+
+    @Override
+    public void init(final FilterConfig filterConfig) throws ServletException {
+        super.init(filterConfig);
+        transformerFactory = TransformerFactories.newTransformerFactory(filterConfig);
+        final long interval = getInitParameterAsLong(
+                INIT_PARAM_STYLESHEET_CHECK_INTERVAL,
+                DEFAULT_STYLESHEET_CHECK_INTERVAL);
+        checkIntervalNanos = interval < 0L
+                             ? -1L : TimeUnit.MILLISECONDS.toNanos(interval);
+        final long deadline = getInitParameterAsLong(INIT_PARAM_DEADLINE, 0L);
+        deadlineNanos = deadline <= 0L
+                        ? -1L : TimeUnit.MILLISECONDS.toNanos(deadline);
+        streaming = Boolean.parseBoolean(
+                filterConfig.getInitParameter(INIT_PARAM_STREAMING));
+        if (streaming
+            && !getTransformerFactory().getFeature(SAXTransformerFactory.FEATURE)) {
+            throw new ServletException(
+                    "streaming requires a SAXTransformerFactory");
+        }
+        readerPool = new XMLReaderPool(
+                XMLReaderPool.DEFAULT_MAX_IDLE,
+                Boolean.parseBoolean(
+                        filterConfig.getInitParameter(INIT_PARAM_DOCTYPE_ALLOWED)));
+        async = Boolean.parseBoolean(
+                filterConfig.getInitParameter(INIT_PARAM_ASYNC));
+        if (async && streaming) {
+            throw new ServletException(
+                    INIT_PARAM_ASYNC + " and " + INIT_PARAM_STREAMING
+                    + " are exclusive");
+        }
+        if (async || streaming || deadlineNanos > 0L) {
+            offload = new XSLTOffload(newExecutor(filterConfig), deadlineNanos,
+                                      deadlineExceededCount);
+        }
+        final String userAgent
+                = filterConfig.getInitParameter(INIT_PARAM_CLIENT_USER_AGENT);
+        final Pattern clientUserAgent;
+        try {
+            clientUserAgent = userAgent == null
+                              ? null : Pattern.compile(userAgent);
+        } catch (final PatternSyntaxException pse) {
+            throw new ServletException(
+                    "illegal init parameter; " + INIT_PARAM_CLIENT_USER_AGENT
+                    + ": " + userAgent, pse);
+        }
+        final String clientHref
+                = filterConfig.getInitParameter(INIT_PARAM_CLIENT_HREF);
+        if (clientHref != null) {
+            try {
+                clientStylesheet = new ClientSideStylesheet(
+                        clientHref, getOutputContentType(), clientUserAgent);
+            } catch (final IllegalArgumentException iae) {
+                throw new ServletException(
+                        "illegal output content type: " + getOutputContentType(),
+                        iae);
+            }
+        }
+        final long capacity = getInitParameterAsLong(
+                INIT_PARAM_RESULT_CACHE_CAPACITY, 0L);
+        if (capacity > 0L && !streaming) {
+            resultCache = new XSLTResultCache(capacity);
+        }
+        final String document
+                = filterConfig.getInitParameter(INIT_PARAM_WARMUP_DOCUMENT);
+        if (document != null || Boolean.parseBoolean(
+                filterConfig.getInitParameter(INIT_PARAM_PRECOMPILE))) {
+            warmUp(filterConfig, document);
+        }
+    }
+
+    /**
+     * Compiles the stylesheet and, if specified, transforms a sample document repeatedly so that the compiled
+     * stylesheet, the parser, and the serializer are hot before the first request. The time spent is logged to the
+     * servlet context.
+     *
+     * @param filterConfig the filter config.
+     * @param document     the context-relative path of the sample document; may be {@code null}.
+     * @throws ServletException if failed.
+     */
+    private void warmUp(final FilterConfig filterConfig, final String document)
+            throws ServletException {
+        final ServletContext context = filterConfig.getServletContext();
+        final String name = filterConfig.getFilterName();
+        final long compileStarted = System.nanoTime();
+        final URL resource;
+        final Templates templates;
+        try {
+            resource = getStylesheetResource();
+            if (resource == null) {
+                throw new ServletException("null stylesheet resource");
+            }
+            templates = getTemplates(resource);
+        } catch (final IOException | TransformerConfigurationException e) {
+            throw new ServletException("failed to precompile stylesheet", e);
+        }
+        context.log(name + ": precompiled " + resource + " in "
+                    + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - compileStarted)
+                    + " ms");
+        if (document == null) {
+            return;
+        }
+        final long iterations = getInitParameterAsLong(
+                INIT_PARAM_WARMUP_ITERATIONS, DEFAULT_WARMUP_ITERATIONS);
+        final byte[] sample;
+        try (InputStream input = context.getResourceAsStream(document)) {
+            if (input == null) {
+                throw new ServletException(
+                        "illegal init parameter; " + INIT_PARAM_WARMUP_DOCUMENT
+                        + ": " + document);
+            }
+            sample = input.readAllBytes();
+        } catch (final IOException ioe) {
+            throw new ServletException("failed to read " + document, ioe);
+        }
+        final long warmUpStarted = System.nanoTime();
+        for (long i = 0L; i < iterations; i++) {
+            XMLReader reader = null;
+            try {
+                reader = readerPool.acquire();
+                reader.setErrorHandler(ERROR_HANDLER);
+                final Transformer transformer = templates.newTransformer();
+                configure(transformer);
+                transformer.transform(
+                        new SAXSource(reader, new InputSource(
+                                new ByteArrayInputStream(sample))),
+                        new StreamResult(OutputStream.nullOutputStream()));
+            } catch (final SAXException | TransformerException e) {
+                throw new ServletException("failed to transform " + document, e);
+            } finally {
+                if (reader != null) {
+                    readerPool.release(reader);
+                }
+            }
+        }
+        context.log(name + ": warmed up with " + iterations
+                    + " transformation(s) of " + document + " in "
+                    + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - warmUpStarted)
+                    + " ms");
+    }
+
+    /**
+     * Creates a new executor configured with {@value #INIT_PARAM_EXECUTOR}, {@value #INIT_PARAM_EXECUTOR_THREADS},
+     * and {@value #INIT_PARAM_EXECUTOR_QUEUE}.
+     *
+     * @param filterConfig the filter config.
+     * @return a new executor.
+     * @throws ServletException if an init parameter is illegal.
+     */
+    private BoundedExecutor newExecutor(final FilterConfig filterConfig)
+            throws ServletException {
+        final long threads = getInitParameterAsLong(
+                INIT_PARAM_EXECUTOR_THREADS,
+                Runtime.getRuntime().availableProcessors());
+        final long queue = getInitParameterAsLong(
+                INIT_PARAM_EXECUTOR_QUEUE, DEFAULT_EXECUTOR_QUEUE);
+        if (threads <= 0L || threads > Integer.MAX_VALUE / 2
+            || queue < 0L || queue > Integer.MAX_VALUE / 2) {
+            throw new ServletException(
+                    "illegal init parameter; " + INIT_PARAM_EXECUTOR_THREADS
+                    + ": " + threads + ", " + INIT_PARAM_EXECUTOR_QUEUE + ": "
+                    + queue);
+        }
+        final String kind = filterConfig.getInitParameter(INIT_PARAM_EXECUTOR);
+        if (kind == null || EXECUTOR_PLATFORM.equals(kind.trim())) {
+            return BoundedExecutor.ofPlatformThreads(
+                    getClass().getSimpleName(), (int) threads, (int) queue);
+        }
+        if (EXECUTOR_VIRTUAL.equals(kind.trim())) {
+            try {
+                return BoundedExecutor.ofVirtualThreads((int) threads);
+            } catch (final UnsupportedOperationException uoe) {
+                throw new ServletException(uoe);
+            }
+        }
+        throw new ServletException(
+                "illegal init parameter; " + INIT_PARAM_EXECUTOR + ": " + kind);
+    }
+
+    @Override
+    public void destroy() {
+        if (offload != null) {
+            offload.close();
+            offload = null;
+        }
+        if (readerPool != null) {
+            readerPool.close();
+            readerPool = null;
+        }
+        resultCache = null;
+        stylesheets.clear();
+        super.destroy();
+    }
+
     @Override
     public void doFilter(final ServletRequest request,
                          final ServletResponse response,
                          final FilterChain chain)
             throws IOException, ServletException {
 
-        if (request instanceof HttpServletRequest) {
+        if (!(request instanceof HttpServletRequest)) {
             throw new IllegalArgumentException(
                     request + " is not an instance of" + HttpServletRequest.class);
         }
 
-        if (request instanceof HttpServletResponse) {
+        if (!(response instanceof HttpServletResponse)) {
             throw new IllegalArgumentException(
                     response + " is not an instance of"
                     + HttpServletResponse.class);
@@ -72,92 +473,468 @@ public abstract class XSLTFilter extends AbstractFilter {
         final HttpServletRequest httpRequest = (HttpServletRequest) request;
         final HttpServletResponse httpResponse = (HttpServletResponse) response;
 
+        boolean clientSide = false;
+        if (clientStylesheet != null) {
+            httpResponse.addHeader("Vary", clientStylesheet.getVary());
+            clientSide = isClientSide(httpRequest);
+        }
+
+        if (streaming && !clientSide) {
+            final StreamingResponseWrapper responseWrapper
+                    = new StreamingResponseWrapper(httpResponse, this, offload);
+            try {
+                try {
+                    chain.doFilter(request, responseWrapper); // - doFilter(...)
+                } catch (final IOException | ServletException
+                               | RuntimeException e) {
+                    if (!responseWrapper.abort(e)) {
+                        throw e;
+                    }
+                    return;
+                }
+                responseWrapper.finish();
+            } finally {
+                responseWrapper.release();
+            }
+            return;
+        }
+
         final BufferedResponseWrapper responseWrapper
-                = new BufferedResponseWrapper(httpResponse);
+                = newResponseWrapper(httpResponse);
+        boolean offloaded = false;
+        try {
+            chain.doFilter(request, responseWrapper); // --------- doFilter(...)
+            if (clientSide
+                && responseWrapper.getStatus() == HttpServletResponse.SC_OK
+                && clientStylesheet.passThrough(httpResponse, responseWrapper)) {
+                return;
+            }
+            if (async && httpRequest.isAsyncSupported()
+                && !httpRequest.isAsyncStarted()
+                && responseWrapper.getStatus() == HttpServletResponse.SC_OK) {
+                offloaded = offload.transformAsync(
+                        httpRequest, httpResponse, responseWrapper,
+                        (target, deadline) -> transform(target, responseWrapper, deadline));
+                return;
+            }
+            if (deadlineNanos > 0L) {
+                offloaded = offload.transformWithin(
+                        httpResponse, responseWrapper,
+                        (target, deadline) -> transform(target, responseWrapper, deadline));
+                return;
+            }
+            transform(httpResponse, responseWrapper, null);
+        } catch (final IOException | ServletException e) {
+            final MemoryBudgetExceededException mbee
+                    = MemoryBudgetExceededException.find(e);
+            if (mbee == null || httpResponse.isCommitted()) {
+                throw e;
+            }
+            final StatusType statusType = mbee.getStatusType();
+            httpResponse.sendError(statusType.getStatusCode(),
+                                   statusType.getReasonPhrase());
+        } finally {
+            if (!offloaded) {
+                responseWrapper.release();
+            }
+        }
+    }
 
-        chain.doFilter(request, responseWrapper); // ------------- doFilter(...)
+    /**
+     * Tells whether specified request is from a client which applies the stylesheet by itself. The default
+     * implementation checks the {@code Accept} headers, and the {@code User-Agent} header if {@value
+     * #INIT_PARAM_CLIENT_USER_AGENT} is set. Invoked only when {@value #INIT_PARAM_CLIENT_HREF} is set.
+     *
+     * @param request the request.
+     * @return {@code true} if the client applies the stylesheet; {@code false} otherwise.
+     */
+    protected boolean isClientSide(final HttpServletRequest request) {
+        return clientStylesheet.isClientSide(request);
+    }
 
-        final byte[] outputBytes = responseWrapper.getBytes();
+    /**
+     * Transforms the body buffered in specified wrapper to specified response.
+     *
+     * @param response        the actual response, or a wrapper of it
+     * @param responseWrapper the wrapper holds the downstream response
+     * @param deadline        the deadline of the transformation; may be {@code null}.
+     * @throws IOException if an I/O error occurs.
+     */
+    private void transform(final HttpServletResponse response,
+                           final BufferedResponseWrapper responseWrapper,
+                           final Deadline deadline)
+            throws IOException {
 
         final int status = responseWrapper.getStatus();
         if (status != HttpServletResponse.SC_OK) {
-            ((HttpServletResponse) response).setStatus(status);
+            response.setStatus(status);
             response.setContentType(responseWrapper.getContentType());
             response.setCharacterEncoding(
                     responseWrapper.getCharacterEncoding());
-            response.getOutputStream().write(outputBytes);
+            responseWrapper.writeTo(response.getOutputStream());
             response.flushBuffer();
             return;
         }
 
+        final CompiledStylesheet stylesheet = resolveTemplates(response);
+        if (stylesheet == null) {
+            return;
+        }
+
+        final String encoding = responseWrapper.isWriterObtained()
+                                ? responseWrapper.getCharacterEncoding()
+                                : getDeclaredEncoding(responseWrapper);
+        final Properties properties = new Properties();
+        getTransformerOutputProperties(properties);
+        final Map<String, Object> parameters = new HashMap<String, Object>();
+        getTransformerParameters(parameters);
+        final String outputContentType = getOutputContentType();
+        final String outputCharacterEncoding = getOutputCharacterEncoding();
+
+        final String key = resultCache == null
+                           ? null : resultCache.key(responseWrapper, stylesheet, encoding, properties, parameters,
+                                                    outputContentType);
+        if (key != null) {
+            final byte[] result = resultCache.get(key);
+            if (result != null) {
+                response.setStatus(HttpServletResponse.SC_OK);
+                response.setContentType(outputContentType);
+                response.setCharacterEncoding(outputCharacterEncoding);
+                response.setContentLength(result.length);
+                response.getOutputStream().write(result);
+                response.flushBuffer();
+                return;
+            }
+        }
+
+        final Transformer transformer;
+        try {
+            transformer = stylesheet.templates.newTransformer();
+        } catch (TransformerConfigurationException tce) {
+            response.sendError(
+                    HttpServletResponse.SC_INTERNAL_SERVER_ERROR,
+                    "failed to create transformer: " + tce.getMessage());
+            return;
+        }
+        configure(transformer, properties, parameters);
+
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(outputContentType);
+        response.setCharacterEncoding(outputCharacterEncoding);
+
+        final InputSource input
+                = new InputSource(responseWrapper.getInputStream());
+        if (encoding != null) {
+            input.setEncoding(encoding);
+        }
+        final XMLReader reader;
+        try {
+            reader = readerPool.acquire();
+        } catch (final SAXException saxe) {
+            response.sendError(
+                    HttpServletResponse.SC_INTERNAL_SERVER_ERROR,
+                    "failed to create parser: " + saxe.getMessage());
+            return;
+        }
+        reader.setErrorHandler(ERROR_HANDLER);
+        final Source source;
+        OutputStream output = response.getOutputStream();
+        if (deadline == null) {
+            source = new SAXSource(reader, input);
+        } else {
+            source = new SAXSource(new DeadlineXMLFilter(reader, deadline),
+                                   input);
+            output = new DeadlineOutputStream(output, deadline);
+        }
+        final CapturingOutputStream capturing = key == null
+                                                ? null : resultCache.capture(output);
+        if (capturing != null) {
+            output = capturing;
+        }
+
+        try {
+            transformer.transform(source, new StreamResult(output));
+            if (capturing != null) {
+                resultCache.put(key, capturing);
+            }
+
+            response.flushBuffer();
+            return;
+        } catch (TransformerException te) {
+            sendTransformError(response, deadline, te);
+            return;
+        } finally {
+            readerPool.release(reader);
+        }
+    }
+
+    /**
+     * Returns the character encoding explicitly declared in the content type of specified response. Without one, and
+     * unless the body has been written with a writer, the parser detects the encoding from the XML declaration, or the
+     * byte order mark, of the body.
+     *
+     * @param response the response.
+     * @return the declared character encoding; {@code null} if not declared.
+     */
+    static String getDeclaredEncoding(final ServletResponse response) {
+        final String contentType = response.getContentType();
+        if (contentType == null
+            || !contentType.toLowerCase(Locale.ENGLISH).contains("charset=")) {
+            return null;
+        }
+        return response.getCharacterEncoding();
+    }
+
+    /**
+     * Returns a new deadline for a transformation starting now.
+     *
+     * @return a new deadline; {@code null} if deadlines are disabled.
+     */
+    Deadline newDeadline() {
+        return deadlineNanos > 0L ? new Deadline(deadlineNanos) : null;
+    }
+
+    /**
+     * Sends an error for specified failure of a transformation; {@code 503 Service Unavailable} if specified deadline
+     * has expired, {@code 500 Internal Server Error} otherwise. Nothing is sent if the response has been committed, or
+     * abandoned.
+     *
+     * @param response the actual response
+     * @param deadline the deadline of the transformation; may be {@code null}.
+     * @param failure  the failure of the transformation.
+     * @throws IOException if an I/O error occurs.
+     */
+    void sendTransformError(final HttpServletResponse response,
+                                    final Deadline deadline,
+                                    final Throwable failure)
+            throws IOException {
+        if (response instanceof AbandonableResponse
+            && ((AbandonableResponse) response).isAbandoned()) {
+            return; // the error has been sent by the thread which abandoned
+        }
+        final boolean expired = deadline != null && deadline.expired();
+        if (expired) {
+            deadlineExceededCount.increment();
+        }
+        if (response.isCommitted()) {
+            return;
+        }
+        if (expired) {
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE,
+                               "transformation deadline exceeded");
+            return;
+        }
+        response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR,
+                           "failed to transform: " + failure.getMessage());
+    }
+
+    /**
+     * Returns the number of transformations cancelled because they exceeded the {@value #INIT_PARAM_DEADLINE}.
+     *
+     * @return the number of transformations exceeded their deadlines.
+     */
+    public long getDeadlineExceededCount() {
+        return deadlineExceededCount.sum();
+    }
+
+    /**
+     * Resolves the compiled stylesheet for current request. An error is sent to specified response if failed.
+     *
+     * @param response the actual response
+     * @return the compiled stylesheet, whose hash is {@code null} if {@link #getTemplates(URL)} is overridden;
+     * {@code null} if an error has been sent.
+     * @throws IOException if an I/O error occurs while sending an error.
+     */
+    CompiledStylesheet resolveTemplates(
+            final HttpServletResponse response)
+            throws IOException {
+
         final URL resource;
         try {
             resource = getStylesheetResource();
             if (resource == null) {
-                ((HttpServletResponse) response).sendError(
+                response.sendError(
                         HttpServletResponse.SC_INTERNAL_SERVER_ERROR,
                         "failed to get stylesheet resource: null returned");
-                return;
+                return null;
             }
         } catch (IOException e) {
-            ((HttpServletResponse) response).sendError(
+            response.sendError(
                     HttpServletResponse.SC_INTERNAL_SERVER_ERROR,
                     "failed to get stylesheet resource: " + e.getMessage());
-            return;
+            return null;
         }
 
-        final Source source;
+        final Templates templates;
         try {
-            source = new StreamSource(resource.openStream());
+            templates = getTemplates(resource);
         } catch (IOException ioe) {
-            ((HttpServletResponse) response).sendError(
+            response.sendError(
                     HttpServletResponse.SC_INTERNAL_SERVER_ERROR,
-                    "failed to open stream from stylesheet resource("
+                    "failed to read stylesheet resource("
                     + resource + "): " + ioe.getMessage());
-            return;
-        }
-
-        final Transformer transformer;
-        try {
-            transformer = getTransformerFactory().newTransformer(source);
+            return null;
         } catch (TransformerConfigurationException tce) {
-            ((HttpServletResponse) response).sendError(
+            response.sendError(
                     HttpServletResponse.SC_INTERNAL_SERVER_ERROR,
-                    "failed to create transformer: " + tce.getMessage());
-            return;
+                    "failed to compile stylesheet resource("
+                    + resource + "): " + tce.getMessage());
+            return null;
+        }
+        final CompiledStylesheet compiled
+                = stylesheets.get(resource.toExternalForm());
+        if (compiled != null && compiled.templates == templates) {
+            return compiled;
         }
+        return new CompiledStylesheet(templates, 0L, null, 0L);
+    }
+
+    /**
+     * Configures specified transformer with output properties and parameters.
+     *
+     * @param transformer the transformer to configure.
+     */
+    void configure(final Transformer transformer) {
 
         final Properties properties = new Properties();
         getTransformerOutputProperties(properties);
-        transformer.setOutputProperties(properties);
 
         final Map<String, Object> parameters = new HashMap<String, Object>();
         getTransformerParameters(parameters);
+
+        configure(transformer, properties, parameters);
+    }
+
+    private static void configure(final Transformer transformer,
+                                  final Properties properties,
+                                  final Map<String, Object> parameters) {
+        transformer.setOutputProperties(properties);
         for (Entry<String, Object> parameter : parameters.entrySet()) {
             transformer.setParameter(parameter.getKey(), parameter.getValue());
         }
+    }
 
-        httpResponse.setStatus(HttpServletResponse.SC_OK);
-        httpResponse.setContentType(getOutputContentType());
-        httpResponse.setCharacterEncoding(getOutputCharacterEncoding());
+    /**
+     * Returns the cache of transformation results.
+     *
+     * @return the cache of transformation results; {@code null} if {@value #INIT_PARAM_RESULT_CACHE_CAPACITY} is
+     * not positive.
+     */
+    protected final TinyLfuCache<String, ?> getResultCache() {
+        return resultCache == null ? null : resultCache.getCache();
+    }
 
+    /**
+     * Returns the pool of readers with which downstream bodies are parsed.
+     *
+     * @return the pool of readers; {@code null} unless initialized.
+     */
+    protected final XMLReaderPool getReaderPool() {
+        return readerPool;
+    }
+
+    /**
+     * Returns the compiled stylesheet of specified resource. A stylesheet is compiled once for each resource and is
+     * recompiled only when the last-modified time of the resource, or, if unknown, the hash of its content, changes.
+     * The resource is checked at most once per {@value #INIT_PARAM_STYLESHEET_CHECK_INTERVAL} milliseconds.
+     * <p>
+     * Only the resource itself is checked; a change of a stylesheet it imports or includes is not detected until the
+     * resource itself changes.
+     *
+     * @param resource the stylesheet resource.
+     * @return a templates compiled from the resource.
+     * @throws IOException                       if an I/O error occurs.
+     * @throws TransformerConfigurationException if failed to compile.
+     */
+    protected Templates getTemplates(final URL resource)
+            throws IOException, TransformerConfigurationException {
+        final String key = resource.toExternalForm();
+        CompiledStylesheet compiled = stylesheets.get(key);
+        if (compiled != null && fresh(compiled)) {
+            return compiled.templates;
+        }
+        lock.lock();
         try {
-            transformer.transform(
-                    new StreamSource(new InputStreamReader(
-                            new ByteArrayInputStream(outputBytes),
-                            responseWrapper.getCharacterEncoding())),
-                    new StreamResult(response.getWriter()));
+            compiled = stylesheets.get(key);
+            if (compiled != null && fresh(compiled)) {
+                return compiled.templates;
+            }
+            final long checkedAt = System.nanoTime();
+            final URLConnection connection = resource.openConnection();
+            final byte[] bytes;
+            try (InputStream input = connection.getInputStream()) {
+                final long lastModified = connection.getLastModified();
+                if (compiled != null && lastModified != 0L
+                    && lastModified == compiled.lastModified) {
+                    compiled.checkedAt = checkedAt;
+                    return compiled.templates;
+                }
+                bytes = input.readAllBytes();
+                final byte[] hash = MessageDigest.getInstance("SHA-256")
+                        .digest(bytes);
+                if (compiled != null && Arrays.equals(hash, compiled.hash)) {
+                    compiled.lastModified = lastModified;
+                    compiled.checkedAt = checkedAt;
+                    return compiled.templates;
+                }
+                final Templates templates = getTransformerFactory().newTemplates(
+                        new StreamSource(new ByteArrayInputStream(bytes), key));
+                stylesheets.put(key, new CompiledStylesheet(
+                        templates, lastModified, hash, checkedAt));
+                return templates;
+            } catch (final NoSuchAlgorithmException nsae) {
+                throw new AssertionError(nsae); // SHA-256 is mandatory
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
 
-            response.flushBuffer();
-            return;
-        } catch (TransformerException te) {
-            ((HttpServletResponse) response).sendError(
-                    HttpServletResponse.SC_INTERNAL_SERVER_ERROR,
-                    "failed to transform: " + te.getMessage());
-            return;
+    /**
+     * Creates a new transformer handler of specified templates. The factory is not required to be thread-safe, so
+     * the handler is created while holding the lock which guards compilations.
+     *
+     * @param templates the compiled stylesheet.
+     * @return a new transformer handler.
+     * @throws TransformerConfigurationException if failed to create.
+     */
+    TransformerHandler newTransformerHandler(final Templates templates)
+            throws TransformerConfigurationException {
+        final SAXTransformerFactory factory
+                = (SAXTransformerFactory) getTransformerFactory();
+        lock.lock();
+        try {
+            return factory.newTransformerHandler(templates);
+        } finally {
+            lock.unlock();
         }
     }
 
+    private boolean fresh(final CompiledStylesheet compiled) {
+        return checkIntervalNanos < 0L
+               || System.nanoTime() - compiled.checkedAt < checkIntervalNanos;
+    }
+
+    /**
+     * Creates a new response wrapper which buffers the downstream response. The default implementation returns a
+     * wrapper over a {@link #newSegmentedBuffer() new buffer}.
+     *
+     * @param response the actual response
+     * @return a new response wrapper.
+     */
+    protected BufferedResponseWrapper newResponseWrapper(
+            final HttpServletResponse response) {
+        final SegmentedBuffer buffer = newSegmentedBuffer();
+        if (resultCache != null) {
+            try {
+                buffer.setDigest(MessageDigest.getInstance("SHA-256"));
+            } catch (final NoSuchAlgorithmException nsae) {
+                throw new AssertionError(nsae); // SHA-256 is mandatory
+            }
+        }
+        return new BufferedResponseWrapper(response, buffer);
+    }
+
     /**
      * Fills output properties for the Transformer.
      *
@@ -198,22 +975,79 @@ public abstract class XSLTFilter extends AbstractFilter {
     protected abstract String getOutputCharacterEncoding();
 
     /**
-     * Returns a <code>TransformerFactory</code> instance. The default implementation returns
-     * {@link TransformerFactory#newInstance()}. Override this method if you want to use a custom factory.
+     * Returns a <code>TransformerFactory</code> instance. The default implementation returns the factory configured,
+     * while initializing, with {@value #INIT_PARAM_FACTORY} and its attributes and features; or, if invoked before
+     * initialization, {@link TransformerFactory#newInstance()}. Override this method if you want to use a custom
+     * factory.
      *
      * @return a new instance of TransformerFactory.
      */
     protected TransformerFactory getTransformerFactory() {
 
-        if (transformerFactory == null) {
-            transformerFactory = TransformerFactory.newInstance();
+        TransformerFactory factory = transformerFactory;
+        if (factory == null) {
+            lock.lock();
+            try {
+                factory = transformerFactory;
+                if (factory == null) {
+                    transformerFactory = factory
+                            = TransformerFactory.newInstance();
+                }
+            } finally {
+                lock.unlock();
+            }
         }
 
-        return transformerFactory;
+        return factory;
     }
 
     /**
      * transformerFactory.
      */
-    private TransformerFactory transformerFactory;
+    private volatile TransformerFactory transformerFactory;
+
+    /**
+     * Compiled stylesheets mapped to external forms of their resources.
+     */
+    private final Map<String, CompiledStylesheet> stylesheets
+            = new ConcurrentHashMap<>();
+
+    /**
+     * A lock guards compilations of stylesheets and other uses of the transformer factory.
+     */
+    private final Lock lock = new ReentrantLock();
+
+    private transient long checkIntervalNanos
+            = TimeUnit.MILLISECONDS.toNanos(DEFAULT_STYLESHEET_CHECK_INTERVAL);
+
+    private transient long deadlineNanos = -1L;
+
+    /**
+     * The number of transformations exceeded their deadlines.
+     */
+    private final LongAdder deadlineExceededCount = new LongAdder();
+
+    private transient boolean streaming;
+
+    private transient boolean async;
+
+    /**
+     * The offload of transformations to the executor in asynchronous or streaming mode, or with a deadline.
+     */
+    private transient XSLTOffload offload;
+
+    /**
+     * The stylesheet as applied by clients; {@code null} unless {@value #INIT_PARAM_CLIENT_HREF} is set.
+     */
+    private transient ClientSideStylesheet clientStylesheet;
+
+    /**
+     * The cache of transformation results; {@code null} if disabled.
+     */
+    private transient XSLTResultCache resultCache;
+
+    /**
+     * The pool of readers with which downstream bodies are parsed.
+     */
+    private transient XMLReaderPool readerPool;
 }
@@ -0,0 +1,294 @@
+/*
+ * Copyright 2026 Jin Kwon &lt;jinahya_at_gmail.com&gt;.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jinahya.servlet.http;
+
+import com.github.jinahya.servlet.BoundedExecutor;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An offload of {@link XSLTFilter} transformations to a bounded executor, either in asynchronous mode or within a
+ * deadline.
+ *
+ * @author Jin Kwon &lt;jinahya_at_gmail.com&gt;
+ */
+final class XSLTOffload {
+
+    /**
+     * A transformation of a buffered body.
+     */
+    interface Transformation {
+
+        /**
+         * Transforms the body to specified response.
+         *
+         * @param response the actual response, or a wrapper of it
+         * @param deadline the deadline of the transformation; may be {@code null}.
+         * @throws IOException if an I/O error occurs.
+         */
+        void transform(HttpServletResponse response, Deadline deadline)
+                throws IOException;
+    }
+
+    /**
+     * Sends {@code 503 Service Unavailable} because the executor is saturated.
+     *
+     * @param response the actual response
+     * @throws IOException if an I/O error occurs.
+     */
+    static void rejectBusy(final HttpServletResponse response)
+            throws IOException {
+        response.setHeader("Retry-After", "1");
+        response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE,
+                           "too many transformations in flight");
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param executor              the executor on which transformations run.
+     * @param deadlineNanos         the deadline of each transformation, in nanoseconds; not positive for none.
+     * @param deadlineExceededCount the counter of transformations exceeded their deadlines.
+     */
+    XSLTOffload(final BoundedExecutor executor, final long deadlineNanos,
+                final LongAdder deadlineExceededCount) {
+        super();
+        this.executor = executor;
+        this.deadlineNanos = deadlineNanos;
+        this.deadlineExceededCount = deadlineExceededCount;
+    }
+
+    /**
+     * Executes specified task on the executor.
+     *
+     * @param task the task to execute.
+     * @throws RejectedExecutionException if the executor is saturated.
+     */
+    void execute(final Runnable task) {
+        executor.execute(task);
+    }
+
+    /**
+     * Puts specified request into asynchronous mode and transforms, on the executor, the body buffered in specified
+     * wrapper. The asynchronous context is completed, and the wrapper is released, when the transformation is done.
+     * If the executor is saturated, {@code 503 Service Unavailable} is sent instead. The asynchronous context times
+     * out at the {@value XSLTFilter#INIT_PARAM_DEADLINE}, if any, and never otherwise. A transformation still running
+     * when the context times out anyway, or fails, is interrupted and abandoned, and the context is completed; with
+     * {@code 503 Service Unavailable} on a timeout.
+     *
+     * @param request         the actual request
+     * @param response        the actual response
+     * @param responseWrapper the wrapper holds the downstream response
+     * @param transformation  the transformation of the body
+     * @return {@code true} if the transformation has been accepted by the executor; {@code false} otherwise.
+     * @throws IOException if an I/O error occurs.
+     */
+    boolean transformAsync(final HttpServletRequest request,
+                           final HttpServletResponse response,
+                           final BufferedResponseWrapper responseWrapper,
+                           final Transformation transformation)
+            throws IOException {
+
+        final Deadline deadline = deadlineNanos > 0L
+                                  ? new Deadline(deadlineNanos) : null;
+        final AsyncContext asyncContext = request.startAsync(request, response);
+        final AbandonableResponse guarded = new AbandonableResponse(response);
+        final FutureTask<Void> worker = new FutureTask<>(() -> {
+            try {
+                transformation.transform(guarded, deadline);
+            } catch (final IOException | RuntimeException e) {
+                if (!guarded.isCommitted()) {
+                    try {
+                        guarded.sendError(
+                                HttpServletResponse.SC_INTERNAL_SERVER_ERROR,
+                                "failed to transform: " + e.getMessage());
+                    } catch (final IOException ioe) {
+                        e.addSuppressed(ioe);
+                    }
+                }
+            }
+            return null;
+        });
+        // either the worker, the timeout, or the error completes the context
+        final AtomicBoolean completed = new AtomicBoolean();
+        asyncContext.setTimeout(deadline == null ? 0L : Math.max(
+                1L, TimeUnit.NANOSECONDS.toMillis(deadlineNanos)));
+        asyncContext.addListener(new AsyncListener() {
+
+            @Override
+            public void onTimeout(final AsyncEvent event) throws IOException {
+                if (!completed.compareAndSet(false, true)) {
+                    return;
+                }
+                guarded.abandon();
+                worker.cancel(true);
+                if (deadline != null) {
+                    deadlineExceededCount.increment();
+                }
+                try {
+                    if (!response.isCommitted()) {
+                        response.sendError(
+                                HttpServletResponse.SC_SERVICE_UNAVAILABLE,
+                                deadline == null
+                                ? "transformation timed out"
+                                : "transformation deadline exceeded");
+                    }
+                } finally {
+                    asyncContext.complete();
+                }
+            }
+
+            @Override
+            public void onComplete(final AsyncEvent event) {
+                // empty
+            }
+
+            @Override
+            public void onError(final AsyncEvent event) {
+                if (!completed.compareAndSet(false, true)) {
+                    return;
+                }
+                guarded.abandon();
+                worker.cancel(true);
+                asyncContext.complete();
+            }
+
+            @Override
+            public void onStartAsync(final AsyncEvent event) {
+                // empty
+            }
+        });
+        try {
+            executor.execute(() -> {
+                try {
+                    worker.run();
+                } finally {
+                    responseWrapper.release();
+                    if (completed.compareAndSet(false, true)) {
+                        asyncContext.complete();
+                    }
+                }
+            });
+            return true;
+        } catch (final RejectedExecutionException ree) {
+            completed.set(true);
+            rejectBusy(response);
+            asyncContext.complete();
+            return false;
+        }
+    }
+
+    /**
+     * Transforms, on the executor, the body buffered in specified wrapper, and waits for the transformation up to the
+     * {@value XSLTFilter#INIT_PARAM_DEADLINE}. A transformation which outlives its deadline is interrupted and
+     * abandoned, and {@code 503 Service Unavailable} is sent unless the actual response has been committed; the
+     * abandoned transformation no longer touches the actual response, and releases the wrapper when it stops. If the
+     * executor is saturated, {@code 503 Service Unavailable} is sent instead.
+     *
+     * @param response        the actual response
+     * @param responseWrapper the wrapper holds the downstream response
+     * @param transformation  the transformation of the body
+     * @return {@code true} if the wrapper has been left to an abandoned transformation; {@code false} otherwise.
+     * @throws IOException if an I/O error occurs.
+     */
+    boolean transformWithin(final HttpServletResponse response,
+                            final BufferedResponseWrapper responseWrapper,
+                            final Transformation transformation)
+            throws IOException {
+
+        final Deadline deadline = new Deadline(deadlineNanos);
+        final AbandonableResponse guarded = new AbandonableResponse(response);
+        final FutureTask<Void> worker = new FutureTask<>(() -> {
+            transformation.transform(guarded, deadline);
+            return null;
+        });
+        // the later of this thread and the worker releases the wrapper
+        final AtomicBoolean left = new AtomicBoolean();
+        try {
+            executor.execute(() -> {
+                try {
+                    worker.run();
+                } finally {
+                    if (!left.compareAndSet(false, true)) {
+                        responseWrapper.release();
+                    }
+                }
+            });
+        } catch (final RejectedExecutionException ree) {
+            rejectBusy(response);
+            return false;
+        }
+        try {
+            worker.get(deadline.remaining(), TimeUnit.NANOSECONDS);
+            return false;
+        } catch (final ExecutionException ee) {
+            final Throwable cause = ee.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        } catch (final TimeoutException te) {
+            guarded.abandon();
+            worker.cancel(true);
+            deadlineExceededCount.increment();
+            if (!response.isCommitted()) {
+                response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE,
+                                   "transformation deadline exceeded");
+            }
+            return left.compareAndSet(false, true);
+        } catch (final InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            guarded.abandon();
+            worker.cancel(true);
+            if (!response.isCommitted()) {
+                response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE,
+                                   "interrupted while transforming");
+            }
+            return left.compareAndSet(false, true);
+        }
+    }
+
+    /**
+     * Closes the executor.
+     */
+    void close() {
+        executor.close();
+    }
+
+    private final BoundedExecutor executor;
+
+    private final long deadlineNanos;
+
+    private final LongAdder deadlineExceededCount;
+}
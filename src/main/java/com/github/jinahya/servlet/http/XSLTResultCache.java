@@ -0,0 +1,129 @@
+/*
+ * Copyright 2026 Jin Kwon &lt;jinahya_at_gmail.com&gt;.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jinahya.servlet.http;
+
+import com.github.jinahya.servlet.TinyLfuCache;
+
+import java.io.OutputStream;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * A cache of results of {@link XSLTFilter} transformations, keyed by the digest of the body, the version of the
+ * stylesheet, the output properties, and the parameters. A result larger than a sixteenth of the capacity is not
+ * cached, nor is a result of parameters other than strings, numbers, and booleans.
+ *
+ * @author Jin Kwon &lt;jinahya_at_gmail.com&gt;
+ */
+final class XSLTResultCache {
+
+    /**
+     * Creates a new instance.
+     *
+     * @param capacity the capacity, in bytes.
+     */
+    XSLTResultCache(final long capacity) {
+        super();
+        cache = new TinyLfuCache<>(capacity, v -> v.length);
+    }
+
+    /**
+     * Returns the key of the cached result for specified transformation.
+     *
+     * @param responseWrapper   the wrapper holds the body to transform.
+     * @param stylesheet        the compiled stylesheet.
+     * @param encoding          the declared encoding of the body; may be {@code null}.
+     * @param properties        the output properties.
+     * @param parameters        the parameters.
+     * @param outputContentType the output content type.
+     * @return the key of the result; {@code null} if the result is not to be cached.
+     */
+    String key(final BufferedResponseWrapper responseWrapper,
+               final CompiledStylesheet stylesheet, final String encoding,
+               final Properties properties,
+               final Map<String, Object> parameters,
+               final String outputContentType) {
+        final byte[] version = stylesheet.hash;
+        if (version == null) {
+            return null; // not compiled by getTemplates(URL)
+        }
+        for (final Object value : parameters.values()) {
+            if (!(value instanceof String || value instanceof Number
+                  || value instanceof Boolean)) {
+                return null;
+            }
+        }
+        final byte[] digest;
+        try {
+            digest = responseWrapper.getDigest();
+        } catch (final IllegalStateException ise) {
+            return null; // created without a digest
+        }
+        final Base64.Encoder encoder = Base64.getEncoder().withoutPadding();
+        return encoder.encodeToString(digest) + ' '
+               + encoder.encodeToString(version) + ' ' + encoding + ' '
+               + outputContentType + ' ' + new TreeMap<>(properties) + ' '
+               + new TreeMap<>(parameters);
+    }
+
+    /**
+     * Returns the result cached for specified key.
+     *
+     * @param key the key.
+     * @return the cached result; {@code null} if absent.
+     */
+    byte[] get(final String key) {
+        return cache.get(key);
+    }
+
+    /**
+     * Returns an output stream which writes to specified output stream and keeps a copy of a result small enough to
+     * be cached.
+     *
+     * @param output the output stream to which the result goes.
+     * @return a capturing output stream.
+     */
+    CapturingOutputStream capture(final OutputStream output) {
+        return new CapturingOutputStream(output, (int) Math.min(
+                cache.getMaximumWeight() / 16L, Integer.MAX_VALUE - 8));
+    }
+
+    /**
+     * Caches the result captured by specified output stream, unless it has been too large.
+     *
+     * @param key       the key.
+     * @param capturing the output stream which captured the result.
+     */
+    void put(final String key, final CapturingOutputStream capturing) {
+        final byte[] result = capturing.captured();
+        if (result != null) {
+            cache.put(key, result);
+        }
+    }
+
+    /**
+     * Returns the underlying cache.
+     *
+     * @return the underlying cache.
+     */
+    TinyLfuCache<String, byte[]> getCache() {
+        return cache;
+    }
+
+    private final TinyLfuCache<String, byte[]> cache;
+}
@@ -0,0 +1,64 @@
+package com.github.jinahya.servlet;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * A class for unit-testing {@link AbstractFilter} class.
+ *
+ * @author Jin Kwon &lt;jinahya_at_gmail.com&gt;
+ */
+class AbstractFilterTest {
+
+    private static class TestFilter extends AbstractFilter {
+
+        @Override
+        public void doFilter(final ServletRequest request, final ServletResponse response, final FilterChain chain) {
+            // does nothing.
+        }
+    }
+
+    @Test
+    void init_ServletException_MalformedContextParameter() {
+        final ServletMocks.Context context = new ServletMocks.Context(null);
+        context.parameters.put(MemoryBudget.INIT_PARAM_CAPACITY, "1k");
+        assertThatThrownBy(() -> new TestFilter().init(ServletMocks.filterConfig(context.proxy(), Map.of())))
+                .isInstanceOf(ServletException.class)
+                .hasMessageContaining(MemoryBudget.INIT_PARAM_CAPACITY + ": 1k");
+    }
+
+    @Test
+    void init_ServletException_NegativeSpillThreshold() {
+        final ServletMocks.Context context = new ServletMocks.Context(null);
+        assertThatThrownBy(() -> new TestFilter().init(ServletMocks.filterConfig(
+                context.proxy(), Map.of(AbstractFilter.INIT_PARAM_SPILL_THRESHOLD, "-1"))))
+                .isInstanceOf(ServletException.class)
+                .hasMessageContaining(AbstractFilter.INIT_PARAM_SPILL_THRESHOLD + ": -1");
+    }
+
+    @Test
+    void newSegmentedBuffer_Reserved_BudgetResolvedAtInit() throws Exception {
+        final ServletMocks.Context context = new ServletMocks.Context(null);
+        context.parameters.put(MemoryBudget.INIT_PARAM_CAPACITY, "65536");
+        final TestFilter filter = new TestFilter();
+        filter.init(ServletMocks.filterConfig(context.proxy(), Map.of()));
+        final MemoryBudget budget = (MemoryBudget) context.attributes.get(MemoryBudget.ATTRIBUTE_NAME);
+        assertThat(budget.getCapacity()).isEqualTo(65536L);
+        final SegmentedBuffer buffer = filter.newSegmentedBuffer();
+        try {
+            buffer.write(new byte[16], 0, 16);
+            assertThat(budget.getAvailable()).isLessThan(65536L);
+        } finally {
+            buffer.close();
+        }
+        assertThat(budget.getAvailable()).isEqualTo(65536L);
+    }
+}
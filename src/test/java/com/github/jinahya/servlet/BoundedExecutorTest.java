@@ -0,0 +1,42 @@
+package com.github.jinahya.servlet;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * A class for unit-testing {@link BoundedExecutor} class.
+ *
+ * @author Jin Kwon &lt;jinahya_at_gmail.com&gt;
+ */
+class BoundedExecutorTest {
+
+    @Test
+    void execute_Rejected_BeyondBound() throws InterruptedException {
+        try (BoundedExecutor executor = BoundedExecutor.ofPlatformThreads("test", 1, 1)) {
+            final CountDownLatch release = new CountDownLatch(1);
+            final CountDownLatch done = new CountDownLatch(2);
+            for (int i = 0; i < 2; i++) {
+                executor.execute(() -> {
+                    try {
+                        release.await();
+                    } catch (final InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                    }
+                    done.countDown();
+                });
+            }
+            assertThat(executor.getInFlight()).isEqualTo(2);
+            assertThatThrownBy(() -> executor.execute(() -> {
+            })).isInstanceOf(RejectedExecutionException.class);
+            assertThat(executor.getRejections()).isEqualTo(1L);
+            release.countDown();
+            assertThat(done.await(10L, TimeUnit.SECONDS)).isTrue();
+        }
+    }
+}
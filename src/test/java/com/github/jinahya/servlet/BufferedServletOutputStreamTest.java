@@ -0,0 +1,135 @@
+package com.github.jinahya.servlet;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A class for unit-testing {@link BufferedServletOutputStream} class.
+ *
+ * @author Jin Kwon &lt;jinahya_at_gmail.com&gt;
+ */
+class BufferedServletOutputStreamTest {
+
+    /**
+     * A non-blocking output stream which becomes not-ready after each write, as a container does.
+     */
+    private static class NonBlockingOutputStream extends ServletOutputStream {
+
+        @Override
+        public boolean isReady() {
+            return ready;
+        }
+
+        @Override
+        public void setWriteListener(final WriteListener writeListener) {
+            this.writeListener = writeListener;
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            if (!ready) {
+                throw new IllegalStateException("not ready");
+            }
+            bytes.write(b, off, len);
+            ready = stayReady;
+        }
+
+        /**
+         * Makes this stream ready and notifies the listener, as a container does when its buffer has been flushed.
+         */
+        void callback() throws IOException {
+            ready = true;
+            writeListener.onWritePossible();
+        }
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        WriteListener writeListener;
+
+        boolean ready = true;
+
+        /**
+         * {@code true} for staying ready after each write, as a container does while its buffer has room.
+         */
+        boolean stayReady;
+    }
+
+    @Test
+    void drainOnClose_WrittenThroughHandshake_() throws IOException {
+        final byte[] expected = new byte[SegmentedBuffer.DEFAULT_SEGMENT_SIZE * 2 + 1];
+        ThreadLocalRandom.current().nextBytes(expected);
+        final NonBlockingOutputStream target = new NonBlockingOutputStream();
+        final AtomicBoolean written = new AtomicBoolean();
+        final BufferedServletOutputStream stream = new BufferedServletOutputStream();
+        stream.drainOnClose(target, new DrainListener() {
+            @Override
+            public void onAllDataWritten() {
+                written.set(true);
+            }
+
+            @Override
+            public void onError(final Throwable t) {
+                throw new AssertionError(t);
+            }
+        });
+        stream.write(expected);
+        assertThat(target.bytes.size()).isZero();
+        stream.close();
+        assertThat(stream.isReady()).isFalse();
+        for (int i = 0; i < 4 && !written.get(); i++) {
+            target.callback();
+        }
+        assertThat(written).isTrue();
+        assertThat(target.bytes.toByteArray()).isEqualTo(expected);
+    }
+
+    @Test
+    void drainOnClose_WrittenOnce_ClosedFromListener() throws IOException {
+        final byte[] expected = new byte[] {1, 2, 3};
+        final NonBlockingOutputStream target = new NonBlockingOutputStream();
+        target.stayReady = true;
+        final AtomicInteger written = new AtomicInteger();
+        final BufferedServletOutputStream stream = new BufferedServletOutputStream();
+        stream.drainOnClose(target, new DrainListener() {
+            @Override
+            public void onAllDataWritten() {
+                written.incrementAndGet();
+            }
+
+            @Override
+            public void onError(final Throwable t) {
+                throw new AssertionError(t);
+            }
+        });
+        stream.setWriteListener(new WriteListener() {
+            @Override
+            public void onWritePossible() throws IOException {
+                stream.write(expected);
+                stream.close(); // drains reentrantly
+            }
+
+            @Override
+            public void onError(final Throwable t) {
+                throw new AssertionError(t);
+            }
+        });
+        assertThat(written.get()).isEqualTo(1);
+        target.callback();
+        assertThat(written.get()).isEqualTo(1);
+        assertThat(target.bytes.toByteArray()).isEqualTo(expected);
+    }
+}
@@ -0,0 +1,56 @@
+package com.github.jinahya.servlet;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * A class for unit-testing {@link BytePipe} class.
+ *
+ * @author Jin Kwon &lt;jinahya_at_gmail.com&gt;
+ */
+class BytePipeTest {
+
+    @Test
+    void read_SameAsWritten_SmallerCapacity() throws Exception {
+        final byte[] expected = new byte[100000];
+        ThreadLocalRandom.current().nextBytes(expected);
+        final BytePipe pipe = new BytePipe(100);
+        final CompletableFuture<byte[]> actual = CompletableFuture.supplyAsync(() -> {
+            try (InputStream in = pipe.getInputStream()) {
+                return in.readAllBytes();
+            } catch (final IOException ioe) {
+                throw new RuntimeException(ioe);
+            }
+        });
+        try (OutputStream out = pipe.getOutputStream()) {
+            for (int i = 0; i < expected.length; ) {
+                final int n = Math.min(expected.length - i, 1 + ThreadLocalRandom.current().nextInt(300));
+                out.write(expected, i, n);
+                i += n;
+            }
+        }
+        assertThat(actual.get()).isEqualTo(expected);
+    }
+
+    @Test
+    void write_Fails_ReaderClosed() throws IOException {
+        final BytePipe pipe = new BytePipe(10);
+        pipe.getInputStream().close();
+        assertThatThrownBy(() -> pipe.getOutputStream().write(new byte[20])).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void read_Fails_Aborted() {
+        final BytePipe pipe = new BytePipe(10);
+        pipe.abort(new IOException("aborted"));
+        assertThatThrownBy(() -> pipe.getInputStream().read()).isInstanceOf(IOException.class);
+    }
+}
@@ -0,0 +1,74 @@
+package com.github.jinahya.servlet;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A class for unit-testing {@link DeflaterServletOutputStream} class.
+ *
+ * @author Jin Kwon &lt;jinahya_at_gmail.com&gt;
+ */
+class DeflaterServletOutputStreamTest {
+
+    private static class ByteArrayServletOutputStream extends ServletOutputStream {
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setWriteListener(final WriteListener writeListener) {
+        }
+
+        @Override
+        public void write(final int b) {
+            bytes.write(b);
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) {
+            bytes.write(b, off, len);
+        }
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void write_Inflatable_(final boolean gzip) throws IOException {
+        final byte[] expected = new byte[100000];
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = (byte) ThreadLocalRandom.current().nextInt(16);
+        }
+        final DeflaterPool pool = new DeflaterPool();
+        for (int i = 0; i < 2; i++) {
+            final ByteArrayServletOutputStream target = new ByteArrayServletOutputStream();
+            try (DeflaterServletOutputStream out = new DeflaterServletOutputStream(target, pool, 6, gzip)) {
+                out.write(expected, 0, 100);
+                out.flush();
+                out.write(expected[100]);
+                out.write(expected, 101, expected.length - 101);
+            }
+            final InputStream source = new ByteArrayInputStream(target.bytes.toByteArray());
+            try (InputStream in = gzip ? new GZIPInputStream(source) : new InflaterInputStream(source)) {
+                assertThat(in.readAllBytes()).isEqualTo(expected);
+            }
+        }
+        assertThat(pool.getMisses()).isEqualTo(1L);
+        assertThat(pool.getHits()).isEqualTo(1L);
+        pool.close();
+    }
+}
@@ -0,0 +1,84 @@
+package com.github.jinahya.servlet;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * A class for unit-testing {@link MemoryBudget} class.
+ *
+ * @author Jin Kwon &lt;jinahya_at_gmail.com&gt;
+ */
+class MemoryBudgetTest {
+
+    private static SegmentedBuffer buffer(final MemoryBudget budget) {
+        return new SegmentedBuffer(BufferPools.getDefault(), budget, 1024, SegmentedBuffer.NO_SPILL);
+    }
+
+    @Test
+    void write_Fail_Exhausted() throws IOException {
+        final MemoryBudget budget = new MemoryBudget(2048L, MemoryBudget.Policy.FAIL, 0L);
+        try (SegmentedBuffer buffer = buffer(budget)) {
+            buffer.write(new byte[2048], 0, 2048);
+            assertThat(budget.getUsed()).isEqualTo(2048L);
+            assertThatThrownBy(() -> buffer.write(0))
+                    .isInstanceOf(MemoryBudgetExceededException.class)
+                    .satisfies(t -> assertThat(((MemoryBudgetExceededException) t).getStatusType().getStatusCode())
+                            .isEqualTo(503));
+            assertThat(budget.getRejections()).isEqualTo(1L);
+        }
+        assertThat(budget.getUsed()).isZero();
+        assertThat(budget.getPeak()).isEqualTo(2048L);
+    }
+
+    @Test
+    void write_Spill_Exhausted() throws IOException {
+        final MemoryBudget budget = new MemoryBudget(2048L, MemoryBudget.Policy.SPILL, 0L);
+        final byte[] expected = new byte[10000];
+        try (SegmentedBuffer buffer = buffer(budget)) {
+            buffer.write(expected, 0, expected.length);
+            assertThat(buffer.isSpilled()).isTrue();
+            assertThat(budget.getUsed()).isEqualTo(1024L);
+            assertThat(buffer.toByteArray()).isEqualTo(expected);
+        }
+        assertThat(budget.getUsed()).isZero();
+    }
+
+    @Test
+    void reserve_Block_TimedOut() {
+        final MemoryBudget budget = new MemoryBudget(1024L, MemoryBudget.Policy.BLOCK, 10L);
+        assertThat(budget.tryReserve(1024L)).isTrue();
+        assertThatThrownBy(() -> budget.reserve(1L)).isInstanceOf(MemoryBudgetExceededException.class);
+        budget.release(1024L);
+        assertThat(budget.getAvailable()).isEqualTo(1024L);
+    }
+
+    @Test
+    void of_IllegalArgumentException_MalformedParameter() {
+        for (final String[] parameter : new String[][] {
+                {MemoryBudget.INIT_PARAM_CAPACITY, "1k"},
+                {MemoryBudget.INIT_PARAM_CAPACITY, "0"},
+                {MemoryBudget.INIT_PARAM_POLICY, "wait"},
+                {MemoryBudget.INIT_PARAM_TIMEOUT, "-1"}}) {
+            final ServletMocks.Context context = new ServletMocks.Context(null);
+            context.parameters.put(parameter[0], parameter[1]);
+            assertThatThrownBy(() -> MemoryBudget.of(context.proxy()))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining(parameter[0] + ": " + parameter[1]);
+            assertThat(context.attributes).isEmpty();
+        }
+    }
+
+    @Test
+    void of_Stored_WellFormedParameters() {
+        final ServletMocks.Context context = new ServletMocks.Context(null);
+        context.parameters.put(MemoryBudget.INIT_PARAM_CAPACITY, " 4096 ");
+        context.parameters.put(MemoryBudget.INIT_PARAM_POLICY, "spill");
+        final MemoryBudget budget = MemoryBudget.of(context.proxy());
+        assertThat(budget.getCapacity()).isEqualTo(4096L);
+        assertThat(MemoryBudget.of(context.proxy())).isSameAs(budget);
+    }
+}
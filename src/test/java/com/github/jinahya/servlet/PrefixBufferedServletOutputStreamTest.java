@@ -0,0 +1,114 @@
+package com.github.jinahya.servlet;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A class for unit-testing {@link PrefixBufferedServletOutputStream} class.
+ *
+ * @author Jin Kwon &lt;jinahya_at_gmail.com&gt;
+ */
+class PrefixBufferedServletOutputStreamTest {
+
+    private static byte[] random(final int length) {
+        final byte[] bytes = new byte[length];
+        ThreadLocalRandom.current().nextBytes(bytes);
+        return bytes;
+    }
+
+    @Test
+    void complete_ContentLength_FitsInPrefix() throws IOException {
+        final ServletMocks.Response response = new ServletMocks.Response();
+        final byte[] expected = random(10);
+        final PrefixBufferedServletOutputStream stream
+                = new PrefixBufferedServletOutputStream(response.proxy(), new SegmentedBuffer(64), 100L);
+        stream.write(expected, 0, expected.length);
+        stream.flush();
+        assertThat(stream.isCommitted()).isFalse();
+        assertThat(response.body()).isEmpty();
+        stream.complete();
+        assertThat(stream.isCommitted()).isTrue();
+        assertThat(response.header("Content-Length")).isEqualTo("10");
+        assertThat(response.body()).isEqualTo(expected);
+    }
+
+    @Test
+    void write_PassesThrough_AbovePrefix() throws IOException {
+        final ServletMocks.Response response = new ServletMocks.Response();
+        final byte[] expected = random(150);
+        final int[] commits = new int[1];
+        final PrefixBufferedServletOutputStream stream
+                = new PrefixBufferedServletOutputStream(response.proxy(), new SegmentedBuffer(64), 100L) {
+            @Override
+            protected void beforeCommit() {
+                commits[0]++;
+            }
+        };
+        stream.write(expected, 0, 50);
+        assertThat(stream.isCommitted()).isFalse();
+        stream.write(expected, 50, 100);
+        assertThat(stream.isCommitted()).isTrue();
+        stream.complete();
+        assertThat(commits[0]).isEqualTo(1);
+        assertThat(response.header("Content-Length")).isNull();
+        assertThat(response.body()).isEqualTo(expected);
+    }
+
+    @Test
+    void write_PassesThrough_HeapAndDirectBuffers() throws IOException {
+        final ServletMocks.Response response = new ServletMocks.Response();
+        final byte[] expected = random(300);
+        final PrefixBufferedServletOutputStream stream
+                = new PrefixBufferedServletOutputStream(response.proxy(), new SegmentedBuffer(64), 100L);
+        stream.write(ByteBuffer.wrap(expected, 0, 80));
+        final ByteBuffer direct = ByteBuffer.allocateDirect(120);
+        direct.put(expected, 80, 120).flip();
+        stream.write(direct);
+        assertThat(direct.hasRemaining()).isFalse();
+        assertThat(stream.isCommitted()).isTrue();
+        final ByteBuffer heap = ByteBuffer.wrap(expected, 200, 100);
+        stream.write(heap);
+        assertThat(heap.hasRemaining()).isFalse();
+        assertThat(response.body()).isEqualTo(expected);
+    }
+
+    @Test
+    void complete_NoContentLength_BodilessStatusOrEmpty() throws IOException {
+        for (final int status : new int[] {HttpServletResponse.SC_NO_CONTENT, HttpServletResponse.SC_NOT_MODIFIED}) {
+            final ServletMocks.Response response = new ServletMocks.Response();
+            response.proxy().setStatus(status);
+            final PrefixBufferedServletOutputStream stream
+                    = new PrefixBufferedServletOutputStream(response.proxy(), new SegmentedBuffer(64), 100L);
+            stream.complete();
+            assertThat(response.header("Content-Length")).isNull();
+        }
+        final ServletMocks.Response response = new ServletMocks.Response();
+        final PrefixBufferedServletOutputStream stream
+                = new PrefixBufferedServletOutputStream(response.proxy(), new SegmentedBuffer(64), 100L);
+        stream.complete();
+        assertThat(response.header("Content-Length")).isNull();
+    }
+
+    @Test
+    void close_CompletesAndCloses_() throws IOException {
+        final ServletMocks.Response response = new ServletMocks.Response();
+        final PrefixBufferedServletOutputStream stream
+                = new PrefixBufferedServletOutputStream(response.proxy(), new SegmentedBuffer(64), 100L);
+        final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        for (int i = 0; i < 3; i++) {
+            stream.write(i);
+            expected.write(i);
+        }
+        stream.close();
+        assertThat(stream.isCommitted()).isTrue();
+        assertThat(response.header("Content-Length")).isEqualTo("3");
+        assertThat(response.body()).isEqualTo(expected.toByteArray());
+    }
+}
@@ -0,0 +1,157 @@
+package com.github.jinahya.servlet;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A class for unit-testing {@link SegmentedBuffer} class.
+ *
+ * @author Jin Kwon &lt;jinahya_at_gmail.com&gt;
+ */
+class SegmentedBufferTest {
+
+    private static byte[] random(final int length) {
+        final byte[] bytes = new byte[length];
+        ThreadLocalRandom.current().nextBytes(bytes);
+        return bytes;
+    }
+
+    @Test
+    void write_SpansSegments_() throws IOException {
+        final byte[] expected = random(SegmentedBuffer.DEFAULT_SEGMENT_SIZE * 3 + 17);
+        final SegmentedBuffer buffer = new SegmentedBuffer();
+        buffer.write(expected[0]);
+        buffer.write(expected, 1, 100);
+        buffer.write(ByteBuffer.wrap(expected, 101, expected.length - 101));
+        assertThat(buffer.size()).isEqualTo(expected.length);
+        assertThat(buffer.toByteArray()).isEqualTo(expected);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertThat(buffer.writeTo(out)).isEqualTo(expected.length);
+        assertThat(out.toByteArray()).isEqualTo(expected);
+        try (InputStream in = buffer.toInputStream()) {
+            assertThat(in.readAllBytes()).isEqualTo(expected);
+        }
+        long total = 0L;
+        for (final ByteBuffer view : buffer.toByteBuffers()) {
+            assertThat(view.isReadOnly()).isTrue();
+            total += view.remaining();
+        }
+        assertThat(total).isEqualTo(expected.length);
+    }
+
+    @Test
+    void write_Spills_AboveThreshold() throws IOException {
+        final byte[] expected = random(1000);
+        try (SegmentedBuffer buffer = new SegmentedBuffer(64, 100L)) {
+            buffer.write(expected, 0, 100);
+            assertThat(buffer.isSpilled()).isFalse();
+            buffer.write(expected, 100, expected.length - 100);
+            assertThat(buffer.isSpilled()).isTrue();
+            assertThat(buffer.size()).isEqualTo(expected.length);
+            assertThat(buffer.toByteArray()).isEqualTo(expected);
+            try (InputStream in = buffer.toInputStream()) {
+                assertThat(in.readAllBytes()).isEqualTo(expected);
+            }
+            buffer.reset();
+            assertThat(buffer.isSpilled()).isFalse();
+            assertThat(buffer.size()).isZero();
+        }
+    }
+
+    @Test
+    void reset_Empty_() throws IOException {
+        final SegmentedBuffer buffer = new SegmentedBuffer(16);
+        buffer.write(random(100), 0, 100);
+        buffer.reset();
+        assertThat(buffer.size()).isZero();
+        assertThat(buffer.toByteBuffers()).isEmpty();
+        assertThat(buffer.toByteArray()).isEmpty();
+    }
+
+    @Test
+    void digest_SameAsWhole_WithAndWithoutSpill() throws IOException, NoSuchAlgorithmException {
+        final byte[] bytes = random(1000);
+        final byte[] expected = MessageDigest.getInstance("SHA-256").digest(bytes);
+        for (final long threshold : new long[] {SegmentedBuffer.NO_SPILL, 100L}) {
+            try (SegmentedBuffer buffer = new SegmentedBuffer(64, threshold)) {
+                buffer.setDigest(MessageDigest.getInstance("SHA-256"));
+                buffer.write(bytes, 0, 10);
+                buffer.write(ByteBuffer.wrap(bytes, 10, bytes.length - 10));
+                assertThat(buffer.digest()).isEqualTo(expected);
+            }
+        }
+    }
+
+    @Test
+    void views_BackingArrays_HeapSegments() throws IOException {
+        final BufferPool pool = new StripedBufferPool(false, 64, 1024, 1, 1L << 16);
+        final SegmentedBuffer buffer = new SegmentedBuffer(pool, 64, SegmentedBuffer.NO_SPILL);
+        buffer.write(random(200), 0, 200);
+        for (final ByteBuffer view : buffer.views()) {
+            assertThat(view.hasArray()).isTrue();
+        }
+        for (final ByteBuffer view : buffer.toByteBuffers()) {
+            assertThat(view.isReadOnly()).isTrue();
+        }
+        buffer.reset();
+    }
+
+    @Test
+    void writeTo_WrittenAsTheyAre_WritableByteChannel() throws IOException {
+        final byte[] expected = random(1000);
+        final BufferPool pool = new StripedBufferPool(true, 64, 1024, 1, 1L << 16);
+        final SegmentedBuffer buffer = new SegmentedBuffer(pool, 64, SegmentedBuffer.NO_SPILL);
+        buffer.write(expected, 0, expected.length);
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final int[] arrays = new int[1];
+        final class ChannelOutputStream extends OutputStream implements WritableByteChannel {
+
+            @Override
+            public void write(final int b) {
+                arrays[0]++;
+            }
+
+            @Override
+            public int write(final ByteBuffer src) {
+                assertThat(src.isDirect()).isTrue();
+                final int n = src.remaining();
+                while (src.hasRemaining()) {
+                    bytes.write(src.get());
+                }
+                return n;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+        }
+        assertThat(buffer.writeTo(new ChannelOutputStream())).isEqualTo(expected.length);
+        assertThat(arrays[0]).isZero();
+        assertThat(bytes.toByteArray()).isEqualTo(expected);
+        buffer.reset();
+    }
+
+    @Test
+    void toByteBuffers_MappedAgain_WrittenAfterMapping() throws IOException {
+        final byte[] expected = random(1000);
+        try (SegmentedBuffer buffer = new SegmentedBuffer(64, 100L)) {
+            buffer.write(expected, 0, 500);
+            assertThat(buffer.toByteArray().length).isEqualTo(500);
+            assertThat(buffer.toByteArray().length).isEqualTo(500);
+            buffer.write(expected, 500, 500);
+            assertThat(buffer.toByteArray()).isEqualTo(expected);
+        }
+    }
+}
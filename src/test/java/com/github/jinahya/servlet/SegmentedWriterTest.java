@@ -0,0 +1,66 @@
+package com.github.jinahya.servlet;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A class for unit-testing {@link SegmentedWriter} class.
+ *
+ * @author Jin Kwon &lt;jinahya_at_gmail.com&gt;
+ */
+class SegmentedWriterTest {
+
+    private static String random(final int length) {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        final StringBuilder builder = new StringBuilder(length);
+        while (builder.length() < length) {
+            switch (random.nextInt(4)) {
+                case 0:
+                    builder.append('\u00e9');
+                    break;
+                case 1:
+                    builder.append('\ud55c');
+                    break;
+                case 2:
+                    builder.appendCodePoint(0x1f600 + random.nextInt(16));
+                    break;
+                default:
+                    builder.append((char) ('a' + random.nextInt(26)));
+                    break;
+            }
+        }
+        return builder.toString();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"UTF-8", "ISO-8859-1", "US-ASCII", "UTF-16", "Shift_JIS"})
+    void write_SameAsGetBytes_AcrossSegmentsAndSurrogates(final String name) throws IOException {
+        final Charset charset = Charset.forName(name);
+        final String expected = random(10000);
+        final SegmentedBuffer buffer = new SegmentedBuffer(17, 1000L);
+        try (SegmentedWriter writer = new SegmentedWriter(new BufferedServletOutputStream(buffer), charset)) {
+            final ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < expected.length(); ) {
+                final int n = Math.min(expected.length() - i, 1 + random.nextInt(40));
+                if (n == 1) {
+                    writer.write(expected.charAt(i));
+                } else if (random.nextBoolean()) {
+                    writer.write(expected, i, n);
+                } else {
+                    writer.write(expected.substring(i, i + n).toCharArray());
+                }
+                i += n;
+            }
+            writer.flush();
+            assertThat(buffer.toByteArray()).isEqualTo(expected.getBytes(charset));
+        } finally {
+            buffer.close();
+        }
+    }
+}
@@ -0,0 +1,659 @@
+package com.github.jinahya.servlet;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.FilterConfig;
+import jakarta.servlet.RequestDispatcher;
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.MalformedURLException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Minimal in-memory stand-ins of servlet API objects for unit-testing filters without a container. Each stand-in is a
+ * dynamic proxy over a small state class; methods not modelled return {@code null}, {@code 0}, or {@code false}.
+ *
+ * @author Jin Kwon &lt;jinahya_at_gmail.com&gt;
+ */
+public final class ServletMocks {
+
+    /**
+     * Returns the default value of specified return type.
+     */
+    private static Object defaultValue(final Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == int.class) {
+            return 0;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(final Class<T> type, final InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(ServletMocks.class.getClassLoader(), new Class<?>[] {type}, handler);
+    }
+
+    /**
+     * The state of a servlet context.
+     */
+    public static final class Context implements InvocationHandler {
+
+        /**
+         * Creates a new instance whose resources are files under specified directory.
+         *
+         * @param root the directory of resources; {@code null} for none.
+         */
+        public Context(final File root) {
+            super();
+            this.root = root;
+        }
+
+        @Override
+        public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "getAttribute":
+                    return attributes.get((String) args[0]);
+                case "setAttribute":
+                    attributes.put((String) args[0], args[1]);
+                    return null;
+                case "removeAttribute":
+                    attributes.remove((String) args[0]);
+                    return null;
+                case "getInitParameter":
+                    return parameters.get((String) args[0]);
+                case "getContextPath":
+                    return "";
+                case "log":
+                    logs.add((String) args[0]);
+                    return null;
+                case "getResource":
+                    return resource((String) args[0]);
+                case "getResourceAsStream": {
+                    final File file = file((String) args[0]);
+                    return file == null ? null : new java.io.FileInputStream(file);
+                }
+                case "getRealPath": {
+                    final File file = file((String) args[0]);
+                    return file == null ? null : file.getPath();
+                }
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                case "toString":
+                    return "context";
+                default:
+                    return defaultValue(method.getReturnType());
+            }
+        }
+
+        private File file(final String path) {
+            if (root == null) {
+                return null;
+            }
+            final File file = new File(root, path);
+            return file.isFile() ? file : null;
+        }
+
+        private java.net.URL resource(final String path) throws MalformedURLException {
+            final File file = file(path);
+            return file == null ? null : file.toURI().toURL();
+        }
+
+        /**
+         * Returns a servlet context backed by this state.
+         *
+         * @return a servlet context.
+         */
+        public ServletContext proxy() {
+            if (proxy == null) {
+                proxy = ServletMocks.proxy(ServletContext.class, this);
+            }
+            return proxy;
+        }
+
+        public final Map<String, Object> attributes = new HashMap<>();
+
+        public final Map<String, String> parameters = new HashMap<>();
+
+        public final List<String> logs = new CopyOnWriteArrayList<>();
+
+        private final File root;
+
+        private ServletContext proxy;
+    }
+
+    /**
+     * Returns a filter config of specified context and init parameters.
+     *
+     * @param context    the servlet context.
+     * @param parameters the init parameters.
+     * @return a filter config.
+     */
+    public static FilterConfig filterConfig(final ServletContext context, final Map<String, String> parameters) {
+        return proxy(FilterConfig.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getServletContext":
+                    return context;
+                case "getInitParameter":
+                    return parameters.get((String) args[0]);
+                case "getInitParameterNames":
+                    return Collections.enumeration(new ArrayList<>(parameters.keySet()));
+                case "getFilterName":
+                    return "filter";
+                case "toString":
+                    return "filterConfig";
+                default:
+                    return defaultValue(method.getReturnType());
+            }
+        });
+    }
+
+    /**
+     * The state of an HTTP request.
+     */
+    public static final class Request implements InvocationHandler {
+
+        /**
+         * Creates a new instance.
+         *
+         * @param method     the request method.
+         * @param requestUri the request URI.
+         */
+        public Request(final String method, final String requestUri) {
+            super();
+            this.method = method;
+            this.requestUri = requestUri;
+        }
+
+        /**
+         * Adds a header value.
+         *
+         * @param name  the header name.
+         * @param value the header value.
+         * @return this state.
+         */
+        public Request header(final String name, final String value) {
+            headers.computeIfAbsent(name, k -> new ArrayList<>()).add(value);
+            return this;
+        }
+
+        @Override
+        public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "getMethod":
+                    return this.method;
+                case "getRequestURI":
+                    return requestUri;
+                case "getRequestURL":
+                    return new StringBuffer("http://localhost").append(requestUri);
+                case "getQueryString":
+                    return query;
+                case "getContextPath":
+                    return "";
+                case "getServletPath":
+                    return requestUri;
+                case "getHeader": {
+                    final List<String> values = headers.get((String) args[0]);
+                    return values == null || values.isEmpty() ? null : values.get(0);
+                }
+                case "getHeaders": {
+                    final List<String> values = headers.get((String) args[0]);
+                    return Collections.enumeration(values == null ? Collections.<String>emptyList() : values);
+                }
+                case "getHeaderNames":
+                    return Collections.enumeration(new ArrayList<>(headers.keySet()));
+                case "getAttribute":
+                    return attributes.get((String) args[0]);
+                case "setAttribute":
+                    attributes.put((String) args[0], args[1]);
+                    return null;
+                case "removeAttribute":
+                    attributes.remove((String) args[0]);
+                    return null;
+                case "getServletContext":
+                    return context;
+                case "getContentType":
+                    return getHeaderValue("Content-Type");
+                case "getContentLengthLong": {
+                    final String value = getHeaderValue("Content-Length");
+                    return value == null ? -1L : Long.parseLong(value);
+                }
+                case "getRequestDispatcher":
+                    return dispatcher((String) args[0]);
+                case "isAsyncSupported":
+                    return asyncSupported;
+                case "isAsyncStarted":
+                    return asyncContext != null;
+                case "startAsync":
+                    if (!asyncSupported || asyncContext != null) {
+                        throw new IllegalStateException("async not supported or already started");
+                    }
+                    asyncContext = asyncContext((ServletRequest) args[0], (ServletResponse) args[1]);
+                    return asyncContext;
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                case "toString":
+                    return this.method + " " + requestUri;
+                default:
+                    return defaultValue(method.getReturnType());
+            }
+        }
+
+        private String getHeaderValue(final String name) {
+            final List<String> values = headers.get(name);
+            return values == null || values.isEmpty() ? null : values.get(0);
+        }
+
+        private RequestDispatcher dispatcher(final String path) {
+            return ServletMocks.proxy(RequestDispatcher.class, (proxy, method, args) -> {
+                if (method.getName().equals("forward") || method.getName().equals("include")) {
+                    forwardedPath = path;
+                    forwardedRequest = (ServletRequest) args[0];
+                    return null;
+                }
+                return defaultValue(method.getReturnType());
+            });
+        }
+
+        private AsyncContext asyncContext(final ServletRequest request, final ServletResponse response) {
+            return ServletMocks.proxy(AsyncContext.class, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "getRequest":
+                        return request;
+                    case "getResponse":
+                        return response;
+                    case "complete":
+                        if (asyncCompleted.getCount() == 0L) {
+                            throw new IllegalStateException("already completed");
+                        }
+                        asyncCompleted.countDown();
+                        return null;
+                    case "setTimeout":
+                        asyncTimeout = (Long) args[0];
+                        return null;
+                    case "getTimeout":
+                        return asyncTimeout;
+                    case "addListener":
+                        asyncListeners.add((AsyncListener) args[0]);
+                        return null;
+                    default:
+                        return defaultValue(method.getReturnType());
+                }
+            });
+        }
+
+        /**
+         * Notifies the listeners of the asynchronous context that it has timed out, as a container would.
+         *
+         * @throws IOException if a listener fails.
+         */
+        public void timeout() throws IOException {
+            final AsyncEvent event = new AsyncEvent(asyncContext);
+            for (final AsyncListener listener : asyncListeners) {
+                listener.onTimeout(event);
+            }
+        }
+
+        /**
+         * Returns an HTTP request backed by this state.
+         *
+         * @return an HTTP request.
+         */
+        public HttpServletRequest proxy() {
+            if (proxy == null) {
+                proxy = ServletMocks.proxy(HttpServletRequest.class, this);
+            }
+            return proxy;
+        }
+
+        public final Map<String, List<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+        public final Map<String, Object> attributes = new HashMap<>();
+
+        public String query;
+
+        public ServletContext context;
+
+        public boolean asyncSupported;
+
+        /**
+         * Counted down when the asynchronous context is completed.
+         */
+        public final CountDownLatch asyncCompleted = new CountDownLatch(1);
+
+        public volatile long asyncTimeout;
+
+        /**
+         * The path of the last forward or include; {@code null} if none.
+         */
+        public String forwardedPath;
+
+        /**
+         * The request of the last forward or include; {@code null} if none.
+         */
+        public ServletRequest forwardedRequest;
+
+        private final String method;
+
+        private final String requestUri;
+
+        private final List<AsyncListener> asyncListeners = new CopyOnWriteArrayList<>();
+
+        private volatile AsyncContext asyncContext;
+
+        private HttpServletRequest proxy;
+    }
+
+    /**
+     * The state of an HTTP response. Once committed, the status and headers no longer change.
+     */
+    public static final class Response implements InvocationHandler {
+
+        @Override
+        public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "setStatus":
+                    if (!committed) {
+                        status = (Integer) args[0];
+                    }
+                    return null;
+                case "getStatus":
+                    return status;
+                case "sendError":
+                    if (committed) {
+                        throw new IllegalStateException("committed");
+                    }
+                    status = (Integer) args[0];
+                    message = args.length > 1 ? (String) args[1] : null;
+                    committed = true;
+                    return null;
+                case "setHeader":
+                    if (!committed) {
+                        if (args[1] == null) {
+                            headers.remove((String) args[0]);
+                        } else {
+                            headers.put((String) args[0], new ArrayList<>(List.of((String) args[1])));
+                        }
+                    }
+                    return null;
+                case "addHeader":
+                    if (!committed) {
+                        headers.computeIfAbsent((String) args[0], k -> new ArrayList<>()).add((String) args[1]);
+                    }
+                    return null;
+                case "setIntHeader":
+                case "setDateHeader":
+                    if (!committed) {
+                        headers.put((String) args[0], new ArrayList<>(List.of(String.valueOf(args[1]))));
+                    }
+                    return null;
+                case "addIntHeader":
+                case "addDateHeader":
+                    if (!committed) {
+                        headers.computeIfAbsent((String) args[0], k -> new ArrayList<>()).add(String.valueOf(args[1]));
+                    }
+                    return null;
+                case "containsHeader":
+                    return headers.containsKey((String) args[0]);
+                case "getHeader": {
+                    final List<String> values = headers.get((String) args[0]);
+                    return values == null || values.isEmpty() ? null : values.get(0);
+                }
+                case "getHeaders": {
+                    final List<String> values = headers.get((String) args[0]);
+                    return values == null ? new ArrayList<String>() : new ArrayList<>(values);
+                }
+                case "getHeaderNames":
+                    return new ArrayList<>(headers.keySet());
+                case "setContentType":
+                    if (!committed) {
+                        setContentType((String) args[0]);
+                    }
+                    return null;
+                case "getContentType":
+                    return contentType == null ? null
+                           : characterEncoding == null ? contentType
+                           : contentType + ";charset=" + characterEncoding;
+                case "setCharacterEncoding":
+                    if (!committed && writer == null) {
+                        characterEncoding = args[0] instanceof Charset ? ((Charset) args[0]).name()
+                                            : (String) args[0];
+                    }
+                    return null;
+                case "getCharacterEncoding":
+                    return characterEncoding == null ? "ISO-8859-1" : characterEncoding;
+                case "setContentLength":
+                case "setContentLengthLong":
+                    if (!committed) {
+                        headers.put("Content-Length", new ArrayList<>(List.of(String.valueOf(args[0]))));
+                    }
+                    return null;
+                case "getOutputStream":
+                    return stream;
+                case "getWriter":
+                    if (writer == null) {
+                        writer = new PrintWriter(new OutputStreamWriter(
+                                stream, characterEncoding == null ? "ISO-8859-1" : characterEncoding));
+                    }
+                    return writer;
+                case "flushBuffer":
+                    if (writer != null) {
+                        writer.flush();
+                    }
+                    committed = true;
+                    return null;
+                case "isCommitted":
+                    return committed;
+                case "reset":
+                    if (committed) {
+                        throw new IllegalStateException("committed");
+                    }
+                    headers.clear();
+                    status = HttpServletResponse.SC_OK;
+                    contentType = null;
+                    body.reset();
+                    return null;
+                case "resetBuffer":
+                    if (committed) {
+                        throw new IllegalStateException("committed");
+                    }
+                    body.reset();
+                    return null;
+                case "getBufferSize":
+                    return 8192;
+                case "getLocale":
+                    return Locale.getDefault();
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                case "toString":
+                    return "response(" + status + ")";
+                default:
+                    return defaultValue(method.getReturnType());
+            }
+        }
+
+        private void setContentType(final String type) {
+            if (type == null) {
+                contentType = null;
+                return;
+            }
+            final int semicolon = type.indexOf(';');
+            if (semicolon == -1) {
+                contentType = type;
+                return;
+            }
+            contentType = type.substring(0, semicolon).trim();
+            final String rest = type.substring(semicolon + 1).trim();
+            if (rest.toLowerCase(Locale.ENGLISH).startsWith("charset=") && writer == null) {
+                characterEncoding = rest.substring("charset=".length()).trim();
+            }
+        }
+
+        /**
+         * Returns the body written so far.
+         *
+         * @return the body.
+         */
+        public byte[] body() {
+            if (writer != null) {
+                writer.flush();
+            }
+            return body.toByteArray();
+        }
+
+        /**
+         * Returns the body written so far as a string.
+         *
+         * @return the body.
+         */
+        public String text() {
+            return new String(body(), characterEncoding == null ? StandardCharsets.ISO_8859_1
+                                      : Charset.forName(characterEncoding));
+        }
+
+        /**
+         * Returns the first value of specified header.
+         *
+         * @param name the header name.
+         * @return the first value; {@code null} if absent.
+         */
+        public String header(final String name) {
+            final List<String> values = headers.get(name);
+            return values == null || values.isEmpty() ? null : values.get(0);
+        }
+
+        /**
+         * Returns an HTTP response backed by this state.
+         *
+         * @return an HTTP response.
+         */
+        public HttpServletResponse proxy() {
+            if (proxy == null) {
+                proxy = ServletMocks.proxy(HttpServletResponse.class, this);
+            }
+            return proxy;
+        }
+
+        public final Map<String, List<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+        public int status = HttpServletResponse.SC_OK;
+
+        public boolean committed;
+
+        /**
+         * The message of the last {@code sendError(int, String)}; {@code null} if none.
+         */
+        public String message;
+
+        /**
+         * The number of {@code flush()} calls on the output stream.
+         */
+        public int flushes;
+
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+        private final ServletOutputStream stream = new ServletOutputStream() {
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(final WriteListener writeListener) {
+                try {
+                    writeListener.onWritePossible();
+                } catch (final IOException ioe) {
+                    writeListener.onError(ioe);
+                }
+            }
+
+            @Override
+            public void write(final int b) {
+                body.write(b);
+            }
+
+            @Override
+            public void write(final byte[] b, final int off, final int len) {
+                body.write(b, off, len);
+            }
+
+            @Override
+            public void flush() {
+                flushes++;
+                committed = true;
+            }
+        };
+
+        private String contentType;
+
+        private String characterEncoding;
+
+        private PrintWriter writer;
+
+        private HttpServletResponse proxy;
+    }
+
+    /**
+     * The end of a filter chain.
+     */
+    @FunctionalInterface
+    public interface Handler {
+
+        void service(HttpServletRequest request, HttpServletResponse response) throws IOException;
+    }
+
+    /**
+     * Returns a filter chain which counts its invocations and runs specified handler.
+     *
+     * @param counter an array whose first element is incremented on each invocation.
+     * @param handler the handler.
+     * @return a filter chain.
+     */
+    public static FilterChain chain(final int[] counter, final Handler handler) {
+        return (final ServletRequest request, final ServletResponse response) -> {
+            counter[0]++;
+            handler.service((HttpServletRequest) request, (HttpServletResponse) response);
+        };
+    }
+
+    private ServletMocks() {
+        throw new AssertionError("instantiation is not allowed");
+    }
+}
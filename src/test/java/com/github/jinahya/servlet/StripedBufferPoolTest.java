@@ -0,0 +1,52 @@
+package com.github.jinahya.servlet;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A class for unit-testing {@link StripedBufferPool} class.
+ *
+ * @author Jin Kwon &lt;jinahya_at_gmail.com&gt;
+ */
+class StripedBufferPoolTest {
+
+    @Test
+    void acquire_RoundedUpToSizeClass_() {
+        final StripedBufferPool pool = new StripedBufferPool(true, 1024, 8192, 1, 1L << 20);
+        final ByteBuffer buffer = pool.acquire(1025);
+        assertThat(buffer.isDirect()).isTrue();
+        assertThat(buffer.capacity()).isEqualTo(2048);
+        assertThat(buffer.position()).isZero();
+        assertThat(buffer.limit()).isEqualTo(2048);
+        pool.release(buffer);
+    }
+
+    @Test
+    void acquire_Hit_Released() {
+        final StripedBufferPool pool = new StripedBufferPool(false, 1024, 8192, 1, 1L << 20);
+        final ByteBuffer first = pool.acquire(1024);
+        assertThat(pool.getMisses()).isEqualTo(1L);
+        assertThat(pool.getOutstanding()).isEqualTo(1L);
+        first.put((byte) 1);
+        pool.release(first);
+        assertThat(pool.getOutstanding()).isZero();
+        final ByteBuffer second = pool.acquire(1000);
+        assertThat(second).isSameAs(first);
+        assertThat(second.position()).isZero();
+        assertThat(pool.getHits()).isEqualTo(1L);
+        pool.release(second);
+    }
+
+    @Test
+    void acquire_Unpooled_LargerThanMaxCapacity() {
+        final StripedBufferPool pool = new StripedBufferPool(false, 1024, 8192, 1, 1L << 20);
+        final ByteBuffer buffer = pool.acquire(8193);
+        assertThat(buffer.capacity()).isEqualTo(8193);
+        pool.release(buffer);
+        assertThat(pool.acquire(8193)).isNotSameAs(buffer);
+        assertThat(pool.getMisses()).isEqualTo(2L);
+    }
+}
@@ -0,0 +1,137 @@
+package com.github.jinahya.servlet;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * A class for unit-testing {@link TinyLfuCache} class.
+ *
+ * @author Jin Kwon &lt;jinahya_at_gmail.com&gt;
+ */
+class TinyLfuCacheTest {
+
+    @Test
+    void get_FrequentRetained_AfterScan() {
+        final TinyLfuCache<Integer, String> cache = new TinyLfuCache<>(100L, v -> 1L, TimeUnit.MINUTES.toNanos(1L));
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < 50; i++) {
+                if (cache.get(i) == null) {
+                    cache.put(i, "hot" + i);
+                }
+            }
+        }
+        for (int i = 1000; i < 100000; i++) {
+            if (cache.get(i) == null) {
+                cache.put(i, "cold" + i);
+            }
+        }
+        int retained = 0;
+        for (int i = 0; i < 50; i++) {
+            if (cache.get(i) != null) {
+                retained++;
+            }
+        }
+        assertThat(retained).isGreaterThanOrEqualTo(45);
+        assertThat(cache.getWeight()).isLessThanOrEqualTo(cache.getMaximumWeight());
+        assertThat(cache.getEvictions()).isPositive();
+    }
+
+    @Test
+    void put_Ignored_HeavierThanMaximum() {
+        final TinyLfuCache<String, byte[]> cache = new TinyLfuCache<>(100L, v -> v.length, Long.MAX_VALUE);
+        cache.put("a", new byte[10]);
+        cache.put("a", new byte[101]);
+        assertThat(cache.get("a")).isNull();
+        assertThat(cache.getWeight()).isZero();
+    }
+
+    @Test
+    void get_Retained_NoTimeToLive() throws InterruptedException {
+        final TinyLfuCache<String, String> cache = new TinyLfuCache<>(10L, v -> 1L);
+        cache.put("a", "a");
+        cache.put("b", "b", TimeUnit.MILLISECONDS.toNanos(1L));
+        Thread.sleep(10L);
+        assertThat(cache.get("a")).isEqualTo("a");
+        assertThat(cache.get("b")).isNull();
+    }
+
+    @Test
+    void new_IllegalArgumentException_NonPositiveTimeToLive() {
+        assertThatThrownBy(() -> new TinyLfuCache<String, String>(10L, v -> 1L, 0L))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void get_Null_Expired() throws InterruptedException {
+        final TinyLfuCache<String, String> cache = new TinyLfuCache<>(10L, v -> 1L, TimeUnit.MILLISECONDS.toNanos(1L));
+        cache.put("a", "a");
+        Thread.sleep(10L);
+        assertThat(cache.get("a")).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void get_FrequentRetained_WhileFilling() {
+        final TinyLfuCache<Integer, String> cache = new TinyLfuCache<>(1000L, v -> 1L);
+        for (int i = 0; i < 10; i++) {
+            cache.put(i, "hot" + i);
+        }
+        for (int round = 0; round < 15; round++) {
+            for (int i = 0; i < 10; i++) {
+                cache.get(i);
+            }
+        }
+        for (int i = 1000; i < 3000; i++) {
+            if (cache.get(i) == null) {
+                cache.put(i, "cold" + i);
+            }
+        }
+        int retained = 0;
+        for (int i = 0; i < 10; i++) {
+            if (cache.get(i) != null) {
+                retained++;
+            }
+        }
+        assertThat(retained).isEqualTo(10);
+    }
+
+    @Test
+    void get_Consistent_Concurrently() throws Exception {
+        final TinyLfuCache<Integer, Integer> cache = new TinyLfuCache<>(64L, v -> 1L);
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                final int seed = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 20000; i++) {
+                        final int key = (i * 31 + seed) % 256;
+                        final Integer value = cache.get(key);
+                        if (value == null) {
+                            cache.put(key, key);
+                        } else {
+                            assertThat(value).isEqualTo(key);
+                        }
+                    }
+                }));
+            }
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertThat(cache.getWeight()).isLessThanOrEqualTo(cache.getMaximumWeight());
+        assertThat(cache.size()).isLessThanOrEqualTo(64);
+        assertThat(cache.getHits() + cache.getMisses()).isEqualTo(80000L);
+    }
+}
@@ -0,0 +1,70 @@
+package com.github.jinahya.servlet;
+
+import org.junit.jupiter.api.Test;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * A class for unit-testing {@link XMLReaderPool} class.
+ *
+ * @author Jin Kwon &lt;jinahya_at_gmail.com&gt;
+ */
+class XMLReaderPoolTest {
+
+    private static final String EXTERNAL_ENTITY
+            = "<!DOCTYPE r [<!ENTITY x SYSTEM 'file:///etc/passwd'>]><r>[&x;]</r>";
+
+    @Test
+    void parse_Rejected_Doctype() throws SAXException {
+        try (XMLReaderPool pool = new XMLReaderPool()) {
+            final XMLReader reader = pool.acquire();
+            reader.setErrorHandler(new DefaultHandler() {
+                @Override
+                public void fatalError(final SAXParseException e) throws SAXException {
+                    throw e;
+                }
+            });
+            assertThatThrownBy(() -> reader.parse(new InputSource(new StringReader(EXTERNAL_ENTITY))))
+                    .isInstanceOf(SAXException.class);
+            pool.release(reader);
+        }
+    }
+
+    @Test
+    void parse_EmptyExternalEntity_DoctypeAllowed() throws SAXException, IOException {
+        try (XMLReaderPool pool = new XMLReaderPool(1, true)) {
+            final XMLReader reader = pool.acquire();
+            final StringBuilder characters = new StringBuilder();
+            reader.setContentHandler(new DefaultHandler() {
+                @Override
+                public void characters(final char[] ch, final int start, final int length) {
+                    characters.append(ch, start, length);
+                }
+            });
+            reader.parse(new InputSource(new StringReader(EXTERNAL_ENTITY)));
+            assertThat(characters.toString()).isEqualTo("[]");
+            pool.release(reader);
+        }
+    }
+
+    @Test
+    void acquire_Reused_Released() throws SAXException, IOException {
+        try (XMLReaderPool pool = new XMLReaderPool()) {
+            final XMLReader reader = pool.acquire();
+            pool.release(reader);
+            assertThat(pool.acquire()).isSameAs(reader);
+            assertThat(pool.getHits()).isEqualTo(1L);
+            assertThat(pool.getMisses()).isEqualTo(1L);
+            reader.parse(new InputSource(new StringReader("<r/>")));
+        }
+    }
+}
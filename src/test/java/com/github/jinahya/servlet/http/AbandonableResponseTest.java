@@ -0,0 +1,54 @@
+package com.github.jinahya.servlet.http;
+
+import com.github.jinahya.servlet.ServletMocks;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * A class for unit-testing {@link AbandonableResponse} class.
+ *
+ * @author Jin Kwon &lt;jinahya_at_gmail.com&gt;
+ */
+class AbandonableResponseTest {
+
+    @Test
+    void setHeader_Ignored_Abandoned() {
+        final ServletMocks.Response response = new ServletMocks.Response();
+        final AbandonableResponse wrapper = new AbandonableResponse(response.proxy());
+        wrapper.setHeader("X-A", "a");
+        wrapper.abandon();
+        wrapper.setHeader("X-A", "b");
+        wrapper.addHeader("X-B", "b");
+        wrapper.setIntHeader("X-C", 1);
+        wrapper.addIntHeader("X-C", 2);
+        wrapper.setDateHeader("X-D", 0L);
+        wrapper.addDateHeader("X-D", 1L);
+        wrapper.reset();
+        assertThat(response.header("X-A")).isEqualTo("a");
+        assertThat(response.header("X-B")).isNull();
+        assertThat(response.header("X-C")).isNull();
+        assertThat(response.header("X-D")).isNull();
+    }
+
+    @Test
+    void getWriter_DeadlineExceeded_Abandoned() throws IOException {
+        final ServletMocks.Response response = new ServletMocks.Response();
+        final AbandonableResponse wrapper = new AbandonableResponse(response.proxy());
+        final PrintWriter writer = wrapper.getWriter();
+        writer.write("a");
+        writer.flush();
+        wrapper.abandon();
+        writer.write("b");
+        writer.flush();
+        assertThat(writer.checkError()).isTrue();
+        assertThat(Thread.interrupted()).isTrue();
+        assertThat(response.text()).isEqualTo("a");
+        assertThatThrownBy(wrapper::getWriter).isInstanceOf(DeadlineExceededException.class);
+        assertThatThrownBy(() -> wrapper.sendRedirect("/b")).isInstanceOf(DeadlineExceededException.class);
+    }
+}
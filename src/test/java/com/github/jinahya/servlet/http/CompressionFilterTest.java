@@ -0,0 +1,102 @@
+package com.github.jinahya.servlet.http;
+
+import com.github.jinahya.servlet.ServletMocks;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A class for unit-testing {@link CompressionFilter} class.
+ *
+ * @author Jin Kwon &lt;jinahya_at_gmail.com&gt;
+ */
+class CompressionFilterTest {
+
+    private static CompressionFilter filter(final Map<String, String> parameters) throws ServletException {
+        final CompressionFilter filter = new CompressionFilter();
+        filter.init(ServletMocks.filterConfig(new ServletMocks.Context(null).proxy(), parameters));
+        return filter;
+    }
+
+    private static String text(final int length) {
+        final char[] chars = new char[length];
+        Arrays.fill(chars, 'a');
+        return new String(chars);
+    }
+
+    private static ServletMocks.Response filter(final CompressionFilter filter, final String uri,
+                                                final String contentType, final String body, final boolean flush)
+            throws IOException, ServletException {
+        final ServletMocks.Response response = new ServletMocks.Response();
+        final FilterChain chain = ServletMocks.chain(new int[1], (q, r) -> {
+            r.setContentType(contentType);
+            final PrintWriter writer = r.getWriter();
+            writer.print(body);
+            if (flush) {
+                writer.flush();
+                r.flushBuffer();
+            }
+        });
+        filter.doFilter(new ServletMocks.Request("GET", uri).header("Accept-Encoding", "gzip, deflate").proxy(),
+                        response.proxy(), chain);
+        return response;
+    }
+
+    @Test
+    void doFilter_ExactLength_BelowThresholdFlushed() throws IOException, ServletException {
+        final CompressionFilter filter
+                = filter(Collections.singletonMap(CompressionFilter.INIT_PARAM_THRESHOLD, "1024"));
+        final ServletMocks.Response response = filter(filter, "/a", "text/html", text(100), true);
+        assertThat(response.header("Content-Encoding")).isNull();
+        assertThat(response.header("Content-Length")).isEqualTo("100");
+        assertThat(response.text()).isEqualTo(text(100));
+    }
+
+    @Test
+    void doFilter_Gzipped_AboveThreshold() throws IOException, ServletException {
+        final Map<String, String> parameters = new HashMap<>();
+        parameters.put(CompressionFilter.INIT_PARAM_THRESHOLD, "1024");
+        parameters.put("file.suffix.html", "media/type/text/html");
+        final CompressionFilter filter = filter(parameters);
+        final ServletMocks.Response response = filter(filter, "/a.html", "text/html", text(5000), true);
+        assertThat(response.header("Content-Encoding")).isEqualTo("gzip");
+        assertThat(response.header("Content-Length")).isNull();
+        assertThat(response.header("Vary")).isEqualTo("Accept-Encoding");
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(response.body()))) {
+            assertThat(new String(in.readAllBytes(), "ISO-8859-1")).isEqualTo(text(5000));
+        }
+    }
+
+    @Test
+    void doFilter_NotCompressed_IncompressibleType() throws IOException, ServletException {
+        final CompressionFilter filter = filter(Collections.singletonMap(CompressionFilter.INIT_PARAM_THRESHOLD, "16"));
+        final ServletMocks.Response response = filter(filter, "/a", "image/png", text(5000), false);
+        assertThat(response.header("Content-Encoding")).isNull();
+        assertThat(response.header("Vary")).isNull();
+        assertThat(response.text()).isEqualTo(text(5000));
+    }
+
+    @Test
+    void doFilter_NotWrapped_IncompressibleSuffix() throws IOException, ServletException {
+        final CompressionFilter filter = filter(Collections.singletonMap("file.suffix.bin", "media/type/video/webm"));
+        final ServletMocks.Response response = new ServletMocks.Response();
+        final Object[] passed = new Object[1];
+        filter.doFilter(new ServletMocks.Request("GET", "/a.png").header("Accept-Encoding", "gzip").proxy(),
+                        response.proxy(), ServletMocks.chain(new int[1], (q, r) -> passed[0] = r));
+        assertThat(passed[0]).isSameAs(response.proxy());
+        filter.doFilter(new ServletMocks.Request("GET", "/a.bin").header("Accept-Encoding", "gzip").proxy(),
+                        response.proxy(), ServletMocks.chain(new int[1], (q, r) -> passed[0] = r));
+        assertThat(passed[0]).isSameAs(response.proxy());
+    }
+}
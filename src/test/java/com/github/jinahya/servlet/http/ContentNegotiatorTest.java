@@ -0,0 +1,87 @@
+package com.github.jinahya.servlet.http;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A class for unit-testing {@link ContentNegotiator} class.
+ *
+ * @author Jin Kwon &lt;jinahya_at_gmail.com&gt;
+ */
+class ContentNegotiatorTest {
+
+    private static Enumeration<String> accept(final String... values) {
+        return Collections.enumeration(Arrays.asList(values));
+    }
+
+    private static ContentNegotiator negotiator() {
+        return new ContentNegotiator(Arrays.asList("application/json", "application/xml"),
+                                     Collections.singletonList("application/*"));
+    }
+
+    @Test
+    void negotiate_Preferred_NoAccept() {
+        assertThat(negotiator().negotiate(accept())).isEqualTo("application/json");
+        assertThat(negotiator().negotiate(null)).isEqualTo("application/json");
+    }
+
+    @Test
+    void negotiate_HighestQuality_() {
+        assertThat(negotiator().negotiate(accept("application/json;q=0.5, application/xml")))
+                .isEqualTo("application/xml");
+        assertThat(negotiator().negotiate(accept("text/html", "application/*;q=0.8, */*;q=0.1")))
+                .isEqualTo("application/json");
+    }
+
+    @Test
+    void negotiate_MostSpecific_() {
+        assertThat(negotiator().negotiate(accept("application/*, application/json;q=0")))
+                .isEqualTo("application/xml");
+    }
+
+    @Test
+    void negotiate_Null_NotAcceptable() {
+        assertThat(negotiator().negotiate(accept("text/html, text/*;q=0.5"))).isNull();
+    }
+
+    @Test
+    void quality_() {
+        assertThat(ContentNegotiator.quality(" charset=UTF-8")).isEqualTo(1.0f);
+        assertThat(ContentNegotiator.quality(" level=1; Q=0.3")).isEqualTo(0.3f);
+        assertThat(ContentNegotiator.quality("q=x")).isEqualTo(0.0f);
+    }
+
+    @Test
+    void negotiateToken_HighestQuality_() {
+        assertThat(ContentNegotiator.negotiateToken(accept("gzip;q=0.5, DEFLATE"), "gzip", "deflate"))
+                .isEqualTo("deflate");
+        assertThat(ContentNegotiator.negotiateToken(accept("br", "*;q=0.2, gzip;q=0"), "gzip", "deflate"))
+                .isEqualTo("deflate");
+    }
+
+    @Test
+    void negotiateToken_Preferred_Tie() {
+        assertThat(ContentNegotiator.negotiateToken(accept("deflate, gzip"), "gzip", "deflate")).isEqualTo("gzip");
+        assertThat(ContentNegotiator.negotiateToken(accept("*"), "gzip", "deflate")).isEqualTo("gzip");
+    }
+
+    @Test
+    void negotiateToken_Null_NotAcceptable() {
+        assertThat(ContentNegotiator.negotiateToken(null, "gzip")).isNull();
+        assertThat(ContentNegotiator.negotiateToken(accept(), "gzip")).isNull();
+        assertThat(ContentNegotiator.negotiateToken(accept("br, gzip;q=0"), "gzip", "deflate")).isNull();
+        assertThat(ContentNegotiator.negotiateToken(accept("gzip;q=0, *"), "gzip")).isNull();
+    }
+
+    @Test
+    void isConsumed_() {
+        assertThat(negotiator().isConsumed("application/json; charset=UTF-8")).isTrue();
+        assertThat(negotiator().isConsumed("text/plain")).isFalse();
+        assertThat(negotiator().isConsumed(null)).isFalse();
+    }
+}
@@ -0,0 +1,146 @@
+package com.github.jinahya.servlet.http;
+
+import com.github.jinahya.servlet.ServletMocks;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * A class for unit-testing {@link ETagFilter} class.
+ *
+ * @author Jin Kwon &lt;jinahya_at_gmail.com&gt;
+ */
+class ETagFilterTest {
+
+    private static final byte[] BODY = "hello, world".getBytes(StandardCharsets.US_ASCII);
+
+    private static ETagFilter filter() throws ServletException {
+        return filter(Map.of());
+    }
+
+    private static ETagFilter filter(final Map<String, String> parameters) throws ServletException {
+        final ETagFilter filter = new ETagFilter();
+        filter.init(ServletMocks.filterConfig(new ServletMocks.Context(null).proxy(), parameters));
+        return filter;
+    }
+
+    private static FilterChain chain(final int[] counter, final int status) {
+        return ServletMocks.chain(counter, (request, response) -> {
+            response.setStatus(status);
+            response.setContentType("text/plain");
+            response.getOutputStream().write(BODY);
+        });
+    }
+
+    @Test
+    void matches_True_StrongWeakStarAndLists() {
+        assertThat(ETagFilter.matches(Collections.enumeration(Arrays.asList("\"abc\"")), "\"abc\"")).isTrue();
+        assertThat(ETagFilter.matches(Collections.enumeration(Arrays.asList("W/\"abc\"")), "\"abc\"")).isTrue();
+        assertThat(ETagFilter.matches(Collections.enumeration(Arrays.asList("*")), "\"abc\"")).isTrue();
+        assertThat(ETagFilter.matches(Collections.enumeration(Arrays.asList("\"x\", W/\"abc\" ,\"y\"")), "\"abc\""))
+                .isTrue();
+        assertThat(ETagFilter.matches(Collections.enumeration(Arrays.asList("\"x\"", "\"abc\"")), "\"abc\""))
+                .isTrue();
+    }
+
+    @Test
+    void matches_False_NoneMatched() {
+        assertThat(ETagFilter.matches(null, "\"abc\"")).isFalse();
+        assertThat(ETagFilter.matches(Collections.enumeration(Arrays.asList("\"abd\"", "W/\"ab\"")), "\"abc\""))
+                .isFalse();
+        assertThat(ETagFilter.matches(Collections.enumeration(Arrays.asList("abc")), "\"abc\"")).isFalse();
+    }
+
+    @Test
+    void doFilter_NotModified_MatchingIfNoneMatch() throws IOException, ServletException {
+        final ETagFilter filter = filter();
+        final int[] counter = new int[1];
+        final ServletMocks.Response first = new ServletMocks.Response();
+        filter.doFilter(new ServletMocks.Request("GET", "/a").proxy(), first.proxy(), chain(counter, 200));
+        assertThat(first.status).isEqualTo(HttpServletResponse.SC_OK);
+        assertThat(first.body()).isEqualTo(BODY);
+        assertThat(first.header("Content-Length")).isEqualTo(String.valueOf(BODY.length));
+        final String etag = first.header("ETag");
+        assertThat(etag).startsWith("\"").endsWith("\"");
+
+        final ServletMocks.Response second = new ServletMocks.Response();
+        filter.doFilter(new ServletMocks.Request("GET", "/a").header("If-None-Match", "\"x\", W/" + etag).proxy(),
+                        second.proxy(), chain(counter, 200));
+        assertThat(second.status).isEqualTo(HttpServletResponse.SC_NOT_MODIFIED);
+        assertThat(second.header("ETag")).isEqualTo(etag);
+        assertThat(second.body()).isEmpty();
+
+        final ServletMocks.Response third = new ServletMocks.Response();
+        filter.doFilter(new ServletMocks.Request("GET", "/a").header("If-None-Match", "\"other\"").proxy(),
+                        third.proxy(), chain(counter, 200));
+        assertThat(third.status).isEqualTo(HttpServletResponse.SC_OK);
+        assertThat(third.body()).isEqualTo(BODY);
+        assertThat(counter[0]).isEqualTo(3);
+    }
+
+    @Test
+    void doFilter_PassedAsIs_NotOkOrNotGet() throws IOException, ServletException {
+        final ETagFilter filter = filter();
+        final int[] counter = new int[1];
+        final ServletMocks.Response notFound = new ServletMocks.Response();
+        filter.doFilter(new ServletMocks.Request("GET", "/a").header("If-None-Match", "*").proxy(),
+                        notFound.proxy(), chain(counter, 404));
+        assertThat(notFound.status).isEqualTo(404);
+        assertThat(notFound.header("ETag")).isNull();
+        assertThat(notFound.body()).isEqualTo(BODY);
+
+        final ServletMocks.Response post = new ServletMocks.Response();
+        filter.doFilter(new ServletMocks.Request("POST", "/a").header("If-None-Match", "*").proxy(),
+                        post.proxy(), chain(counter, 200));
+        assertThat(post.status).isEqualTo(200);
+        assertThat(post.header("ETag")).isNull();
+        assertThat(post.body()).isEqualTo(BODY);
+    }
+
+    @Test
+    void doFilter_Streamed_LongerThanPrefix() throws IOException, ServletException {
+        final ETagFilter filter = filter(Map.of(HttpFilter.INIT_PARAM_PREFIX_SIZE, "4"));
+        final int[] counter = new int[1];
+        final ServletMocks.Response response = new ServletMocks.Response();
+        filter.doFilter(new ServletMocks.Request("GET", "/a").header("If-None-Match", "*").proxy(),
+                        response.proxy(), chain(counter, 200));
+        assertThat(response.status).isEqualTo(HttpServletResponse.SC_OK);
+        assertThat(response.header("ETag")).isNull();
+        assertThat(response.header("Content-Length")).isNull();
+        assertThat(response.body()).isEqualTo(BODY);
+    }
+
+    @Test
+    void doFilter_Tagged_FitsInPrefix() throws IOException, ServletException {
+        final ETagFilter filter = filter(Map.of(HttpFilter.INIT_PARAM_PREFIX_SIZE, "1024"));
+        final int[] counter = new int[1];
+        final ServletMocks.Response first = new ServletMocks.Response();
+        filter.doFilter(new ServletMocks.Request("GET", "/a").proxy(), first.proxy(), chain(counter, 200));
+        assertThat(first.header("ETag")).isNotNull();
+        assertThat(first.header("Content-Length")).isEqualTo(String.valueOf(BODY.length));
+        assertThat(first.body()).isEqualTo(BODY);
+
+        final ServletMocks.Response second = new ServletMocks.Response();
+        filter.doFilter(new ServletMocks.Request("GET", "/a").header("If-None-Match", first.header("ETag")).proxy(),
+                        second.proxy(), chain(counter, 200));
+        assertThat(second.status).isEqualTo(HttpServletResponse.SC_NOT_MODIFIED);
+        assertThat(second.body()).isEmpty();
+    }
+
+    @Test
+    void init_ServletException_NegativePrefixSize() {
+        assertThatThrownBy(() -> filter(Map.of(HttpFilter.INIT_PARAM_PREFIX_SIZE, "-1")))
+                .isInstanceOf(ServletException.class)
+                .hasMessageContaining(HttpFilter.INIT_PARAM_PREFIX_SIZE);
+    }
+}
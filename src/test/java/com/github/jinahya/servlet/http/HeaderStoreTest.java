@@ -0,0 +1,68 @@
+package com.github.jinahya.servlet.http;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * A class for unit-testing {@link HeaderStore} class.
+ *
+ * @author Jin Kwon &lt;jinahya_at_gmail.com&gt;
+ */
+class HeaderStoreTest {
+
+    @Test
+    void slot_Slot_WellKnownInAnyCase() {
+        assertThat(HeaderStore.slot("Accept")).isEqualTo(HeaderStore.ACCEPT);
+        assertThat(HeaderStore.slot("ACCEPT")).isEqualTo(HeaderStore.ACCEPT);
+        assertThat(HeaderStore.slot("user-agent")).isEqualTo(HeaderStore.USER_AGENT);
+        assertThat(HeaderStore.name(HeaderStore.IF_NONE_MATCH)).isEqualTo("If-None-Match");
+        assertThat(HeaderStore.slot("X-Custom")).isEqualTo(-1);
+    }
+
+    @Test
+    void get_Same_IgnoringCase() {
+        final HeaderStore<String> store = new HeaderStore<>();
+        assertThat(store.put("accept", "a")).isNull();
+        assertThat(store.put("X-Custom", "b")).isNull();
+        assertThat(store.get("Accept")).isEqualTo("a");
+        assertThat(store.get(HeaderStore.ACCEPT)).isEqualTo("a");
+        assertThat(store.get("x-custom")).isEqualTo("b");
+        assertThat(store.get("X-Other")).isNull();
+        assertThat(store.put("X-CUSTOM", "c")).isEqualTo("b");
+        assertThat(store.size()).isEqualTo(2);
+    }
+
+    @Test
+    void put_Grows_ManyCustomHeaders() {
+        final HeaderStore<Integer> store = new HeaderStore<>();
+        for (int i = 0; i < 100; i++) {
+            store.put("X-Header-" + i, i);
+        }
+        assertThat(store.size()).isEqualTo(100);
+        for (int i = 0; i < 100; i++) {
+            assertThat(store.get("x-header-" + i)).isEqualTo(i);
+        }
+    }
+
+    @Test
+    void forEach_CanonicalAndFirstPutNames_() {
+        final HeaderStore<String> store = new HeaderStore<>();
+        store.put("X-Custom", "b");
+        store.put("x-custom", "c");
+        store.put("HOST", "a");
+        final Map<String, String> map = new LinkedHashMap<>();
+        store.forEach(map::put);
+        assertThat(map).containsExactly(Map.entry("Host", "a"), Map.entry("X-Custom", "c"));
+    }
+
+    @Test
+    void put_NullPointerException_NullValue() {
+        assertThatThrownBy(() -> new HeaderStore<String>().put("Accept", null))
+                .isInstanceOf(NullPointerException.class);
+    }
+}
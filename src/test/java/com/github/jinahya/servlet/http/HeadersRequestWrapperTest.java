@@ -0,0 +1,80 @@
+package com.github.jinahya.servlet.http;
+
+import com.github.jinahya.servlet.ServletMocks;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A class for unit-testing {@link HeadersRequestWrapper} class.
+ *
+ * @author Jin Kwon &lt;jinahya_at_gmail.com&gt;
+ */
+class HeadersRequestWrapperTest {
+
+    private static ServletMocks.Request request() {
+        return new ServletMocks.Request("POST", "/a")
+                .header("Accept", "text/html")
+                .header("Content-Type", "text/plain")
+                .header("X-Custom", "requested");
+    }
+
+    private static List<String> names(final HttpServletRequest request) {
+        return Collections.list(request.getHeaderNames());
+    }
+
+    @Test
+    void getHeader_Preceding_() {
+        final HttpServletRequest wrapper = HeadersRequestWrapper.newPrecedingInstance(
+                request().proxy(), "accept", "application/json");
+        assertThat(wrapper.getHeader("Accept")).isEqualTo("application/json");
+        final Enumeration<String> values = wrapper.getHeaders("ACCEPT");
+        assertThat(Collections.list(values)).containsExactly("application/json", "text/html");
+    }
+
+    @Test
+    void getHeader_Requested_Succeeding() {
+        final HttpServletRequest wrapper = HeadersRequestWrapper.newSucceedingInstance(
+                request().proxy(), "x-custom", "succeeding");
+        assertThat(wrapper.getHeader("X-Custom")).isEqualTo("requested");
+        assertThat(Collections.list(wrapper.getHeaders("X-CUSTOM"))).containsExactly("requested", "succeeding");
+    }
+
+    @Test
+    void getHeaderNames_Merged_CaseInsensitively() {
+        final Map<String, List<String>> headers = new HashMap<>();
+        headers.put("ACCEPT", Collections.singletonList("application/json"));
+        headers.put("x-custom", Collections.singletonList("preceding"));
+        headers.put("Accept-Encoding", Collections.singletonList("gzip"));
+        headers.put("X-Other", Collections.singletonList("preceding"));
+        final HttpServletRequest wrapper = HeadersRequestWrapper.newPrecedingInstance(request().proxy(), headers);
+        assertThat(names(wrapper)).containsExactlyInAnyOrder(
+                "Accept", "Content-Type", "X-Custom", "Accept-Encoding", "X-Other");
+    }
+
+    @Test
+    void getContentType_Additional_() {
+        final HttpServletRequest wrapper = HeadersRequestWrapper.newPrecedingInstance(
+                request().proxy(), "content-type", "application/json");
+        assertThat(wrapper.getContentType()).isEqualTo("application/json");
+        assertThat(HeadersRequestWrapper.newSucceedingInstance(request().proxy(), "Content-Type", "application/json")
+                           .getContentType()).isEqualTo("text/plain");
+    }
+
+    @Test
+    void getContentLength_Additional_() {
+        final HttpServletRequest wrapper = HeadersRequestWrapper.newPrecedingInstance(
+                request().proxy(), "Content-Length", "12");
+        assertThat(wrapper.getContentLength()).isEqualTo(12);
+        assertThat(wrapper.getContentLengthLong()).isEqualTo(12L);
+        assertThat(HeadersRequestWrapper.newPrecedingInstance(request().proxy(), "Content-Length", "x")
+                           .getContentLengthLong()).isEqualTo(-1L);
+    }
+}
@@ -0,0 +1,85 @@
+package com.github.jinahya.servlet.http;
+
+import com.github.jinahya.servlet.ServletMocks;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A class for unit-testing {@link NegotiationFilter} class.
+ *
+ * @author Jin Kwon &lt;jinahya_at_gmail.com&gt;
+ */
+class NegotiationFilterTest {
+
+    private static NegotiationFilter filter() throws ServletException {
+        final Map<String, String> parameters = new HashMap<>();
+        parameters.put(NegotiationFilter.INIT_PARAM_PRODUCES, "application/json, application/xml");
+        parameters.put(NegotiationFilter.INIT_PARAM_CONSUMES, "application/*");
+        final NegotiationFilter filter = new NegotiationFilter();
+        filter.init(ServletMocks.filterConfig(new ServletMocks.Context(null).proxy(), parameters));
+        return filter;
+    }
+
+    private static ServletMocks.Response filter(final ServletMocks.Request request, final int[] counter)
+            throws IOException, ServletException {
+        final ServletMocks.Response response = new ServletMocks.Response();
+        filter().doFilter(request.proxy(), response.proxy(), ServletMocks.chain(counter, (q, r) -> {
+        }));
+        return response;
+    }
+
+    @Test
+    void doFilter_UnsupportedMediaType_Body() throws IOException, ServletException {
+        final int[] counter = new int[1];
+        final ServletMocks.Response response = filter(
+                new ServletMocks.Request("POST", "/a")
+                        .header("Content-Type", "text/plain; <script>")
+                        .header("Content-Length", "1"), counter);
+        assertThat(counter[0]).isZero();
+        assertThat(response.status).isEqualTo(415);
+        assertThat(response.message).isEqualTo("unsupported media type");
+        final ServletMocks.Response chunked = filter(
+                new ServletMocks.Request("POST", "/a")
+                        .header("Transfer-Encoding", "chunked"), counter);
+        assertThat(counter[0]).isZero();
+        assertThat(chunked.status).isEqualTo(415);
+    }
+
+    @Test
+    void doFilter_NotAcceptable_() throws IOException, ServletException {
+        final int[] counter = new int[1];
+        final ServletMocks.Response response = filter(
+                new ServletMocks.Request("GET", "/a").header("Accept", "text/html, text/*;q=0.5"), counter);
+        assertThat(counter[0]).isZero();
+        assertThat(response.status).isEqualTo(406);
+    }
+
+    @Test
+    void doFilter_Chained_Negotiated() throws IOException, ServletException {
+        final int[] counter = new int[1];
+        final ServletMocks.Request request = new ServletMocks.Request("POST", "/a")
+                .header("Content-Type", "application/json")
+                .header("Content-Length", "2")
+                .header("Accept", "application/json;q=0.5, application/xml");
+        final ServletMocks.Response response = filter(request, counter);
+        assertThat(counter[0]).isEqualTo(1);
+        assertThat(response.status).isEqualTo(200);
+        assertThat(request.attributes.get(NegotiationFilter.ATTRIBUTE_MEDIA_TYPE)).isEqualTo("application/xml");
+    }
+
+    @Test
+    void doFilter_Chained_NoBodyNoAccept() throws IOException, ServletException {
+        final int[] counter = new int[1];
+        final ServletMocks.Request request = new ServletMocks.Request("GET", "/a");
+        final ServletMocks.Response response = filter(request, counter);
+        assertThat(counter[0]).isEqualTo(1);
+        assertThat(response.status).isEqualTo(200);
+        assertThat(request.attributes.get(NegotiationFilter.ATTRIBUTE_MEDIA_TYPE)).isEqualTo("application/json");
+    }
+}
@@ -0,0 +1,197 @@
+package com.github.jinahya.servlet.http;
+
+import com.github.jinahya.servlet.ServletMocks;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A class for unit-testing {@link ResponseCacheFilter} class.
+ *
+ * @author Jin Kwon &lt;jinahya_at_gmail.com&gt;
+ */
+class ResponseCacheFilterTest {
+
+    private static ResponseCacheFilter filter(final Map<String, String> parameters) throws ServletException {
+        final ResponseCacheFilter filter = new ResponseCacheFilter();
+        filter.init(ServletMocks.filterConfig(new ServletMocks.Context(null).proxy(), parameters));
+        return filter;
+    }
+
+    private static FilterChain chain(final int[] counter, final Consumer<HttpServletResponse> headers) {
+        return ServletMocks.chain(counter, (request, response) -> {
+            response.setContentType("text/plain");
+            headers.accept(response);
+            response.getOutputStream().write(("body " + counter[0]).getBytes(StandardCharsets.US_ASCII));
+        });
+    }
+
+    private static ServletMocks.Response get(final ResponseCacheFilter filter, final ServletMocks.Request request,
+                                             final FilterChain chain)
+            throws IOException, ServletException {
+        final ServletMocks.Response response = new ServletMocks.Response();
+        filter.doFilter(request.proxy(), response.proxy(), chain);
+        return response;
+    }
+
+    @Test
+    void doFilter_Hit_SameKey() throws IOException, ServletException {
+        final ResponseCacheFilter filter = filter(Map.of());
+        final int[] counter = new int[1];
+        final FilterChain chain = chain(counter, r -> r.setHeader("Cache-Control", "max-age=60"));
+        final ServletMocks.Response first = get(filter, new ServletMocks.Request("GET", "/a"), chain);
+        final ServletMocks.Response second = get(filter, new ServletMocks.Request("GET", "/a"), chain);
+        assertThat(counter[0]).isEqualTo(1);
+        assertThat(second.text()).isEqualTo(first.text()).isEqualTo("body 1");
+        assertThat(second.header("Cache-Control")).isEqualTo("max-age=60");
+        assertThat(second.proxy().getContentType()).isEqualTo("text/plain");
+    }
+
+    @Test
+    void doFilter_Miss_DifferentUriOrKeyHeader() throws IOException, ServletException {
+        final ResponseCacheFilter filter = filter(Map.of());
+        final int[] counter = new int[1];
+        final FilterChain chain = chain(counter, r -> { });
+        get(filter, new ServletMocks.Request("GET", "/a").header("Accept", "text/html"), chain);
+        get(filter, new ServletMocks.Request("GET", "/b").header("Accept", "text/html"), chain);
+        get(filter, new ServletMocks.Request("GET", "/a").header("Accept", "text/plain"), chain);
+        assertThat(counter[0]).isEqualTo(3);
+        get(filter, new ServletMocks.Request("GET", "/a").header("Accept", "text/html"), chain);
+        assertThat(counter[0]).isEqualTo(3);
+    }
+
+    @Test
+    void doFilter_NotStored_SetCookieOrPrivate() throws IOException, ServletException {
+        final ResponseCacheFilter filter = filter(Map.of());
+        final int[] counter = new int[1];
+        final FilterChain cookie = chain(counter, r -> r.addHeader("Set-Cookie", "a=b"));
+        get(filter, new ServletMocks.Request("GET", "/a"), cookie);
+        get(filter, new ServletMocks.Request("GET", "/a"), cookie);
+        assertThat(counter[0]).isEqualTo(2);
+        final FilterChain personal = chain(counter, r -> r.setHeader("Cache-Control", "private, max-age=60"));
+        get(filter, new ServletMocks.Request("GET", "/b"), personal);
+        get(filter, new ServletMocks.Request("GET", "/b"), personal);
+        assertThat(counter[0]).isEqualTo(4);
+        final FilterChain named = chain(counter, r -> r.setHeader("Cache-Control", "private=\"X-User\""));
+        get(filter, new ServletMocks.Request("GET", "/c"), named);
+        get(filter, new ServletMocks.Request("GET", "/c"), named);
+        assertThat(counter[0]).isEqualTo(6);
+    }
+
+    @Test
+    void doFilter_Bypassed_AuthorizationUnlessPublic() throws IOException, ServletException {
+        final ResponseCacheFilter filter = filter(Map.of());
+        final int[] counter = new int[1];
+        final FilterChain chain = chain(counter, r -> r.setHeader("Cache-Control", "max-age=60"));
+        get(filter, new ServletMocks.Request("GET", "/a").header("Authorization", "Bearer alice"), chain);
+        final ServletMocks.Response anonymous = get(filter, new ServletMocks.Request("GET", "/a"), chain);
+        assertThat(counter[0]).isEqualTo(2);
+        assertThat(anonymous.text()).isEqualTo("body 2");
+        // an entry stored for an anonymous request is not served for an authorized one
+        get(filter, new ServletMocks.Request("GET", "/a").header("Authorization", "Bearer bob"), chain);
+        assertThat(counter[0]).isEqualTo(3);
+
+        final FilterChain shared = chain(counter, r -> r.setHeader("Cache-Control", "public, max-age=60"));
+        get(filter, new ServletMocks.Request("GET", "/b").header("Authorization", "Bearer alice"), shared);
+        final ServletMocks.Response bob
+                = get(filter, new ServletMocks.Request("GET", "/b").header("Authorization", "Bearer bob"), shared);
+        assertThat(counter[0]).isEqualTo(4);
+        assertThat(bob.text()).isEqualTo("body 4");
+    }
+
+    @Test
+    void doFilter_Bypassed_CookieUnlessKeyed() throws IOException, ServletException {
+        final int[] counter = new int[1];
+        final FilterChain chain = chain(counter, r -> r.setHeader("Cache-Control", "max-age=60"));
+        final ResponseCacheFilter filter = filter(Map.of());
+        get(filter, new ServletMocks.Request("GET", "/a").header("Cookie", "s=1"), chain);
+        get(filter, new ServletMocks.Request("GET", "/a").header("Cookie", "s=1"), chain);
+        assertThat(counter[0]).isEqualTo(2);
+
+        final ResponseCacheFilter keyed
+                = filter(Map.of(ResponseCacheFilter.INIT_PARAM_KEY_HEADERS, "Accept, Cookie"));
+        get(keyed, new ServletMocks.Request("GET", "/a").header("Cookie", "s=1"), chain);
+        get(keyed, new ServletMocks.Request("GET", "/a").header("Cookie", "s=1"), chain);
+        assertThat(counter[0]).isEqualTo(3);
+        final ServletMocks.Response other
+                = get(keyed, new ServletMocks.Request("GET", "/a").header("Cookie", "s=2"), chain);
+        assertThat(counter[0]).isEqualTo(4);
+        assertThat(other.text()).isEqualTo("body 4");
+    }
+
+    @Test
+    void doFilter_PassedThrough_Destroyed() throws IOException, ServletException {
+        final ResponseCacheFilter filter = filter(Map.of());
+        final int[] counter = new int[1];
+        filter.destroy();
+        final ServletMocks.Response response
+                = get(filter, new ServletMocks.Request("GET", "/a"), chain(counter, r -> { }));
+        assertThat(counter[0]).isEqualTo(1);
+        assertThat(response.text()).isEqualTo("body 1");
+    }
+
+    @Test
+    void doFilter_NotStored_LongerThanPrefix() throws IOException, ServletException {
+        final ResponseCacheFilter filter = filter(Map.of(HttpFilter.INIT_PARAM_PREFIX_SIZE, "4"));
+        final int[] counter = new int[1];
+        final FilterChain chain = chain(counter, r -> r.setHeader("Cache-Control", "max-age=60"));
+        final ServletMocks.Response first = get(filter, new ServletMocks.Request("GET", "/a"), chain);
+        final ServletMocks.Response second = get(filter, new ServletMocks.Request("GET", "/a"), chain);
+        assertThat(counter[0]).isEqualTo(2);
+        assertThat(first.text()).isEqualTo("body 1");
+        assertThat(second.text()).isEqualTo("body 2");
+        assertThat(second.header("Content-Length")).isNull();
+    }
+
+    @Test
+    void doFilter_NotStored_VariedByNonKeyHeader() throws IOException, ServletException {
+        final ResponseCacheFilter filter = filter(Map.of());
+        final int[] counter = new int[1];
+        final FilterChain any = chain(counter, r -> {
+            r.setHeader("Cache-Control", "max-age=60");
+            r.setHeader("Vary", "*");
+        });
+        get(filter, new ServletMocks.Request("GET", "/a"), any);
+        get(filter, new ServletMocks.Request("GET", "/a"), any);
+        assertThat(counter[0]).isEqualTo(2);
+        final FilterChain keyed = chain(counter, r -> {
+            r.setHeader("Cache-Control", "max-age=60");
+            r.setHeader("Vary", "accept");
+        });
+        get(filter, new ServletMocks.Request("GET", "/b"), keyed);
+        get(filter, new ServletMocks.Request("GET", "/b"), keyed);
+        assertThat(counter[0]).isEqualTo(3);
+    }
+
+    @Test
+    void doFilter_NotStored_CompressedDownstream() throws IOException, ServletException {
+        final ResponseCacheFilter filter = filter(Map.of());
+        final Map<String, String> parameters = new HashMap<>();
+        parameters.put(CompressionFilter.INIT_PARAM_THRESHOLD, "16");
+        final CompressionFilter compression = new CompressionFilter();
+        compression.init(ServletMocks.filterConfig(new ServletMocks.Context(null).proxy(), parameters));
+        final int[] counter = new int[1];
+        final FilterChain chain = (request, response) -> compression.doFilter(
+                request, response, ServletMocks.chain(counter, (q, r) -> {
+                    r.setContentType("text/plain");
+                    r.setHeader("Cache-Control", "max-age=60");
+                    r.getOutputStream().write(new byte[1024]);
+                }));
+        final ServletMocks.Response gzipped = get(
+                filter, new ServletMocks.Request("GET", "/a").header("Accept-Encoding", "gzip"), chain);
+        assertThat(gzipped.header("Content-Encoding")).isEqualTo("gzip");
+        final ServletMocks.Response identity = get(filter, new ServletMocks.Request("GET", "/a"), chain);
+        assertThat(counter[0]).isEqualTo(2);
+        assertThat(identity.header("Content-Encoding")).isNull();
+        assertThat(identity.body()).isEqualTo(new byte[1024]);
+    }
+}
@@ -0,0 +1,109 @@
+package com.github.jinahya.servlet.http;
+
+import com.github.jinahya.servlet.ServletMocks;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A class for unit-testing {@link SuffixToTypeDispatcher} class.
+ *
+ * @author Jin Kwon &lt;jinahya_at_gmail.com&gt;
+ */
+class SuffixToTypeDispatcherTest {
+
+    private static SuffixToTypeDispatcher filter(final String routeCacheSize) throws ServletException {
+        final Map<String, String> parameters = new HashMap<>();
+        parameters.put("file.suffix.json", "media/type/application/json");
+        parameters.put("file.suffix.xml", "media/type/application/xml");
+        if (routeCacheSize != null) {
+            parameters.put(SuffixToTypeDispatcher.INIT_PARAM_ROUTE_CACHE_SIZE, routeCacheSize);
+        }
+        final SuffixToTypeDispatcher filter = new SuffixToTypeDispatcher();
+        filter.init(ServletMocks.filterConfig(new ServletMocks.Context(null).proxy(), parameters));
+        return filter;
+    }
+
+    private static ServletMocks.Request dispatch(final SuffixToTypeDispatcher filter, final String requestUri,
+                                                 final int[] counter)
+            throws IOException, ServletException {
+        final ServletMocks.Request request = new ServletMocks.Request("GET", requestUri)
+                .header("Accept", "text/html");
+        filter.doFilter(request.proxy(), new ServletMocks.Response().proxy(),
+                        ServletMocks.chain(counter, (q, r) -> {
+                        }));
+        return request;
+    }
+
+    @Test
+    void doFilter_Forwarded_TypeSuffix() throws IOException, ServletException {
+        final int[] counter = new int[1];
+        final ServletMocks.Request request = dispatch(filter(null), "/a/report.json", counter);
+        assertThat(counter[0]).isEqualTo(0);
+        assertThat(request.forwardedPath).isEqualTo("/a/report");
+        final HttpServletRequest forwarded = (HttpServletRequest) request.forwardedRequest;
+        assertThat(forwarded.getHeader("Accept")).isEqualTo("application/json");
+        assertThat(forwarded.getHeader("Accept-Encoding")).isNull();
+    }
+
+    @Test
+    void doFilter_Forwarded_CompoundSuffix() throws IOException, ServletException {
+        final int[] counter = new int[1];
+        final ServletMocks.Request request = dispatch(filter(null), "/a/report.xml.gz", counter);
+        assertThat(counter[0]).isEqualTo(0);
+        assertThat(request.forwardedPath).isEqualTo("/a/report");
+        final HttpServletRequest forwarded = (HttpServletRequest) request.forwardedRequest;
+        assertThat(forwarded.getHeader("Accept")).isEqualTo("application/xml");
+        assertThat(forwarded.getHeader("Accept-Encoding")).isEqualTo("gzip");
+    }
+
+    @Test
+    void doFilter_Forwarded_DottedName() throws IOException, ServletException {
+        final int[] counter = new int[1];
+        final ServletMocks.Request request = dispatch(filter(null), "/a/report.2013.json", counter);
+        assertThat(request.forwardedPath).isEqualTo("/a/report.2013");
+        assertThat(((HttpServletRequest) request.forwardedRequest).getHeader("Accept"))
+                .isEqualTo("application/json");
+    }
+
+    @Test
+    void doFilter_Chained_Unmapped() throws IOException, ServletException {
+        final SuffixToTypeDispatcher filter = filter(null);
+        final int[] counter = new int[1];
+        for (final String requestUri
+                : new String[] {"/a/report", "/a/report.txt", "/a/.json", "/a/json", "report.json"}) {
+            assertThat(dispatch(filter, requestUri, counter).forwardedPath).isNull();
+        }
+        assertThat(counter[0]).isEqualTo(5);
+    }
+
+    @Test
+    void doFilter_SameRoute_Cached() throws IOException, ServletException {
+        final SuffixToTypeDispatcher filter = filter(null);
+        final int[] counter = new int[1];
+        for (final String requestUri : new String[] {"/a/report.json", "/a/report.2013.json", "/a/report.json.br"}) {
+            final ServletMocks.Request first = dispatch(filter, requestUri, counter);
+            final ServletMocks.Request second = dispatch(filter, requestUri, counter);
+            assertThat(second.forwardedPath).isSameAs(first.forwardedPath);
+            assertThat(((HttpServletRequest) second.forwardedRequest).getHeader("Accept"))
+                    .isEqualTo(((HttpServletRequest) first.forwardedRequest).getHeader("Accept"));
+        }
+        assertThat(dispatch(filter, "/a/report.txt", counter).forwardedPath).isNull();
+        assertThat(counter[0]).isEqualTo(1);
+    }
+
+    @Test
+    void doFilter_Forwarded_CacheDisabled() throws IOException, ServletException {
+        final SuffixToTypeDispatcher filter = filter("0");
+        final int[] counter = new int[1];
+        final String first = dispatch(filter, "/a/report.2013.json", counter).forwardedPath;
+        final String second = dispatch(filter, "/a/report.2013.json", counter).forwardedPath;
+        assertThat(second).isEqualTo("/a/report.2013").isNotSameAs(first);
+    }
+}
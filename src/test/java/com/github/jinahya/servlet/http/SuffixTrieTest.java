@@ -0,0 +1,60 @@
+package com.github.jinahya.servlet.http;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * A class for unit-testing {@link SuffixTrie} class.
+ *
+ * @author Jin Kwon &lt;jinahya_at_gmail.com&gt;
+ */
+class SuffixTrieTest {
+
+    private static SuffixTrie<String> trie() {
+        final Map<String, String> map = new HashMap<>();
+        map.put("json", "application/json");
+        map.put("xml", "application/xml");
+        map.put("gz", "gzip");
+        map.put("json.gz", "json+gzip");
+        return new SuffixTrie<>(map);
+    }
+
+    private static String match(final SuffixTrie<String> trie, final String s) {
+        final int node = trie.match(s, 0, s.length());
+        return node == -1 ? null : trie.value(node) + ":" + trie.length(node);
+    }
+
+    @Test
+    void match_Matched_AfterDot() {
+        final SuffixTrie<String> trie = trie();
+        assertThat(match(trie, "/a/b.json")).isEqualTo("application/json:4");
+        assertThat(match(trie, "/a/b.xml")).isEqualTo("application/xml:3");
+        assertThat(match(trie, "/a/b.tar.gz")).isEqualTo("gzip:2");
+    }
+
+    @Test
+    void match_Longest_Compound() {
+        assertThat(match(trie(), "/a/b.json.gz")).isEqualTo("json+gzip:7");
+    }
+
+    @Test
+    void match_Unmatched_() {
+        final SuffixTrie<String> trie = trie();
+        assertThat(match(trie, "/a/b.xjson")).isNull();
+        assertThat(match(trie, "/a/json")).isNull();
+        assertThat(match(trie, "/a/b.json/c")).isNull();
+        assertThat(match(trie, "")).isNull();
+    }
+
+    @Test
+    void new_IllegalArgumentException_IllegalSuffix() {
+        final Map<String, String> map = new HashMap<>();
+        map.put(".json", "application/json");
+        assertThatThrownBy(() -> new SuffixTrie<>(map)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,133 @@
+package com.github.jinahya.servlet.http;
+
+import com.github.jinahya.servlet.ServletMocks;
+import jakarta.servlet.ServletException;
+
+import javax.xml.transform.Templates;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.transform.stream.StreamSource;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A standalone benchmark which compares transformer factories, as {@link XSLTFilter} would configure them, on
+ * specified stylesheet and document. It is not a unit test and is not run by the build; run it with the test class
+ * path, and the jar of each factory other than the JDK's, such as Xalan's, on the class path.
+ * <pre>
+ * java -cp ... com.github.jinahya.servlet.http.XSLTFactoryBenchmark \
+ *     style.xsl document.xml default org.apache.xalan.processor.TransformerFactoryImpl</pre>
+ * Each factory is given as the value of {@value XSLTFilter#INIT_PARAM_FACTORY}, or {@code default} for the JDK's
+ * XSLTC, and is loaded by name so that none but the JDK's is needed to build. Without stylesheet and document, a
+ * sample of the unit tests is used. Without factories, the JDK's XSLTC is compared with Xalan's interpretive
+ * processor.
+ *
+ * @author Jin Kwon &lt;jinahya_at_gmail.com&gt;
+ */
+public final class XSLTFactoryBenchmark {
+
+    private static final String DEFAULT = "default";
+
+    private static final String XALAN = "org.apache.xalan.processor.TransformerFactoryImpl";
+
+    private static final int WARMUPS = 2_000;
+
+    private static final int ITERATIONS = 10_000;
+
+    private static String sample() {
+        final StringBuilder builder = new StringBuilder("<a>");
+        for (int i = 0; i < 1_000; i++) {
+            builder.append("<b i=\"").append(i).append("\">").append(i).append("</b>");
+        }
+        return builder.append("</a>").toString();
+    }
+
+    /**
+     * Compiles and transforms with specified factory; prints the average time of each.
+     */
+    private static void run(final String factoryName, final byte[] stylesheet, final byte[] document)
+            throws TransformerException {
+        final Map<String, String> parameters = new HashMap<>();
+        if (!DEFAULT.equals(factoryName)) {
+            parameters.put(XSLTFilter.INIT_PARAM_FACTORY, factoryName);
+        }
+        final TransformerFactory factory;
+        try {
+            factory = TransformerFactories.newTransformerFactory(
+                    ServletMocks.filterConfig(new ServletMocks.Context(null).proxy(), parameters));
+        } catch (final ServletException se) {
+            System.out.printf("%s: skipped; %s%n", factoryName, se.getCause());
+            return;
+        }
+        for (int i = 0; i < WARMUPS / 10; i++) {
+            factory.newTemplates(new StreamSource(new ByteArrayInputStream(stylesheet)));
+        }
+        long started = System.nanoTime();
+        for (int i = 0; i < ITERATIONS / 10; i++) {
+            factory.newTemplates(new StreamSource(new ByteArrayInputStream(stylesheet)));
+        }
+        final long compile = (System.nanoTime() - started) / (ITERATIONS / 10);
+        final Templates templates = factory.newTemplates(new StreamSource(new ByteArrayInputStream(stylesheet)));
+        for (int i = 0; i < WARMUPS; i++) {
+            transform(templates, document);
+        }
+        started = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            transform(templates, document);
+        }
+        final long transform = (System.nanoTime() - started) / ITERATIONS;
+        System.out.printf("%s (%s): compile %d us/op, transform %d us/op%n", factoryName,
+                          factory.getClass().getName(), TimeUnit.NANOSECONDS.toMicros(compile),
+                          TimeUnit.NANOSECONDS.toMicros(transform));
+    }
+
+    private static void transform(final Templates templates, final byte[] document)
+            throws TransformerException {
+        templates.newTransformer().transform(
+                new StreamSource(new ByteArrayInputStream(document)),
+                new StreamResult(OutputStream.nullOutputStream()));
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args the path of the stylesheet, the path of the document, and the names of the factories; all
+     *             optional.
+     * @throws IOException          if failed to read the stylesheet or the document.
+     * @throws TransformerException if failed to compile or transform.
+     */
+    public static void main(final String... args) throws IOException, TransformerException {
+        final byte[] stylesheet;
+        final byte[] document;
+        final List<String> factoryNames = new ArrayList<>();
+        if (args.length >= 2) {
+            stylesheet = Files.readAllBytes(Paths.get(args[0]));
+            document = Files.readAllBytes(Paths.get(args[1]));
+            factoryNames.addAll(List.of(args).subList(2, args.length));
+        } else {
+            stylesheet = XSLTFilterTest.stylesheet("").getBytes(StandardCharsets.UTF_8);
+            document = sample().getBytes(StandardCharsets.UTF_8);
+        }
+        if (factoryNames.isEmpty()) {
+            factoryNames.add(DEFAULT);
+            factoryNames.add(XALAN);
+        }
+        for (final String factoryName : factoryNames) {
+            run(factoryName, stylesheet, document);
+        }
+    }
+
+    private XSLTFactoryBenchmark() {
+        throw new AssertionError("instantiation is not allowed");
+    }
+}
@@ -0,0 +1,614 @@
+package com.github.jinahya.servlet.http;
+
+import com.github.jinahya.servlet.ServletMocks;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.xml.XMLConstants;
+import javax.xml.transform.Templates;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * A class for unit-testing {@link XSLTFilter} class.
+ *
+ * @author Jin Kwon &lt;jinahya_at_gmail.com&gt;
+ */
+class XSLTFilterTest {
+
+    /**
+     * A filter transforms with a stylesheet whose resource is set by tests.
+     */
+    static class TestFilter extends XSLTFilter {
+
+        @Override
+        protected void getTransformerParameters(final Map<String, Object> parameters) {
+            transformingThread = Thread.currentThread();
+            final CountDownLatch gate = this.gate;
+            if (gate != null) {
+                try {
+                    gate.await();
+                } catch (final InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            parameters.putAll(this.parameters);
+        }
+
+        @Override
+        protected URL getStylesheetResource() {
+            return stylesheet;
+        }
+
+        @Override
+        protected String getOutputContentType() {
+            return "text/plain";
+        }
+
+        @Override
+        protected String getOutputCharacterEncoding() {
+            return "UTF-8";
+        }
+
+        volatile URL stylesheet;
+
+        /**
+         * A latch on which transformations wait, if set, before they get parameters.
+         */
+        volatile CountDownLatch gate;
+
+        volatile Thread transformingThread;
+
+        final Map<String, Object> parameters = new HashMap<>();
+    }
+
+    /**
+     * Returns a stylesheet which outputs specified prefix followed by the string value of the document.
+     */
+    static String stylesheet(final String prefix) {
+        return "<xsl:stylesheet version=\"1.0\" xmlns:xsl=\"http://www.w3.org/1999/XSL/Transform\">"
+               + "<xsl:output method=\"text\"/>"
+               + "<xsl:param name=\"p\"/>"
+               + "<xsl:template match=\"/\">" + prefix + "<xsl:value-of select=\"$p\"/>:<xsl:value-of select=\".\"/>"
+               + "</xsl:template></xsl:stylesheet>";
+    }
+
+    /**
+     * Returns a stylesheet which, if the parameter {@code p} is {@code spin}, recurses without output until the
+     * thread is interrupted, which takes forever otherwise.
+     */
+    static String spinning() {
+        return "<xsl:stylesheet version=\"1.0\" xmlns:xsl=\"http://www.w3.org/1999/XSL/Transform\""
+               + " xmlns:thread=\"http://xml.apache.org/xalan/java/java.lang.Thread\">"
+               + "<xsl:output method=\"text\"/>"
+               + "<xsl:param name=\"p\"/>"
+               + "<xsl:template match=\"/\">"
+               + "<xsl:if test=\"$p = 'spin'\"><xsl:call-template name=\"spin\">"
+               + "<xsl:with-param name=\"n\" select=\"62\"/></xsl:call-template></xsl:if>"
+               + "<xsl:value-of select=\".\"/></xsl:template>"
+               + "<xsl:template name=\"spin\"><xsl:param name=\"n\"/>"
+               + "<xsl:if test=\"$n &gt; 0 and not(thread:isInterrupted(thread:currentThread()))\">"
+               + "<xsl:call-template name=\"spin\"><xsl:with-param name=\"n\" select=\"$n - 1\"/></xsl:call-template>"
+               + "<xsl:call-template name=\"spin\"><xsl:with-param name=\"n\" select=\"$n - 1\"/></xsl:call-template>"
+               + "</xsl:if></xsl:template></xsl:stylesheet>";
+    }
+
+    static FilterChain chain(final int[] counter, final String body) {
+        return ServletMocks.chain(counter, (request, response) -> {
+            response.setContentType("application/xml");
+            response.getOutputStream().write(body.getBytes(StandardCharsets.UTF_8));
+        });
+    }
+
+    @BeforeEach
+    void createRoot() throws IOException {
+        root = Files.createTempDirectory("xslt").toFile();
+    }
+
+    @AfterEach
+    void deleteRoot() {
+        if (filter != null) {
+            filter.destroy();
+        }
+        for (final File file : root.listFiles()) {
+            file.delete();
+        }
+        root.delete();
+    }
+
+    TestFilter filter(final Map<String, String> parameters, final String stylesheet)
+            throws IOException, ServletException {
+        final File file = new File(root, "style.xsl");
+        Files.write(file.toPath(), stylesheet.getBytes(StandardCharsets.UTF_8));
+        context = new ServletMocks.Context(root);
+        filter = new TestFilter();
+        filter.stylesheet = file.toURI().toURL();
+        filter.init(ServletMocks.filterConfig(context.proxy(), parameters));
+        return filter;
+    }
+
+    ServletMocks.Response get(final FilterChain chain) throws IOException, ServletException {
+        final ServletMocks.Request request = new ServletMocks.Request("GET", "/a.xml");
+        request.context = context.proxy();
+        return get(request, chain);
+    }
+
+    ServletMocks.Response get(final ServletMocks.Request request, final FilterChain chain)
+            throws IOException, ServletException {
+        final ServletMocks.Response response = new ServletMocks.Response();
+        filter.doFilter(request.proxy(), response.proxy(), chain);
+        return response;
+    }
+
+    @Test
+    void doFilter_Transformed_Ok() throws IOException, ServletException {
+        filter(Map.of(), stylesheet("v1"));
+        final ServletMocks.Response response = get(chain(new int[1], "<a>b</a>"));
+        assertThat(response.status).isEqualTo(200);
+        assertThat(response.text()).isEqualTo("v1:b");
+        assertThat(response.proxy().getContentType()).isEqualTo("text/plain;charset=UTF-8");
+    }
+
+    @Test
+    void getTemplates_Recompiled_LastModifiedChanged() throws Exception {
+        filter(Map.of(XSLTFilter.INIT_PARAM_STYLESHEET_CHECK_INTERVAL, "0"), stylesheet("v1"));
+        final File file = new File(root, "style.xsl");
+        final Templates first = filter.getTemplates(filter.stylesheet);
+        assertThat(filter.getTemplates(filter.stylesheet)).isSameAs(first);
+        // touched without a change; the hash tells it's the same
+        assertThat(file.setLastModified(file.lastModified() - 10_000L)).isTrue();
+        assertThat(filter.getTemplates(filter.stylesheet)).isSameAs(first);
+        Files.write(file.toPath(), stylesheet("v2").getBytes(StandardCharsets.UTF_8));
+        assertThat(file.setLastModified(file.lastModified() + 20_000L)).isTrue();
+        assertThat(filter.getTemplates(filter.stylesheet)).isNotSameAs(first);
+        assertThat(get(chain(new int[1], "<a>b</a>")).text()).isEqualTo("v2:b");
+    }
+
+    @Test
+    void getTemplates_Recompiled_HashChangedWithoutLastModified() throws Exception {
+        filter(Map.of(XSLTFilter.INIT_PARAM_STYLESHEET_CHECK_INTERVAL, "0"), stylesheet("v1"));
+        final byte[][] content = {stylesheet("v1").getBytes(StandardCharsets.UTF_8)};
+        filter.stylesheet = new URL(null, "memory:/style.xsl", new URLStreamHandler() {
+            @Override
+            protected URLConnection openConnection(final URL u) {
+                return new URLConnection(u) {
+                    @Override
+                    public void connect() {
+                        // empty
+                    }
+
+                    @Override
+                    public InputStream getInputStream() {
+                        return new ByteArrayInputStream(content[0]);
+                    }
+                };
+            }
+        });
+        final Templates first = filter.getTemplates(filter.stylesheet);
+        assertThat(filter.getTemplates(filter.stylesheet)).isSameAs(first);
+        content[0] = stylesheet("v2").getBytes(StandardCharsets.UTF_8);
+        assertThat(filter.getTemplates(filter.stylesheet)).isNotSameAs(first);
+        assertThat(get(chain(new int[1], "<a>b</a>")).text()).isEqualTo("v2:b");
+    }
+
+    @Test
+    void getTemplates_NotChecked_WithinInterval() throws Exception {
+        filter(Map.of(XSLTFilter.INIT_PARAM_STYLESHEET_CHECK_INTERVAL, "-1"), stylesheet("v1"));
+        final File file = new File(root, "style.xsl");
+        final Templates first = filter.getTemplates(filter.stylesheet);
+        Files.write(file.toPath(), stylesheet("v2").getBytes(StandardCharsets.UTF_8));
+        assertThat(file.setLastModified(file.lastModified() + 20_000L)).isTrue();
+        assertThat(filter.getTemplates(filter.stylesheet)).isSameAs(first);
+    }
+
+    @Test
+    void doFilter_Transformed_Streaming() throws Exception {
+        filter(Map.of(XSLTFilter.INIT_PARAM_STREAMING, "true"), stylesheet("v1"));
+        final int[] counter = new int[1];
+        final StringBuilder body = new StringBuilder("<a>");
+        for (int i = 0; i < 10_000; i++) {
+            body.append("<b>").append(i % 10).append("</b>");
+        }
+        body.append("</a>");
+        final Thread[] threads = new Thread[4];
+        final String[] texts = new String[threads.length];
+        for (int i = 0; i < threads.length; i++) {
+            final int index = i;
+            threads[i] = new Thread(() -> {
+                try {
+                    texts[index] = get(chain(counter, body.toString())).text();
+                } catch (final IOException | ServletException e) {
+                    texts[index] = e.toString();
+                }
+            });
+            threads[i].start();
+        }
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+        for (final String text : texts) {
+            assertThat(text).startsWith("v1:0123456789").hasSize("v1:".length() + 10_000);
+        }
+    }
+
+    @Test
+    void doFilter_ContentLengthDropped_Streaming() throws Exception {
+        filter(Map.of(XSLTFilter.INIT_PARAM_STREAMING, "true"), stylesheet("v1"));
+        final byte[] body = "<a>b</a>".getBytes(StandardCharsets.UTF_8);
+        final List<BiConsumer<HttpServletResponse, Integer>> setters = List.of(
+                (r, n) -> r.setHeader("Content-Length", String.valueOf(n)),
+                (r, n) -> r.addHeader("Content-Length", String.valueOf(n)),
+                (r, n) -> r.setIntHeader("Content-Length", n),
+                (r, n) -> r.addIntHeader("Content-Length", n),
+                (r, n) -> r.setContentLengthLong(n));
+        for (final BiConsumer<HttpServletResponse, Integer> setter : setters) {
+            final ServletMocks.Response response = get(ServletMocks.chain(new int[1], (q, r) -> {
+                r.setContentType("application/xml");
+                setter.accept((HttpServletResponse) r, body.length);
+                r.getOutputStream().write(body);
+            }));
+            assertThat(response.text()).isEqualTo("v1:b");
+            assertThat(response.header("Content-Length")).isNull();
+        }
+    }
+
+    @Test
+    void doFilter_TransformedOnExecutor_Async() throws Exception {
+        filter(Map.of(XSLTFilter.INIT_PARAM_ASYNC, "true"), stylesheet("v1"));
+        final ServletMocks.Request request = new ServletMocks.Request("GET", "/a.xml");
+        request.asyncSupported = true;
+        final ServletMocks.Response response = get(request, chain(new int[1], "<a>b</a>"));
+        assertThat(request.proxy().isAsyncStarted()).isTrue();
+        assertThat(request.asyncCompleted.await(10L, TimeUnit.SECONDS)).isTrue();
+        assertThat(filter.transformingThread).isNotSameAs(Thread.currentThread());
+        assertThat(response.status).isEqualTo(200);
+        assertThat(response.text()).isEqualTo("v1:b");
+    }
+
+    @Test
+    void doFilter_TransformedInPlace_AsyncNotSupported() throws Exception {
+        filter(Map.of(XSLTFilter.INIT_PARAM_ASYNC, "true"), stylesheet("v1"));
+        final ServletMocks.Response response = get(chain(new int[1], "<a>b</a>"));
+        assertThat(filter.transformingThread).isSameAs(Thread.currentThread());
+        assertThat(response.text()).isEqualTo("v1:b");
+    }
+
+    @Test
+    void doFilter_ServiceUnavailable_ExecutorSaturated() throws Exception {
+        filter(Map.of(XSLTFilter.INIT_PARAM_ASYNC, "true",
+                      XSLTFilter.INIT_PARAM_EXECUTOR_THREADS, "1",
+                      XSLTFilter.INIT_PARAM_EXECUTOR_QUEUE, "0"), stylesheet("v1"));
+        filter.gate = new CountDownLatch(1);
+        final ServletMocks.Request first = new ServletMocks.Request("GET", "/a.xml");
+        first.asyncSupported = true;
+        final ServletMocks.Response firstResponse = get(first, chain(new int[1], "<a>b</a>"));
+        final ServletMocks.Request second = new ServletMocks.Request("GET", "/a.xml");
+        second.asyncSupported = true;
+        final ServletMocks.Response secondResponse = get(second, chain(new int[1], "<a>c</a>"));
+        assertThat(secondResponse.status).isEqualTo(503);
+        assertThat(secondResponse.header("Retry-After")).isEqualTo("1");
+        assertThat(second.asyncCompleted.getCount()).isZero();
+        filter.gate.countDown();
+        assertThat(first.asyncCompleted.await(10L, TimeUnit.SECONDS)).isTrue();
+        assertThat(firstResponse.text()).isEqualTo("v1:b");
+    }
+
+    @Test
+    void doFilter_ReaderReused_Sequential() throws Exception {
+        filter(Map.of(), stylesheet("v1"));
+        for (int i = 0; i < 3; i++) {
+            assertThat(get(chain(new int[1], "<a>b</a>")).text()).isEqualTo("v1:b");
+        }
+        assertThat(filter.getReaderPool().getMisses()).isEqualTo(1L);
+        assertThat(filter.getReaderPool().getHits()).isEqualTo(2L);
+    }
+
+    @Test
+    void doFilter_ReaderReused_Streaming() throws Exception {
+        filter(Map.of(XSLTFilter.INIT_PARAM_STREAMING, "true"), stylesheet("v1"));
+        for (int i = 0; i < 3; i++) {
+            assertThat(get(chain(new int[1], "<a>b</a>")).text()).isEqualTo("v1:b");
+        }
+        assertThat(filter.getReaderPool().getMisses()).isEqualTo(1L);
+        assertThat(filter.getReaderPool().getHits()).isEqualTo(2L);
+    }
+
+    @Test
+    void doFilter_InternalServerError_DoctypeNotAllowed() throws Exception {
+        filter(Map.of(), stylesheet("v1"));
+        final String body = "<!DOCTYPE a [<!ENTITY e \"x\">]><a>&e;</a>";
+        assertThat(get(chain(new int[1], body)).status).isEqualTo(500);
+        assertThat(get(chain(new int[1], "<a>b</a>")).text()).isEqualTo("v1:b");
+        assertThat(filter.getReaderPool().getMisses()).isEqualTo(1L);
+    }
+
+    @Test
+    void doFilter_DecodedAsDeclared_CharsetInContentType() throws Exception {
+        filter(Map.of(), stylesheet("v1"));
+        final FilterChain chain = ServletMocks.chain(new int[1], (request, response) -> {
+            response.setContentType("application/xml;charset=ISO-8859-1");
+            response.getOutputStream().write("<a>\u00e9</a>".getBytes(StandardCharsets.ISO_8859_1));
+        });
+        final ServletMocks.Response response = get(chain);
+        assertThat(response.text()).isEqualTo("v1:\u00e9");
+        assertThat(response.body()).isEqualTo("v1:\u00e9".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void doFilter_DecodedAsDeclared_XmlDeclaration() throws Exception {
+        filter(Map.of(), stylesheet("v1"));
+        final FilterChain chain = ServletMocks.chain(new int[1], (request, response) -> {
+            response.setContentType("application/xml");
+            response.getOutputStream().write(
+                    "<?xml version=\"1.0\" encoding=\"ISO-8859-1\"?><a>\u00e9</a>"
+                            .getBytes(StandardCharsets.ISO_8859_1));
+        });
+        assertThat(get(chain).text()).isEqualTo("v1:\u00e9");
+    }
+
+    @Test
+    void doFilter_DecodedAsEncoded_Writer() throws Exception {
+        filter(Map.of(), stylesheet("v1"));
+        final FilterChain chain = ServletMocks.chain(new int[1], (request, response) -> {
+            response.setContentType("application/xml");
+            response.setCharacterEncoding("UTF-16BE");
+            response.getWriter().write("<a>\u00e9\uac00</a>");
+        });
+        assertThat(get(chain).text()).isEqualTo("v1:\u00e9\uac00");
+    }
+
+    @Test
+    void doFilter_ResultCached_SameInputAndParameters() throws Exception {
+        filter(Map.of(XSLTFilter.INIT_PARAM_RESULT_CACHE_CAPACITY, "65536",
+                      XSLTFilter.INIT_PARAM_STYLESHEET_CHECK_INTERVAL, "0"), stylesheet("v1"));
+        filter.parameters.put("p", "x");
+        assertThat(get(chain(new int[1], "<a>b</a>")).text()).isEqualTo("v1x:b");
+        assertThat(filter.getResultCache().getMisses()).isEqualTo(1L);
+        final ServletMocks.Response hit = get(chain(new int[1], "<a>b</a>"));
+        assertThat(filter.getResultCache().getHits()).isEqualTo(1L);
+        assertThat(hit.text()).isEqualTo("v1x:b");
+        assertThat(hit.header("Content-Length")).isEqualTo("5");
+        assertThat(hit.proxy().getContentType()).isEqualTo("text/plain;charset=UTF-8");
+    }
+
+    @Test
+    void doFilter_ResultMissed_DifferentParametersOrEncoding() throws Exception {
+        filter(Map.of(XSLTFilter.INIT_PARAM_RESULT_CACHE_CAPACITY, "65536"), stylesheet("v1"));
+        filter.parameters.put("p", "x");
+        get(chain(new int[1], "<a>b</a>"));
+        filter.parameters.put("p", "y");
+        assertThat(get(chain(new int[1], "<a>b</a>")).text()).isEqualTo("v1y:b");
+        assertThat(get(chain(new int[1], "<a>c</a>")).text()).isEqualTo("v1y:c");
+        final byte[] body = "<a>\u00e9</a>".getBytes(StandardCharsets.ISO_8859_1);
+        for (final String charset : new String[] {"ISO-8859-1", "windows-1252", "ISO-8859-1"}) {
+            get(ServletMocks.chain(new int[1], (request, response) -> {
+                response.setContentType("application/xml;charset=" + charset);
+                response.getOutputStream().write(body);
+            }));
+        }
+        assertThat(filter.getResultCache().getMisses()).isEqualTo(5L);
+        assertThat(filter.getResultCache().getHits()).isEqualTo(1L);
+    }
+
+    @Test
+    void doFilter_ResultMissed_StylesheetChanged() throws Exception {
+        filter(Map.of(XSLTFilter.INIT_PARAM_RESULT_CACHE_CAPACITY, "65536",
+                      XSLTFilter.INIT_PARAM_STYLESHEET_CHECK_INTERVAL, "0"), stylesheet("v1"));
+        assertThat(get(chain(new int[1], "<a>b</a>")).text()).isEqualTo("v1:b");
+        final File file = new File(root, "style.xsl");
+        Files.write(file.toPath(), stylesheet("v2").getBytes(StandardCharsets.UTF_8));
+        assertThat(file.setLastModified(file.lastModified() + 20_000L)).isTrue();
+        assertThat(get(chain(new int[1], "<a>b</a>")).text()).isEqualTo("v2:b");
+        assertThat(filter.getResultCache().getHits()).isZero();
+    }
+
+    @Test
+    void doFilter_ResultNotCached_TemplatesNotVersioned() throws Exception {
+        filter(Map.of(XSLTFilter.INIT_PARAM_RESULT_CACHE_CAPACITY, "65536"), stylesheet("v1"));
+        final Templates templates = filter.getTemplates(filter.stylesheet);
+        final XSLTFilter unversioned = new TestFilter() {
+            @Override
+            protected Templates getTemplates(final URL resource) {
+                return templates;
+            }
+        };
+        ((TestFilter) unversioned).stylesheet = filter.stylesheet;
+        unversioned.init(ServletMocks.filterConfig(
+                context.proxy(), Map.of(XSLTFilter.INIT_PARAM_RESULT_CACHE_CAPACITY, "65536")));
+        try {
+            for (int i = 0; i < 2; i++) {
+                final ServletMocks.Response response = new ServletMocks.Response();
+                unversioned.doFilter(new ServletMocks.Request("GET", "/a.xml").proxy(), response.proxy(),
+                                     chain(new int[1], "<a>b</a>"));
+                assertThat(response.text()).isEqualTo("v1:b");
+            }
+            assertThat(unversioned.getResultCache().getHits()).isZero();
+            assertThat(unversioned.getResultCache().getMisses()).isZero();
+        } finally {
+            unversioned.destroy();
+        }
+    }
+
+    @Test
+    void doFilter_PassedThrough_ClientPrefersXml() throws Exception {
+        filter(Map.of(XSLTFilter.INIT_PARAM_CLIENT_HREF, "/style.xsl"), stylesheet("v1"));
+        final String body = "<?xml version=\"1.0\"?><a>b</a>";
+        final ServletMocks.Request request = new ServletMocks.Request("GET", "/a.xml")
+                .header("Accept", "text/plain;q=0.5, application/xml");
+        final ServletMocks.Response response = get(request, chain(new int[1], body));
+        assertThat(response.text()).isEqualTo(
+                "<?xml version=\"1.0\"?><?xml-stylesheet type=\"text/xsl\" href=\"/style.xsl\"?><a>b</a>");
+        assertThat(response.header("Vary")).isEqualTo("Accept");
+    }
+
+    @Test
+    void doFilter_Transformed_ClientPrefersOutputOrTies() throws Exception {
+        filter(Map.of(XSLTFilter.INIT_PARAM_CLIENT_HREF, "/style.xsl"), stylesheet("v1"));
+        for (final String accept : new String[] {"text/plain, application/xml;q=0.5", "*/*", "text/*, text/xml",
+                                                 "application/xml;q=0"}) {
+            final ServletMocks.Request request = new ServletMocks.Request("GET", "/a.xml").header("Accept", accept);
+            assertThat(get(request, chain(new int[1], "<a>b</a>")).text()).as(accept).isEqualTo("v1:b");
+        }
+        assertThat(get(chain(new int[1], "<a>b</a>")).text()).isEqualTo("v1:b");
+    }
+
+    @Test
+    void init_WarmedUp_Document() throws Exception {
+        Files.write(new File(root, "sample.xml").toPath(), "<a>b</a>".getBytes(StandardCharsets.UTF_8));
+        filter(Map.of(XSLTFilter.INIT_PARAM_WARMUP_DOCUMENT, "/sample.xml",
+                      XSLTFilter.INIT_PARAM_WARMUP_ITERATIONS, "3"), stylesheet("v1"));
+        assertThat(context.logs).hasSize(2);
+        assertThat(context.logs.get(0)).startsWith("filter: precompiled ");
+        assertThat(context.logs.get(1)).startsWith("filter: warmed up with 3 transformation(s) of /sample.xml");
+        assertThat(filter.getReaderPool().getMisses()).isEqualTo(1L);
+        assertThat(filter.getReaderPool().getHits()).isEqualTo(2L);
+        assertThat(get(chain(new int[1], "<a>b</a>")).text()).isEqualTo("v1:b");
+    }
+
+    @Test
+    void init_ServletException_MalformedStylesheetPrecompiled() {
+        assertThatThrownBy(() -> filter(Map.of(XSLTFilter.INIT_PARAM_PRECOMPILE, "true"), "<xsl:stylesheet"))
+                .isInstanceOf(ServletException.class);
+    }
+
+    @Test
+    void init_ServletException_MissingDocument() {
+        assertThatThrownBy(() -> filter(Map.of(XSLTFilter.INIT_PARAM_WARMUP_DOCUMENT, "/missing.xml"),
+                                        stylesheet("v1")))
+                .isInstanceOf(ServletException.class)
+                .hasMessageContaining(XSLTFilter.INIT_PARAM_WARMUP_DOCUMENT);
+    }
+
+    @Test
+    void init_NotCompiled_NotPrecompiled() throws Exception {
+        filter(Map.of(), "<xsl:stylesheet");
+        assertThat(context.logs).isEmpty();
+        assertThat(get(chain(new int[1], "<a>b</a>")).status).isEqualTo(500);
+    }
+
+    @Test
+    void init_ServletException_UnknownFactory() {
+        assertThatThrownBy(() -> filter(Map.of(XSLTFilter.INIT_PARAM_FACTORY, "com.example.None"), stylesheet("v1")))
+                .isInstanceOf(ServletException.class)
+                .hasMessageContaining(XSLTFilter.INIT_PARAM_FACTORY);
+    }
+
+    @Test
+    void init_FeatureSet_FactoryFeature() throws Exception {
+        filter(Map.of(XSLTFilter.INIT_PARAM_FACTORY_FEATURE_PREFIX + XMLConstants.FEATURE_SECURE_PROCESSING, "true",
+                      XSLTFilter.INIT_PARAM_DEADLINE, "5000"), spinning());
+        assertThat(filter.getTransformerFactory().getFeature(XMLConstants.FEATURE_SECURE_PROCESSING)).isTrue();
+        // extension functions are not allowed in secure processing
+        filter.parameters.put("p", "spin");
+        assertThat(get(chain(new int[1], "<a>b</a>")).status).isEqualTo(500);
+    }
+
+    /**
+     * Gets until the executor, of a single thread, takes the request; that is, until the abandoned transformation
+     * stops.
+     */
+    ServletMocks.Response getWhenIdle(final FilterChain chain) throws Exception {
+        for (int i = 0; i < 100; i++) {
+            final ServletMocks.Response response = get(chain);
+            if (response.status != 503) {
+                return response;
+            }
+            Thread.sleep(50L);
+        }
+        throw new AssertionError("the abandoned transformation is still running");
+    }
+
+    @Test
+    void doFilter_ServiceUnavailable_DeadlineExceededWithoutOutput() throws Exception {
+        filter(Map.of(XSLTFilter.INIT_PARAM_DEADLINE, "200",
+                      XSLTFilter.INIT_PARAM_EXECUTOR_THREADS, "1",
+                      XSLTFilter.INIT_PARAM_EXECUTOR_QUEUE, "0"), spinning());
+        filter.parameters.put("p", "spin");
+        final long started = System.nanoTime();
+        final ServletMocks.Response response = get(chain(new int[1], "<a>b</a>"));
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)).isLessThan(5_000L);
+        assertThat(response.status).isEqualTo(503);
+        assertThat(response.body()).isEmpty();
+        assertThat(filter.getDeadlineExceededCount()).isEqualTo(1L);
+        filter.parameters.put("p", "");
+        final ServletMocks.Response next = getWhenIdle(chain(new int[1], "<a>b</a>"));
+        assertThat(next.status).isEqualTo(200);
+        assertThat(next.text()).isEqualTo("b");
+    }
+
+    @Test
+    void doFilter_ServiceUnavailable_DeadlineExceededWhileStreaming() throws Exception {
+        filter(Map.of(XSLTFilter.INIT_PARAM_STREAMING, "true",
+                      XSLTFilter.INIT_PARAM_DEADLINE, "200",
+                      XSLTFilter.INIT_PARAM_EXECUTOR_THREADS, "1",
+                      XSLTFilter.INIT_PARAM_EXECUTOR_QUEUE, "0"), spinning());
+        filter.parameters.put("p", "spin");
+        final ServletMocks.Response response = get(chain(new int[1], "<a>b</a>"));
+        assertThat(response.status).isEqualTo(503);
+        assertThat(filter.getDeadlineExceededCount()).isEqualTo(1L);
+        filter.parameters.put("p", "");
+        assertThat(getWhenIdle(chain(new int[1], "<a>b</a>")).text()).isEqualTo("b");
+    }
+
+    @Test
+    void doFilter_ServiceUnavailable_AsyncTimedOut() throws Exception {
+        filter(Map.of(XSLTFilter.INIT_PARAM_ASYNC, "true",
+                      XSLTFilter.INIT_PARAM_DEADLINE, "200"), spinning());
+        filter.parameters.put("p", "spin");
+        final ServletMocks.Request request = new ServletMocks.Request("GET", "/a.xml");
+        request.asyncSupported = true;
+        final ServletMocks.Response response = get(request, chain(new int[1], "<a>b</a>"));
+        assertThat(request.asyncTimeout).isEqualTo(200L);
+        Thread.sleep(200L);
+        request.timeout(); // as the container would
+        assertThat(request.asyncCompleted.getCount()).isZero();
+        assertThat(response.status).isEqualTo(503);
+        assertThat(filter.getDeadlineExceededCount()).isEqualTo(1L);
+    }
+
+    @Test
+    void doFilter_ServiceUnavailable_AsyncTimedOutWithoutDeadline() throws Exception {
+        filter(Map.of(XSLTFilter.INIT_PARAM_ASYNC, "true"), stylesheet("v1"));
+        final CountDownLatch gate = new CountDownLatch(1);
+        filter.gate = gate;
+        final ServletMocks.Request request = new ServletMocks.Request("GET", "/a.xml");
+        request.asyncSupported = true;
+        request.asyncTimeout = 30_000L; // the default of the container
+        final ServletMocks.Response response = get(request, chain(new int[1], "<a>b</a>"));
+        assertThat(request.asyncTimeout).isZero();
+        request.timeout(); // as the container would, if it ignored the disabled timeout
+        assertThat(request.asyncCompleted.getCount()).isZero();
+        assertThat(response.status).isEqualTo(503);
+        assertThat(filter.getDeadlineExceededCount()).isZero();
+        gate.countDown();
+        Thread.sleep(100L);
+        assertThat(response.body()).isEmpty();
+        assertThat(response.status).isEqualTo(503);
+    }
+
+    File root;
+
+    ServletMocks.Context context;
+
+    TestFilter filter;
+}